@@ -1,11 +1,21 @@
 package org.jbei.ice;
 
+import org.jbei.ice.lib.access.EntryAccessBuildTask;
 import org.jbei.ice.lib.account.AccountController;
+import org.jbei.ice.lib.account.SessionReaperTask;
+import org.jbei.ice.lib.account.UserSessions;
 import org.jbei.ice.lib.common.logging.Logger;
+import org.jbei.ice.lib.config.ConfigurationCache;
+import org.jbei.ice.lib.config.ConfigurationRefreshTask;
 import org.jbei.ice.lib.config.ConfigurationSettings;
-import org.jbei.ice.lib.entry.sequence.annotation.AutoAnnotationBlastDbBuildTask;
+import org.jbei.ice.lib.entry.sequence.PackedSequenceCleanupTask;
+import org.jbei.ice.lib.entry.sequence.SequenceStorageMigrationTask;
+import org.jbei.ice.lib.entry.sequence.annotation.AutoAnnotationBuildTask;
 import org.jbei.ice.lib.executor.IceExecutorService;
+import org.jbei.ice.lib.executor.TaskQueue;
 import org.jbei.ice.lib.group.GroupController;
+import org.jbei.ice.lib.net.PartnerIndexTask;
+import org.jbei.ice.lib.search.FilterIndexTask;
 import org.jbei.ice.lib.search.blast.RebuildBlastIndexTask;
 
 /**
@@ -22,6 +32,7 @@ public class ApplicationInitialize {
      */
     public static void startUp() {
         IceExecutorService.getInstance().startService();
+        TaskQueue.getInstance().start();
 
         // check for and create public group
         GroupController groupController = new GroupController();
@@ -34,14 +45,40 @@ public class ApplicationInitialize {
         // check for and create default settings
         ConfigurationSettings settings = new ConfigurationSettings();
         settings.initPropertyValues();
+        ConfigurationCache.getInstance().reload();
+
+        // session store and expiry
+        UserSessions.initialize();
 
         try {
             // check blast database exists and build if it doesn't
             RebuildBlastIndexTask task = new RebuildBlastIndexTask();
             IceExecutorService.getInstance().runTask(task);
 
-            AutoAnnotationBlastDbBuildTask autoAnnotationBlastDbBuildTask = new AutoAnnotationBlastDbBuildTask();
-            IceExecutorService.getInstance().runTask(autoAnnotationBlastDbBuildTask);
+            // build auto annotation feature matcher and rebuild it daily to pick up new features
+            IceExecutorService.getInstance().runTask(new AutoAnnotationBuildTask());
+            AutoAnnotationBuildTask.schedule();
+
+            // indexes for text filters
+            IceExecutorService.getInstance().runTask(new FilterIndexTask());
+
+            // pack residues of sequences stored before packed storage
+            IceExecutorService.getInstance().runTask(new SequenceStorageMigrationTask());
+
+            // periodically delete packed residues no longer referenced by any sequence
+            PackedSequenceCleanupTask.schedule();
+
+            // effective access to entries for permission checks
+            IceExecutorService.getInstance().runTask(new EntryAccessBuildTask());
+
+            // periodically sync local index of partner entries
+            PartnerIndexTask.schedule();
+
+            // periodically remove expired user sessions
+            SessionReaperTask.schedule();
+
+            // pick up settings changed by other instances (if enabled)
+            ConfigurationRefreshTask.schedule();
         } catch (Exception e) {
             Logger.error(e);
         }
@@ -0,0 +1,67 @@
+package org.jbei.ice.lib.access;
+
+import java.util.Collections;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Immutable snapshot of the principals that determine which entries an account can read; whether it is an
+ * administrator, the groups it is a member of and the folders it has been granted read access to.
+ * <p>
+ * Instances are used as the key of the (cached) search security filter so two instances are equal only if all
+ * their principals are
+ *
+ * @author Hector Plahar
+ */
+public class AccountPrincipals {
+
+    private final String email;
+    private final boolean administrator;
+    private final Set<String> groupUUIDs;
+    private final Set<String> folderIds;
+
+    public AccountPrincipals(String email, boolean administrator, Set<String> groupUUIDs, Set<String> folderIds) {
+        this.email = email;
+        this.administrator = administrator;
+        this.groupUUIDs = Collections.unmodifiableSet(groupUUIDs);
+        this.folderIds = Collections.unmodifiableSet(folderIds);
+    }
+
+    /**
+     * @return email of account, or null for an anonymous user
+     */
+    public String getEmail() {
+        return email;
+    }
+
+    public boolean isAdministrator() {
+        return administrator;
+    }
+
+    public Set<String> getGroupUUIDs() {
+        return groupUUIDs;
+    }
+
+    public Set<String> getFolderIds() {
+        return folderIds;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o)
+            return true;
+        if (o == null || getClass() != o.getClass())
+            return false;
+
+        AccountPrincipals that = (AccountPrincipals) o;
+        return administrator == that.administrator
+                && Objects.equals(email, that.email)
+                && groupUUIDs.equals(that.groupUUIDs)
+                && folderIds.equals(that.folderIds);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(email, administrator, groupUUIDs, folderIds);
+    }
+}
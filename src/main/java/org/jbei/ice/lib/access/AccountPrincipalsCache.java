@@ -0,0 +1,135 @@
+package org.jbei.ice.lib.access;
+
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.CacheLoader;
+import com.google.common.cache.LoadingCache;
+import org.apache.commons.lang3.StringUtils;
+import org.hibernate.Transaction;
+import org.jbei.ice.lib.account.AccountType;
+import org.jbei.ice.lib.folder.Folders;
+import org.jbei.ice.lib.group.GroupController;
+import org.jbei.ice.storage.DAOFactory;
+import org.jbei.ice.storage.hibernate.HibernateUtil;
+import org.jbei.ice.storage.model.Account;
+
+import javax.transaction.Synchronization;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounded cache of the {@link AccountPrincipals} for accounts, to avoid retrieving an account's admin status, groups
+ * and readable folders on each search.
+ * <p>
+ * Entries are invalidated when group membership, account type or folder permissions change (and again when the
+ * transaction making the change completes, since principals loaded before it commits are those of the previous
+ * state). Since folder permissions can be granted to groups, a folder permission change invalidates all
+ * entries. Entries also expire
+ * a few minutes after they are loaded as a safeguard against changes that are not explicitly invalidated
+ *
+ * @author Hector Plahar
+ */
+public class AccountPrincipalsCache {
+
+    private static final AccountPrincipalsCache INSTANCE = new AccountPrincipalsCache();
+    private static final int MAXIMUM_SIZE = 2000;
+    private static final int EXPIRE_MINUTES = 5;
+
+    private final LoadingCache<String, AccountPrincipals> cache;
+    private final AccountPrincipals anonymous;
+
+    private AccountPrincipalsCache() {
+        cache = CacheBuilder.newBuilder()
+                .maximumSize(MAXIMUM_SIZE)
+                .expireAfterWrite(EXPIRE_MINUTES, TimeUnit.MINUTES)
+                .build(new CacheLoader<String, AccountPrincipals>() {
+                    @Override
+                    public AccountPrincipals load(String key) {
+                        return retrieve(key);
+                    }
+                });
+        anonymous = new AccountPrincipals(null, false,
+                Collections.singleton(GroupController.PUBLIC_GROUP_UUID), Collections.emptySet());
+    }
+
+    public static AccountPrincipalsCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Retrieves the principals for the specified user, loading them if they are not cached
+     *
+     * @param userId unique identifier (email) for user. Can be null or empty for anonymous users
+     * @return principals for user
+     */
+    public AccountPrincipals get(String userId) {
+        if (StringUtils.isBlank(userId))
+            return anonymous;
+        return cache.getUnchecked(key(userId));
+    }
+
+    /**
+     * Evicts the cached principals for the specified user. Expected to be called when the user's account type or
+     * group membership changes
+     *
+     * @param userId unique identifier (email) for user
+     */
+    public void invalidate(String userId) {
+        if (StringUtils.isBlank(userId))
+            return;
+        String key = key(userId);
+        invalidateOnCompletion(() -> cache.invalidate(key));
+    }
+
+    /**
+     * Evicts all cached principals. Expected to be called on changes that can affect any number of users, such as
+     * folder permission changes, or the deletion of a group
+     */
+    public void invalidateAll() {
+        invalidateOnCompletion(cache::invalidateAll);
+    }
+
+    /**
+     * Runs the invalidation now and again when the current transaction (if any) completes. Until the change is
+     * committed, principals loaded after the first invalidation are still those of the previous state; the second
+     * invalidation evicts them
+     */
+    private void invalidateOnCompletion(Runnable invalidation) {
+        invalidation.run();
+
+        Transaction transaction = HibernateUtil.getSessionFactory().getCurrentSession().getTransaction();
+        if (!transaction.isActive())
+            return;
+
+        transaction.registerSynchronization(new Synchronization() {
+            @Override
+            public void beforeCompletion() {
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                invalidation.run();
+            }
+        });
+    }
+
+    private static String key(String userId) {
+        return userId.trim().toLowerCase();
+    }
+
+    private AccountPrincipals retrieve(String userId) {
+        Account account = DAOFactory.getAccountDAO().getByEmail(userId);
+        if (account == null) {
+            return new AccountPrincipals(userId, false, Collections.singleton(GroupController.PUBLIC_GROUP_UUID),
+                    Collections.emptySet());
+        }
+
+        if (account.getType() == AccountType.ADMIN)
+            return new AccountPrincipals(account.getEmail(), true, Collections.emptySet(), Collections.emptySet());
+
+        Set<String> groupUUIDs = new HashSet<>(new GroupController().retrieveAccountGroupUUIDs(account.getEmail()));
+        Set<String> folderIds = new HashSet<>(new Folders(account.getEmail()).getCanReadFolderIds());
+        return new AccountPrincipals(account.getEmail(), false, groupUUIDs, folderIds);
+    }
+}
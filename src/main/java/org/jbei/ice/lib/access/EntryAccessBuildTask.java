@@ -0,0 +1,83 @@
+package org.jbei.ice.lib.access;
+
+import org.hibernate.Transaction;
+import org.jbei.ice.lib.common.logging.Logger;
+import org.jbei.ice.lib.executor.Task;
+import org.jbei.ice.lib.executor.TaskLane;
+import org.jbei.ice.storage.DAOFactory;
+import org.jbei.ice.storage.hibernate.HibernateUtil;
+import org.jbei.ice.storage.hibernate.dao.ConfigurationDAO;
+import org.jbei.ice.storage.model.Configuration;
+import org.jbei.ice.storage.model.EntryAccessModel;
+
+import javax.transaction.Status;
+import javax.transaction.Synchronization;
+
+/**
+ * Task to derive the effective access to entries ({@link EntryAccessModel}) from existing permissions and folders.
+ * Run on startup; once the access has been derived it is maintained as permissions and folders change, so this only
+ * does any work the first time it is run against a database.
+ * <p>
+ * Until the access has been derived, entry permission checks use the permission table directly (see
+ * {@link #isBuilt()})
+ *
+ * @author Hector Plahar
+ */
+public class EntryAccessBuildTask extends Task {
+
+    // stored once the access has been derived
+    private static final String BUILT_KEY = "ENTRY_ACCESS_BUILT";
+
+    private static volatile boolean built;
+
+    /**
+     * @return true if the effective access to entries has been derived and can be used for permission checks
+     */
+    public static boolean isBuilt() {
+        return built;
+    }
+
+    @Override
+    public TaskLane getLane() {
+        return TaskLane.MAINTENANCE;
+    }
+
+    @Override
+    public int getPriority() {
+        return LOW_PRIORITY;
+    }
+
+    @Override
+    public String getKey() {
+        return "entry-access";
+    }
+
+    @Override
+    public void execute() {
+        ConfigurationDAO configurationDAO = DAOFactory.getConfigurationDAO();
+        if (configurationDAO.get(BUILT_KEY) != null) {
+            built = true;
+            return;
+        }
+
+        Logger.info("Deriving effective access to entries");
+        int count = DAOFactory.getEntryAccessDAO().rebuild();
+        configurationDAO.create(new Configuration(BUILT_KEY, "true"));
+
+        // only used once committed
+        Transaction transaction = HibernateUtil.getSessionFactory().getCurrentSession().getTransaction();
+        transaction.registerSynchronization(new Synchronization() {
+            @Override
+            public void beforeCompletion() {
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status == Status.STATUS_COMMITTED) {
+                    built = true;
+                    Logger.info("Derived " + count + " entry access record(s)");
+                }
+            }
+        });
+    }
+}
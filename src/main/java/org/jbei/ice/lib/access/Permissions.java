@@ -53,6 +53,9 @@ public abstract class Permissions extends HasEntry {
         permission.setAccount(account);
         permission.setCanRead(access.isCanRead());
         permission.setCanWrite(access.isCanWrite());
-        return permissionDAO.create(permission);
+        permission = permissionDAO.create(permission);
+        if (folder != null)
+            AccountPrincipalsCache.getInstance().invalidateAll();
+        return permission;
     }
 }
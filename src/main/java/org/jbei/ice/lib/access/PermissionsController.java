@@ -117,7 +117,10 @@ public class PermissionsController {
         permission.setAccount(account);
         permission.setCanRead(access.isCanRead());
         permission.setCanWrite(access.isCanWrite());
-        return dao.create(permission);
+        permission = dao.create(permission);
+        if (folder != null)
+            AccountPrincipalsCache.getInstance().invalidateAll();
+        return permission;
     }
 
     public void removePermission(String userId, AccessPermission access) {
@@ -176,6 +179,8 @@ public class PermissionsController {
         }
 
         dao.removePermission(entry, folder, upload, account, group, access.isCanRead(), access.isCanWrite());
+        if (folder != null)
+            AccountPrincipalsCache.getInstance().invalidateAll();
     }
 
     public boolean accountHasReadPermission(Account account, Set<Folder> folders) {
@@ -332,6 +337,7 @@ public class PermissionsController {
         folderAuthorization.expectWrite(userId, folder);
 
         dao.clearPermissions(folder);
+        AccountPrincipalsCache.getInstance().invalidateAll();
 
         if (permissions == null)
             return null;
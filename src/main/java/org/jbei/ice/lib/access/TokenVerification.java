@@ -39,25 +39,16 @@ public class TokenVerification {
      * @return user id according to api keys validation
      */
     public String verifyAPIKey(String token, String clientId, String userId) {
-        // hash = (token, client + salt + client)
-
-        Optional<ApiKey> optionalKey = DAOFactory.getApiKeyDAO().getByClientId(clientId);
-        if (!optionalKey.isPresent())
-            throw new PermissionException("Invalid client Id " + clientId);
-
-        ApiKey key = optionalKey.get();
-        String hash_token = tokenHash.encrypt(token, clientId + key.getSecret() + clientId);
-        if (!hash_token.equalsIgnoreCase(key.getHashedToken()))
-            throw new PermissionException("Invalid token");
+        VerifiedCredentialCache.ApiKeyCredential credential = verifyAPIKeyToken(token, clientId);
 
         // validate owner; must have a valid account on this instance
         AccountDAO accountDAO = DAOFactory.getAccountDAO();
-        Account account = accountDAO.getByEmail(key.getOwnerEmail());
+        Account account = accountDAO.getByEmail(credential.getOwnerEmail());
         if (account == null)
             throw new PermissionException("Invalid token owner");   // this really shouldn't happen
 
         // return owner if none specified
-        if (userId == null || key.getOwnerEmail().equalsIgnoreCase(userId))
+        if (userId == null || credential.getOwnerEmail().equalsIgnoreCase(userId))
             return account.getEmail();
 
         // must be admin
@@ -65,13 +56,19 @@ public class TokenVerification {
             throw new PermissionException("Invalid API key request.");
 
         // check if validation is allowed
-        if (key.getAllowDelegate() == null || !key.getAllowDelegate())
+        if (!credential.isAllowDelegate())
             throw new PermissionException("Invalid API key request. Delegation not permitted.");
 
         return userId;
     }
 
     public RegistryPartner verifyPartnerToken(String url, String token) {
+        VerifiedCredentialCache cache = VerifiedCredentialCache.getInstance();
+        RegistryPartner partner = cache.getPartner(url, token);
+        if (partner != null)
+            return partner;
+
+        long verificationStart = cache.startVerification();
         RemotePartner remotePartner = DAOFactory.getRemotePartnerDAO().getByUrl(url);
         if (remotePartner == null)
             return null;
@@ -79,6 +76,33 @@ public class TokenVerification {
         String hash = this.tokenHash.encrypt(token + url, remotePartner.getSalt());
         if (!hash.equals(remotePartner.getAuthenticationToken()))
             return null;
-        return remotePartner.toDataTransferObject();
+
+        partner = remotePartner.toDataTransferObject();
+        cache.putPartner(url, token, partner, verificationStart);
+        return partner;
+    }
+
+    // verifies the token against the stored api key (hash = (token, client + salt + client)), unless it has
+    // recently been verified
+    private VerifiedCredentialCache.ApiKeyCredential verifyAPIKeyToken(String token, String clientId) {
+        VerifiedCredentialCache cache = VerifiedCredentialCache.getInstance();
+        VerifiedCredentialCache.ApiKeyCredential credential = cache.getApiKey(clientId, token);
+        if (credential != null)
+            return credential;
+
+        long verificationStart = cache.startVerification();
+        Optional<ApiKey> optionalKey = DAOFactory.getApiKeyDAO().getByClientId(clientId);
+        if (!optionalKey.isPresent())
+            throw new PermissionException("Invalid client Id " + clientId);
+
+        ApiKey key = optionalKey.get();
+        String hash_token = tokenHash.encrypt(token, clientId + key.getSecret() + clientId);
+        if (!hash_token.equalsIgnoreCase(key.getHashedToken()))
+            throw new PermissionException("Invalid token");
+
+        boolean allowDelegate = key.getAllowDelegate() != null && key.getAllowDelegate();
+        credential = new VerifiedCredentialCache.ApiKeyCredential(key.getOwnerEmail(), allowDelegate);
+        cache.putApiKey(clientId, token, credential, verificationStart);
+        return credential;
     }
 }
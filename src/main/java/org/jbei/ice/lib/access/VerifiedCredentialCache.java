@@ -0,0 +1,257 @@
+package org.jbei.ice.lib.access;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import org.hibernate.Transaction;
+import org.jbei.ice.lib.dto.CacheRegionInfo;
+import org.jbei.ice.lib.dto.web.RegistryPartner;
+import org.jbei.ice.storage.hibernate.HibernateUtil;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import javax.transaction.Synchronization;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded cache of successful API key and web of registries partner token verifications, to avoid re-deriving
+ * the (deliberately slow) token hash and retrieving the stored key on each request.
+ * <p>
+ * Entries are keyed on the client id (API keys) or partner url and hold an HMAC of the verified token, computed
+ * with a key generated on startup; tokens are not stored. A token that does not match the cached HMAC is
+ * verified as usual. Only successful verifications are cached.
+ * <p>
+ * Entries are invalidated when the API key or partner is updated or removed (and again when the transaction making
+ * the change completes), and expire a few minutes after they are verified as a safeguard against changes that are
+ * not explicitly invalidated
+ *
+ * @author Hector Plahar
+ */
+public class VerifiedCredentialCache {
+
+    private static final VerifiedCredentialCache INSTANCE = new VerifiedCredentialCache();
+    private static final int MAXIMUM_SIZE = 1000;
+    private static final int EXPIRE_MINUTES = 5;
+    private static final String HMAC_ALGORITHM = "HmacSHA256";
+
+    private final CredentialCache<ApiKeyCredential> apiKeys;
+    private final CredentialCache<RegistryPartner> partners;
+    private final SecretKeySpec secret;
+    private final AtomicLong invalidations = new AtomicLong();
+
+    private VerifiedCredentialCache() {
+        byte[] key = new byte[32];
+        new SecureRandom().nextBytes(key);
+        secret = new SecretKeySpec(key, HMAC_ALGORITHM);
+        apiKeys = new CredentialCache<>("api-keys");
+        partners = new CredentialCache<>("partner-tokens");
+    }
+
+    public static VerifiedCredentialCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Marks the start of a verification. A verification that started before an invalidation is not cached, since
+     * it could have used the credentials that were invalidated
+     *
+     * @return value to pass when caching the result of the verification
+     */
+    public long startVerification() {
+        return invalidations.get();
+    }
+
+    /**
+     * @param clientId client identifier for the API key
+     * @param token    API token
+     * @return cached result of verifying the token, or null if the token has not been verified
+     */
+    public ApiKeyCredential getApiKey(String clientId, String token) {
+        return apiKeys.get(clientId, token);
+    }
+
+    public void putApiKey(String clientId, String token, ApiKeyCredential credential, long verificationStart) {
+        apiKeys.put(clientId, token, credential, verificationStart);
+    }
+
+    /**
+     * Evicts the verification of the API key with the specified client id. Expected to be called when the key is
+     * updated or deleted
+     *
+     * @param clientId client identifier for the API key
+     */
+    public void invalidateApiKey(String clientId) {
+        invalidateOnCompletion(() -> {
+            invalidations.incrementAndGet();
+            apiKeys.invalidate(clientId);
+        });
+    }
+
+    /**
+     * @param url   partner url
+     * @param token partner token
+     * @return partner the token was verified for, or null if the token has not been verified
+     */
+    public RegistryPartner getPartner(String url, String token) {
+        return partners.get(url, token);
+    }
+
+    public void putPartner(String url, String token, RegistryPartner partner, long verificationStart) {
+        partners.put(url, token, partner, verificationStart);
+    }
+
+    /**
+     * Evicts the verification of the token for the partner with the specified url. Expected to be called when
+     * the partner (or its token) is updated or removed
+     *
+     * @param url partner url
+     */
+    public void invalidatePartner(String url) {
+        invalidateOnCompletion(() -> {
+            invalidations.incrementAndGet();
+            partners.invalidate(url);
+        });
+    }
+
+    public void invalidateAll() {
+        invalidations.incrementAndGet();
+        apiKeys.invalidateAll();
+        partners.invalidateAll();
+    }
+
+    /**
+     * @return hit and miss counts for the cached API key and partner token verifications
+     */
+    public List<CacheRegionInfo> getStatistics() {
+        return Arrays.asList(apiKeys.getStatistics(), partners.getStatistics());
+    }
+
+    /**
+     * Runs the invalidation now and again when the current transaction (if any) completes. Until the change is
+     * committed, a verification that starts after the first invalidation still sees the stored credentials and
+     * caches them; the second invalidation evicts that result
+     */
+    private void invalidateOnCompletion(Runnable invalidation) {
+        invalidation.run();
+
+        Transaction transaction = HibernateUtil.getSessionFactory().getCurrentSession().getTransaction();
+        if (!transaction.isActive())
+            return;
+
+        transaction.registerSynchronization(new Synchronization() {
+            @Override
+            public void beforeCompletion() {
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                invalidation.run();
+            }
+        });
+    }
+
+    private byte[] digest(String token) {
+        try {
+            Mac mac = Mac.getInstance(HMAC_ALGORITHM);
+            mac.init(secret);
+            return mac.doFinal(token.getBytes(StandardCharsets.UTF_8));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Verified API key. The owner's account is not cached and is expected to be checked on each request
+     */
+    public static class ApiKeyCredential {
+
+        private final String ownerEmail;
+        private final boolean allowDelegate;
+
+        public ApiKeyCredential(String ownerEmail, boolean allowDelegate) {
+            this.ownerEmail = ownerEmail;
+            this.allowDelegate = allowDelegate;
+        }
+
+        public String getOwnerEmail() {
+            return ownerEmail;
+        }
+
+        public boolean isAllowDelegate() {
+            return allowDelegate;
+        }
+    }
+
+    // verifications of one type of credential, keyed on the credential identifier
+    private class CredentialCache<T> {
+
+        private final String name;
+        private final Cache<String, Verified<T>> cache;
+        private final AtomicLong hits = new AtomicLong();
+        private final AtomicLong misses = new AtomicLong();
+        private final AtomicLong puts = new AtomicLong();
+
+        CredentialCache(String name) {
+            this.name = name;
+            this.cache = CacheBuilder.newBuilder()
+                    .maximumSize(MAXIMUM_SIZE)
+                    .expireAfterWrite(EXPIRE_MINUTES, TimeUnit.MINUTES)
+                    .build();
+        }
+
+        T get(String id, String token) {
+            if (id == null || token == null)
+                return null;
+
+            Verified<T> verified = cache.getIfPresent(id);
+            if (verified == null || !MessageDigest.isEqual(verified.digest, digest(token))) {
+                misses.incrementAndGet();
+                return null;
+            }
+
+            hits.incrementAndGet();
+            return verified.principal;
+        }
+
+        void put(String id, String token, T principal, long verificationStart) {
+            if (id == null || token == null || invalidations.get() != verificationStart)
+                return;
+
+            cache.put(id, new Verified<>(digest(token), principal));
+            puts.incrementAndGet();
+
+            // an invalidation that happened while caching could have been missed
+            if (invalidations.get() != verificationStart)
+                cache.invalidate(id);
+        }
+
+        void invalidate(String id) {
+            if (id != null)
+                cache.invalidate(id);
+        }
+
+        void invalidateAll() {
+            cache.invalidateAll();
+        }
+
+        CacheRegionInfo getStatistics() {
+            return new CacheRegionInfo(name, hits.get(), misses.get(), puts.get(), cache.size());
+        }
+    }
+
+    private static class Verified<T> {
+        private final byte[] digest;
+        private final T principal;
+
+        Verified(byte[] digest, T principal) {
+            this.digest = digest;
+            this.principal = principal;
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package org.jbei.ice.lib.account;
 
 import org.apache.commons.lang3.StringUtils;
+import org.jbei.ice.lib.access.AccountPrincipalsCache;
 import org.jbei.ice.lib.access.PermissionException;
 import org.jbei.ice.lib.account.authentication.AuthenticationException;
 import org.jbei.ice.lib.account.authentication.IAuthentication;
@@ -80,6 +81,7 @@ public class AccountController {
                 throw new PermissionException("Only admins can change account type");
 
             account.setType(transfer.getAccountType());
+            AccountPrincipalsCache.getInstance().invalidate(account.getEmail());
         }
 
         AccountTransfer result = dao.update(account).toDataTransferObject();
@@ -389,6 +391,7 @@ public class AccountController {
                     account.getGroups().add(group);
                 }
                 dao.update(account);
+                AccountPrincipalsCache.getInstance().invalidate(account.getEmail());
             }
         } catch (Exception e) {
             Logger.error(e);
@@ -444,7 +447,7 @@ public class AccountController {
      * @param sessionKey unique session identifier
      */
     public void invalidate(final String sessionKey) {
-        UserSessions.invalidateSession(sessionKey);
+        UserSessions.removeSession(sessionKey);
     }
 
     /**
@@ -463,5 +466,6 @@ public class AccountController {
         }
         account.getGroups().remove(group);
         dao.update(account);
+        AccountPrincipalsCache.getInstance().invalidate(email);
     }
 }
@@ -0,0 +1,58 @@
+package org.jbei.ice.lib.account;
+
+import org.jbei.ice.storage.DAOFactory;
+import org.jbei.ice.storage.hibernate.dao.UserSessionDAO;
+import org.jbei.ice.storage.model.UserSessionModel;
+
+import java.util.Date;
+
+/**
+ * Stores sessions in the database so that they are shared by all the ICE instances using the same database
+ * (e.g. behind a load balancer) and survive restarts. Uses the current session, so it is expected to be called
+ * within a transaction
+ *
+ * @author Hector Plahar
+ */
+public class DatabaseSessionStore implements SessionStore {
+
+    private final UserSessionDAO dao;
+
+    public DatabaseSessionStore() {
+        this.dao = DAOFactory.getUserSessionDAO();
+    }
+
+    @Override
+    public void put(UserSession session) {
+        dao.deleteBySessionId(session.getSessionId());
+        dao.create(new UserSessionModel(session.getSessionId(), session.getUserId(),
+                new Date(session.getCreationTime()), new Date(session.getLastAccessTime())));
+    }
+
+    @Override
+    public UserSession get(String sessionId) {
+        return dao.getBySessionId(sessionId)
+                .map(model -> new UserSession(model.getSessionId(), model.getUserId(),
+                        model.getCreationTime().getTime(), model.getLastAccessTime().getTime()))
+                .orElse(null);
+    }
+
+    @Override
+    public void touch(String sessionId, long time) {
+        dao.updateLastAccessTime(sessionId, new Date(time));
+    }
+
+    @Override
+    public void remove(String sessionId) {
+        dao.deleteBySessionId(sessionId);
+    }
+
+    @Override
+    public void removeUser(String userId) {
+        dao.deleteByUserId(userId);
+    }
+
+    @Override
+    public int removeExpired(long idleBefore, long createdBefore) {
+        return dao.deleteExpired(new Date(idleBefore), new Date(createdBefore));
+    }
+}
@@ -0,0 +1,73 @@
+package org.jbei.ice.lib.account;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Stores sessions in memory. Sessions are only available to this ICE instance and do not survive a restart
+ *
+ * @author Hector Plahar
+ */
+public class MemorySessionStore implements SessionStore {
+
+    private final ConcurrentHashMap<String, UserSession> sessions = new ConcurrentHashMap<>();
+    private final ConcurrentHashMap<String, Set<String>> userSessions = new ConcurrentHashMap<>();
+
+    @Override
+    public void put(UserSession session) {
+        remove(session.getSessionId());
+
+        // updated while the user's entry is locked so that it cannot race with removeUser
+        userSessions.compute(session.getUserId(), (userId, sessionIds) -> {
+            if (sessionIds == null)
+                sessionIds = ConcurrentHashMap.newKeySet();
+            sessionIds.add(session.getSessionId());
+            sessions.put(session.getSessionId(), session);
+            return sessionIds;
+        });
+    }
+
+    @Override
+    public UserSession get(String sessionId) {
+        return sessions.get(sessionId);
+    }
+
+    @Override
+    public void touch(String sessionId, long time) {
+        sessions.computeIfPresent(sessionId, (id, session) -> session.touch(time));
+    }
+
+    @Override
+    public void remove(String sessionId) {
+        UserSession session = sessions.remove(sessionId);
+        if (session == null)
+            return;
+
+        userSessions.computeIfPresent(session.getUserId(), (userId, sessionIds) -> {
+            sessionIds.remove(sessionId);
+            return sessionIds.isEmpty() ? null : sessionIds;
+        });
+    }
+
+    @Override
+    public void removeUser(String userId) {
+        userSessions.computeIfPresent(userId, (id, sessionIds) -> {
+            for (String sessionId : sessionIds)
+                sessions.remove(sessionId);
+            return null;
+        });
+    }
+
+    @Override
+    public int removeExpired(long idleBefore, long createdBefore) {
+        int count = 0;
+        for (UserSession session : sessions.values()) {
+            if (!session.isExpired(idleBefore, createdBefore))
+                continue;
+
+            remove(session.getSessionId());
+            count += 1;
+        }
+        return count;
+    }
+}
@@ -0,0 +1,63 @@
+package org.jbei.ice.lib.account;
+
+import org.jbei.ice.lib.common.logging.Logger;
+import org.jbei.ice.lib.executor.IceExecutorService;
+import org.jbei.ice.lib.executor.Task;
+import org.jbei.ice.lib.executor.TaskLane;
+
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Task to remove expired user sessions (see {@link UserSessions}). Scheduled to run periodically on startup
+ *
+ * @author Hector Plahar
+ */
+public class SessionReaperTask extends Task {
+
+    private static final long INTERVAL = TimeUnit.MINUTES.toMillis(15);
+    private static Timer timer;
+
+    public static synchronized void schedule() {
+        if (timer != null)
+            return;
+
+        timer = new Timer("ice-session-reaper", true);
+        timer.scheduleAtFixedRate(new TimerTask() {
+            @Override
+            public void run() {
+                IceExecutorService.getInstance().runTask(new SessionReaperTask());
+            }
+        }, INTERVAL, INTERVAL);
+    }
+
+    public static synchronized void cancel() {
+        if (timer != null) {
+            timer.cancel();
+            timer = null;
+        }
+    }
+
+    @Override
+    public TaskLane getLane() {
+        return TaskLane.MAINTENANCE;
+    }
+
+    @Override
+    public int getPriority() {
+        return LOW_PRIORITY;
+    }
+
+    @Override
+    public String getKey() {
+        return "session-reaper";
+    }
+
+    @Override
+    public void execute() {
+        int count = UserSessions.removeExpiredSessions();
+        if (count > 0)
+            Logger.info("Removed " + count + " expired session(s)");
+    }
+}
@@ -0,0 +1,54 @@
+package org.jbei.ice.lib.account;
+
+/**
+ * Storage for {@link UserSession}s, indexed by session id. Implementations are expected to be safe for
+ * use by multiple threads
+ *
+ * @author Hector Plahar
+ * @see MemorySessionStore
+ * @see DatabaseSessionStore
+ */
+public interface SessionStore {
+
+    /**
+     * Stores a session, replacing any existing session with the same session id
+     *
+     * @param session session to store
+     */
+    void put(UserSession session);
+
+    /**
+     * @param sessionId unique session identifier
+     * @return session with the specified identifier, or null if there is none
+     */
+    UserSession get(String sessionId);
+
+    /**
+     * Updates the last access time of a session
+     *
+     * @param sessionId unique session identifier
+     * @param time      time of access
+     */
+    void touch(String sessionId, long time);
+
+    /**
+     * @param sessionId unique identifier of session to remove
+     */
+    void remove(String sessionId);
+
+    /**
+     * Removes all the sessions of a user
+     *
+     * @param userId unique user identifier
+     */
+    void removeUser(String userId);
+
+    /**
+     * Removes expired sessions
+     *
+     * @param idleBefore    sessions last accessed before this time are removed
+     * @param createdBefore sessions created before this time are removed
+     * @return number of sessions removed
+     */
+    int removeExpired(long idleBefore, long createdBefore);
+}
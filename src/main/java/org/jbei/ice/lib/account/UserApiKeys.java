@@ -2,6 +2,7 @@ package org.jbei.ice.lib.account;
 
 import org.jbei.ice.lib.access.AccessStatus;
 import org.jbei.ice.lib.access.PermissionException;
+import org.jbei.ice.lib.access.VerifiedCredentialCache;
 import org.jbei.ice.lib.common.logging.Logger;
 import org.jbei.ice.lib.dto.access.AccessKey;
 import org.jbei.ice.lib.dto.common.Results;
@@ -134,6 +135,7 @@ public class UserApiKeys {
         }
 
         apiKeyDAO.delete(key);
+        VerifiedCredentialCache.getInstance().invalidateApiKey(key.getClientId());
         return true;
     }
 
@@ -153,6 +155,8 @@ public class UserApiKeys {
         key.setAllowDelegate(apiKey.isAllowDelegate());
         key.setReadOnly(apiKey.isReadOnly());
 
-        return apiKeyDAO.update(key).toDataTransferObject();
+        key = apiKeyDAO.update(key);
+        VerifiedCredentialCache.getInstance().invalidateApiKey(key.getClientId());
+        return key.toDataTransferObject();
     }
 }
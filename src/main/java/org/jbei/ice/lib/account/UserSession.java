@@ -0,0 +1,55 @@
+package org.jbei.ice.lib.account;
+
+/**
+ * Session of a user who has successfully authenticated. Instances are immutable; see
+ * {@link #touch(long)}
+ *
+ * @author Hector Plahar
+ */
+public class UserSession {
+
+    private final String sessionId;
+    private final String userId;
+    private final long creationTime;
+    private final long lastAccessTime;
+
+    public UserSession(String sessionId, String userId, long creationTime, long lastAccessTime) {
+        this.sessionId = sessionId;
+        this.userId = userId;
+        this.creationTime = creationTime;
+        this.lastAccessTime = lastAccessTime;
+    }
+
+    public String getSessionId() {
+        return sessionId;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public long getCreationTime() {
+        return creationTime;
+    }
+
+    public long getLastAccessTime() {
+        return lastAccessTime;
+    }
+
+    /**
+     * @param time time the session was accessed
+     * @return copy of this session with the specified last access time
+     */
+    public UserSession touch(long time) {
+        return new UserSession(sessionId, userId, creationTime, time);
+    }
+
+    /**
+     * @param idleBefore    sessions last accessed before this time are expired
+     * @param createdBefore sessions created before this time are expired
+     * @return true if this session has expired
+     */
+    public boolean isExpired(long idleBefore, long createdBefore) {
+        return lastAccessTime < idleBefore || creationTime < createdBefore;
+    }
+}
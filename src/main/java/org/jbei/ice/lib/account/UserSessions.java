@@ -3,31 +3,73 @@ package org.jbei.ice.lib.account;
 import org.apache.commons.lang3.StringUtils;
 import org.jbei.ice.lib.access.PermissionException;
 import org.jbei.ice.lib.common.logging.Logger;
+import org.jbei.ice.lib.dto.ConfigurationKey;
+import org.jbei.ice.lib.utils.Utils;
 import org.jbei.ice.storage.DAOFactory;
 import org.jbei.ice.storage.model.Account;
 
-import java.util.HashSet;
-import java.util.Map;
-import java.util.Set;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 /**
- * Creates and maintains the web application sessions for users who have successfully authenticated
+ * Creates and maintains the web application sessions for users who have successfully authenticated.
+ * <p>
+ * Sessions are kept in a {@link SessionStore}; in memory by default or in the database when sessions are shared by
+ * multiple ICE instances (see {@link ConfigurationKey#SESSION_STORE}). A session expires when it has not been used
+ * for the idle timeout, or when it reaches the maximum age regardless of use. Expired sessions are rejected when
+ * looked up and removed periodically by the {@link SessionReaperTask}
  *
  * @author Hector Plahar
  */
 public class UserSessions {
 
-    private final static ConcurrentHashMap<String, Set<String>> userSessionMap = new ConcurrentHashMap<>();
+    // minimum time between updates of the last access time of a session, to avoid a store update on every request
+    private static final long TOUCH_INTERVAL = TimeUnit.MINUTES.toMillis(1);
+
+    private static volatile SessionStore store = new MemorySessionStore();
+    private static volatile long idleTimeout = TimeUnit.MINUTES.toMillis(
+            Long.decode(ConfigurationKey.SESSION_IDLE_TIMEOUT_MINUTES.getDefaultValue()));
+    private static volatile long maxAge = TimeUnit.HOURS.toMillis(
+            Long.decode(ConfigurationKey.SESSION_MAX_AGE_HOURS.getDefaultValue()));
+
+    /**
+     * Configures the session store and expiry from the system settings. Expected to be called on startup (within
+     * a transaction); changes to the settings take effect on restart
+     */
+    public static void initialize() {
+        try {
+            idleTimeout = TimeUnit.MINUTES.toMillis(
+                    Long.decode(Utils.getConfigValue(ConfigurationKey.SESSION_IDLE_TIMEOUT_MINUTES)));
+            maxAge = TimeUnit.HOURS.toMillis(Long.decode(Utils.getConfigValue(ConfigurationKey.SESSION_MAX_AGE_HOURS)));
+        } catch (NumberFormatException e) {
+            Logger.error("Invalid session timeout. Using defaults", e);
+        }
+
+        String storeType = Utils.getConfigValue(ConfigurationKey.SESSION_STORE);
+        if ("DATABASE".equalsIgnoreCase(storeType))
+            store = new DatabaseSessionStore();
+        else
+            store = new MemorySessionStore();
+        Logger.info("Using " + store.getClass().getSimpleName() + " for user sessions");
+    }
 
     public static String getUserIdBySession(String sessionId) {
-        for (Map.Entry<String, Set<String>> entrySet : userSessionMap.entrySet()) {
-            if (entrySet.getValue().contains(sessionId)) {
-                return entrySet.getKey();
-            }
+        if (StringUtils.isEmpty(sessionId))
+            return null;
+
+        UserSession session = store.get(sessionId);
+        if (session == null)
+            return null;
+
+        long now = System.currentTimeMillis();
+        if (session.isExpired(now - idleTimeout, now - maxAge)) {
+            store.remove(sessionId);
+            return null;
         }
-        return null;
+
+        if (now - session.getLastAccessTime() >= TOUCH_INTERVAL)
+            store.touch(sessionId, now);
+        return session.getUserId();
     }
 
     /**
@@ -44,8 +86,8 @@ public class UserSessions {
     }
 
     protected static void putSession(String userId, String sessionId) {
-        Set<String> sessionIds = userSessionMap.computeIfAbsent(userId, k -> new HashSet<>());
-        sessionIds.add(sessionId);
+        long now = System.currentTimeMillis();
+        store.put(new UserSession(sessionId, userId, now, now));
     }
 
     /**
@@ -66,15 +108,36 @@ public class UserSessions {
     }
 
     /**
-     * Invalidates the session id for the specified user
-     * by removing the stored session id
+     * Invalidates all the sessions for the specified user
+     * by removing the stored session ids
      *
      * @param userId unique user id
      */
     public static void invalidateSession(String userId) {
         if (userId == null)
             return;
-        userSessionMap.remove(userId);
+        store.removeUser(userId);
+    }
+
+    /**
+     * Invalidates a single session (e.g. when the user logs out)
+     *
+     * @param sessionId unique session identifier
+     */
+    public static void removeSession(String sessionId) {
+        if (StringUtils.isEmpty(sessionId))
+            return;
+        store.remove(sessionId);
+    }
+
+    /**
+     * Removes the sessions that have expired
+     *
+     * @return number of sessions removed
+     */
+    public static int removeExpiredSessions() {
+        long now = System.currentTimeMillis();
+        return store.removeExpired(now - idleTimeout, now - maxAge);
     }
 
     /**
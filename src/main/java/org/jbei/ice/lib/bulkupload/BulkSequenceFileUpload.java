@@ -0,0 +1,223 @@
+package org.jbei.ice.lib.bulkupload;
+
+import org.apache.commons.lang3.StringUtils;
+import org.hibernate.Session;
+import org.jbei.ice.lib.common.logging.Logger;
+import org.jbei.ice.lib.dto.FeaturedDNASequence;
+import org.jbei.ice.lib.dto.entry.EntryField;
+import org.jbei.ice.lib.dto.entry.EntryType;
+import org.jbei.ice.lib.entry.sequence.PartSequence;
+import org.jbei.ice.lib.entry.sequence.SequenceFormat;
+import org.jbei.ice.lib.parsers.SequenceRecord;
+import org.jbei.ice.lib.parsers.SequenceRecordReader;
+import org.jbei.ice.storage.DAOFactory;
+import org.jbei.ice.storage.hibernate.HibernateUtil;
+import org.jbei.ice.storage.model.BulkUpload;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Bulk upload of a FASTA or GenBank file containing multiple records. Each record is added to the upload as
+ * a new entry, named using the name of the record, with the record as its sequence.
+ * <p>
+ * Records are read from the file in batches, each persisted in its own transaction. The records in a batch are
+ * parsed concurrently while the entries for them are created, and the parsed sequences are then saved in the order
+ * of the records. Records that cannot be parsed do not fail the upload; they are reported in the
+ * {@link ProcessedBulkUpload} and their entries are left in the upload without a sequence. If persisting a batch
+ * fails, its records are persisted one at a time and those that still fail are reported without an entry
+ *
+ * @author Hector Plahar
+ */
+class BulkSequenceFileUpload {
+
+    private static final int BATCH_SIZE = 50;
+    private static final int PARSE_THREADS = Math.max(1, Runtime.getRuntime().availableProcessors() - 1);
+    private static final ExecutorService PARSE_EXECUTOR = Executors.newFixedThreadPool(PARSE_THREADS, runnable -> {
+        Thread thread = new Thread(runnable, "ice-sequence-parser");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final String userId;
+    private final InputStream inputStream;
+    private final EntryType addType;
+    private long uploadId;
+
+    /**
+     * @param userId      unique identifier for user performing upload
+     * @param inputStream stream for the sequence file
+     * @param uploadId    identifier for upload to add the entries to. If 0, a new upload is created
+     * @param addType     type of entries to create if a new upload is created
+     */
+    BulkSequenceFileUpload(String userId, InputStream inputStream, long uploadId, EntryType addType) {
+        this.userId = userId;
+        this.inputStream = inputStream;
+        this.uploadId = uploadId;
+        this.addType = addType;
+    }
+
+    /**
+     * Processes the records in the sequence file. The upload is committed before the records are processed, and
+     * the records of each batch are then persisted (and committed) in their own transaction so that the upload
+     * does not accumulate entities in a single session, and a failure only affects the batch it occurs in. A
+     * transaction is active when this returns
+     *
+     * @return wrapper around id of the upload the records were added to, and any records that could not be added
+     * @throws IOException if the file does not contain FASTA or GenBank records or cannot be read
+     */
+    public ProcessedBulkUpload processUpload() throws IOException {
+        ProcessedBulkUpload processedBulkUpload = new ProcessedBulkUpload();
+
+        try (SequenceRecordReader reader = new SequenceRecordReader(inputStream)) {
+            EntryType entryType = getUploadType();
+            new BulkUploadAuthorization().expectWrite(userId, DAOFactory.getBulkUploadDAO().get(uploadId));
+            commit();
+
+            int count = 0;
+            List<SequenceRecord> batch = new ArrayList<>(BATCH_SIZE);
+            while (reader.hasNext()) {
+                batch.add(reader.next());
+                if (batch.size() == BATCH_SIZE || !reader.hasNext()) {
+                    processBatch(entryType, batch, processedBulkUpload);
+                    count += batch.size();
+                    batch.clear();
+                }
+            }
+
+            processedBulkUpload.setUploadId(uploadId);
+            int failed = processedBulkUpload.getRecordErrors().size();
+            if (failed > 0)
+                processedBulkUpload.setUserMessage(failed + " of " + count + " records could not be added");
+            Logger.info(userId + ": added " + (count - failed) + " sequence records to bulk upload " + uploadId);
+        } finally {
+            HibernateUtil.beginTransaction();
+        }
+
+        return processedBulkUpload;
+    }
+
+    // type of upload, which is created if it does not exist
+    private EntryType getUploadType() {
+        if (uploadId != 0) {
+            BulkUpload upload = DAOFactory.getBulkUploadDAO().get(uploadId);
+            if (upload == null)
+                throw new IllegalArgumentException("Invalid bulk upload \"" + uploadId + "\"");
+            return EntryType.nameToType(upload.getImportType());
+        }
+
+        BulkUploadInfo info = new BulkUploadInfo();
+        info.setType(addType.getName());
+        uploadId = new BulkUploads().create(userId, info).getId();
+        return addType;
+    }
+
+    private void processBatch(EntryType entryType, List<SequenceRecord> batch,
+                              ProcessedBulkUpload processedBulkUpload) throws IOException {
+        List<Future<FeaturedDNASequence>> parsed = new ArrayList<>(batch.size());
+        for (SequenceRecord record : batch)
+            parsed.add(PARSE_EXECUTOR.submit(() -> record.parse(entryType.getName())));
+
+        HibernateUtil.beginTransaction();
+        try {
+            List<RecordError> errors = saveRecords(entryType, batch, parsed);
+            commit();
+            processedBulkUpload.getRecordErrors().addAll(errors);
+            return;
+        } catch (IOException e) {
+            HibernateUtil.rollbackTransaction();
+            throw e;
+        } catch (RuntimeException e) {
+            HibernateUtil.rollbackTransaction();
+            Logger.error("Could not add records " + batch.get(0).getIndex() + " to "
+                    + batch.get(batch.size() - 1).getIndex() + " to bulk upload " + uploadId
+                    + ". Adding them individually", e);
+        }
+
+        // persist the records of the failed batch in their own transaction so that only the failing ones are lost
+        for (int i = 0; i < batch.size(); i += 1) {
+            SequenceRecord record = batch.get(i);
+            HibernateUtil.beginTransaction();
+            try {
+                List<RecordError> errors = saveRecords(entryType, batch.subList(i, i + 1), parsed.subList(i, i + 1));
+                commit();
+                processedBulkUpload.getRecordErrors().addAll(errors);
+            } catch (IOException e) {
+                HibernateUtil.rollbackTransaction();
+                throw e;
+            } catch (RuntimeException e) {
+                HibernateUtil.rollbackTransaction();
+                Logger.error("Could not add record " + record.getIndex() + " to bulk upload " + uploadId, e);
+                processedBulkUpload.getRecordErrors().add(new RecordError(record.getIndex(), record.getName(), 0,
+                        "Could not save record: " + e.getMessage()));
+            }
+        }
+    }
+
+    // creates entries for the records (while they are being parsed) and saves the parsed sequences. Records that
+    // cannot be parsed are returned as errors
+    private List<RecordError> saveRecords(EntryType entryType, List<SequenceRecord> records,
+                                          List<Future<FeaturedDNASequence>> parsed) throws IOException {
+        // the upload is loaded in the current session
+        BulkUploadEntries creator = new BulkUploadEntries(userId, uploadId);
+        long[] entryIds = new long[records.size()];
+        for (int i = 0; i < records.size(); i += 1)
+            entryIds[i] = createEntry(creator, entryType, records.get(i));
+
+        List<RecordError> errors = new ArrayList<>();
+        for (int i = 0; i < records.size(); i += 1) {
+            SequenceRecord record = records.get(i);
+            String message;
+            try {
+                FeaturedDNASequence sequence = parsed.get(i).get();
+                PartSequence partSequence = new PartSequence(userId, Long.toString(entryIds[i]));
+                partSequence.save(record, sequence, getFileName(record));
+                continue;
+            } catch (ExecutionException e) {
+                message = e.getCause().getMessage();
+            } catch (IOException | IllegalArgumentException e) {
+                message = e.getMessage();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException(e);
+            }
+
+            Logger.error("Could not add record " + record.getIndex() + " to bulk upload " + uploadId + ": " + message);
+            errors.add(new RecordError(record.getIndex(), record.getName(), entryIds[i], message));
+        }
+        return errors;
+    }
+
+    // flushes and clears the session before committing, so that entities of the batch are not kept around
+    private void commit() {
+        Session session = HibernateUtil.getSessionFactory().getCurrentSession();
+        session.flush();
+        session.clear();
+        HibernateUtil.commitTransaction();
+    }
+
+    private long createEntry(BulkUploadEntries creator, EntryType entryType, SequenceRecord record) {
+        BulkUploadAutoUpdate update = new BulkUploadAutoUpdate(entryType);
+        update.setBulkUploadId(uploadId);
+        update.setRow(record.getIndex() - 1);
+
+        String name = record.getName();
+        update.getKeyValue().put(EntryField.NAME, name == null ? "Record " + record.getIndex() : name);
+        String description = record.getDescription();
+        if (!StringUtils.isEmpty(description))
+            update.getKeyValue().put(EntryField.SUMMARY, description);
+
+        return creator.createOrUpdateEntry(update).getEntryId();
+    }
+
+    private String getFileName(SequenceRecord record) {
+        String name = record.getName() == null ? "record-" + record.getIndex() : record.getName();
+        return name + (record.getFormat() == SequenceFormat.GENBANK ? ".gb" : ".fasta");
+    }
+}
@@ -1,8 +1,13 @@
 package org.jbei.ice.lib.bulkupload;
 
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
 import org.jbei.ice.lib.common.logging.Logger;
 import org.jbei.ice.lib.dto.entry.Visibility;
+import org.jbei.ice.lib.executor.PersistentTask;
 import org.jbei.ice.lib.executor.Task;
+import org.jbei.ice.lib.executor.TaskLane;
+import org.jbei.ice.lib.executor.TaskType;
 import org.jbei.ice.storage.DAOFactory;
 import org.jbei.ice.storage.hibernate.dao.BulkUploadDAO;
 import org.jbei.ice.storage.model.BulkUpload;
@@ -14,7 +19,7 @@ import org.jbei.ice.storage.model.Entry;
  *
  * @author Hector Plahar
  */
-public class BulkUploadDeleteTask extends Task {
+public class BulkUploadDeleteTask extends Task implements PersistentTask {
 
     private final long bulkUploadId;
     private final String userId;
@@ -24,6 +29,29 @@ public class BulkUploadDeleteTask extends Task {
         this.userId = userId;
     }
 
+    public static BulkUploadDeleteTask fromData(String data) {
+        JsonObject object = new JsonParser().parse(data).getAsJsonObject();
+        return new BulkUploadDeleteTask(object.get("userId").getAsString(), object.get("id").getAsLong());
+    }
+
+    @Override
+    public TaskType getType() {
+        return TaskType.BULK_UPLOAD_DELETE;
+    }
+
+    @Override
+    public String getData() {
+        JsonObject object = new JsonObject();
+        object.addProperty("userId", userId);
+        object.addProperty("id", bulkUploadId);
+        return object.toString();
+    }
+
+    @Override
+    public TaskLane getLane() {
+        return TaskLane.MAINTENANCE;
+    }
+
     @Override
     public void execute() {
         BulkUploadDAO dao = DAOFactory.getBulkUploadDAO();
@@ -10,6 +10,7 @@ import org.jbei.ice.lib.common.logging.Logger;
 import org.jbei.ice.lib.dto.ConfigurationKey;
 import org.jbei.ice.lib.dto.access.AccessPermission;
 import org.jbei.ice.lib.dto.entry.*;
+import org.jbei.ice.lib.entry.EntryPermissionTask;
 import org.jbei.ice.lib.entry.attachment.Attachments;
 import org.jbei.ice.lib.entry.sequence.PartSequence;
 import org.jbei.ice.lib.executor.IceExecutorService;
@@ -388,7 +389,6 @@ public class BulkUploads {
         }
 
         // get permissions for bulk upload and set it to the individual entries
-        PermissionsController permissionsController = new PermissionsController();
         ArrayList<AccessPermission> permissions = new ArrayList<>();
         for (Permission permission : bulkUpload.getPermissions()) {
             AccessPermission accessPermission = permission.toDataTransferObject();
@@ -401,25 +401,16 @@ public class BulkUploads {
         }
 
         // go through passed contents
-        // TODO : this needs to go into a task that auto updates
+        List<Long> entries = new ArrayList<>();
         for (Entry entry : bulkUpload.getContents()) {
             entry.setVisibility(Visibility.OK.getValue());
+            entries.add(entry.getId());
             Set<Entry> linked = entry.getLinkedEntries();
             Entry plasmid = null;
             if (linked != null && !linked.isEmpty()) {
                 plasmid = (Entry) linked.toArray()[0];
                 plasmid.setVisibility(Visibility.OK.getValue());
-            }
-
-            // set permissions
-            for (AccessPermission accessPermission : permissions) {
-                accessPermission.setTypeId(entry.getId());
-
-                permissionsController.addPermission(userId, accessPermission);
-                if (plasmid != null) {
-                    accessPermission.setTypeId(plasmid.getId());
-                    permissionsController.addPermission(userId, accessPermission);
-                }
+                entries.add(plasmid.getId());
             }
 
             updateEntry(entry);
@@ -427,6 +418,10 @@ public class BulkUploads {
                 updateEntry(plasmid);
         }
 
+        // set permissions in batches (the task is queued with this transaction)
+        if (!permissions.isEmpty())
+            IceExecutorService.getInstance().runTask(new EntryPermissionTask(userId, entries, permissions, true));
+
         // when done approving, delete the bulk upload record but not the entries associated with it.
         bulkUpload.getContents().clear();
         dao.delete(bulkUpload);
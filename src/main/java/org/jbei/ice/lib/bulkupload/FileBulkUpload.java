@@ -13,7 +13,8 @@ import java.util.List;
 
 /**
  * Processes bulk uploads.
- * Supported file formats are <code>csv</code>, <code>zip</code> and <code>xml</code>, with the latter being for SBOL
+ * Supported file formats are <code>csv</code>, <code>zip</code> and <code>xml</code>, with the latter being for SBOL,
+ * and FASTA or GenBank files containing multiple records
  *
  * @author Hector Plahar
  */
@@ -130,6 +131,8 @@ public class FileBulkUpload implements Closeable {
      * to contain exactly 1 csv file and optional attachment/sequence files whose names are referenced
      * in the csv file</li>
      * <li>Files with a <code>.xml</code> extension are processed as SBOL files</li>
+     * <li>FASTA (<code>.fasta</code>) and GenBank (<code>.gb</code>) files are processed as a set of records, each
+     * of which is added to the upload as an entry with the record as its sequence</li>
      * </ul>
      *
      * @return wrapper around processed upload
@@ -155,6 +158,12 @@ public class FileBulkUpload implements Closeable {
                 processedBulkUpload.setUploadId(upload.processUpload());
                 return processedBulkUpload;
             }
+
+            case FASTA:
+            case GENBANK: {
+                BulkSequenceFileUpload upload = new BulkSequenceFileUpload(userId, inputStream, bulkUploadId, addType);
+                return upload.processUpload();
+            }
         }
     }
 
@@ -8,7 +8,9 @@ package org.jbei.ice.lib.bulkupload;
 public enum FileUploadFormat {
     CSV,
     ZIP,
-    SBOL;
+    SBOL,
+    FASTA,
+    GENBANK;
 
     public static FileUploadFormat fromString(String extension) {
         switch (extension.trim()) {
@@ -22,6 +24,16 @@ public enum FileUploadFormat {
 
             case "zip":
                 return ZIP;
+
+            case "fa":
+            case "fas":
+            case "fasta":
+                return FASTA;
+
+            case "gb":
+            case "gbk":
+            case "genbank":
+                return GENBANK;
         }
     }
 }
@@ -9,7 +9,8 @@ import java.util.List;
  * Represents the results of a processed upload.
  * If the processing is successful, then the wrapped {@link BulkUploadInfo} contains a reference
  * to the upload otherwise the list of fields that failed validation and/or a user friendly error
- * message is added
+ * message is added. For multi-record sequence files, records that could not be parsed are listed in
+ * the record errors
  *
  * @author Hector Plahar
  */
@@ -19,9 +20,11 @@ public class ProcessedBulkUpload implements IDataTransferModel {
     private List<HeaderValue> headers;
     private String userMessage;
     private BulkUploadInfo uploadInfo;
+    private List<RecordError> recordErrors;
 
     public ProcessedBulkUpload() {
         headers = new ArrayList<>();
+        recordErrors = new ArrayList<>();
         uploadInfo = new BulkUploadInfo();
         success = true;
     }
@@ -57,4 +60,8 @@ public class ProcessedBulkUpload implements IDataTransferModel {
     public BulkUploadInfo getUploadInfo() {
         return uploadInfo;
     }
+
+    public List<RecordError> getRecordErrors() {
+        return recordErrors;
+    }
 }
@@ -0,0 +1,47 @@
+package org.jbei.ice.lib.bulkupload;
+
+import org.jbei.ice.storage.IDataTransferModel;
+
+/**
+ * Error for a single record of a multi-record sequence file upload. The entry created for the record is kept in the
+ * upload (without a sequence) so that a sequence can be added to it before the upload is submitted. If the entry
+ * could not be saved, there is no entry for the record (and the entry id is 0)
+ *
+ * @author Hector Plahar
+ */
+public class RecordError implements IDataTransferModel {
+
+    private int record;
+    private String name;
+    private long entryId;
+    private String message;
+
+    public RecordError() {
+    }
+
+    public RecordError(int record, String name, long entryId, String message) {
+        this.record = record;
+        this.name = name;
+        this.entryId = entryId;
+        this.message = message;
+    }
+
+    /**
+     * @return position (starting at 1) of the record in the uploaded file
+     */
+    public int getRecord() {
+        return record;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public long getEntryId() {
+        return entryId;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+}
@@ -0,0 +1,171 @@
+package org.jbei.ice.lib.config;
+
+import org.hibernate.Transaction;
+import org.jbei.ice.lib.common.logging.Logger;
+import org.jbei.ice.lib.dto.ConfigurationKey;
+import org.jbei.ice.storage.DAOFactory;
+import org.jbei.ice.storage.hibernate.HibernateUtil;
+import org.jbei.ice.storage.model.Configuration;
+
+import javax.transaction.Status;
+import javax.transaction.Synchronization;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * In-memory snapshot of the system settings, to avoid reading the settings from the database each time one is
+ * needed. The snapshot is loaded on first use and replaced (never modified) when a setting is written using
+ * {@link ConfigurationSettings}, so reads are lock-free map lookups.
+ * <p>
+ * Settings changed by other ICE instances using the same database are picked up when the snapshot is reloaded by
+ * the {@link ConfigurationRefreshTask}
+ *
+ * @author Hector Plahar
+ */
+public class ConfigurationCache {
+
+    private static final ConfigurationCache INSTANCE = new ConfigurationCache();
+
+    // null when the snapshot has not been loaded (or has been invalidated)
+    private volatile Map<String, String> values;
+
+    private ConfigurationCache() {
+    }
+
+    public static ConfigurationCache getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * @param key configuration key
+     * @return stored value for key or the key's default value if there is no stored value
+     */
+    public String getValue(ConfigurationKey key) {
+        String value = getValue(key.name());
+        return value == null ? key.getDefaultValue() : value;
+    }
+
+    /**
+     * @param key configuration key
+     * @return stored value for key or null if there is no stored value
+     */
+    public String getValue(String key) {
+        return getValues().get(key);
+    }
+
+    public int getInt(ConfigurationKey key) {
+        String value = getValue(key);
+        try {
+            return Integer.decode(value.trim());
+        } catch (NumberFormatException e) {
+            Logger.error("Invalid value \"" + value + "\" for " + key.name() + ". Using default");
+            return Integer.decode(key.getDefaultValue());
+        }
+    }
+
+    public long getLong(ConfigurationKey key) {
+        String value = getValue(key);
+        try {
+            return Long.decode(value.trim());
+        } catch (NumberFormatException e) {
+            Logger.error("Invalid value \"" + value + "\" for " + key.name() + ". Using default");
+            return Long.decode(key.getDefaultValue());
+        }
+    }
+
+    /**
+     * @param key configuration key
+     * @return true if the value for the key is "yes" or "true" (case insensitive)
+     */
+    public boolean getBoolean(ConfigurationKey key) {
+        String value = getValue(key);
+        return "yes".equalsIgnoreCase(value) || "true".equalsIgnoreCase(value);
+    }
+
+    public Path getPath(ConfigurationKey key, String... more) {
+        return Paths.get(getValue(key), more);
+    }
+
+    /**
+     * Updates the snapshot with a value that has been written to the database. The value is applied once the
+     * current transaction commits (or immediately if there is no active transaction) so that uncommitted values are
+     * not visible to other threads; if the transaction is rolled back, the snapshot is discarded and reloaded on next
+     * use
+     *
+     * @param key   configuration key
+     * @param value new value
+     */
+    void put(String key, String value) {
+        Transaction transaction = HibernateUtil.getSessionFactory().getCurrentSession().getTransaction();
+        if (!transaction.isActive()) {
+            apply(key, value);
+            return;
+        }
+
+        transaction.registerSynchronization(new Synchronization() {
+            @Override
+            public void beforeCompletion() {
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status == Status.STATUS_COMMITTED)
+                    apply(key, value);
+                else
+                    invalidate();   // in case the snapshot was loaded (with the value) in the rolled back transaction
+            }
+        });
+    }
+
+    /**
+     * Loads the snapshot from the database, replacing the current snapshot
+     */
+    public synchronized void reload() {
+        values = load();
+    }
+
+    /**
+     * Discards the snapshot. It is reloaded from the database on next use
+     */
+    public void invalidate() {
+        values = null;
+    }
+
+    private synchronized void apply(String key, String value) {
+        Map<String, String> current = values;
+        if (current == null)
+            return;
+
+        Map<String, String> updated = new HashMap<>(current);
+        if (value == null)
+            updated.remove(key);
+        else
+            updated.put(key, value);
+        values = Collections.unmodifiableMap(updated);
+    }
+
+    // loaded under the same lock as updates are applied so that a load cannot replace a more recent update
+    private Map<String, String> getValues() {
+        Map<String, String> current = values;
+        if (current != null)
+            return current;
+
+        synchronized (this) {
+            if (values == null)
+                values = load();
+            return values;
+        }
+    }
+
+    private Map<String, String> load() {
+        Map<String, String> loaded = new HashMap<>();
+        for (Configuration configuration : DAOFactory.getConfigurationDAO().getAll()) {
+            if (configuration.getValue() != null)
+                loaded.put(configuration.getKey(), configuration.getValue());
+        }
+        return Collections.unmodifiableMap(loaded);
+    }
+}
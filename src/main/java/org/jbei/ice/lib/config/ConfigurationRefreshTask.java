@@ -0,0 +1,69 @@
+package org.jbei.ice.lib.config;
+
+import org.jbei.ice.lib.dto.ConfigurationKey;
+import org.jbei.ice.lib.executor.IceExecutorService;
+import org.jbei.ice.lib.executor.Task;
+import org.jbei.ice.lib.executor.TaskLane;
+
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Task to reload the {@link ConfigurationCache} so that settings changed by other ICE instances using the same
+ * database are picked up. Only scheduled when {@link ConfigurationKey#CONFIGURATION_REFRESH_SECONDS} is set
+ *
+ * @author Hector Plahar
+ */
+public class ConfigurationRefreshTask extends Task {
+
+    private static Timer timer;
+
+    /**
+     * Schedules the reload to run periodically. Changes to the interval take effect on restart
+     */
+    public static synchronized void schedule() {
+        if (timer != null)
+            return;
+
+        long interval = TimeUnit.SECONDS.toMillis(
+                ConfigurationCache.getInstance().getLong(ConfigurationKey.CONFIGURATION_REFRESH_SECONDS));
+        if (interval <= 0)
+            return;
+
+        timer = new Timer("ice-configuration-refresh", true);
+        timer.scheduleAtFixedRate(new TimerTask() {
+            @Override
+            public void run() {
+                IceExecutorService.getInstance().runTask(new ConfigurationRefreshTask());
+            }
+        }, interval, interval);
+    }
+
+    public static synchronized void cancel() {
+        if (timer != null) {
+            timer.cancel();
+            timer = null;
+        }
+    }
+
+    @Override
+    public TaskLane getLane() {
+        return TaskLane.MAINTENANCE;
+    }
+
+    @Override
+    public int getPriority() {
+        return LOW_PRIORITY;
+    }
+
+    @Override
+    public String getKey() {
+        return "configuration-refresh";
+    }
+
+    @Override
+    public void execute() {
+        ConfigurationCache.getInstance().reload();
+    }
+}
@@ -2,12 +2,17 @@ package org.jbei.ice.lib.config;
 
 import org.apache.commons.lang3.StringUtils;
 import org.jbei.ice.lib.access.PermissionException;
+import org.jbei.ice.lib.access.VerifiedCredentialCache;
 import org.jbei.ice.lib.account.AccountController;
 import org.jbei.ice.lib.common.logging.Logger;
+import org.jbei.ice.lib.dto.CacheStatistics;
 import org.jbei.ice.lib.dto.ConfigurationKey;
 import org.jbei.ice.lib.dto.Setting;
+import org.jbei.ice.lib.executor.IceExecutorService;
 import org.jbei.ice.lib.net.WoRController;
+import org.jbei.ice.lib.search.blast.RebuildBlastIndexTask;
 import org.jbei.ice.storage.DAOFactory;
+import org.jbei.ice.storage.hibernate.HibernateUtil;
 import org.jbei.ice.storage.hibernate.dao.ConfigurationDAO;
 import org.jbei.ice.storage.model.Configuration;
 import org.rauschig.jarchivelib.Archiver;
@@ -45,10 +50,7 @@ public class ConfigurationSettings {
     }
 
     public String getPropertyValue(ConfigurationKey key) {
-        Configuration config = dao.get(key);
-        if (config == null)
-            return key.getDefaultValue();
-        return config.getValue();
+        return ConfigurationCache.getInstance().getValue(key);
     }
 
     public Setting getPropertyValue(String key) {
@@ -92,11 +94,14 @@ public class ConfigurationSettings {
             configuration = new Configuration();
             configuration.setKey(key.name());
             configuration.setValue(value);
-            return dao.create(configuration);
+            configuration = dao.create(configuration);
+        } else {
+            configuration.setValue(value);
+            configuration = dao.update(configuration);
         }
 
-        configuration.setValue(value);
-        return dao.update(configuration);
+        ConfigurationCache.getInstance().put(key.name(), value);
+        return configuration;
     }
 
     public Setting updateSetting(String userId, Setting setting, String url) {
@@ -114,6 +119,11 @@ public class ConfigurationSettings {
             woRController.setEnable(userId, enable, url);
         }
 
+        // build the sequence search index for the selected engine, if it does not already exist
+        if (key == ConfigurationKey.SEQUENCE_SEARCH_ENGINE || key == ConfigurationKey.BLAST_INSTALL_DIR) {
+            IceExecutorService.getInstance().runTask(new RebuildBlastIndexTask());
+        }
+
         return configuration.toDataTransferObject();
     }
 
@@ -129,13 +139,15 @@ public class ConfigurationSettings {
             if (setting.getValue() == null)
                 setting.setValue("");
             configuration = dao.create(new Configuration(setting.getKey(), setting.getValue()));
+            ConfigurationCache.getInstance().put(setting.getKey(), setting.getValue());
         }
 
         String osName = System.getProperty("os.name").replaceAll("\\s+", "").toLowerCase();
         String blast = "ncbi-blast-2.6.0+-x64-" + osName + ".tar.gz";
 
-        Path path = Paths.get(dao.get(ConfigurationKey.TEMPORARY_DIRECTORY).getValue(), blast);
-        Path dest = Paths.get(dao.get(ConfigurationKey.DATA_DIRECTORY).getValue());
+        ConfigurationCache cache = ConfigurationCache.getInstance();
+        Path path = cache.getPath(ConfigurationKey.TEMPORARY_DIRECTORY, blast);
+        Path dest = cache.getPath(ConfigurationKey.DATA_DIRECTORY);
         if (!Files.exists(dest)) {
             Logger.error("Cannot access access dir : " + dest.toString());
             return null;
@@ -157,7 +169,9 @@ public class ConfigurationSettings {
                 }
             });
 
-            return dao.update(configuration).toDataTransferObject();
+            configuration = dao.update(configuration);
+            cache.put(configuration.getKey(), configuration.getValue());
+            return configuration.toDataTransferObject();
         } catch (Exception e) {
             Logger.error(e);
             return null;
@@ -178,9 +192,40 @@ public class ConfigurationSettings {
         }
     }
 
+    /**
+     * Retrieves the hit and miss counts of the second-level cache and of the cached credential verifications
+     *
+     * @param userId unique identifier of user making request. Expected to be an administrator
+     * @return cache statistics
+     * @throws PermissionException if the user is not an administrator
+     */
+    public CacheStatistics getCacheStatistics(String userId) {
+        if (!new AccountController().isAdministrator(userId))
+            throw new PermissionException("Administrative privileges required");
+
+        CacheStatistics statistics = HibernateUtil.getCacheStatistics();
+        statistics.getCredentialCaches().addAll(VerifiedCredentialCache.getInstance().getStatistics());
+        return statistics;
+    }
+
+    /**
+     * Evicts all entries from the second-level cache and the cached credential verifications (e.g. after the
+     * database has been modified outside of ICE)
+     *
+     * @param userId unique identifier of user making request. Expected to be an administrator
+     * @throws PermissionException if the user is not an administrator
+     */
+    public void clearCache(String userId) {
+        if (!new AccountController().isAdministrator(userId))
+            throw new PermissionException("Administrative privileges required");
+
+        HibernateUtil.clearCache();
+        VerifiedCredentialCache.getInstance().invalidateAll();
+    }
+
     public SiteSettings getSiteSettings() {
         SiteSettings settings = new SiteSettings();
-        String dataDirectory = dao.get(ConfigurationKey.DATA_DIRECTORY).getValue();
+        String dataDirectory = ConfigurationCache.getInstance().getValue(ConfigurationKey.DATA_DIRECTORY);
         final String LOGO_NAME = "logo.png";
         final String LOGIN_MESSAGE_FILENAME = "institution.html";
         final String FOOTER_FILENAME = "footer.html";
@@ -196,8 +241,7 @@ public class ConfigurationSettings {
     public File getUIAsset(String assetName) {
         if (StringUtils.isEmpty(assetName))
             throw new IllegalArgumentException("Cannot retrieve asset with no name");
-        String dataDirectory = dao.get(ConfigurationKey.DATA_DIRECTORY).getValue();
-        Path path = Paths.get(dataDirectory, UI_CONFIG_DIR, assetName);
+        Path path = ConfigurationCache.getInstance().getPath(ConfigurationKey.DATA_DIRECTORY, UI_CONFIG_DIR, assetName);
         if (Files.exists(path)) {
             return path.toFile();
         }
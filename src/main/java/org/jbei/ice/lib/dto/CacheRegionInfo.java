@@ -0,0 +1,84 @@
+package org.jbei.ice.lib.dto;
+
+import org.jbei.ice.storage.IDataTransferModel;
+
+/**
+ * Statistics for a single cache region (e.g. accounts in the second-level cache)
+ *
+ * @author Hector Plahar
+ */
+public class CacheRegionInfo implements IDataTransferModel {
+
+    private String name;
+    private long hitCount;
+    private long missCount;
+    private long putCount;
+    private long elementCount;
+    private double hitRatio;
+
+    public CacheRegionInfo() {
+    }
+
+    public CacheRegionInfo(String name, long hitCount, long missCount, long putCount, long elementCount) {
+        this.name = name;
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.putCount = putCount;
+        this.elementCount = elementCount;
+        this.hitRatio = hitCount + missCount == 0 ? 0 : (double) hitCount / (hitCount + missCount);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    public void setHitCount(long hitCount) {
+        this.hitCount = hitCount;
+    }
+
+    public long getMissCount() {
+        return missCount;
+    }
+
+    public void setMissCount(long missCount) {
+        this.missCount = missCount;
+    }
+
+    public long getPutCount() {
+        return putCount;
+    }
+
+    public void setPutCount(long putCount) {
+        this.putCount = putCount;
+    }
+
+    /**
+     * @return number of entries in the region; -1 if not reported by the cache provider
+     */
+    public long getElementCount() {
+        return elementCount;
+    }
+
+    public void setElementCount(long elementCount) {
+        this.elementCount = elementCount;
+    }
+
+    /**
+     * @return fraction of lookups that were hits; 0 if there have been no lookups
+     */
+    public double getHitRatio() {
+        return hitRatio;
+    }
+
+    public void setHitRatio(double hitRatio) {
+        this.hitRatio = hitRatio;
+    }
+}
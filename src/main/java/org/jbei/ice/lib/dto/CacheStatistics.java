@@ -0,0 +1,71 @@
+package org.jbei.ice.lib.dto;
+
+import org.jbei.ice.storage.IDataTransferModel;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hit and miss counts of the second-level (entity) and query caches, and of the cached credential
+ * verifications, since startup. The second-level and query cache counts are reset when the cache is cleared
+ *
+ * @author Hector Plahar
+ */
+public class CacheStatistics implements IDataTransferModel {
+
+    private boolean enabled;
+    private boolean queryCacheEnabled;
+    private long queryCacheHitCount;
+    private long queryCacheMissCount;
+    private long queryCachePutCount;
+    private List<CacheRegionInfo> regions = new ArrayList<>();
+    private List<CacheRegionInfo> credentialCaches = new ArrayList<>();
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void setEnabled(boolean enabled) {
+        this.enabled = enabled;
+    }
+
+    public boolean isQueryCacheEnabled() {
+        return queryCacheEnabled;
+    }
+
+    public void setQueryCacheEnabled(boolean queryCacheEnabled) {
+        this.queryCacheEnabled = queryCacheEnabled;
+    }
+
+    public long getQueryCacheHitCount() {
+        return queryCacheHitCount;
+    }
+
+    public void setQueryCacheHitCount(long queryCacheHitCount) {
+        this.queryCacheHitCount = queryCacheHitCount;
+    }
+
+    public long getQueryCacheMissCount() {
+        return queryCacheMissCount;
+    }
+
+    public void setQueryCacheMissCount(long queryCacheMissCount) {
+        this.queryCacheMissCount = queryCacheMissCount;
+    }
+
+    public long getQueryCachePutCount() {
+        return queryCachePutCount;
+    }
+
+    public void setQueryCachePutCount(long queryCachePutCount) {
+        this.queryCachePutCount = queryCachePutCount;
+    }
+
+    public List<CacheRegionInfo> getRegions() {
+        return regions;
+    }
+
+    public List<CacheRegionInfo> getCredentialCaches() {
+        return credentialCaches;
+    }
+}
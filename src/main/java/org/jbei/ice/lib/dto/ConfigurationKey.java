@@ -26,6 +26,8 @@ public enum ConfigurationKey implements IDataTransferModel {
     PART_NUMBER_DELIMITER("_"),
 
     BLAST_INSTALL_DIR(""),
+    BLAST_DELTA_COMPACT_THRESHOLD("500"),   // number of incremental changes before blast db is fully re-formatted
+    SEQUENCE_SEARCH_ENGINE("BLAST_PLUS"),   // see SequenceSearchEngine
 
     ADD_TO_CART_DEFAULT_SET_TO_LOCAL("YES"),
     NEW_REGISTRATION_ALLOWED("NO"),
@@ -36,6 +38,24 @@ public enum ConfigurationKey implements IDataTransferModel {
     EMAILER(Type.CUSTOM.name()),
     GMAIL_APPLICATION_PASSWORD(""),
     WEB_OF_REGISTRIES_MASTER("registry.jbei.org"),
+    WEB_SEARCH_TIMEOUT("10"),               // seconds to wait for partners to respond to a web of registries search
+    PARTNER_INDEX_SYNC_MINUTES("60"),       // interval for syncing the local index of partner entries. 0 to disable
+
+    // interval for reloading settings changed by other ICE instances using the same database. 0 to disable.
+    // changes take effect on restart
+    CONFIGURATION_REFRESH_SECONDS("0"),
+
+    // number of threads for each lane of the task executor (see TaskLane). changes take effect on restart
+    EXECUTOR_INTERACTIVE_THREADS("4"),
+    EXECUTOR_INDEXING_THREADS("1"),
+    EXECUTOR_TRANSFER_THREADS("2"),
+    EXECUTOR_MAINTENANCE_THREADS("2"),
+
+    // user sessions. store is MEMORY, or DATABASE to share sessions between ICE instances using the same database.
+    // changes take effect on restart
+    SESSION_STORE("MEMORY"),
+    SESSION_IDLE_TIMEOUT_MINUTES("1440"),   // time after which a session that has not been used expires
+    SESSION_MAX_AGE_HOURS("168"),           // time after which a session expires regardless of use
 
     // sample request config
     SAMPLE_CREATE_APPROVAL_MESSAGE("");
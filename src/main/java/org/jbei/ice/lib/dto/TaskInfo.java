@@ -0,0 +1,114 @@
+package org.jbei.ice.lib.dto;
+
+import org.jbei.ice.lib.executor.Task;
+import org.jbei.ice.lib.executor.TaskLane;
+import org.jbei.ice.lib.executor.TaskStatus;
+import org.jbei.ice.storage.IDataTransferModel;
+
+/**
+ * Snapshot of a task submitted to the executor service
+ *
+ * @author Hector Plahar
+ */
+public class TaskInfo implements IDataTransferModel {
+
+    private long id;
+    private String name;
+    private TaskLane lane;
+    private int priority;
+    private TaskStatus status;
+    private long submitTime;
+    private long startTime;
+    private long endTime;
+    private String checkpoint;
+
+    public TaskInfo() {
+    }
+
+    public TaskInfo(Task task) {
+        this.id = task.getId();
+        this.name = task.getName();
+        this.lane = task.getLane();
+        this.priority = task.getPriority();
+        this.status = task.getStatus();
+        this.submitTime = task.getSubmitTime();
+        this.startTime = task.getStartTime();
+        this.endTime = task.getEndTime();
+        this.checkpoint = task.getCheckpoint();
+    }
+
+    public long getId() {
+        return id;
+    }
+
+    public void setId(long id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public TaskLane getLane() {
+        return lane;
+    }
+
+    public void setLane(TaskLane lane) {
+        this.lane = lane;
+    }
+
+    public int getPriority() {
+        return priority;
+    }
+
+    public void setPriority(int priority) {
+        this.priority = priority;
+    }
+
+    public TaskStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(TaskStatus status) {
+        this.status = status;
+    }
+
+    public long getSubmitTime() {
+        return submitTime;
+    }
+
+    public void setSubmitTime(long submitTime) {
+        this.submitTime = submitTime;
+    }
+
+    public long getStartTime() {
+        return startTime;
+    }
+
+    public void setStartTime(long startTime) {
+        this.startTime = startTime;
+    }
+
+    public long getEndTime() {
+        return endTime;
+    }
+
+    public void setEndTime(long endTime) {
+        this.endTime = endTime;
+    }
+
+    /**
+     * @return last progress recorded by the task (see {@link Task#getCheckpoint()}), or null
+     */
+    public String getCheckpoint() {
+        return checkpoint;
+    }
+
+    public void setCheckpoint(String checkpoint) {
+        this.checkpoint = checkpoint;
+    }
+}
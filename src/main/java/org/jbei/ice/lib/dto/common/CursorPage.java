@@ -0,0 +1,73 @@
+package org.jbei.ice.lib.dto.common;
+
+import org.jbei.ice.storage.IDataTransferModel;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.LongSupplier;
+
+/**
+ * Page of entry ids retrieved using a {@link PageCursor}. The sort value of the last entry on the page is kept
+ * (from the retrieved row) so that the cursor for the following page can be created without loading the entry
+ *
+ * @author Hector Plahar
+ */
+public class CursorPage {
+
+    private final PageCursor cursor;
+    private final int limit;
+    private final List<Long> ids;
+    private final String lastValue;
+
+    public CursorPage(PageCursor cursor, int limit, List<Long> ids, String lastValue) {
+        this.cursor = cursor;
+        this.limit = limit;
+        this.ids = new ArrayList<>(ids);
+        this.lastValue = lastValue;
+    }
+
+    /**
+     * @return ids of the entries on the page, in order
+     */
+    public List<Long> getIds() {
+        return ids;
+    }
+
+    /**
+     * @param counter counts the available entries; only called for the first page (the count is carried in the
+     *                cursors for the following pages)
+     * @return total number of entries available
+     */
+    public long getCount(LongSupplier counter) {
+        return cursor.hasCount() ? cursor.getCount() : counter.getAsLong();
+    }
+
+    /**
+     * @param count total number of entries available
+     * @return cursor for the following page, or null if there are no more entries
+     */
+    public PageCursor next(long count) {
+        if (ids.isEmpty() || ids.size() < limit)
+            return null;
+        return cursor.next(ids.get(ids.size() - 1), lastValue, count);
+    }
+
+    /**
+     * Wraps the data for the entries on this page with the number of available entries and the cursor for the
+     * following page
+     *
+     * @param data    data for the entries on the page
+     * @param counter counts the available entries (see {@link #getCount(LongSupplier)})
+     * @return results for page
+     */
+    public <T extends IDataTransferModel> Results<T> toResults(List<T> data, LongSupplier counter) {
+        long count = getCount(counter);
+        Results<T> results = new Results<>();
+        results.setResultCount(count);
+        results.setData(data);
+        PageCursor next = next(count);
+        if (next != null)
+            results.setNextCursor(next.encode());
+        return results;
+    }
+}
@@ -0,0 +1,125 @@
+package org.jbei.ice.lib.dto.common;
+
+import org.jbei.ice.lib.shared.ColumnField;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position in a list of results that is paged using a cursor (keyset pagination) instead of an offset. The
+ * cursor records the sort order and the sort value and id of the last item on the previous page, so that the next
+ * page is retrieved by seeking past that item (which is independent of how deep the page is).
+ * <p>
+ * The number of available results is counted when the first page is retrieved and carried in the cursors for
+ * subsequent pages. Cursors are passed to clients as opaque tokens (see {@link #encode()})
+ *
+ * @author Hector Plahar
+ */
+public class PageCursor {
+
+    private static final String SEPARATOR = "|";
+
+    private final ColumnField sortField;
+    private final boolean ascending;
+    private final long lastId;          // 0 for the first page
+    private final String lastValue;     // null if the last item has no value for the sort field
+    private final long count;           // -1 if not known
+
+    private PageCursor(ColumnField sortField, boolean ascending, long lastId, String lastValue, long count) {
+        this.sortField = sortField == null ? ColumnField.CREATED : sortField;
+        this.ascending = ascending;
+        this.lastId = lastId;
+        this.lastValue = lastValue;
+        this.count = count;
+    }
+
+    /**
+     * @param sortField field results are sorted on
+     * @param ascending sort order
+     * @return cursor for the first page of results
+     */
+    public static PageCursor first(ColumnField sortField, boolean ascending) {
+        return new PageCursor(sortField, ascending, 0, null, -1);
+    }
+
+    /**
+     * @param lastId    id of the last item on the current page
+     * @param lastValue value of the sort field for the last item on the current page (may be null)
+     * @param count     total number of results
+     * @return cursor for the page following the current one
+     */
+    public PageCursor next(long lastId, String lastValue, long count) {
+        return new PageCursor(sortField, ascending, lastId, lastValue, count);
+    }
+
+    public ColumnField getSortField() {
+        return sortField;
+    }
+
+    public boolean isAscending() {
+        return ascending;
+    }
+
+    /**
+     * @return true if this is the cursor for the first page of results
+     */
+    public boolean isFirst() {
+        return lastId <= 0;
+    }
+
+    public long getLastId() {
+        return lastId;
+    }
+
+    /**
+     * @return value of the sort field for the last item on the previous page, or null if it has no value
+     */
+    public String getLastValue() {
+        return lastValue;
+    }
+
+    /**
+     * @return number of results counted when the first page was retrieved, or -1 if they have not been counted
+     */
+    public long getCount() {
+        return count;
+    }
+
+    public boolean hasCount() {
+        return count >= 0;
+    }
+
+    /**
+     * @return url safe token for cursor
+     */
+    public String encode() {
+        String value = sortField.name() + SEPARATOR + (ascending ? "1" : "0") + SEPARATOR + lastId + SEPARATOR
+                + count + SEPARATOR + (lastValue == null ? "0" : "1") + SEPARATOR
+                + (lastValue == null ? "" : lastValue);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(value.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Creates the cursor represented by a token. An empty token represents the first page, sorted by creation time
+     *
+     * @param token token created by {@link #encode()}
+     * @return decoded cursor
+     * @throws IllegalArgumentException if the token is not a valid cursor
+     */
+    public static PageCursor decode(String token) {
+        if (token == null || token.trim().isEmpty())
+            return first(ColumnField.CREATED, false);
+
+        try {
+            String value = new String(Base64.getUrlDecoder().decode(token.trim()), StandardCharsets.UTF_8);
+            String[] parts = value.split("\\" + SEPARATOR, 6);
+            if (parts.length != 6)
+                throw new IllegalArgumentException("Invalid cursor");
+
+            return new PageCursor(ColumnField.valueOf(parts[0]), "1".equals(parts[1]), Long.parseLong(parts[2]),
+                    "1".equals(parts[4]) ? parts[5] : null, Long.parseLong(parts[3]));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor \"" + token + "\"", e);
+        }
+    }
+}
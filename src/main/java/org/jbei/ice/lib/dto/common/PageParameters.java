@@ -11,6 +11,7 @@ import org.jbei.ice.lib.shared.ColumnField;
  * <li><code>asc</code>      sort order for folder content retrieval; ascending if true</li>
  * <li><code>start</code>    index of first item in retrieval</li>
  * <li><code>limit</code>    upper limit count of items to be retrieval</li>
+ * <li><code>cursor</code>   if set, position of page (the offset and sort parameters are ignored)</li>
  * </ul>
  *
  * @author Hector Plahar
@@ -22,6 +23,7 @@ public class PageParameters {
     private ColumnField sortField;
     private boolean ascending;
     private String filter;
+    private PageCursor cursor;
 
     public PageParameters() {
     }
@@ -73,4 +75,12 @@ public class PageParameters {
     public void setFilter(String filter) {
         this.filter = filter;
     }
+
+    public PageCursor getCursor() {
+        return cursor;
+    }
+
+    public void setCursor(PageCursor cursor) {
+        this.cursor = cursor;
+    }
 }
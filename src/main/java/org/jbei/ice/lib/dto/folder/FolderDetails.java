@@ -14,6 +14,7 @@ public class FolderDetails extends AbstractFolder {
 
     private String folderName;
     private long count;
+    private String nextCursor;      // for paging entries with a cursor
     private String description;
     private boolean propagatePermission;
     private FolderType type;
@@ -49,6 +50,14 @@ public class FolderDetails extends AbstractFolder {
         this.count = count;
     }
 
+    public String getNextCursor() {
+        return nextCursor;
+    }
+
+    public void setNextCursor(String nextCursor) {
+        this.nextCursor = nextCursor;
+    }
+
     public String getDescription() {
         return this.description;
     }
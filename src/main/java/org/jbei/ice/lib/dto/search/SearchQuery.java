@@ -97,6 +97,7 @@ public class SearchQuery implements IDataTransferModel {
         private boolean hasSequence;
         private boolean hasAttachment;
         private boolean hasSample;
+        private boolean approximateCount;
 
         public Parameters() {
             start = 0;
@@ -129,6 +130,18 @@ public class SearchQuery implements IDataTransferModel {
             this.hasSample = hasSample;
         }
 
+        /**
+         * @return true if collection of results can stop after a threshold number of hits for large result sets, in
+         * which case the result count is a lower bound
+         */
+        public boolean isApproximateCount() {
+            return approximateCount;
+        }
+
+        public void setApproximateCount(boolean approximateCount) {
+            this.approximateCount = approximateCount;
+        }
+
         public ColumnField getSortField() {
             return sortField;
         }
@@ -19,6 +19,7 @@ public class SearchResults implements IDataTransferModel {
     private static final long serialVersionUID = 1l;
 
     private long resultCount;
+    private boolean resultCountApproximate;
     private LinkedList<SearchResult> results;
     private SearchQuery query;
 
@@ -49,6 +50,17 @@ public class SearchResults implements IDataTransferModel {
         return this.resultCount;
     }
 
+    /**
+     * @return true if the result count is a lower bound for the total count rather than the exact count
+     */
+    public boolean isResultCountApproximate() {
+        return resultCountApproximate;
+    }
+
+    public void setResultCountApproximate(boolean resultCountApproximate) {
+        this.resultCountApproximate = resultCountApproximate;
+    }
+
     public SearchQuery getQuery() {
         return query;
     }
@@ -0,0 +1,14 @@
+package org.jbei.ice.lib.dto.search;
+
+import org.jbei.ice.storage.IDataTransferModel;
+
+/**
+ * Engines available for running sequence searches
+ *
+ * @author Hector Plahar
+ */
+public enum SequenceSearchEngine implements IDataTransferModel {
+
+    BLAST_PLUS,     // external BLAST+ programs (requires installation)
+    EMBEDDED        // in-process k-mer index
+}
@@ -287,6 +287,7 @@ public class Entries extends HasEntry {
 
     private List<Long> getSearchResults(SearchQuery searchQuery) {
         SearchIndexes searchIndexes = new SearchIndexes();
+        searchQuery.getParameters().setApproximateCount(false);     // selection requires all the results
         SearchResults searchResults = searchIndexes.runSearch(userId, searchQuery);
         // todo : inefficient: have search return ids only
         List<Long> results = new LinkedList<>();
@@ -8,6 +8,7 @@ import org.jbei.ice.lib.dto.ConfigurationKey;
 import org.jbei.ice.lib.dto.entry.EntryField;
 import org.jbei.ice.lib.dto.entry.EntryType;
 import org.jbei.ice.lib.dto.entry.PartData;
+import org.jbei.ice.lib.entry.sequence.FormattedSequence;
 import org.jbei.ice.lib.entry.sequence.InputStreamWrapper;
 import org.jbei.ice.lib.entry.sequence.PartSequence;
 import org.jbei.ice.lib.entry.sequence.SequenceFormat;
@@ -16,12 +17,10 @@ import org.jbei.ice.lib.utils.Utils;
 import org.jbei.ice.storage.DAOFactory;
 import org.jbei.ice.storage.hibernate.dao.AccountDAO;
 import org.jbei.ice.storage.hibernate.dao.EntryDAO;
-import org.jbei.ice.storage.hibernate.dao.PermissionDAO;
 import org.jbei.ice.storage.hibernate.dao.SequenceDAO;
 import org.jbei.ice.storage.model.Account;
 import org.jbei.ice.storage.model.Entry;
 import org.jbei.ice.storage.model.Group;
-import org.jbei.ice.storage.model.Sequence;
 
 import java.io.*;
 import java.nio.file.Path;
@@ -47,7 +46,7 @@ public class EntriesAsCSV {
     private EntryDAO dao;
     private SequenceDAO sequenceDAO;
     private AccountDAO accountDAO;
-    private PermissionDAO permissionDAO;
+    private EntryAuthorization entryAuthorization;
 
     /**
      * @param formats optional list of formats of sequences to include
@@ -59,7 +58,7 @@ public class EntriesAsCSV {
         this.dao = DAOFactory.getEntryDAO();
         this.sequenceDAO = DAOFactory.getSequenceDAO();
         this.accountDAO = DAOFactory.getAccountDAO();
-        this.permissionDAO = DAOFactory.getPermissionDAO();
+        this.entryAuthorization = new EntryAuthorization();
     }
 
     /**
@@ -125,7 +124,7 @@ public class EntriesAsCSV {
         Account account = this.accountDAO.getByEmail(userId);
         if (account.getType() != AccountType.ADMIN) {
             List<Group> accountGroups = new GroupController().getAllGroups(account);
-            entries = permissionDAO.getCanReadEntries(account, accountGroups, entries);
+            entries = entryAuthorization.getCanReadEntries(account, accountGroups, entries);
         }
 
         if (entries == null) {
@@ -196,10 +195,8 @@ public class EntriesAsCSV {
 
         switch (SequenceFormat.fromString(format)) {
             case ORIGINAL:
-                Sequence sequence = sequenceDAO.getByEntry(entry);
-                if (sequence == null)
-                    return "";
-                return sequence.getFileName();
+                String fileName = sequenceDAO.getSequenceFilename(entry);
+                return fileName == null ? "" : fileName;
 
             case GENBANK:
             default:
@@ -226,8 +223,10 @@ public class EntriesAsCSV {
             // get sequence formats
             for (long entryId : sequenceSet) {
                 for (String format : formats) {
-                    InputStreamWrapper wrapper = new PartSequence(userId, Long.toString(entryId)).toFile(SequenceFormat.fromString(format));
-                    putZipEntry(wrapper, zos);
+                    FormattedSequence sequence = new PartSequence(userId, Long.toString(entryId))
+                            .toStream(SequenceFormat.fromString(format));
+                    if (sequence != null)
+                        putZipEntry(sequence, sequence.getName(), zos);
                 }
             }
 
@@ -258,6 +257,17 @@ public class EntriesAsCSV {
         }
     }
 
+    // writes the formatted sequence directly to the zip entry
+    private void putZipEntry(FormattedSequence sequence, String name, ZipOutputStream zos) {
+        try {
+            zos.putNextEntry(new ZipEntry(name));
+            sequence.write(zos);
+            zos.closeEntry();
+        } catch (Exception e) {
+            Logger.error(e);
+        }
+    }
+
     private EntryField[] getEntryFields() {
         Set<String> recordTypes = new HashSet<>(dao.getRecordTypes(entries));
         List<EntryField> fields = EntryFields.getCommonFields();
@@ -306,20 +316,18 @@ public class EntriesAsCSV {
                     continue;
                 }
 
-                Sequence sequence = sequenceDAO.getByEntry(entry);
-                if (sequence == null) {
+                if (!sequenceDAO.hasSequence(entryId)) {
                     continue;
                 }
 
                 // get the sequence
-                InputStreamWrapper wrapper = new PartSequence(userId, Long.toString(entryId)).toFile(format);
-                if (wrapper == null) {
+                FormattedSequence sequence = new PartSequence(userId, Long.toString(entryId)).toStream(format);
+                if (sequence == null) {
                     Logger.error("ERROR : no sequence " + entryId);
                     continue;
                 }
 
-                wrapper.setName(entry.getPartNumber() + File.separatorChar + wrapper.getName());
-                putZipEntry(wrapper, zos);
+                putZipEntry(sequence, entry.getPartNumber() + File.separatorChar + sequence.getName(), zos);
             }
             this.includeSequences = false;
             writeList(selection.getFields().toArray(new EntryField[0]));
@@ -1,30 +1,40 @@
 package org.jbei.ice.lib.entry;
 
 import org.jbei.ice.lib.access.Authorization;
+import org.jbei.ice.lib.access.EntryAccessBuildTask;
 import org.jbei.ice.lib.access.PermissionsController;
+import org.jbei.ice.lib.account.AccountType;
 import org.jbei.ice.lib.dto.folder.FolderType;
 import org.jbei.ice.lib.group.GroupController;
 import org.jbei.ice.storage.DAOFactory;
+import org.jbei.ice.storage.hibernate.dao.EntryAccessDAO;
 import org.jbei.ice.storage.hibernate.dao.PermissionDAO;
 import org.jbei.ice.storage.model.Account;
 import org.jbei.ice.storage.model.Entry;
 import org.jbei.ice.storage.model.Folder;
 import org.jbei.ice.storage.model.Group;
 
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
 
 /**
+ * Read and write checks for entries. Once derived (see {@link EntryAccessBuildTask}), the effective access of
+ * accounts and groups to entries is used so that a check is a single lookup; until then the permissions on the entry
+ * and on the folders it is contained in are checked
+ *
  * @author Hector Plahar
  */
 public class EntryAuthorization extends Authorization<Entry> {
 
     private final PermissionDAO permissionDAO;
+    private final EntryAccessDAO entryAccessDAO;
     private final GroupController groupController;
 
     public EntryAuthorization() {
         super(DAOFactory.getEntryDAO());
         permissionDAO = DAOFactory.getPermissionDAO();
+        entryAccessDAO = DAOFactory.getEntryAccessDAO();
         groupController = new GroupController();
     }
 
@@ -43,6 +53,9 @@ public class EntryAuthorization extends Authorization<Entry> {
         // get groups for account. if account is null, this will return everyone group
         List<Group> accountGroups = groupController.getAllGroups(account);
 
+        if (EntryAccessBuildTask.isBuilt())
+            return entryAccessDAO.hasAccess(entry.getId(), account.getId(), getIds(accountGroups), false);
+
         // check read permission through group membership
         // ie. belongs to group that has read privileges for entry (or a group whose parent group does)
         if (permissionDAO.hasPermissionMulti(entry, null, null, accountGroups, true, false))
@@ -98,6 +111,11 @@ public class EntryAuthorization extends Authorization<Entry> {
 
         Account account = getAccount(userId);
 
+        if (EntryAccessBuildTask.isBuilt()) {
+            List<Group> accountGroups = groupController.getAllGroups(account);
+            return entryAccessDAO.hasAccess(entry.getId(), account.getId(), getIds(accountGroups), true);
+        }
+
         // check write accounts for entry
         if (permissionDAO.hasPermission(entry, null, null, account, null, false, true))
             return true;
@@ -121,8 +139,63 @@ public class EntryAuthorization extends Authorization<Entry> {
         return permissionDAO.hasPermissionMulti(null, entryFolders, account, null, false, true);
     }
 
+    /**
+     * Filters the given list of entries, removing those that the account cannot read. Entries that are only visible
+     * to administrators (e.g. deleted entries) are also removed
+     *
+     * @param account account to filter entries by
+     * @param groups  groups that the account belongs to
+     * @param entries list of entry ids to filter
+     * @return filtered list of entry ids
+     */
+    public List<Long> getCanReadEntries(Account account, List<Group> groups, List<Long> entries) {
+        if (EntryAccessBuildTask.isBuilt())
+            return entryAccessDAO.getCanReadEntries(account, getIds(groups), entries);
+        return permissionDAO.getCanReadEntries(account, groups, entries);
+    }
+
+    /**
+     * Filters the given list of entries, removing those that the user cannot write to. Once the effective access
+     * has been derived, this is done for all the entries in a single query (per 500 entries) rather than a check
+     * for each entry
+     *
+     * @param userId  unique identifier for user
+     * @param entries list of entry ids to filter
+     * @return filtered list of entry ids
+     */
+    public List<Long> getCanWriteEntries(String userId, List<Long> entries) {
+        List<Long> results = new ArrayList<>();
+        if (userId == null || entries.isEmpty())
+            return results;
+
+        Account account = getAccount(userId);
+        if (account.getType() == AccountType.ADMIN) {
+            results.addAll(entries);
+            return results;
+        }
+
+        if (EntryAccessBuildTask.isBuilt()) {
+            List<Group> accountGroups = groupController.getAllGroups(account);
+            return entryAccessDAO.getCanWriteEntries(account, getIds(accountGroups), entries);
+        }
+
+        for (Long id : entries) {
+            Entry entry = DAOFactory.getEntryDAO().get(id);
+            if (entry != null && canWrite(userId, entry))
+                results.add(id);
+        }
+        return results;
+    }
+
     @Override
     public String getOwner(Entry entry) {
         return entry.getOwnerEmail();
     }
+
+    private List<Long> getIds(List<Group> groups) {
+        List<Long> ids = new ArrayList<>();
+        for (Group group : groups)
+            ids.add(group.getId());
+        return ids;
+    }
 }
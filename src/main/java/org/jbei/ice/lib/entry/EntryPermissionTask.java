@@ -1,26 +1,43 @@
 package org.jbei.ice.lib.entry;
 
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
+import org.hibernate.Session;
+import org.hibernate.Transaction;
+import org.hibernate.search.FullTextSession;
+import org.hibernate.search.Search;
+import org.jbei.ice.lib.common.logging.Logger;
 import org.jbei.ice.lib.dto.access.AccessPermission;
+import org.jbei.ice.lib.executor.PersistentTask;
 import org.jbei.ice.lib.executor.Task;
+import org.jbei.ice.lib.executor.TaskLane;
+import org.jbei.ice.lib.executor.TaskType;
 import org.jbei.ice.storage.DAOFactory;
+import org.jbei.ice.storage.hibernate.HibernateUtil;
 import org.jbei.ice.storage.hibernate.dao.AccountDAO;
-import org.jbei.ice.storage.hibernate.dao.EntryDAO;
 import org.jbei.ice.storage.hibernate.dao.GroupDAO;
 import org.jbei.ice.storage.hibernate.dao.PermissionDAO;
 import org.jbei.ice.storage.model.Account;
 import org.jbei.ice.storage.model.Entry;
 import org.jbei.ice.storage.model.Group;
-import org.jbei.ice.storage.model.Permission;
 
-import java.util.ArrayList;
-import java.util.List;
+import java.util.*;
 
 /**
- * Task to update the permissions for a provided list of entries
+ * Task to update the permissions for a provided list of entries.
+ * <p>
+ * Write access is checked for all the entries up front and the permissions are then added (or removed) for
+ * batches of entries, each in its own transaction, with the lucene index of the entries in the batch updated when
+ * the batch is committed. The number of entries processed is recorded as the task checkpoint, so an interrupted
+ * task resumes after the last committed batch
  *
  * @author Hector Plahar
  */
-public class EntryPermissionTask extends Task {
+public class EntryPermissionTask extends Task implements PersistentTask {
+
+    private static final int BATCH_SIZE = 500;
 
     private final String userId;
     private final List<Long> entries;
@@ -32,7 +49,7 @@ public class EntryPermissionTask extends Task {
 
     public EntryPermissionTask(String userId, List<Long> entriesId, List<AccessPermission> permissions, boolean isAdd) {
         this.userId = userId;
-        this.entries = new ArrayList<>(entriesId);
+        this.entries = new ArrayList<>(new TreeSet<>(entriesId));  // sorted so that the checkpoint is repeatable
         this.permissions = new ArrayList<>(permissions);
         this.isAdd = isAdd;
         this.permissionDAO = DAOFactory.getPermissionDAO();
@@ -40,34 +57,72 @@ public class EntryPermissionTask extends Task {
         this.accountDAO = DAOFactory.getAccountDAO();
     }
 
-    @Override
-    public void execute() {
+    public static EntryPermissionTask fromData(String data) {
+        JsonObject object = new JsonParser().parse(data).getAsJsonObject();
+        List<Long> entries = new ArrayList<>();
+        for (JsonElement element : object.getAsJsonArray("entries"))
+            entries.add(element.getAsLong());
+
+        List<AccessPermission> permissions = new ArrayList<>();
+        for (JsonElement element : object.getAsJsonArray("permissions")) {
+            JsonObject permission = element.getAsJsonObject();
+            permissions.add(new AccessPermission(
+                    AccessPermission.Article.valueOf(permission.get("article").getAsString()),
+                    permission.get("articleId").getAsLong(),
+                    AccessPermission.Type.valueOf(permission.get("type").getAsString()), 0, null));
+        }
+        return new EntryPermissionTask(object.get("userId").getAsString(), entries, permissions,
+                object.get("add").getAsBoolean());
+    }
 
-        EntryDAO entryDAO = DAOFactory.getEntryDAO();
-        EntryAuthorization entryAuthorization = new EntryAuthorization();
+    @Override
+    public TaskType getType() {
+        return TaskType.ENTRY_PERMISSION;
+    }
 
-        for (long entryId : entries) {
-            Entry entry = entryDAO.get(entryId);
-            if (entry == null)
-                continue;
+    @Override
+    public String getData() {
+        JsonObject object = new JsonObject();
+        object.addProperty("userId", userId);
+        object.addProperty("add", isAdd);
 
-            // check permission on individual entries
-            if (!entryAuthorization.canWrite(userId, entry)) {
-                continue;
-            }
+        JsonArray entryArray = new JsonArray();
+        for (Long entryId : entries)
+            entryArray.add(entryId);
+        object.add("entries", entryArray);
 
-            // add or remove permissions
-            if (this.isAdd) {
-                addPermissions(entry);
-            } else {
-                removePermissions(entry);
-            }
+        JsonArray permissionArray = new JsonArray();
+        for (AccessPermission access : permissions) {
+            JsonObject permission = new JsonObject();
+            permission.addProperty("article", access.getArticle().name());
+            permission.addProperty("articleId", access.getArticleId());
+            permission.addProperty("type", access.getType().name());
+            permissionArray.add(permission);
         }
+        object.add("permissions", permissionArray);
+        return object.toString();
     }
 
-    protected void addPermissions(Entry entry) {
+    @Override
+    public TaskLane getLane() {
+        return TaskLane.MAINTENANCE;
+    }
+
+    @Override
+    public void execute() {
+        // entries processed before the task was interrupted
+        int start = getCheckpoint() == null ? 0 : Math.min(entries.size(), Integer.decode(getCheckpoint()));
+        if (start == entries.size())
+            return;
+
+        // check write permission for all the entries
+        Set<Long> writable = new HashSet<>(
+                new EntryAuthorization().getCanWriteEntries(userId, entries.subList(start, entries.size())));
+
+        // resolve the account or group for each permission
+        List<Account> accounts = new ArrayList<>();
+        List<Group> groups = new ArrayList<>();
         for (AccessPermission access : permissions) {
-            // account or group
             Account account = null;
             Group group = null;
             switch (access.getArticle()) {
@@ -80,43 +135,86 @@ public class EntryPermissionTask extends Task {
                     group = groupDAO.get(access.getArticleId());
                     break;
             }
+            if (account == null && group == null)
+                Logger.warn("Could not resolve " + access.getArticle() + " " + access.getArticleId());
+            accounts.add(account);
+            groups.add(group);
+        }
 
-            // does the permissions already exists
-            if (permissionDAO.hasPermission(entry, null, null, account, group, access.isCanRead(), access.isCanWrite()))
-                return;
-
-            // add the permission if not
-            Permission permission = new Permission();
-            permission.setEntry(entry);
-            entry.getPermissions().add(permission);
-
-            permission.setGroup(group);
-            permission.setFolder(null);
-            permission.setUpload(null);
-            permission.setAccount(account);
-            permission.setCanRead(access.isCanRead());
-            permission.setCanWrite(access.isCanWrite());
-            permissionDAO.create(permission);
+        Session session = HibernateUtil.newSession();
+        session.setJdbcBatchSize(BATCH_SIZE);
+        int count = 0;
+
+        try {
+            for (int i = start; i < entries.size(); i += BATCH_SIZE) {
+                int end = Math.min(entries.size(), i + BATCH_SIZE);
+                List<Long> batch = new ArrayList<>();
+                for (Long entryId : entries.subList(i, end)) {
+                    if (writable.contains(entryId))
+                        batch.add(entryId);
+                }
+
+                if (!batch.isEmpty()) {
+                    Transaction transaction = session.beginTransaction();
+                    try {
+                        count += updateBatch(session, batch, accounts, groups);
+                        transaction.commit();
+                    } catch (Exception e) {
+                        transaction.rollback();
+                        throw e;
+                    }
+                    session.clear();
+                }
+
+                checkpoint(Integer.toString(end));
+            }
+        } finally {
+            session.close();
         }
+
+        Logger.info((isAdd ? "Added " : "Removed ") + count + " permission(s) for " + writable.size() + " entries");
     }
 
-    protected void removePermissions(Entry entry) {
-        for (AccessPermission access : permissions) {
-            // account or group
-            Account account = null;
-            Group group = null;
-            switch (access.getArticle()) {
-                case ACCOUNT:
-                default:
-                    account = accountDAO.get(access.getArticleId());
-                    break;
+    /**
+     * Adds or removes the permissions for a batch of entries and updates the lucene index for the entries that
+     * were changed. The index is updated (in a single batch) when the transaction is committed
+     *
+     * @return number of permissions added or removed
+     */
+    private int updateBatch(Session session, List<Long> batch, List<Account> accounts, List<Group> groups) {
+        Set<Long> changed = new HashSet<>();
+        int count = 0;
+
+        for (int i = 0; i < permissions.size(); i++) {
+            AccessPermission access = permissions.get(i);
+            Account account = accounts.get(i);
+            Group group = groups.get(i);
+            if (account == null && group == null)
+                continue;
 
-                case GROUP:
-                    group = groupDAO.get(access.getArticleId());
-                    break;
+            List<Long> entryIds;
+            if (this.isAdd) {
+                entryIds = permissionDAO.createEntryPermissions(session, batch, account, group,
+                        access.isCanRead(), access.isCanWrite());
+            } else {
+                entryIds = permissionDAO.removeEntryPermissions(session, batch, account, group,
+                        access.isCanRead(), access.isCanWrite());
             }
+            count += entryIds.size();
+            changed.addAll(entryIds);
+        }
+
+        if (changed.isEmpty())
+            return count;
 
-            permissionDAO.removePermission(entry, null, null, account, group, access.isCanRead(), access.isCanWrite());
+        // permissions removed by bulk delete are not seen by hibernate search so the entries are indexed explicitly
+        // (for added permissions this is merged with the update hibernate search makes for the entry)
+        session.flush();
+        FullTextSession fullTextSession = Search.getFullTextSession(session);
+        for (Entry entry : session.byMultipleIds(Entry.class).multiLoad(new ArrayList<>(changed))) {
+            if (entry != null)
+                fullTextSession.index(entry);
         }
+        return count;
     }
 }
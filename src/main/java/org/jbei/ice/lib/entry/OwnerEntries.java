@@ -1,5 +1,8 @@
 package org.jbei.ice.lib.entry;
 
+import org.jbei.ice.lib.dto.common.CursorPage;
+import org.jbei.ice.lib.dto.common.PageCursor;
+import org.jbei.ice.lib.dto.common.Results;
 import org.jbei.ice.lib.dto.entry.PartData;
 import org.jbei.ice.lib.group.GroupController;
 import org.jbei.ice.lib.shared.ColumnField;
@@ -81,6 +84,37 @@ public class OwnerEntries {
         return data;
     }
 
+    /**
+     * Retrieves a page of the owner's entries positioned using a cursor (see {@link PageCursor})
+     *
+     * @param cursor position of page
+     * @param limit  maximum number of entries to retrieve
+     * @param filter optional text to filter entries by
+     * @param fields fields to include
+     * @return wrapper around list of entries on page, the number of owner entries and the cursor for the next page
+     */
+    public Results<PartData> retrieveOwnerEntries(PageCursor cursor, int limit, String filter, List<String> fields) {
+        CursorPage page;
+
+        if (this.isAdmin || this.isSelf) {
+            page = entryDAO.retrieveOwnerEntries(this.ownerAccount.getEmail(), cursor, limit, filter);
+        } else {
+            Set<Group> accountGroups = new HashSet<>(account.getGroups());
+            GroupController controller = new GroupController();
+            Group everybodyGroup = controller.createOrRetrievePublicGroup();
+            accountGroups.add(everybodyGroup);
+            page = entryDAO.retrieveUserEntries(account, this.ownerAccount.getEmail(), accountGroups, cursor,
+                    limit, filter);
+        }
+
+        ArrayList<PartData> data = new ArrayList<>();
+        for (Long id : page.getIds()) {
+            PartData info = ModelToInfoFactory.createTableView(id, fields);
+            data.add(info);
+        }
+        return page.toResults(data, this::getNumberOfOwnerEntries);
+    }
+
     public long getNumberOfOwnerEntries() {
         if (this.isAdmin || this.isSelf) {
             return entryDAO.ownerEntryCount(ownerAccount.getEmail());
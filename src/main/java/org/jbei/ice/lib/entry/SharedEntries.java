@@ -1,5 +1,8 @@
 package org.jbei.ice.lib.entry;
 
+import org.jbei.ice.lib.dto.common.CursorPage;
+import org.jbei.ice.lib.dto.common.PageCursor;
+import org.jbei.ice.lib.dto.common.Results;
 import org.jbei.ice.lib.dto.entry.PartData;
 import org.jbei.ice.lib.group.GroupController;
 import org.jbei.ice.lib.shared.ColumnField;
@@ -53,4 +56,28 @@ public class SharedEntries {
         }
         return data;
     }
+
+    /**
+     * Retrieves a page of the entries shared with the user positioned using a cursor (see {@link PageCursor})
+     *
+     * @param cursor position of page
+     * @param limit  maximum number of entries to retrieve
+     * @param filter optional text to filter entries by
+     * @param fields fields to include
+     * @return wrapper around list of entries on page, the number of shared entries and the cursor for the next page
+     */
+    public Results<PartData> getEntries(PageCursor cursor, int limit, String filter, List<String> fields) {
+        GroupController groupController = new GroupController();
+        Group publicGroup = groupController.createOrRetrievePublicGroup();
+        Set<Group> accountGroups = account.getGroups();
+        accountGroups.remove(publicGroup);
+        CursorPage page = this.entryDAO.sharedWithUserEntries(account, accountGroups, cursor, limit, filter);
+
+        ArrayList<PartData> data = new ArrayList<>();
+        for (Long id : page.getIds()) {
+            PartData info = ModelToInfoFactory.createTableView(id, fields);
+            data.add(info);
+        }
+        return page.toResults(data, () -> getNumberOfEntries(filter));
+    }
 }
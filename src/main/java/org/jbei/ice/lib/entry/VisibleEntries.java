@@ -1,5 +1,8 @@
 package org.jbei.ice.lib.entry;
 
+import org.jbei.ice.lib.dto.common.CursorPage;
+import org.jbei.ice.lib.dto.common.PageCursor;
+import org.jbei.ice.lib.dto.common.Results;
 import org.jbei.ice.lib.dto.entry.PartData;
 import org.jbei.ice.lib.group.GroupController;
 import org.jbei.ice.lib.shared.ColumnField;
@@ -60,6 +63,34 @@ public class VisibleEntries {
         return data;
     }
 
+    /**
+     * Retrieves a page of the entries visible to the user positioned using a cursor (see {@link PageCursor})
+     *
+     * @param cursor position of page
+     * @param limit  maximum number of entries to retrieve
+     * @param filter optional text to filter entries by
+     * @param fields fields to include
+     * @return wrapper around list of entries on page, the number of visible entries and the cursor for the next page
+     */
+    public Results<PartData> getEntries(PageCursor cursor, int limit, String filter, List<String> fields) {
+        CursorPage page;
+
+        if (isAdmin) {
+            page = dao.retrieveAllEntryIds(cursor, limit, filter);
+        } else {
+            Set<Group> accountGroups = new HashSet<>(account.getGroups());
+            accountGroups.add(everybodyGroup);
+            page = dao.retrieveVisibleEntries(account, accountGroups, cursor, limit, filter, null);
+        }
+
+        ArrayList<PartData> data = new ArrayList<>();
+        for (Long id : page.getIds()) {
+            PartData info = ModelToInfoFactory.createTableView(id, fields);
+            data.add(info);
+        }
+        return page.toResults(data, () -> getEntryCount(filter));
+    }
+
     /**
      * Retrieve the number of entries that is visible to a particular user
      *
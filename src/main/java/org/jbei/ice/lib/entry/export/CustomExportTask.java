@@ -1,12 +1,18 @@
 package org.jbei.ice.lib.entry.export;
 
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
 import org.jbei.ice.lib.common.logging.Logger;
 import org.jbei.ice.lib.dto.ConfigurationKey;
 import org.jbei.ice.lib.email.EmailFactory;
 import org.jbei.ice.lib.entry.EntriesAsCSV;
 import org.jbei.ice.lib.entry.EntrySelection;
 import org.jbei.ice.lib.entry.sequence.SequenceFormat;
+import org.jbei.ice.lib.executor.PersistentTask;
 import org.jbei.ice.lib.executor.Task;
+import org.jbei.ice.lib.executor.TaskType;
 import org.jbei.ice.lib.utils.Utils;
 
 import java.io.ByteArrayOutputStream;
@@ -18,7 +24,7 @@ import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.UUID;
 
-public class CustomExportTask extends Task {
+public class CustomExportTask extends Task implements PersistentTask {
 
     private final String userId;
     private final EntrySelection selection;
@@ -32,6 +38,29 @@ public class CustomExportTask extends Task {
         tmp = Paths.get(Utils.getConfigValue(ConfigurationKey.TEMPORARY_DIRECTORY));
     }
 
+    public static CustomExportTask fromData(String data) {
+        JsonObject object = new JsonParser().parse(data).getAsJsonObject();
+        EntrySelection selection = new Gson().fromJson(object.get("selection"), EntrySelection.class);
+        JsonElement formatValue = object.get("format");
+        SequenceFormat format = formatValue == null || formatValue.isJsonNull() ? null
+                : SequenceFormat.valueOf(formatValue.getAsString());
+        return new CustomExportTask(object.get("userId").getAsString(), selection, format);
+    }
+
+    @Override
+    public TaskType getType() {
+        return TaskType.CUSTOM_EXPORT;
+    }
+
+    @Override
+    public String getData() {
+        JsonObject object = new JsonObject();
+        object.addProperty("userId", userId);
+        object.add("selection", new Gson().toJsonTree(selection));
+        object.addProperty("format", format == null ? null : format.name());
+        return object.toString();
+    }
+
     @Override
     public void execute() {
         // check for the export folder
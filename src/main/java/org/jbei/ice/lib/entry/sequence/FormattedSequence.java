@@ -0,0 +1,44 @@
+package org.jbei.ice.lib.entry.sequence;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * A sequence in a specific format (e.g. genbank) that is written to an output stream on demand, typically
+ * directly to a download response or an export archive, instead of being created in memory first
+ *
+ * @author Hector Plahar
+ */
+public class FormattedSequence {
+
+    @FunctionalInterface
+    public interface Writer {
+        void write(OutputStream outputStream) throws IOException;
+    }
+
+    private final String name;
+    private final Writer writer;
+
+    public FormattedSequence(String name, Writer writer) {
+        this.name = name;
+        this.writer = writer;
+    }
+
+    /**
+     * @return file name for the formatted sequence
+     */
+    public String getName() {
+        return name;
+    }
+
+    /**
+     * Writes the formatted sequence. The sequence is read from the database as it is written so this is expected to
+     * be called within a transaction
+     *
+     * @param outputStream stream to write to. It is not closed
+     * @throws IOException on exception writing to the stream
+     */
+    public void write(OutputStream outputStream) throws IOException {
+        writer.write(outputStream);
+    }
+}
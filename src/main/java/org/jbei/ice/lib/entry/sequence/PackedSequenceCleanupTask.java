@@ -0,0 +1,86 @@
+package org.jbei.ice.lib.entry.sequence;
+
+import org.hibernate.Session;
+import org.hibernate.Transaction;
+import org.jbei.ice.lib.common.logging.Logger;
+import org.jbei.ice.lib.executor.IceExecutorService;
+import org.jbei.ice.lib.executor.Task;
+import org.jbei.ice.lib.executor.TaskLane;
+import org.jbei.ice.storage.DAOFactory;
+import org.jbei.ice.storage.hibernate.HibernateUtil;
+import org.jbei.ice.storage.model.PackedSequence;
+
+import java.util.Date;
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Task to delete {@link PackedSequence}s that are no longer referenced by any sequence; e.g. after the residues
+ * of a sequence are updated or the sequence is deleted, or when the transaction that packed the residues was rolled
+ * back. Scheduled to run periodically on startup
+ *
+ * @author Hector Plahar
+ */
+public class PackedSequenceCleanupTask extends Task {
+
+    private static final long INTERVAL = TimeUnit.HOURS.toMillis(6);
+
+    // residues packed (or reused) more recently than this may be referenced by a sequence yet to be committed
+    private static final long MIN_AGE = TimeUnit.HOURS.toMillis(1);
+
+    private static Timer timer;
+
+    public static synchronized void schedule() {
+        if (timer != null)
+            return;
+
+        timer = new Timer("ice-packed-sequence-cleanup", true);
+        timer.scheduleAtFixedRate(new TimerTask() {
+            @Override
+            public void run() {
+                IceExecutorService.getInstance().runTask(new PackedSequenceCleanupTask());
+            }
+        }, MIN_AGE, INTERVAL);
+    }
+
+    public static synchronized void cancel() {
+        if (timer != null) {
+            timer.cancel();
+            timer = null;
+        }
+    }
+
+    @Override
+    public TaskLane getLane() {
+        return TaskLane.MAINTENANCE;
+    }
+
+    @Override
+    public int getPriority() {
+        return LOW_PRIORITY;
+    }
+
+    @Override
+    public String getKey() {
+        return "packed-sequence-cleanup";
+    }
+
+    @Override
+    public void execute() {
+        Session session = HibernateUtil.newSession();
+        Transaction transaction = session.beginTransaction();
+        try {
+            Date createdBefore = new Date(System.currentTimeMillis() - MIN_AGE);
+            int deleted = DAOFactory.getSequenceDAO().deleteUnusedPackedSequences(session, createdBefore);
+            transaction.commit();
+            if (deleted > 0)
+                Logger.info("Deleted " + deleted + " unused packed sequence(s)");
+        } catch (Exception e) {
+            transaction.rollback();
+            Logger.error("Could not delete unused packed sequences", e);
+        } finally {
+            session.close();
+        }
+    }
+}
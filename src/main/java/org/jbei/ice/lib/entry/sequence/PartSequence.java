@@ -20,21 +20,21 @@ import org.jbei.ice.lib.parsers.AbstractParser;
 import org.jbei.ice.lib.parsers.GeneralParser;
 import org.jbei.ice.lib.parsers.InvalidFormatParserException;
 import org.jbei.ice.lib.parsers.PlainParser;
+import org.jbei.ice.lib.parsers.SequenceRecord;
 import org.jbei.ice.lib.parsers.fasta.FastaParser;
 import org.jbei.ice.lib.parsers.genbank.GenBankParser;
 import org.jbei.ice.lib.parsers.sbol.SBOLParser;
 import org.jbei.ice.lib.search.blast.Action;
 import org.jbei.ice.lib.search.blast.RebuildBlastIndexTask;
+import org.jbei.ice.lib.utils.SequenceUtils;
+import org.jbei.ice.lib.utils.Utils;
 import org.jbei.ice.storage.DAOFactory;
 import org.jbei.ice.storage.hibernate.dao.FeatureDAO;
 import org.jbei.ice.storage.hibernate.dao.SequenceDAO;
 import org.jbei.ice.storage.hibernate.dao.SequenceFeatureDAO;
 import org.jbei.ice.storage.model.*;
 
-import java.io.ByteArrayInputStream;
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
-import java.io.InputStream;
+import java.io.*;
 import java.nio.charset.StandardCharsets;
 import java.util.*;
 
@@ -205,7 +205,17 @@ public class PartSequence {
                 // parse actual sequence
                 String entryType = this.entry.getRecordType();
 
-                FeaturedDNASequence dnaSequence = parser.parse(customIterator, entryType);
+                FeaturedDNASequence dnaSequence;
+                try {
+                    dnaSequence = parser.parse(customIterator, entryType);
+
+                    // parsers may stop before the end of the document; copy the rest to the sequence file
+                    while (customIterator.hasNext())
+                        customIterator.next();
+                } finally {
+                    sequenceFile.close();
+                }
+
                 Sequence sequence = SequenceUtil.dnaSequenceToSequence(dnaSequence);
                 if (sequence == null)
                     throw new IOException("Could not create sequence object");
@@ -248,6 +258,46 @@ public class PartSequence {
         saveSequenceObject(sequence);
     }
 
+    /**
+     * Associates a record from a multi-record file that has already been parsed (see
+     * {@link SequenceRecord#parse(String...)}) with this entry. The lines of the record are stored as the
+     * original sequence file
+     *
+     * @param record      record that was parsed
+     * @param dnaSequence sequence parsed from the record
+     * @param fileName    name to use for the original sequence file
+     * @return wrapper around the internal model used to represent sequence information
+     * @throws IOException on exception storing the lines of the record
+     */
+    public SequenceInfo save(SequenceRecord record, FeaturedDNASequence dnaSequence, String fileName)
+            throws IOException {
+        entryAuthorization.expectWrite(userId, entry);
+
+        if (sequenceDAO.getByEntry(this.entry) != null)
+            throw new IllegalArgumentException("Entry already has a sequence associated with it. Please delete first");
+
+        Sequence sequence = SequenceUtil.dnaSequenceToSequence(dnaSequence);
+        if (sequence == null)
+            throw new IOException("Could not create sequence object");
+
+        SequenceFile sequenceFile = new SequenceFile();
+        try {
+            for (String line : record.getLines())
+                sequenceFile.writeLine(line);
+        } finally {
+            sequenceFile.close();
+        }
+
+        sequence.setSequenceUser(sequenceFile.getFileName());
+        sequence.setFileName(fileName);
+        sequence.setFormat(record.getFormat());
+        sequence = saveSequenceObject(sequence);
+
+        SequenceInfo info = sequence.toDataTransferObject();
+        info.setSequence(dnaSequence);
+        return info;
+    }
+
     private Sequence saveSequenceObject(Sequence sequence) {
         sequence.setEntry(this.entry);
         Set<SequenceFeature> sequenceFeatureSet = null;
@@ -264,11 +314,8 @@ public class PartSequence {
         sequence = sequenceDAO.create(sequence);
 
         // separate out sequence features and uniquely create features
-        if (sequenceFeatureSet != null) {
-            for (SequenceFeature sequenceFeature : sequenceFeatureSet) {
-                createSequenceFeature(sequenceFeature, sequence);
-            }
-        }
+        if (sequenceFeatureSet != null)
+            createSequenceFeatures(sequenceFeatureSet, sequence);
 
         scheduleBlastIndexRebuildTask(Action.CREATE, sequence.getEntry().getPartNumber());
         return sequence;
@@ -321,9 +368,6 @@ public class PartSequence {
             // 3. check for removed features
             checkRemovedFeatures(existing, sequence);
 
-            // 4. check if any existing features are updated
-            checkForUpdatedFeatures(existing, sequence);
-
             // rebuild the trace sequence alignments // todo : this might not be needed for all updates
             rebuildTraceAlignments();
 
@@ -353,9 +397,10 @@ public class PartSequence {
 
         // for each existing feature check that it is in new sequence
         List<SequenceFeature> toRemoveFeatures = new ArrayList<>();
+        Map<String, List<SequenceFeature>> index = indexSequenceFeatures(sequence.getSequenceFeatures());
 
         for (SequenceFeature sequenceFeature : existing.getSequenceFeatures()) {
-            SequenceFeature foundFeature = checkFeature(sequence, sequenceFeature);
+            SequenceFeature foundFeature = checkFeature(index, sequenceFeature);
             if (foundFeature == null) {
                 // remove feature
                 Logger.info("Feature " + sequenceFeature.getName() + " was removed by user");
@@ -369,18 +414,6 @@ public class PartSequence {
         existing.getSequenceFeatures().removeAll(toRemoveFeatures);
     }
 
-    private void checkForUpdatedFeatures(Sequence existing, Sequence updated) {
-        if (existing == null || existing.getSequenceFeatures() == null || updated.getSequenceFeatures() == null)
-            return;
-
-        for (SequenceFeature existingFeature : existing.getSequenceFeatures()) {
-            // for each existing feature, check with updated for difference in name and type
-            for (SequenceFeature updatedSequenceFeature : updated.getSequenceFeatures()) {
-                Feature sequenceFeature = updatedSequenceFeature.getFeature();
-            }
-        }
-    }
-
     private void deleteSequenceFeature(SequenceFeature sequenceFeature) {
         sequenceFeature.setSequence(null);
         sequenceFeature.setFeature(null);
@@ -396,32 +429,52 @@ public class PartSequence {
         }
     }
 
-    // create new feature for the existing sequence
-    private void createSequenceFeature(SequenceFeature sequenceFeature, Sequence existing) {
-        Feature feature = sequenceFeature.getFeature();
-        if (feature == null)
+    // create new features for the existing sequence. Features are shared by sequences (unique by the hash of
+    // their sequence) so the ones that already exist are retrieved in a single query before any are created. This
+    // avoids a lookup (which also flushes the pending inserts) per feature so the inserts can be batched
+    private void createSequenceFeatures(Collection<SequenceFeature> sequenceFeatures, Sequence existing) {
+        if (sequenceFeatures.isEmpty())
             return;
 
         existing = SequenceUtil.normalizeAnnotationLocations(existing);
         if (existing == null)
             throw new IllegalArgumentException("cannot normalize sequence");
 
-        Optional<Feature> optionalFeature = featureDAO.getByFeatureSequence(feature.getSequence());
-        Feature existingFeature;
-        if (optionalFeature.isPresent()) {
-            existingFeature = optionalFeature.get();
-            if (!sameFeatureUri(optionalFeature.get(), feature)) {
-                existingFeature.setUri(feature.getUri());
+        List<String> hashes = new ArrayList<>(sequenceFeatures.size());
+        for (SequenceFeature sequenceFeature : sequenceFeatures) {
+            if (sequenceFeature.getFeature() != null)
+                hashes.add(getFeatureHash(sequenceFeature.getFeature()));
+        }
+        Map<String, Feature> features = featureDAO.getByHashes(hashes);
+
+        for (SequenceFeature sequenceFeature : sequenceFeatures) {
+            Feature feature = sequenceFeature.getFeature();
+            if (feature == null)
+                continue;
+
+            String hash = getFeatureHash(feature);
+            Feature existingFeature = features.get(hash);
+            if (existingFeature != null) {
+                if (!sameFeatureUri(existingFeature, feature)) {
+                    existingFeature.setUri(feature.getUri());
+                }
+            } else {
+                existingFeature = featureDAO.create(feature);
+                features.put(hash, existingFeature);
             }
-        } else {
-            existingFeature = featureDAO.create(feature);
+
+            sequenceFeature.setFeature(existingFeature);
+            sequenceFeature.setSequence(existing);
+            sequenceFeature = sequenceFeatureDAO.create(sequenceFeature);
+            if (existing.getSequenceFeatures() != null)
+                existing.getSequenceFeatures().add(sequenceFeature);
         }
+    }
 
-        sequenceFeature.setFeature(existingFeature);
-        sequenceFeature.setSequence(existing);
-        sequenceFeature = sequenceFeatureDAO.create(sequenceFeature);
-        if (existing.getSequenceFeatures() != null)
-            existing.getSequenceFeatures().add(sequenceFeature);
+    private String getFeatureHash(Feature feature) {
+        if (feature.getHash() != null)
+            return feature.getHash();
+        return SequenceUtils.calculateSequenceHash(feature.getSequence());
     }
 
     private boolean sameFeatureUri(Feature f1, Feature f2) {
@@ -440,34 +493,57 @@ public class PartSequence {
     private void checkForNewFeatures(Sequence existing, Sequence sequence) {
         // for each new feature, check if it is in existing sequence
         if (sequence.getSequenceFeatures() != null) {
+            Map<String, List<SequenceFeature>> index = indexSequenceFeatures(existing.getSequenceFeatures());
+            List<SequenceFeature> newFeatures = new ArrayList<>();
             for (SequenceFeature sequenceFeature : sequence.getSequenceFeatures()) {
-                SequenceFeature matchingFeature = checkFeature(existing, sequenceFeature);
+                SequenceFeature matchingFeature = checkFeature(index, sequenceFeature);
                 if (matchingFeature != null)
                     Logger.info("Feature " + sequenceFeature.getName() + " is an existing feature");
                 else {
                     Logger.info("Feature " + sequenceFeature.getName() + " is not an existing feature");
-                    // create new feature
-                    createSequenceFeature(sequenceFeature, existing);
+                    newFeatures.add(sequenceFeature);
                 }
             }
+
+            // create new features
+            createSequenceFeatures(newFeatures, existing);
         }
     }
 
-    // look for sequenceFeature in list of existing sequenceFeatures
+    // index of sequence features by the hash of their feature and their strand, for matching the features of an
+    // updated sequence against the existing ones without comparing every pair
+    private Map<String, List<SequenceFeature>> indexSequenceFeatures(Collection<SequenceFeature> sequenceFeatures) {
+        Map<String, List<SequenceFeature>> index = new HashMap<>();
+        if (sequenceFeatures == null)
+            return index;
+
+        for (SequenceFeature sequenceFeature : sequenceFeatures) {
+            if (sequenceFeature.getFeature() == null)
+                continue;
+            index.computeIfAbsent(getIndexKey(sequenceFeature), key -> new ArrayList<>()).add(sequenceFeature);
+        }
+        return index;
+    }
+
+    private String getIndexKey(SequenceFeature sequenceFeature) {
+        return getFeatureHash(sequenceFeature.getFeature()) + ":" + sequenceFeature.getStrand();
+    }
+
+    // look for sequenceFeature in the index of existing sequenceFeatures
     // feature and sequenceFeature are different objects in the database. sequenceFeature is created for each new feature
     // while feature can be reused
     // returns matching existing feature or null if no match
-    private SequenceFeature checkFeature(Sequence existing, SequenceFeature sequenceFeature) {
-        if (existing.getSequenceFeatures() == null)
+    private SequenceFeature checkFeature(Map<String, List<SequenceFeature>> index, SequenceFeature sequenceFeature) {
+        if (sequenceFeature.getFeature() == null)
             return null;
 
         // is sequence feature already available
-        // important parts are strand and location
-        for (SequenceFeature existingSequenceFeature : existing.getSequenceFeatures()) {
+        // important parts are strand and location (features with the same strand and feature hash are indexed together)
+        List<SequenceFeature> candidates = index.get(getIndexKey(sequenceFeature));
+        if (candidates == null)
+            return null;
 
-            // compare
-            if (existingSequenceFeature.getStrand() != sequenceFeature.getStrand())
-                continue;
+        for (SequenceFeature existingSequenceFeature : candidates) {
 
             // check annotation locations (doesnt support modification of annotation locations so exact matches are required)
             if (existingSequenceFeature.getAnnotationLocations().size() != sequenceFeature.getAnnotationLocations().size())
@@ -511,92 +587,102 @@ public class PartSequence {
     }
 
     /**
-     * Convert sequence to a byte array of the specified format with the intention of being written to a file
+     * Convert sequence to a byte array of the specified format with the intention of being written to a file.
+     * The formatted sequence is held in memory; use {@link #toStream(SequenceFormat)} to write it out directly
      *
      * @param format specified format for sequence conversion
      * @return wrapper around the outputstream for the converted format and name
      */
     public InputStreamWrapper toFile(SequenceFormat format) {
-        entryAuthorization.expectRead(userId, entry);
-        Sequence sequence = sequenceDAO.getByEntry(entry);
-        if (sequence == null)
+        FormattedSequence formattedSequence = toStream(format);
+        if (formattedSequence == null)
             return null;
 
-        // if requested format is the same as the original format (if original exist) then get the original instead
-        if (sequence.getFormat() == format && DAOFactory.getSequenceDAO().hasOriginalSequence(entry.getId()))
-            format = SequenceFormat.ORIGINAL;
-
-        String name;
-        String sequenceString;
-
+        ByteArrayOutputStream byteStream = new ByteArrayOutputStream();
         try {
-            switch (format) {
-                case ORIGINAL:
-                    sequenceString = sequence.getSequenceUser();
-                    name = sequence.getFileName();
-                    if (StringUtils.isEmpty(name))
-                        name = entry.getPartNumber() + ".gb";
-                    try {
-                        SequenceFile sequenceFile = new SequenceFile(sequenceString);
-                        return new InputStreamWrapper(sequenceFile.getStream(), name);
-                    } catch (Exception e) {
-                        Logger.error(e);
-                        break;
-                    }
-
-                case GENBANK:
-                default:
-                    GenbankFormatter genbankFormatter = new GenbankFormatter(entry.getName());
-                    genbankFormatter.setCircular((entry instanceof Plasmid) ? ((Plasmid) entry).getCircular() : false);
-                    sequenceString = compose(sequence, genbankFormatter);
-                    name = entry.getPartNumber() + ".gb";
-                    break;
-
-                case FASTA:
-                    FastaFormatter formatter = new FastaFormatter();
-                    sequenceString = compose(sequence, formatter);
-                    name = entry.getPartNumber() + ".fa";
-                    break;
-
-                case SBOL1:
-                    sequenceString = compose(sequence, new SBOLFormatter());
-                    name = entry.getPartNumber() + ".xml";
-                    break;
-
-                case SBOL2:
-                    sequenceString = compose(sequence, new SBOL2Formatter());
-                    name = entry.getPartNumber() + ".xml";
-                    break;
-
-                case GFF3:
-                    sequenceString = compose(sequence, new GFF3Formatter());
-                    name = entry.getPartNumber() + ".gff3";
-                    break;
-            }
+            formattedSequence.write(byteStream);
         } catch (Exception e) {
             Logger.error("Failed to generate " + format.name() + " file for download!", e);
             return null;
         }
 
-        ByteArrayInputStream stream = new ByteArrayInputStream(sequenceString.getBytes());
-        return new InputStreamWrapper(stream, name);
+        ByteArrayInputStream stream = new ByteArrayInputStream(byteStream.toByteArray());
+        return new InputStreamWrapper(stream, formattedSequence.getName());
     }
 
     /**
-     * Generate a formatted text of a given {@link IFormatter} from the given {@link Sequence}.
+     * Creates the sequence in the specified format to be written out (e.g. to a download response). Nothing is
+     * formatted until it is written, at which point the genbank, fasta and gff3 formats are written incrementally
+     * from the residues and features stored in the database (see {@link StoredSequence}). The original uploaded file
+     * is copied from disk. The SBOL formats are created by libraries that require the entire sequence so it is loaded
+     * for those.
      *
-     * @param sequence  sequence
-     * @param formatter formatter
-     * @return Text of a formatted sequence.
+     * @param format specified format for sequence conversion
+     * @return formatted sequence, or null if the entry does not have a sequence
      */
-    protected String compose(Sequence sequence, IFormatter formatter) {
-        ByteArrayOutputStream byteStream = new ByteArrayOutputStream();
-        try {
-            formatter.format(sequence, byteStream);
-        } catch (IOException e) {
-            Logger.error(e);
+    public FormattedSequence toStream(SequenceFormat format) {
+        entryAuthorization.expectRead(userId, entry);
+        Optional<Long> result = sequenceDAO.getSequenceId(entry.getId());
+        if (!result.isPresent())
+            return null;
+
+        final long sequenceId = result.get();
+        final String partNumber = entry.getPartNumber();
+
+        // if requested format is the same as the original format (if original exist) then get the original instead
+        if (sequenceDAO.getSequenceFormat(entry.getId()).orElse(null) == format
+                && sequenceDAO.hasOriginalSequence(entry.getId()))
+            format = SequenceFormat.ORIGINAL;
+
+        switch (format) {
+            case ORIGINAL:
+                String name = sequenceDAO.getSequenceFilename(entry);
+                if (StringUtils.isEmpty(name))
+                    name = partNumber + ".gb";
+                String fileName = sequenceDAO.getSequenceUser(sequenceId);
+                return new FormattedSequence(name, outputStream -> {
+                    try (InputStream inputStream = new SequenceFile(fileName).getStream()) {
+                        IOUtils.copy(inputStream, outputStream);
+                    }
+                });
+
+            case GENBANK:
+            default:
+                GenbankFormatter genbankFormatter = new GenbankFormatter(entry.getName());
+                genbankFormatter.setCircular((entry instanceof Plasmid) ? ((Plasmid) entry).getCircular() : false);
+                return new FormattedSequence(partNumber + ".gb", outputStream ->
+                        genbankFormatter.format(new StoredSequence(sequenceId, partNumber), outputStream));
+
+            case FASTA:
+                return new FormattedSequence(partNumber + ".fa", outputStream ->
+                        new FastaFormatter().format(new StoredSequence(sequenceId, partNumber), outputStream));
+
+            case SBOL1:
+                return new FormattedSequence(partNumber + ".xml", outputStream ->
+                        compose(sequenceId, new SBOLFormatter(), outputStream));
+
+            case SBOL2:
+                return new FormattedSequence(partNumber + ".xml", outputStream ->
+                        compose(sequenceId, new SBOL2Formatter(), outputStream));
+
+            case GFF3:
+                return new FormattedSequence(partNumber + ".gff3", outputStream ->
+                        new GFF3Formatter().format(new StoredSequence(sequenceId, partNumber), outputStream));
         }
-        return byteStream.toString();
+    }
+
+    /**
+     * Format the (entire) sequence using the given {@link IFormatter}.
+     *
+     * @param sequenceId   identifier for sequence
+     * @param formatter    formatter
+     * @param outputStream stream to write formatted sequence to
+     */
+    protected void compose(long sequenceId, IFormatter formatter, OutputStream outputStream) throws IOException {
+        Sequence sequence = SequenceUtil.normalizeAnnotationLocations(sequenceDAO.get(sequenceId));
+        if (sequence == null)
+            throw new IOException("Could not retrieve sequence " + sequenceId);
+        formatter.format(sequence, outputStream);
     }
 
     private void rebuildTraceAlignments() {
@@ -613,12 +699,8 @@ public class PartSequence {
         FeaturedDNASequence featuredDNASequence = SequenceUtil.sequenceToDNASequence(sequence, sequenceFeatures);
         featuredDNASequence.setCanEdit(canEdit);
         featuredDNASequence.setIdentifier(entry.getPartNumber());
-        Configuration configuration = DAOFactory.getConfigurationDAO().get(ConfigurationKey.URI_PREFIX);
-
-        if (configuration != null) {
-            String uriPrefix = configuration.getValue();
-            featuredDNASequence.setUri(uriPrefix + "/entry/" + entry.getId());
-        }
+        String uriPrefix = Utils.getConfigValue(ConfigurationKey.URI_PREFIX);
+        featuredDNASequence.setUri(uriPrefix + "/entry/" + entry.getId());
         return featuredDNASequence;
     }
 }
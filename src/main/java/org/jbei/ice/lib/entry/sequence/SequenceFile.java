@@ -1,28 +1,27 @@
 package org.jbei.ice.lib.entry.sequence;
 
-import org.apache.commons.io.FileUtils;
 import org.jbei.ice.lib.dto.ConfigurationKey;
 import org.jbei.ice.lib.utils.Utils;
 
-import java.io.FileInputStream;
-import java.io.FileNotFoundException;
-import java.io.IOException;
-import java.io.InputStream;
+import java.io.*;
+import java.nio.charset.Charset;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
 import java.util.UUID;
 
 /**
- * Represents a locally stored sequence file
+ * Represents a locally stored sequence file. Lines written to the file are buffered until it is closed
  *
  * @author Hector Plahar
  */
-public class SequenceFile {
+public class SequenceFile implements Closeable {
 
     private final Path path;
     private String fileName;
     private boolean deleted;
+    private Writer writer;
 
     public SequenceFile() throws IOException {
         Path directoryPath = Paths.get(Utils.getConfigValue(ConfigurationKey.DATA_DIRECTORY), "sequences");
@@ -54,14 +53,30 @@ public class SequenceFile {
         if (deleted)
             throw new IOException("File has been deleted");
 
-        line += System.lineSeparator();
-        FileUtils.writeByteArrayToFile(path.toFile(), line.getBytes(), true);
+        if (writer == null)
+            writer = Files.newBufferedWriter(path, Charset.defaultCharset(), StandardOpenOption.CREATE,
+                    StandardOpenOption.APPEND);
+        writer.write(line);
+        writer.write(System.lineSeparator());
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (writer == null)
+            return;
+
+        writer.close();
+        writer = null;
     }
 
     public void delete() throws IOException {
         deleted = true;
-        Files.deleteIfExists(path);
-        fileName = null;
+        try {
+            close();
+        } finally {
+            Files.deleteIfExists(path);
+            fileName = null;
+        }
     }
 
     public boolean isDeleted() {
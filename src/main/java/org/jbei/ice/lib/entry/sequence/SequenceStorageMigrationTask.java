@@ -0,0 +1,75 @@
+package org.jbei.ice.lib.entry.sequence;
+
+import org.hibernate.Session;
+import org.hibernate.Transaction;
+import org.jbei.ice.lib.common.logging.Logger;
+import org.jbei.ice.lib.executor.Task;
+import org.jbei.ice.lib.executor.TaskLane;
+import org.jbei.ice.storage.DAOFactory;
+import org.jbei.ice.storage.hibernate.HibernateUtil;
+import org.jbei.ice.storage.hibernate.dao.SequenceDAO;
+import org.jbei.ice.storage.model.PackedSequence;
+
+import java.util.List;
+
+/**
+ * Task to move the residues of sequences created before packed storage into {@link PackedSequence}s. Run on
+ * startup; each batch is committed in its own transaction so an interrupted migration resumes where it stopped the
+ * next time it is run. Packed residues no longer referenced by any sequence are deleted separately, by the
+ * periodic {@link PackedSequenceCleanupTask}
+ *
+ * @author Hector Plahar
+ */
+public class SequenceStorageMigrationTask extends Task {
+
+    private static final int BATCH_SIZE = 100;
+
+    @Override
+    public TaskLane getLane() {
+        return TaskLane.MAINTENANCE;
+    }
+
+    @Override
+    public int getPriority() {
+        return LOW_PRIORITY;
+    }
+
+    @Override
+    public String getKey() {
+        return "sequence-storage";
+    }
+
+    @Override
+    public void execute() {
+        SequenceDAO dao = DAOFactory.getSequenceDAO();
+        Session session = HibernateUtil.newSession();
+        long lastId = 0;
+        int count = 0;
+
+        try {
+            List<Long> ids;
+            do {
+                Transaction transaction = session.beginTransaction();
+                try {
+                    ids = dao.packSequenceBatch(session, lastId, BATCH_SIZE);
+                    transaction.commit();
+                } catch (Exception e) {
+                    transaction.rollback();
+                    throw e;
+                }
+                session.clear();
+
+                if (!ids.isEmpty())
+                    lastId = ids.get(ids.size() - 1);
+                count += ids.size();
+            } while (ids.size() == BATCH_SIZE);
+
+            if (count > 0)
+                Logger.info("Packed residues of " + count + " sequence(s)");
+        } catch (Exception e) {
+            Logger.error("Could not migrate sequence storage", e);
+        } finally {
+            session.close();
+        }
+    }
+}
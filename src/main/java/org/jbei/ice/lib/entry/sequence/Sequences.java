@@ -14,6 +14,7 @@ import org.jbei.ice.lib.entry.EntryAuthorization;
 import org.jbei.ice.lib.entry.HasEntry;
 import org.jbei.ice.lib.parsers.GeneralParser;
 import org.jbei.ice.lib.parsers.InvalidFormatParserException;
+import org.jbei.ice.lib.utils.Utils;
 import org.jbei.ice.storage.DAOFactory;
 import org.jbei.ice.storage.hibernate.dao.SequenceDAO;
 import org.jbei.ice.storage.model.*;
@@ -96,7 +97,7 @@ public class Sequences {
         featuredDNASequence.setIdentifier(entry.getPartNumber());
 
 
-        String uriPrefix = DAOFactory.getConfigurationDAO().get(ConfigurationKey.URI_PREFIX).getValue();
+        String uriPrefix = Utils.getConfigValue(ConfigurationKey.URI_PREFIX);
         if (!StringUtils.isEmpty(uriPrefix)) {
             featuredDNASequence.setUri(uriPrefix + "/entry/" + entry.getId());
         }
@@ -0,0 +1,143 @@
+package org.jbei.ice.lib.entry.sequence;
+
+import org.jbei.ice.lib.entry.sequence.composers.formatters.SequenceContent;
+import org.jbei.ice.storage.DAOFactory;
+import org.jbei.ice.storage.hibernate.dao.SequenceDAO;
+import org.jbei.ice.storage.hibernate.dao.SequenceFeatureDAO;
+import org.jbei.ice.storage.model.AnnotationLocation;
+import org.jbei.ice.storage.model.PackedSequence;
+import org.jbei.ice.storage.model.SequenceFeature;
+
+import java.io.Reader;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+import java.util.Optional;
+
+/**
+ * Content of a sequence that is read from the database as it is formatted. The residues are read in chunks
+ * and the features in batches, so the memory used does not depend on the size of the sequence.
+ * <p>
+ * The reads use the current session, so the content is expected to be formatted within a transaction
+ *
+ * @author Hector Plahar
+ */
+public class StoredSequence implements SequenceContent {
+
+    static final int CHUNK_SIZE = 65536;
+    static final int FEATURE_BATCH_SIZE = 200;
+
+    private final long sequenceId;
+    private final String partNumber;
+    private final SequenceDAO sequenceDAO;
+    private final SequenceFeatureDAO sequenceFeatureDAO;
+    private int length = -1;
+
+    public StoredSequence(long sequenceId, String partNumber) {
+        this.sequenceId = sequenceId;
+        this.partNumber = partNumber;
+        this.sequenceDAO = DAOFactory.getSequenceDAO();
+        this.sequenceFeatureDAO = DAOFactory.getSequenceFeatureDAO();
+    }
+
+    @Override
+    public String getPartNumber() {
+        return partNumber;
+    }
+
+    @Override
+    public int getLength() {
+        if (length == -1)
+            length = sequenceDAO.getSequenceLength(sequenceId);
+        return length;
+    }
+
+    /**
+     * Packed residues are decoded as they are read; residues of sequences that have not been packed yet are
+     * read from the database in chunks
+     */
+    @Override
+    public Reader getResidues() {
+        Optional<PackedSequence> packedSequence = sequenceDAO.getPackedSequence(sequenceId);
+        if (packedSequence.isPresent()) {
+            length = packedSequence.get().getLength();
+            return packedSequence.get().getResiduesReader();
+        }
+
+        return new Reader() {
+            private String chunk = "";
+            private int position;       // position of chunk in sequence
+            private int index;          // position in chunk
+
+            @Override
+            public int read(char[] buffer, int offset, int count) {
+                if (index == chunk.length()) {
+                    position += chunk.length();
+                    if (position >= getLength())
+                        return -1;
+
+                    chunk = sequenceDAO.getSequenceChunk(sequenceId, position, CHUNK_SIZE);
+                    index = 0;
+                    if (chunk.isEmpty())
+                        return -1;
+                }
+
+                int read = Math.min(count, chunk.length() - index);
+                chunk.getChars(index, index + read, buffer, offset);
+                index += read;
+                return read;
+            }
+
+            @Override
+            public void close() {
+                chunk = "";
+                index = 0;
+            }
+        };
+    }
+
+    /**
+     * Features are returned in the order they were created
+     */
+    @Override
+    public Iterator<SequenceFeature> getFeatures() {
+        return new Iterator<SequenceFeature>() {
+            private List<SequenceFeature> batch;
+            private int index;
+            private long lastId;
+
+            @Override
+            public boolean hasNext() {
+                if (batch == null || (index == batch.size() && batch.size() == FEATURE_BATCH_SIZE)) {
+                    batch = sequenceFeatureDAO.getFeatureBatch(sequenceId, lastId, FEATURE_BATCH_SIZE);
+                    index = 0;
+                }
+                return index < batch.size();
+            }
+
+            @Override
+            public SequenceFeature next() {
+                if (!hasNext())
+                    throw new NoSuchElementException();
+
+                SequenceFeature sequenceFeature = batch.get(index);
+                index += 1;
+                lastId = sequenceFeature.getId();
+                return normalize(sequenceFeature);
+            }
+        };
+    }
+
+    // same as SequenceUtil#normalizeAnnotationLocations for a single feature
+    private SequenceFeature normalize(SequenceFeature sequenceFeature) {
+        for (AnnotationLocation location : sequenceFeature.getAnnotationLocations()) {
+            if (location.getGenbankStart() == location.getEnd() + 1) {
+                sequenceFeature.setStrand(1);
+                sequenceFeature.getAnnotationLocations().clear();
+                sequenceFeature.getAnnotationLocations().add(new AnnotationLocation(1, getLength(), sequenceFeature));
+                break;
+            }
+        }
+        return sequenceFeature;
+    }
+}
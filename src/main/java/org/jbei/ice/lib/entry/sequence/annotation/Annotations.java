@@ -1,22 +1,23 @@
 package org.jbei.ice.lib.entry.sequence.annotation;
 
+import org.hibernate.Transaction;
 import org.jbei.ice.lib.access.PermissionException;
 import org.jbei.ice.lib.account.AccountType;
-import org.jbei.ice.lib.common.logging.Logger;
 import org.jbei.ice.lib.dto.DNAFeature;
 import org.jbei.ice.lib.dto.DNAFeatureLocation;
 import org.jbei.ice.lib.dto.DNAFeatures;
 import org.jbei.ice.lib.dto.FeaturedDNASequence;
 import org.jbei.ice.lib.dto.common.Results;
-import org.jbei.ice.lib.dto.search.BlastQuery;
+import org.jbei.ice.lib.entry.EntryAuthorization;
 import org.jbei.ice.lib.executor.IceExecutorService;
 import org.jbei.ice.lib.group.GroupController;
-import org.jbei.ice.lib.search.blast.BlastException;
-import org.jbei.ice.lib.search.blast.FeaturesBlastDatabase;
 import org.jbei.ice.storage.DAOFactory;
+import org.jbei.ice.storage.hibernate.HibernateUtil;
 import org.jbei.ice.storage.hibernate.dao.*;
 import org.jbei.ice.storage.model.*;
 
+import javax.transaction.Status;
+import javax.transaction.Synchronization;
 import java.util.List;
 import java.util.Map;
 
@@ -30,24 +31,24 @@ public class Annotations {
     private final String userId;
     private final FeatureDAO featureDAO;
     private final SequenceFeatureDAO sequenceFeatureDAO;
-    private final PermissionDAO permissionDAO;
+    private final EntryAuthorization entryAuthorization;
     private final GroupDAO groupDAO;
     private final FeatureCurationModelDAO curationModelDAO;
     private final EntryDAO entryDAO;
     private final AccountDAO accountDAO;
-    private final FeaturesBlastDatabase featuresBlastDatabase;
+    private final FeatureMatcher featureMatcher;
 
     public Annotations(String userId) {
         this.sequenceDAO = DAOFactory.getSequenceDAO();
         this.featureDAO = DAOFactory.getFeatureDAO();
         this.sequenceFeatureDAO = DAOFactory.getSequenceFeatureDAO();
-        this.permissionDAO = DAOFactory.getPermissionDAO();
+        this.entryAuthorization = new EntryAuthorization();
         this.groupDAO = DAOFactory.getGroupDAO();
         this.userId = userId;
         this.curationModelDAO = DAOFactory.getFeatureCurationModelDAO();
         this.entryDAO = DAOFactory.getEntryDAO();
         this.accountDAO = DAOFactory.getAccountDAO();
-        this.featuresBlastDatabase = new FeaturesBlastDatabase();
+        this.featureMatcher = FeatureMatcher.getInstance();
     }
 
     /**
@@ -130,50 +131,43 @@ public class Annotations {
             return null;
 
         String sequenceString = sequence.getSequence();
-        BlastQuery query = new BlastQuery();
-        query.setSequence(sequenceString);
-
-        try {
-            List<DNAFeature> features = featuresBlastDatabase.runBlast(query);
-            FeaturedDNASequence dnaSequence = new FeaturedDNASequence();
-            if (features.isEmpty())
-                return dnaSequence;
-
-            // check permissions
-            Account account = accountDAO.getByEmail(userId);
-            List<Group> groups = this.groupDAO.retrieveMemberGroups(account);
-
-            for (DNAFeature dnaFeature : features) {
-                Feature feature = this.featureDAO.get(dnaFeature.getId());
-                if (feature == null)
-                    continue;
+        boolean circular = (entry instanceof Plasmid) && Boolean.TRUE.equals(((Plasmid) entry).getCircular());
+        List<DNAFeature> features = featureMatcher.match(sequenceString, circular);
+        FeaturedDNASequence dnaSequence = new FeaturedDNASequence();
+        if (features.isEmpty())
+            return dnaSequence;
 
-                List<Long> entries = this.sequenceFeatureDAO.getEntryIdsByFeature(feature);
-                if (entries.isEmpty())
-                    continue;
+        // check permissions
+        Account account = accountDAO.getByEmail(userId);
+        List<Group> groups = this.groupDAO.retrieveMemberGroups(account);
 
-                if (!isAdministrator()) {
-                    entries = this.permissionDAO.getCanReadEntries(account, groups, entries);
-                    if (entries.isEmpty())
-                        continue;
-                }
+        for (DNAFeature dnaFeature : features) {
+            Feature feature = this.featureDAO.get(dnaFeature.getId());
+            if (feature == null)
+                continue;
 
-                if (ownerFeatures) {
-                    entries = this.entryDAO.filterByUserId(this.userId, entries);
-                }
+            List<Long> entries = this.sequenceFeatureDAO.getEntryIdsByFeature(feature);
+            if (entries.isEmpty())
+                continue;
 
-                if (entries != null && !entries.isEmpty()) {
-                    dnaFeature.getEntries().addAll(entries);
-                    dnaSequence.getFeatures().add(dnaFeature);
-                }
+            if (!isAdministrator()) {
+                entries = this.entryAuthorization.getCanReadEntries(account, groups, entries);
+                if (entries.isEmpty())
+                    continue;
             }
 
-            dnaSequence.setLength(sequenceString.length());
-            return dnaSequence;
-        } catch (BlastException e) {
-            Logger.error(e);
-            return null;
+            if (ownerFeatures) {
+                entries = this.entryDAO.filterByUserId(this.userId, entries);
+            }
+
+            if (entries != null && !entries.isEmpty()) {
+                dnaFeature.getEntries().addAll(entries);
+                dnaSequence.getFeatures().add(dnaFeature);
+            }
         }
+
+        dnaSequence.setLength(sequenceString.length());
+        return dnaSequence;
     }
 
     /**
@@ -184,21 +178,13 @@ public class Annotations {
      * @return wrapper around passed sequence and now with list if annotations for that sequence
      */
     public FeaturedDNASequence generate(FeaturedDNASequence sequence) {
-        BlastQuery query = new BlastQuery();
-        query.setSequence(sequence.getSequence());
-
-        try {
-            List<DNAFeature> features = featuresBlastDatabase.runBlast(query);
-            sequence.getFeatures().addAll(features);
-            return sequence;
-        } catch (BlastException e) {
-            Logger.error(e);
-            return null;
-        }
+        List<DNAFeature> features = featureMatcher.match(sequence.getSequence(), sequence.getIsCircular());
+        sequence.getFeatures().addAll(features);
+        return sequence;
     }
 
     /**
-     * Rebuild the annotations blast database
+     * Rebuild the auto annotations feature matcher
      *
      * @throws PermissionException if the specified user does not have administrator privileges
      */
@@ -206,8 +192,8 @@ public class Annotations {
         if (!isAdministrator())
             throw new PermissionException("Administrative privileges required to rebuild blast features");
 
-        AutoAnnotationBlastDbBuildTask autoAnnotationBlastDbBuildTask = new AutoAnnotationBlastDbBuildTask(true);
-        IceExecutorService.getInstance().runTask(autoAnnotationBlastDbBuildTask);
+        AutoAnnotationBuildTask autoAnnotationBuildTask = new AutoAnnotationBuildTask();
+        IceExecutorService.getInstance().runTask(autoAnnotationBuildTask);
     }
 
     protected boolean isAdministrator() {
@@ -225,6 +211,7 @@ public class Annotations {
         if (!isAdministrator())
             throw new PermissionException("Administrative privileges required to curate features");
 
+        boolean recompile = false;
         for (DNAFeature dnaFeature : features) {
             if (dnaFeature.getCuration() == null)
                 continue;
@@ -250,7 +237,32 @@ public class Annotations {
             if (curationModel != null) {
                 feature.setCuration(curationModel);
                 featureDAO.update(feature);
+                recompile |= featureMatcher.setExcluded(feature.getId(), curationModel.isExclude());
             }
         }
+
+        // features that are no longer excluded are only matched once recompiled (with the committed curation)
+        if (recompile)
+            rebuildOnCommit();
+    }
+
+    private void rebuildOnCommit() {
+        Transaction transaction = HibernateUtil.getSessionFactory().getCurrentSession().getTransaction();
+        if (!transaction.isActive()) {
+            IceExecutorService.getInstance().runTask(new AutoAnnotationBuildTask());
+            return;
+        }
+
+        transaction.registerSynchronization(new Synchronization() {
+            @Override
+            public void beforeCompletion() {
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                if (status == Status.STATUS_COMMITTED)
+                    IceExecutorService.getInstance().runTask(new AutoAnnotationBuildTask());
+            }
+        });
     }
 }
@@ -0,0 +1,82 @@
+package org.jbei.ice.lib.entry.sequence.annotation;
+
+import org.jbei.ice.lib.common.logging.Logger;
+import org.jbei.ice.lib.executor.IceExecutorService;
+import org.jbei.ice.lib.executor.Task;
+import org.jbei.ice.lib.executor.TaskLane;
+
+import java.util.Calendar;
+import java.util.Timer;
+import java.util.TimerTask;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Task to rebuild the matcher of features used for auto annotation. Exclusions are applied to the matcher
+ * immediately so this is only needed to pick up new features and features that are no longer excluded
+ * <p>
+ * Each run rebuilds the matcher once. On startup the task is also scheduled to run daily at a specific time of day
+ * </p>
+ *
+ * @author Hector Plahar
+ */
+public class AutoAnnotationBuildTask extends Task {
+
+    private static final int RUN_HOUR = 1;    // make config param
+    private static Timer timer;
+    private final FeatureMatcher featureMatcher;
+
+    public AutoAnnotationBuildTask() {
+        featureMatcher = FeatureMatcher.getInstance();
+    }
+
+    /**
+     * Schedules the task to run daily at {@link #RUN_HOUR}
+     */
+    public static synchronized void schedule() {
+        if (timer != null)
+            return;
+
+        Calendar calendar = Calendar.getInstance();
+        if (calendar.get(Calendar.HOUR_OF_DAY) >= RUN_HOUR)
+            calendar.add(Calendar.DAY_OF_MONTH, 1);
+        calendar.set(Calendar.HOUR_OF_DAY, RUN_HOUR);
+        calendar.set(Calendar.MINUTE, 0);
+        calendar.set(Calendar.SECOND, 0);
+        calendar.set(Calendar.MILLISECOND, 0);
+
+        timer = new Timer("ice-annotation-rebuild", true);
+        timer.scheduleAtFixedRate(new TimerTask() {
+            @Override
+            public void run() {
+                IceExecutorService.getInstance().runTask(new AutoAnnotationBuildTask());
+            }
+        }, calendar.getTime(), TimeUnit.DAYS.toMillis(1));
+    }
+
+    public static synchronized void cancel() {
+        if (timer != null) {
+            timer.cancel();
+            timer = null;
+        }
+    }
+
+    @Override
+    public TaskLane getLane() {
+        return TaskLane.INDEXING;
+    }
+
+    @Override
+    public String getKey() {
+        return "annotation";
+    }
+
+    @Override
+    public void execute() {
+        Logger.info("Rebuilding auto annotation feature matcher");
+        try {
+            featureMatcher.rebuild();
+        } catch (Exception e) {
+            Logger.error(e);
+        }
+    }
+}
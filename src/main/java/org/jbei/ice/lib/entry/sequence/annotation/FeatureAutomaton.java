@@ -0,0 +1,240 @@
+package org.jbei.ice.lib.entry.sequence.annotation;
+
+import java.util.ArrayDeque;
+import java.util.Arrays;
+import java.util.Queue;
+
+/**
+ * Aho-Corasick automaton over the nucleotide alphabet (a, c, g, t) used to find all exact occurrences of a
+ * set of patterns in a sequence in a single linear scan.
+ * <p>
+ * The goto function is completed with the failure transitions when the automaton is built so that scanning
+ * is a single table lookup per residue. Each pattern is associated with an integer value that is reported
+ * with each match. Instances are immutable once built and can be shared between threads.
+ *
+ * @author Hector Plahar
+ */
+class FeatureAutomaton {
+
+    private static final int ALPHABET = 4;
+
+    private final int[] transitions;       // state * ALPHABET + symbol -> next state
+    private final int[] outputs;           // first pattern ending at state, or -1
+    private final int[] dictionaryLinks;   // nearest state on failure path with an output, or -1
+    private final int[] nextOutputs;       // next pattern ending at the same state, or -1
+    private final int[] patternLengths;
+    private final int[] patternValues;
+    private final int maxPatternLength;
+
+    private FeatureAutomaton(Builder builder) {
+        int stateCount = builder.stateCount;
+        this.transitions = Arrays.copyOf(builder.transitions, stateCount * ALPHABET);
+        this.outputs = Arrays.copyOf(builder.outputs, stateCount);
+        this.patternLengths = Arrays.copyOf(builder.patternLengths, builder.patternCount);
+        this.patternValues = Arrays.copyOf(builder.patternValues, builder.patternCount);
+        this.nextOutputs = Arrays.copyOf(builder.nextOutputs, builder.patternCount);
+        this.maxPatternLength = builder.maxPatternLength;
+        this.dictionaryLinks = new int[stateCount];
+        link(stateCount);
+    }
+
+    static Builder builder() {
+        return new Builder();
+    }
+
+    /**
+     * @param residue nucleotide
+     * @return encoded value (0 - 3) for the residue or -1 if it is not one of a, c, g or t
+     */
+    static int encode(char residue) {
+        switch (residue) {
+            case 'a':
+            case 'A':
+                return 0;
+            case 'c':
+            case 'C':
+                return 1;
+            case 'g':
+            case 'G':
+                return 2;
+            case 't':
+            case 'T':
+                return 3;
+            default:
+                return -1;
+        }
+    }
+
+    int getPatternCount() {
+        return patternLengths.length;
+    }
+
+    int getStateCount() {
+        return outputs.length;
+    }
+
+    /**
+     * Reports every occurrence of the patterns in this automaton in the specified sequence. Residues that are not
+     * one of a, c, g or t do not match any pattern.
+     * <p>
+     * For circular sequences, the scan continues past the end of the sequence into its start so that
+     * occurrences that span the origin are also found. Each occurrence is reported once, with its start position
+     * in the sequence; the end of an occurrence that spans the origin therefore wraps around.
+     *
+     * @param sequence sequence to scan
+     * @param circular whether the sequence is circular
+     * @param consumer receives the value of the matching pattern and the (0-based) start of the occurrence
+     */
+    void scan(CharSequence sequence, boolean circular, MatchConsumer consumer) {
+        int length = sequence.length();
+        if (length == 0)
+            return;
+
+        int scanLength = length;
+        if (circular)
+            scanLength += Math.min(maxPatternLength, length) - 1;
+
+        int state = 0;
+        for (int i = 0; i < scanLength; i += 1) {
+            int symbol = encode(sequence.charAt(i < length ? i : i - length));
+            if (symbol == -1) {
+                state = 0;
+                continue;
+            }
+
+            state = transitions[state * ALPHABET + symbol];
+            int outputState = outputs[state] != -1 ? state : dictionaryLinks[state];
+            while (outputState != -1) {
+                for (int pattern = outputs[outputState]; pattern != -1; pattern = nextOutputs[pattern]) {
+                    int start = i - patternLengths[pattern] + 1;
+                    // occurrences starting past the origin have already been reported in the first pass
+                    if (start < length && patternLengths[pattern] <= length)
+                        consumer.accept(patternValues[pattern], start);
+                }
+                outputState = dictionaryLinks[outputState];
+            }
+        }
+    }
+
+    /**
+     * Computes the failure function with a breadth first traversal, using it to complete the goto function
+     * and to set the dictionary (output) links
+     */
+    private void link(int stateCount) {
+        int[] failure = new int[stateCount];
+        Queue<Integer> queue = new ArrayDeque<>();
+        dictionaryLinks[0] = -1;
+
+        for (int symbol = 0; symbol < ALPHABET; symbol += 1) {
+            int next = transitions[symbol];
+            if (next == -1) {
+                transitions[symbol] = 0;
+            } else {
+                failure[next] = 0;
+                dictionaryLinks[next] = -1;
+                queue.add(next);
+            }
+        }
+
+        while (!queue.isEmpty()) {
+            int state = queue.poll();
+            for (int symbol = 0; symbol < ALPHABET; symbol += 1) {
+                int index = state * ALPHABET + symbol;
+                int next = transitions[index];
+                int fallback = transitions[failure[state] * ALPHABET + symbol];
+                if (next == -1) {
+                    transitions[index] = fallback;
+                    continue;
+                }
+
+                failure[next] = fallback;
+                dictionaryLinks[next] = outputs[fallback] != -1 ? fallback : dictionaryLinks[fallback];
+                queue.add(next);
+            }
+        }
+    }
+
+    @FunctionalInterface
+    interface MatchConsumer {
+        void accept(int value, int start);
+    }
+
+    static class Builder {
+
+        private int[] transitions = new int[ALPHABET * 1024];
+        private int[] outputs = new int[1024];
+        private int[] patternLengths = new int[256];
+        private int[] patternValues = new int[256];
+        private int[] nextOutputs = new int[256];
+        private int stateCount;
+        private int patternCount;
+        private int maxPatternLength;
+
+        private Builder() {
+            newState();
+        }
+
+        /**
+         * Adds a pattern to the automaton
+         *
+         * @param pattern pattern sequence
+         * @param value   value reported with occurrences of this pattern
+         * @return false if the pattern was not added because it is empty or contains residues other than
+         * a, c, g or t
+         */
+        boolean add(CharSequence pattern, int value) {
+            if (pattern.length() == 0)
+                return false;
+
+            for (int i = 0; i < pattern.length(); i += 1) {
+                if (encode(pattern.charAt(i)) == -1)
+                    return false;
+            }
+
+            int state = 0;
+            for (int i = 0; i < pattern.length(); i += 1) {
+                int index = state * ALPHABET + encode(pattern.charAt(i));
+                if (transitions[index] == -1) {
+                    int next = newState();
+                    transitions[index] = next;
+                }
+                state = transitions[index];
+            }
+
+            if (patternCount == patternLengths.length) {
+                int capacity = patternCount * 2;
+                patternLengths = Arrays.copyOf(patternLengths, capacity);
+                patternValues = Arrays.copyOf(patternValues, capacity);
+                nextOutputs = Arrays.copyOf(nextOutputs, capacity);
+            }
+
+            patternLengths[patternCount] = pattern.length();
+            patternValues[patternCount] = value;
+            nextOutputs[patternCount] = outputs[state];
+            outputs[state] = patternCount;
+            patternCount += 1;
+            maxPatternLength = Math.max(maxPatternLength, pattern.length());
+            return true;
+        }
+
+        int getStateCount() {
+            return stateCount;
+        }
+
+        FeatureAutomaton build() {
+            return new FeatureAutomaton(this);
+        }
+
+        private int newState() {
+            if (stateCount == outputs.length) {
+                int capacity = outputs.length * 2;
+                outputs = Arrays.copyOf(outputs, capacity);
+                transitions = Arrays.copyOf(transitions, capacity * ALPHABET);
+            }
+
+            Arrays.fill(transitions, stateCount * ALPHABET, (stateCount + 1) * ALPHABET, -1);
+            outputs[stateCount] = -1;
+            return stateCount++;
+        }
+    }
+}
@@ -0,0 +1,254 @@
+package org.jbei.ice.lib.entry.sequence.annotation;
+
+import org.hibernate.Session;
+import org.jbei.ice.lib.common.logging.Logger;
+import org.jbei.ice.lib.dto.DNAFeature;
+import org.jbei.ice.lib.dto.DNAFeatureLocation;
+import org.jbei.ice.lib.executor.IceExecutorService;
+import org.jbei.ice.storage.DAOFactory;
+import org.jbei.ice.storage.hibernate.HibernateUtil;
+import org.jbei.ice.storage.hibernate.dao.FeatureDAO;
+import org.jbei.ice.storage.model.Feature;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * In-memory exact match auto-annotation engine. All (named) features available on this instance that have not been
+ * excluded by curation, and their reverse complements, are compiled into {@link FeatureAutomaton}s so that
+ * annotating a sequence is a linear scan of it.
+ * <p>
+ * Features are compiled into shards of a bounded number of states, which are scanned in turn, and compilation
+ * stops (with a warning) once the total number of states reaches a maximum, to bound the memory used.
+ * Features excluded by curation after the automata are compiled are filtered out when matching (see
+ * {@link #setExcluded(long, boolean)}). Features that are no longer excluded are only matched once the automata are
+ * recompiled.
+ *
+ * @author Hector Plahar
+ */
+public class FeatureMatcher {
+
+    private static final FeatureMatcher INSTANCE = new FeatureMatcher();
+    private static final int BATCH_SIZE = 1000;
+    private static final int SHARD_STATES = 1 << 20;      // states after which a new shard is started
+    private static final int MAX_STATES = 1 << 25;        // states after which no more features are compiled
+
+    private final Set<Long> excluded = ConcurrentHashMap.newKeySet();
+    private final AtomicBoolean buildRequested = new AtomicBoolean();
+    private volatile Snapshot snapshot;
+
+    private FeatureMatcher() {
+    }
+
+    public static FeatureMatcher getInstance() {
+        return INSTANCE;
+    }
+
+    public boolean isBuilt() {
+        return snapshot != null;
+    }
+
+    /**
+     * Compiles the automata from all named features on this instance that have not been excluded. Features are
+     * retrieved in batches in a separate read-only session. Matching uses the previous automata (if any) until this
+     * completes
+     */
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        FeatureDAO featureDAO = DAOFactory.getFeatureDAO();
+        List<FeatureAutomaton> automata = new ArrayList<>();
+        FeatureAutomaton.Builder builder = FeatureAutomaton.builder();
+        int stateCount = 0;     // states in completed shards
+        Set<Long> omitted = new HashSet<>();
+        int skipped = 0;
+        FeatureDetails details = new FeatureDetails();
+
+        Session session = HibernateUtil.newSession();
+        try {
+            session.setDefaultReadOnly(true);
+            long lastId = 0;
+            List<Feature> batch;
+            do {
+                session.clear();
+                batch = featureDAO.getFeatureBatch(session, lastId, BATCH_SIZE);
+                for (Feature feature : batch) {
+                    lastId = feature.getId();
+                    if (feature.getCuration() != null && feature.getCuration().isExclude()) {
+                        omitted.add(feature.getId());
+                        continue;
+                    }
+
+                    if (stateCount + builder.getStateCount() >= MAX_STATES) {
+                        skipped += 1;
+                        continue;
+                    }
+
+                    if (builder.getStateCount() >= SHARD_STATES) {
+                        stateCount += builder.getStateCount();
+                        automata.add(builder.build());
+                        builder = FeatureAutomaton.builder();
+                    }
+
+                    String sequence = feature.getSequence() == null ? "" : feature.getSequence().trim();
+                    int index = details.size;
+                    // value is index of feature details, with the lowest bit set for a reverse complement match
+                    if (!builder.add(sequence, index << 1))
+                        continue;
+
+                    String reverseComplement = reverseComplement(sequence);
+                    if (!reverseComplement.equalsIgnoreCase(sequence))
+                        builder.add(reverseComplement, (index << 1) | 1);
+
+                    details.add(feature.getId(), feature.getName(), feature.getGenbankType(), sequence.length());
+                }
+            } while (batch.size() == BATCH_SIZE);
+        } finally {
+            session.close();
+        }
+
+        stateCount += builder.getStateCount();
+        automata.add(builder.build());
+        this.snapshot = new Snapshot(automata, details, omitted);
+
+        // compiled automata reflect the current curation
+        excluded.clear();
+
+        if (skipped > 0)
+            Logger.warn("Maximum number of states reached. " + skipped
+                    + " feature(s) not compiled for auto annotation");
+        Logger.info("Compiled " + details.size + " feature(s) (" + stateCount + " states in " + automata.size()
+                + " shard(s)) for auto annotation in " + (System.currentTimeMillis() - start) + "ms");
+    }
+
+    /**
+     * Applies a curation change to the matcher
+     *
+     * @param featureId unique identifier for feature
+     * @param exclude   whether the feature should be excluded from matches
+     * @return true if the feature is no longer excluded but was not compiled because it was excluded when the
+     * automata were compiled; in which case they need to be recompiled for the feature to be matched
+     */
+    public synchronized boolean setExcluded(long featureId, boolean exclude) {
+        if (exclude) {
+            excluded.add(featureId);
+            return false;
+        }
+
+        excluded.remove(featureId);
+        Snapshot current = this.snapshot;
+        return current != null && current.omitted.contains(featureId);
+    }
+
+    /**
+     * Finds all occurrences of the known (non-excluded) features in the specified sequence, on either strand.
+     * The automata are compiled by {@link AutoAnnotationBuildTask} (on startup); no features are matched until
+     * they have been, and a build is requested if one has not already been
+     *
+     * @param sequence sequence to annotate
+     * @param circular whether the sequence is circular. If true, features that span the origin are also found
+     *                 and have an end location that is less than the start
+     * @return list of matching features with their locations in the sequence
+     */
+    public List<DNAFeature> match(String sequence, boolean circular) {
+        Snapshot current = this.snapshot;
+        List<DNAFeature> features = new ArrayList<>();
+        if (current == null) {
+            if (buildRequested.compareAndSet(false, true))
+                IceExecutorService.getInstance().runTask(new AutoAnnotationBuildTask());
+            return features;
+        }
+
+        if (sequence == null)
+            return features;
+
+        int length = sequence.length();
+        FeatureDetails details = current.details;
+        for (FeatureAutomaton automaton : current.automata) {
+            automaton.scan(sequence, circular, (value, start) -> {
+                int index = value >>> 1;
+                if (excluded.contains(details.ids[index]))
+                    return;
+
+                DNAFeature dnaFeature = new DNAFeature();
+                dnaFeature.setId(details.ids[index]);
+                dnaFeature.setName(details.names[index]);
+                dnaFeature.setType(details.types[index]);
+                dnaFeature.setStrand((value & 1) == 1 ? -1 : 1);
+                DNAFeatureLocation location = new DNAFeatureLocation();
+                location.setGenbankStart(start + 1);
+                location.setEnd((start + details.lengths[index] - 1) % length + 1);
+                dnaFeature.getLocations().add(location);
+                features.add(dnaFeature);
+            });
+        }
+        return features;
+    }
+
+    static String reverseComplement(String sequence) {
+        char[] complement = new char[sequence.length()];
+        for (int i = 0; i < complement.length; i += 1) {
+            char residue;
+            switch (sequence.charAt(sequence.length() - 1 - i)) {
+                case 'a':
+                case 'A':
+                    residue = 't';
+                    break;
+                case 'c':
+                case 'C':
+                    residue = 'g';
+                    break;
+                case 'g':
+                case 'G':
+                    residue = 'c';
+                    break;
+                case 't':
+                case 'T':
+                    residue = 'a';
+                    break;
+                default:
+                    residue = 'n';
+            }
+            complement[i] = residue;
+        }
+        return new String(complement);
+    }
+
+    private static class Snapshot {
+        private final List<FeatureAutomaton> automata;
+        private final FeatureDetails details;
+        private final Set<Long> omitted;        // features excluded when compiled
+
+        Snapshot(List<FeatureAutomaton> automata, FeatureDetails details, Set<Long> omitted) {
+            this.automata = automata;
+            this.details = details;
+            this.omitted = omitted;
+        }
+    }
+
+    /**
+     * Details of the compiled features needed to report a match, indexed by the pattern value
+     */
+    private static class FeatureDetails {
+        private long[] ids = new long[256];
+        private String[] names = new String[256];
+        private String[] types = new String[256];
+        private int[] lengths = new int[256];
+        private int size;
+
+        void add(long id, String name, String type, int length) {
+            if (size == ids.length) {
+                int capacity = size * 2;
+                ids = Arrays.copyOf(ids, capacity);
+                names = Arrays.copyOf(names, capacity);
+                types = Arrays.copyOf(types, capacity);
+                lengths = Arrays.copyOf(lengths, capacity);
+            }
+            ids[size] = id;
+            names[size] = name;
+            types[size] = type;
+            lengths[size] = length;
+            size += 1;
+        }
+    }
+}
@@ -23,6 +23,18 @@ public class AbstractFormatter implements IFormatter {
         throw new UnsupportedOperationException("Unsupported");
     }
 
+    /**
+     * Format the {@link SequenceContent} and write it incrementally to the {@link OutputStream}. Formatters that
+     * support this do not need the entire sequence in memory
+     *
+     * @param content      content of the sequence to format
+     * @param outputStream stream to write formatted sequence to
+     * @throws IOException on exception writing to the stream
+     */
+    public void format(SequenceContent content, OutputStream outputStream) throws IOException {
+        throw new UnsupportedOperationException("Unsupported");
+    }
+
     public Namespace getNamespace() {
         return new SimpleNamespace(DEFAULT_NAMESPACE);
     }
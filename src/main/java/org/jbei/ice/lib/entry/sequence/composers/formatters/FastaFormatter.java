@@ -1,10 +1,9 @@
 package org.jbei.ice.lib.entry.sequence.composers.formatters;
 
-import org.jbei.ice.storage.model.Entry;
 import org.jbei.ice.storage.model.Sequence;
 
-import java.io.IOException;
-import java.io.OutputStream;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
 
 /**
  * Formatter for creating a FASTA formatted output.
@@ -14,25 +13,48 @@ import java.io.OutputStream;
  */
 public class FastaFormatter extends AbstractFormatter {
 
+    private static final int LINE_LENGTH = 80;
+
     @Override
     public void format(Sequence sequence, OutputStream outputStream) throws IOException {
         if (sequence == null)
             throw new IllegalArgumentException("Cannot write null sequence");
 
-        StringBuilder builder = new StringBuilder();
-        Entry entry = sequence.getEntry();
-        if (entry == null)
+        format(SequenceContent.of(sequence), outputStream);
+    }
+
+    @Override
+    public void format(SequenceContent content, OutputStream outputStream) throws IOException {
+        if (content == null)
+            throw new IllegalArgumentException("Cannot write null sequence");
+
+        String partNumber = content.getPartNumber();
+        if (partNumber == null)
             throw new IOException("Cannot retrieve entry for sequence");
 
-        builder.append(">")
-                .append(entry.getPartNumber())
-                .append(System.lineSeparator());
-        for (int i = 1; i <= sequence.getSequence().length(); i += 1) {
-            builder.append(sequence.getSequence().charAt(i - 1));
-            if (i % 80 == 0)
-                builder.append(System.lineSeparator());
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        writer.write(">");
+        writer.write(partNumber);
+        writer.write(System.lineSeparator());
+
+        char[] line = new char[LINE_LENGTH];
+        try (Reader residues = content.getResidues()) {
+            int read;
+            while ((read = readLine(residues, line)) > 0) {
+                writer.write(line, 0, read);
+                if (read == LINE_LENGTH)
+                    writer.write(System.lineSeparator());
+            }
         }
+        writer.flush();
+    }
 
-        outputStream.write(builder.toString().getBytes());
+    // fills the buffer unless the end of the residues is reached
+    private int readLine(Reader reader, char[] buffer) throws IOException {
+        int total = 0;
+        int read;
+        while (total < buffer.length && (read = reader.read(buffer, total, buffer.length - total)) != -1)
+            total += read;
+        return total;
     }
 }
@@ -5,9 +5,9 @@ import org.jbei.ice.storage.model.AnnotationLocation;
 import org.jbei.ice.storage.model.Sequence;
 import org.jbei.ice.storage.model.SequenceFeature;
 
-import java.io.IOException;
-import java.io.OutputStream;
-import java.util.Set;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
 
 /**
  * Formatter for GFF3 Format
@@ -25,41 +25,48 @@ public class GFF3Formatter extends AbstractFormatter {
         if (sequence == null)
             throw new IllegalArgumentException("Cannot write null sequence");
 
-        StringBuilder builder = new StringBuilder();
+        format(SequenceContent.of(sequence), outputStream);
+    }
 
-        builder.append("##gff-version 3.2.1").append(System.lineSeparator());
+    @Override
+    public void format(SequenceContent content, OutputStream outputStream) throws IOException {
+        if (content == null)
+            throw new IllegalArgumentException("Cannot write null sequence");
+
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        writer.write("##gff-version 3.2.1");
+        writer.write(System.lineSeparator());
 
         // add headers
-        builder.append("##");
+        writer.write("##");
         for (String header : HEADERS) {
-            builder.append(header).append("\t");
+            writer.write(header);
+            writer.write("\t");
         }
-        builder.append(System.lineSeparator());
+        writer.write(System.lineSeparator());
 
-        String sequenceId = sequence.getEntry().getPartNumber();
+        String sequenceId = content.getPartNumber();
         sequenceId = sequenceId.replaceAll("[^a-zA-Z0-9.:^*$@!+_?-|]", "_");
-        Set<SequenceFeature> featureSet = sequence.getSequenceFeatures();
-        if (featureSet != null) {
-            for (SequenceFeature sequenceFeature : featureSet) {
-                String featureLine = sequenceFeature.getName() + " ICE " + sequenceFeature.getGenbankType();
+        Iterator<SequenceFeature> features = content.getFeatures();
+        while (features.hasNext()) {
+            SequenceFeature sequenceFeature = features.next();
+            String featureLine = sequenceFeature.getName() + " ICE " + sequenceFeature.getGenbankType();
 
-                // location
-                for (AnnotationLocation location : sequenceFeature.getAnnotationLocations()) {
-                    builder.append(sequenceId).append("\t")
-                            .append(".").append("\t")
-                            .append(getColumn3(sequenceFeature.getGenbankType())).append("\t")
-                            .append(location.getGenbankStart()).append("\t")
-                            .append(location.getEnd()).append("\t")
-                            .append(".").append("\t")
-                            .append(sequenceFeature.getStrand() == 1 ? "+" : "-").append("\t")
-                            .append(".").append("\t")
-                            .append("ID=").append(featureLine);
-                    builder.append(System.lineSeparator());
-                }
+            // location
+            for (AnnotationLocation location : sequenceFeature.getAnnotationLocations()) {
+                writer.write(sequenceId + "\t"
+                        + "." + "\t"
+                        + getColumn3(sequenceFeature.getGenbankType()) + "\t"
+                        + location.getGenbankStart() + "\t"
+                        + location.getEnd() + "\t"
+                        + "." + "\t"
+                        + (sequenceFeature.getStrand() == 1 ? "+" : "-") + "\t"
+                        + "." + "\t"
+                        + "ID=" + featureLine);
+                writer.write(System.lineSeparator());
             }
         }
-
-        outputStream.write(builder.toString().getBytes());
+        writer.flush();
     }
 
     protected String getColumn3(String genbankType) {
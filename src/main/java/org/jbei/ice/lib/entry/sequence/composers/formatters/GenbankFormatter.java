@@ -1,26 +1,15 @@
 package org.jbei.ice.lib.entry.sequence.composers.formatters;
 
-import org.biojava.bio.seq.DNATools;
-import org.biojava.bio.seq.Feature;
-import org.biojava.bio.symbol.Location;
-import org.biojavax.RichAnnotation;
-import org.biojavax.RichObjectFactory;
-import org.biojavax.SimpleNote;
-import org.biojavax.SimpleRichAnnotation;
-import org.biojavax.bio.seq.*;
-import org.biojavax.bio.seq.RichLocation.Strand;
 import org.jbei.ice.lib.common.logging.Logger;
 import org.jbei.ice.storage.model.AnnotationLocation;
 import org.jbei.ice.storage.model.Sequence;
 import org.jbei.ice.storage.model.SequenceFeature;
 import org.jbei.ice.storage.model.SequenceFeatureAttribute;
 
-import java.io.IOException;
-import java.io.OutputStream;
-import java.util.ArrayList;
-import java.util.LinkedHashSet;
-import java.util.Set;
-import java.util.TreeSet;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.text.SimpleDateFormat;
+import java.util.*;
 
 /**
  * Formatter for the Genbank file format.
@@ -28,6 +17,11 @@ import java.util.TreeSet;
  * @author Zinovii Dmytriv, Timothy Ham
  */
 public class GenbankFormatter extends AbstractFormatter {
+    private static final int LINE_WIDTH = 79;
+    private static final int BLOCK_SIZE = 10;
+    private static final int LINE_RESIDUES = 60;
+    private static final String QUALIFIER_INDENT = "                     ";
+
     private final String name;
     private final String accessionNumber;
     private int version = 1;
@@ -101,124 +95,176 @@ public class GenbankFormatter extends AbstractFormatter {
             return;
         }
 
-        SimpleRichSequence simpleRichSequence;
-        try {
-            simpleRichSequence = new SimpleRichSequence(
-                    getNamespace(), normalizeLocusName(name), accessionNumber, version,
-                    DNATools.createDNA(sequence.getSequence()), seqVersion);
+        format(SequenceContent.of(sequence), outputStream);
+    }
 
-            simpleRichSequence.setCircular(getCircular());
-            if (getDescription() != null && !getDescription().isEmpty()) {
-                simpleRichSequence.setDescription(getDescription());
-            }
+    /**
+     * Writes the genbank file one section at a time; the residues and features are read from the content as they
+     * are written
+     */
+    @Override
+    public void format(SequenceContent content, OutputStream outputStream) throws IOException {
+        if (content == null || outputStream == null || content.getLength() == 0) {
+            return;
+        }
 
-            if (getDivision() != null && !getDivision().isEmpty()) {
-                simpleRichSequence.setDivision(getDivision());
-            }
+        Writer writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        writeHeader(writer, content.getLength());
+        writeFeatures(writer, content.getFeatures());
+        try (Reader residues = content.getResidues()) {
+            writeOrigin(writer, residues);
+        }
+        writer.write("//");
+        writer.write(System.lineSeparator());
+        writer.flush();
+    }
+
+    private void writeHeader(Writer writer, int length) throws IOException {
+        String date = new SimpleDateFormat("dd-MMM-yyyy", Locale.ENGLISH).format(new Date()).toUpperCase();
+        String locusName = normalizeLocusName(name).replaceAll("\\s", "_");
+        writer.write(String.format("LOCUS       %-16s %11d bp    DNA     %-8s %-3s %s", locusName, length,
+                getCircular() ? "circular" : "linear", division == null ? "" : division, date));
+        writer.write(System.lineSeparator());
+
+        if (description != null && !description.isEmpty())
+            writeWrapped(writer, "DEFINITION  ", description);
+        writeWrapped(writer, "ACCESSION   ", accessionNumber == null ? "" : accessionNumber);
+        writeWrapped(writer, "VERSION     ", (accessionNumber == null ? "" : accessionNumber + "." + version)
+                + (identifier == null || identifier.isEmpty() ? "" : "  GI:" + identifier));
+        writeWrapped(writer, "KEYWORDS    ", ".");
+    }
 
-            if (getIdentifier() != null && !getIdentifier().isEmpty()) {
-                simpleRichSequence.setIdentifier(getIdentifier());
+    private void writeFeatures(Writer writer, Iterator<SequenceFeature> features) throws IOException {
+        writer.write("FEATURES             Location/Qualifiers");
+        writer.write(System.lineSeparator());
+
+        while (features.hasNext()) {
+            SequenceFeature sequenceFeature = features.next();
+            if (sequenceFeature.getFeature() == null) {
+                Logger.warn("SequenceFeature with id: " + sequenceFeature.getId() + " has no feature assigned to it.");
+                continue;
             }
 
-            if (sequence.getSequenceFeatures() != null && sequence.getSequenceFeatures().size() > 0) {
-                Set<Feature> featureSet = new LinkedHashSet<>();
-
-                for (SequenceFeature sequenceFeature : sequence.getSequenceFeatures()) {
-                    if (sequenceFeature.getFeature() == null) {
-                        Logger.warn("In sequence with id: " + sequence.getId()
-                                + "; SequenceFeature object has no feature assigned to it.");
-
-                        continue;
-                    }
-
-                    RichFeature.Template featureTemplate = new RichFeature.Template();
-                    featureTemplate.annotation = getAnnotations(sequenceFeature);
-
-                    Set<AnnotationLocation> locations = sequenceFeature.getAnnotationLocations();
-                    if (locations == null || locations.size() == 0)
-                        continue;
-
-                    if (locations.size() == 1) {
-                        featureTemplate.location = new SimpleRichLocation(new SimplePosition(
-                                sequenceFeature.getUniqueGenbankStart()), new SimplePosition(
-                                sequenceFeature.getUniqueEnd()), 1, getStrand(sequenceFeature));
-                    } else {
-                        ArrayList<Location> members = new ArrayList<>();
-                        for (AnnotationLocation location : locations) {
-                            members.add(new SimpleRichLocation(new SimplePosition(location.getGenbankStart()),
-                                    new SimplePosition(location.getEnd()), 1, getStrand(sequenceFeature)));
-                        }
-                        featureTemplate.location = new CompoundRichLocation(members);
-                    }
-
-                    featureTemplate.source = getDefaultFeatureSource();
-                    featureTemplate.type = getFeatureType(sequenceFeature);
-                    featureTemplate.rankedCrossRefs = new TreeSet<>();
-
-                    SimpleRichFeature simpleRichFeature = new SimpleRichFeature(simpleRichSequence, featureTemplate);
-                    featureSet.add(simpleRichFeature);
-                }
+            String location = getLocation(sequenceFeature);
+            if (location == null)
+                continue;
 
-                simpleRichSequence.setFeatureSet(featureSet);
+            writeWrapped(writer, String.format("     %-16s", getFeatureType(sequenceFeature)), location);
+            for (String qualifier : getQualifiers(sequenceFeature))
+                writeWrapped(writer, QUALIFIER_INDENT, qualifier);
+        }
+    }
+
+    private void writeOrigin(Writer writer, Reader residues) throws IOException {
+        writer.write("ORIGIN");
+        writer.write(System.lineSeparator());
+
+        char[] block = new char[BLOCK_SIZE];
+        int position = 0;
+        int read;
+        while ((read = readBlock(residues, block)) > 0) {
+            if (position % LINE_RESIDUES == 0) {
+                if (position > 0)
+                    writer.write(System.lineSeparator());
+                writer.write(String.format("%9d", position + 1));
             }
-        } catch (Exception e) {
-            throw new IOException("Failed to create generate genbank file", e);
+
+            writer.write(' ');
+            for (int i = 0; i < read; i += 1)
+                writer.write(Character.toLowerCase(block[i]));
+            position += read;
         }
+        if (position > 0)
+            writer.write(System.lineSeparator());
+    }
+
+    // fills the block unless the end of the residues is reached
+    private int readBlock(Reader reader, char[] block) throws IOException {
+        int total = 0;
+        int read;
+        while (total < block.length && (read = reader.read(block, total, block.length - total)) != -1)
+            total += read;
+        return total;
+    }
+
+    /**
+     * Writes text after the prefix, wrapping it (at spaces or commas where possible) so that lines do not exceed
+     * {@link #LINE_WIDTH}. Continuation lines are indented to the width of the prefix
+     */
+    private void writeWrapped(Writer writer, String prefix, String text) throws IOException {
+        int width = LINE_WIDTH - prefix.length();
+        String indent = prefix;
+        String remaining = text;
+        do {
+            int split = remaining.length();
+            if (split > width) {
+                split = remaining.lastIndexOf(' ', width);
+                if (split <= 0)
+                    split = remaining.lastIndexOf(',', width - 1) + 1;    // locations
+                if (split <= 0)
+                    split = width;
+            }
 
-        RichSequence.IOTools.writeGenbank(outputStream, simpleRichSequence, getNamespace());
+            writer.write(indent);
+            writer.write(remaining, 0, split);
+            writer.write(System.lineSeparator());
+            remaining = remaining.substring(split).trim();
+            indent = QUALIFIER_INDENT.substring(0, prefix.length());
+        } while (!remaining.isEmpty());
     }
 
     /**
-     * Get the strand of the {@link SequenceFeature} feature.
+     * Genbank location string for the {@link SequenceFeature} feature. e.g. <code>complement(join(1..10,20..30))</code>
      *
      * @param sequenceFeature
-     * @return Strand of the feature.
+     * @return location string, or null if the feature has no locations
      */
-    protected Strand getStrand(SequenceFeature sequenceFeature) {
-        Strand strand;
-
-        if (sequenceFeature.getStrand() == -1) {
-            strand = Strand.NEGATIVE_STRAND;
-        } else if (sequenceFeature.getStrand() == 1) {
-            strand = Strand.POSITIVE_STRAND;
-        } else {
-            strand = Strand.UNKNOWN_STRAND;
+    protected String getLocation(SequenceFeature sequenceFeature) {
+        Set<AnnotationLocation> locations = sequenceFeature.getAnnotationLocations();
+        if (locations == null || locations.isEmpty())
+            return null;
+
+        StringBuilder builder = new StringBuilder();
+        for (AnnotationLocation location : locations) {
+            if (builder.length() > 0)
+                builder.append(',');
+            builder.append(location.getGenbankStart()).append("..").append(location.getEnd());
         }
 
-        return strand;
+        String result = locations.size() == 1 ? builder.toString() : "join(" + builder + ")";
+        return sequenceFeature.getStrand() == -1 ? "complement(" + result + ")" : result;
     }
 
     /**
-     * Convert {@link SequenceFeature} into a {@link RichAnnotation}.
+     * Convert {@link SequenceFeature} into genbank qualifiers. e.g. <code>/label="promoter"</code>
      *
      * @param sequenceFeature
-     * @return RichAnnotation object.
+     * @return list of qualifiers.
      */
-    protected RichAnnotation getAnnotations(SequenceFeature sequenceFeature) {
-        RichAnnotation richAnnotation = new SimpleRichAnnotation();
+    protected List<String> getQualifiers(SequenceFeature sequenceFeature) {
+        List<String> qualifiers = new ArrayList<>();
 
         if (sequenceFeature.getName() != null && !sequenceFeature.getName().isEmpty()) {
-            richAnnotation
-                    .addNote(new SimpleNote(RichObjectFactory.getDefaultOntology().getOrCreateTerm(
-                            "label"), normalizeFeatureValue(sequenceFeature.getName()), 1));
+            qualifiers.add(formatQualifier("label", normalizeFeatureValue(sequenceFeature.getName())));
         }
 
-        int i = 0;
         for (SequenceFeatureAttribute attribute : sequenceFeature.getSequenceFeatureAttributes()) {
             String key = attribute.getKey();
-            String value = attribute.getValue();
             if (key == null || key.isEmpty() || key.toLowerCase().equals(
                     "label")) { // skip invalid or feature with "label" note
                 continue;
             }
 
-            richAnnotation.addNote(new SimpleNote(RichObjectFactory.getDefaultOntology()
-                    .getOrCreateTerm(key), normalizeFeatureValue(value),
-                    i + 2));
-            i++;
+            qualifiers.add(formatQualifier(key, normalizeFeatureValue(attribute.getValue())));
         }
 
-        return richAnnotation;
+        return qualifiers;
+    }
+
+    private String formatQualifier(String key, String value) {
+        if (value.matches("\\d+"))
+            return "/" + key + "=" + value;
+        return "/" + key + "=\"" + value.replace("\"", "\"\"") + "\"";
     }
 
     /**
@@ -243,15 +289,6 @@ public class GenbankFormatter extends AbstractFormatter {
         return featureType;
     }
 
-    /**
-     * Return the default feature source for a Genbank file.
-     *
-     * @return Returns "org.jbei".
-     */
-    protected String getDefaultFeatureSource() {
-        return "org.jbei";
-    }
-
     /**
      * Truncate Locus Name to 10 characters, as per Genbank specification.
      *
@@ -0,0 +1,71 @@
+package org.jbei.ice.lib.entry.sequence.composers.formatters;
+
+import org.jbei.ice.storage.model.Sequence;
+import org.jbei.ice.storage.model.SequenceFeature;
+
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.Collections;
+import java.util.Iterator;
+
+/**
+ * Content of a sequence that is read by the formatters. The residues and features are read incrementally so that
+ * implementations do not have to hold the entire sequence in memory (e.g. when reading a stored sequence in chunks).
+ *
+ * @author Hector Plahar
+ */
+public interface SequenceContent {
+
+    /**
+     * @return part number of the entry the sequence is associated with, or null if it is not available
+     */
+    String getPartNumber();
+
+    /**
+     * @return number of residues in the sequence
+     */
+    int getLength();
+
+    /**
+     * @return reader for the residues of the sequence
+     */
+    Reader getResidues();
+
+    /**
+     * @return iterator over the features of the sequence
+     */
+    Iterator<SequenceFeature> getFeatures();
+
+    /**
+     * Creates content backed by a sequence that has already been loaded
+     *
+     * @param sequence sequence
+     * @return content for sequence
+     */
+    static SequenceContent of(Sequence sequence) {
+        return new SequenceContent() {
+
+            @Override
+            public String getPartNumber() {
+                return sequence.getEntry() == null ? null : sequence.getEntry().getPartNumber();
+            }
+
+            @Override
+            public int getLength() {
+                return sequence.getSequence() == null ? 0 : sequence.getSequence().length();
+            }
+
+            @Override
+            public Reader getResidues() {
+                return new StringReader(sequence.getSequence() == null ? "" : sequence.getSequence());
+            }
+
+            @Override
+            public Iterator<SequenceFeature> getFeatures() {
+                if (sequence.getSequenceFeatures() == null)
+                    return Collections.emptyIterator();
+                return sequence.getSequenceFeatures().iterator();
+            }
+        };
+    }
+}
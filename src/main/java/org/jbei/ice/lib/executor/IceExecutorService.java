@@ -1,65 +1,228 @@
 package org.jbei.ice.lib.executor;
 
 import org.jbei.ice.lib.common.logging.Logger;
+import org.jbei.ice.lib.dto.TaskInfo;
+import org.jbei.ice.lib.utils.Utils;
 
-import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
-import java.util.concurrent.TimeUnit;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
+ * Runs {@link Task}s in separate lanes (see {@link TaskLane}), each with its own (configurable) number of threads
+ * and a bounded queue ordered by task priority.
+ * <p>
+ * Tasks that specify a key are not queued if a task with the same key is already waiting to run, and tasks
+ * submitted to a lane whose queue is full are rejected. The queued and running tasks, and the most recently
+ * finished ones, can be retrieved with {@link #getTasks()}.
+ * <p>
+ * {@link PersistentTask}s are added to the {@link TaskQueue} (when it is started) and submitted to their lane
+ * when leased from it
+ *
  * @author Hector Plahar
  */
 public class IceExecutorService {
 
     private static final IceExecutorService INSTANCE = new IceExecutorService();
-    private ExecutorService pool;
+    private static final int FINISHED_TASKS_RETAINED = 100;
+
+    private final Map<TaskLane, ThreadPoolExecutor> pools = new EnumMap<>(TaskLane.class);
+    private final AtomicLong taskIds = new AtomicLong();
+    private final Map<Long, Task> activeTasks = new ConcurrentHashMap<>();   // queued and running
+    private final Map<String, Task> queuedKeys = new ConcurrentHashMap<>();
+    private final LinkedList<Task> finishedTasks = new LinkedList<>();       // most recent first
+    private final TaskHandler.TaskListener listener;
+    private volatile boolean running;
 
     private IceExecutorService() {
+        listener = new TaskHandler.TaskListener() {
+            @Override
+            public void started(Task task) {
+                if (task.getKey() != null)
+                    queuedKeys.remove(task.getKey(), task);
+            }
+
+            @Override
+            public void finished(Task task) {
+                activeTasks.remove(task.getId());
+                synchronized (finishedTasks) {
+                    finishedTasks.addFirst(task);
+                    if (finishedTasks.size() > FINISHED_TASKS_RETAINED)
+                        finishedTasks.removeLast();
+                }
+            }
+        };
     }
 
     public static IceExecutorService getInstance() {
         return INSTANCE;
     }
 
-    public void startService() {
-        if (pool != null)
+    public synchronized void startService() {
+        if (running)
             return;
 
         Logger.info("Starting executor service");
-        pool = Executors.newFixedThreadPool(5, r -> {
-            Thread thread = new Thread(r);
-            thread.setPriority(Thread.MIN_PRIORITY);
-            return thread;
-        });
+        for (TaskLane lane : TaskLane.values()) {
+            int threads = getThreadCount(lane);
+            Logger.info("Starting " + threads + " thread(s) for " + lane.name().toLowerCase() + " tasks");
+            ThreadPoolExecutor pool = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                    new PriorityBlockingQueue<>(), new LaneThreadFactory(lane));
+            pools.put(lane, pool);
+        }
+        running = true;
     }
 
-    public void stopService() {
-        if (pool == null)
+    public synchronized void stopService() {
+        if (!running)
             return;
 
         Logger.info("Shutting down executor service");
-        pool.shutdown(); // Disable new tasks from being submitted
+        running = false;
+        for (ExecutorService pool : pools.values())
+            pool.shutdown(); // Disable new tasks from being submitted
+
         try {
             // Wait a while for existing tasks to terminate
-            if (!pool.awaitTermination(10, TimeUnit.SECONDS)) {
-                pool.shutdownNow(); // Cancel currently executing tasks
+            if (!awaitTermination()) {
+                for (ExecutorService pool : pools.values())
+                    pool.shutdownNow(); // Cancel currently executing tasks
+
                 // Wait a while for tasks to respond to being cancelled
-                if (!pool.awaitTermination(10, TimeUnit.SECONDS))
+                if (!awaitTermination())
                     Logger.info("Executor service did not terminate");
             }
         } catch (InterruptedException ie) {
             // (Re-)Cancel if current thread also interrupted
-            pool.shutdownNow();
+            for (ExecutorService pool : pools.values())
+                pool.shutdownNow();
             // Preserve interrupt status
             Thread.currentThread().interrupt();
         }
+        pools.clear();
     }
 
-    public void runTask(Task task) {
-        if (task == null || pool == null)
-            return;
+    /**
+     * Submits a task to be run in its lane
+     *
+     * @param task task to run
+     * @return true if the task was queued or an identical task (same key) is already waiting to run, false
+     * if the task was rejected (in which case its status is set to {@link TaskStatus#REJECTED})
+     */
+    public boolean runTask(Task task) {
+        if (task == null)
+            return false;
+
+        if (!running) {
+            task.setStatus(TaskStatus.REJECTED);
+            return false;
+        }
 
-        Logger.info("Adding task to executor service");
-        pool.execute(new TaskHandler(task));
+        // persistent tasks are stored and run when leased from the queue
+        if (task instanceof PersistentTask && TaskQueue.getInstance().isStarted()) {
+            try {
+                TaskQueue.getInstance().enqueue((Task & PersistentTask) task);
+                return true;
+            } catch (Exception e) {
+                Logger.error("Could not queue " + task.getName(), e);
+                task.setStatus(TaskStatus.REJECTED);
+                return false;
+            }
+        }
+
+        TaskLane lane = task.getLane();
+        String key = task.getKey();
+        if (key != null && queuedKeys.putIfAbsent(key, task) != null) {
+            Logger.info("Task " + key + " is already queued");
+            return true;
+        }
+
+        ThreadPoolExecutor pool = pools.get(lane);
+        if (pool.getQueue().size() >= lane.getCapacity()) {
+            Logger.warn("Rejecting " + task.getClass().getSimpleName() + ". Queue for "
+                    + lane.name().toLowerCase() + " tasks is full");
+            reject(task);
+            return false;
+        }
+
+        task.setId(taskIds.incrementAndGet());
+        task.setSubmitTime(System.currentTimeMillis());
+        task.setStatus(TaskStatus.PENDING);
+        activeTasks.put(task.getId(), task);
+
+        try {
+            pool.execute(new TaskHandler(task, listener));
+            return true;
+        } catch (RejectedExecutionException e) {
+            activeTasks.remove(task.getId());
+            reject(task);
+            return false;
+        }
+    }
+
+    /**
+     * @return queued and running tasks (in order of submission) followed by the most recently finished tasks
+     * (most recent first)
+     */
+    public List<TaskInfo> getTasks() {
+        List<Task> active = new ArrayList<>(activeTasks.values());
+        active.sort(Comparator.comparingLong(Task::getId));
+
+        List<TaskInfo> tasks = new ArrayList<>();
+        for (Task task : active)
+            tasks.add(new TaskInfo(task));
+
+        synchronized (finishedTasks) {
+            for (Task task : finishedTasks)
+                tasks.add(new TaskInfo(task));
+        }
+        return tasks;
+    }
+
+    private void reject(Task task) {
+        if (task.getKey() != null)
+            queuedKeys.remove(task.getKey(), task);
+        task.setStatus(TaskStatus.REJECTED);
+    }
+
+    private boolean awaitTermination() throws InterruptedException {
+        long deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+        for (ExecutorService pool : pools.values()) {
+            long remaining = deadline - System.currentTimeMillis();
+            if (!pool.awaitTermination(Math.max(0, remaining), TimeUnit.MILLISECONDS))
+                return false;
+        }
+        return true;
+    }
+
+    private int getThreadCount(TaskLane lane) {
+        String value = Utils.getConfigValue(lane.getThreadsKey());
+        try {
+            return Math.max(1, Integer.parseInt(value.trim()));
+        } catch (NumberFormatException e) {
+            Logger.error("Invalid value \"" + value + "\" for " + lane.getThreadsKey().name() + ". Using default");
+            return Integer.parseInt(lane.getThreadsKey().getDefaultValue());
+        }
+    }
+
+    /**
+     * Creates low priority threads named after the lane they run tasks for
+     */
+    private static class LaneThreadFactory implements ThreadFactory {
+
+        private final String prefix;
+        private final AtomicInteger count = new AtomicInteger();
+
+        LaneThreadFactory(TaskLane lane) {
+            this.prefix = "ice-" + lane.name().toLowerCase() + "-";
+        }
+
+        @Override
+        public Thread newThread(Runnable r) {
+            Thread thread = new Thread(r, prefix + count.incrementAndGet());
+            thread.setPriority(Thread.MIN_PRIORITY);
+            return thread;
+        }
     }
 }
@@ -0,0 +1,69 @@
+package org.jbei.ice.lib.executor;
+
+/**
+ * Wraps a task leased from the {@link TaskQueue} so that the queue is updated with the checkpoints and the
+ * result of the task
+ *
+ * @author Hector Plahar
+ */
+class LeasedTask extends Task {
+
+    private final long queuedId;
+    private final Task task;
+    private String error;
+
+    LeasedTask(long queuedId, Task task) {
+        this.queuedId = queuedId;
+        this.task = task;
+        this.task.setCheckpointListener(checkpoint -> TaskQueue.getInstance().checkpoint(queuedId, checkpoint));
+    }
+
+    long getQueuedId() {
+        return queuedId;
+    }
+
+    @Override
+    public void execute() {
+        try {
+            task.setStatus(TaskStatus.IN_PROGRESS);
+            task.execute();
+        } catch (RuntimeException | Error e) {
+            error = e.toString();
+            throw e;
+        }
+
+        // completed as part of the task's transaction
+        TaskQueue.getInstance().completed(queuedId);
+    }
+
+    @Override
+    void finished() {
+        task.setStatus(getStatus());
+        try {
+            if (getStatus() == TaskStatus.EXCEPTION)
+                TaskQueue.getInstance().failed(queuedId, error);
+        } finally {
+            TaskQueue.getInstance().finished(queuedId);
+        }
+    }
+
+    @Override
+    public TaskLane getLane() {
+        return task.getLane();
+    }
+
+    @Override
+    public int getPriority() {
+        return task.getPriority();
+    }
+
+    @Override
+    public String getName() {
+        return task.getName();
+    }
+
+    @Override
+    public String getCheckpoint() {
+        return task.getCheckpoint();
+    }
+}
@@ -0,0 +1,20 @@
+package org.jbei.ice.lib.executor;
+
+/**
+ * Implemented by tasks that can be stored in the persistent task queue (see {@link TaskQueue}) and so survive
+ * restarts. The task is re-created from its type and data when it is run
+ *
+ * @author Hector Plahar
+ */
+public interface PersistentTask {
+
+    /**
+     * @return type of the task, used to re-create it
+     */
+    TaskType getType();
+
+    /**
+     * @return data (parameters) needed to re-create the task with {@link TaskType#create(String)}
+     */
+    String getData();
+}
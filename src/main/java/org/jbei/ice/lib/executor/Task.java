@@ -1,5 +1,7 @@
 package org.jbei.ice.lib.executor;
 
+import java.util.function.Consumer;
+
 /**
  * Abstract class representing tasks that are run by the ice executor service
  *
@@ -7,10 +9,86 @@ package org.jbei.ice.lib.executor;
  */
 public abstract class Task {
 
+    public static final int LOW_PRIORITY = 0;
+    public static final int NORMAL_PRIORITY = 5;
+    public static final int HIGH_PRIORITY = 10;
+
     private TaskStatus status = TaskStatus.NEW;
+    private long id;
+    private long submitTime;
+    private long startTime;
+    private long endTime;
+    private String checkpoint;
+    private Consumer<String> checkpointListener;
 
     public abstract void execute();
 
+    /**
+     * @return lane the task is run in. Defaults to {@link TaskLane#INTERACTIVE}
+     */
+    public TaskLane getLane() {
+        return TaskLane.INTERACTIVE;
+    }
+
+    /**
+     * @return priority of the task relative to the other tasks queued in the same lane. Tasks with a higher
+     * priority are run first; tasks of the same priority in order of submission
+     */
+    public int getPriority() {
+        return NORMAL_PRIORITY;
+    }
+
+    /**
+     * Key identifying tasks that do the same work. A task is not queued if another one with the same key is
+     * already waiting to run. Defaults to <code>null</code> (no de-duplication)
+     *
+     * @return key for task or null
+     */
+    public String getKey() {
+        return null;
+    }
+
+    /**
+     * @return name of the task, for display
+     */
+    public String getName() {
+        return getClass().getSimpleName();
+    }
+
+    /**
+     * @return the last checkpoint recorded by the task, or the checkpoint it was resumed from. Null if none
+     */
+    public String getCheckpoint() {
+        return checkpoint;
+    }
+
+    void setCheckpoint(String checkpoint) {
+        this.checkpoint = checkpoint;
+    }
+
+    void setCheckpointListener(Consumer<String> checkpointListener) {
+        this.checkpointListener = checkpointListener;
+    }
+
+    /**
+     * Records the progress of a long running task. Tasks run from the persistent task queue
+     * (see {@link TaskQueue}) that are interrupted are resumed with the last recorded checkpoint
+     *
+     * @param checkpoint value from which the task is able to resume
+     */
+    protected void checkpoint(String checkpoint) {
+        this.checkpoint = checkpoint;
+        if (checkpointListener != null)
+            checkpointListener.accept(checkpoint);
+    }
+
+    /**
+     * Called when the task has finished running (with its status set), after its transaction has been committed
+     * or rolled back
+     */
+    void finished() {
+    }
+
     void setStatus(TaskStatus status) {
         this.status = status;
     }
@@ -18,4 +96,36 @@ public abstract class Task {
     public TaskStatus getStatus() {
         return this.status;
     }
+
+    public long getId() {
+        return id;
+    }
+
+    void setId(long id) {
+        this.id = id;
+    }
+
+    public long getSubmitTime() {
+        return submitTime;
+    }
+
+    void setSubmitTime(long submitTime) {
+        this.submitTime = submitTime;
+    }
+
+    public long getStartTime() {
+        return startTime;
+    }
+
+    void setStartTime(long startTime) {
+        this.startTime = startTime;
+    }
+
+    public long getEndTime() {
+        return endTime;
+    }
+
+    void setEndTime(long endTime) {
+        this.endTime = endTime;
+    }
 }
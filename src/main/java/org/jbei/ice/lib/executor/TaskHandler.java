@@ -4,21 +4,30 @@ import org.jbei.ice.lib.common.logging.Logger;
 import org.jbei.ice.storage.hibernate.HibernateUtil;
 
 /**
- * Runnable for running tasks
+ * Runnable for running tasks. Handlers are ordered by the priority of their tasks (highest first) and
+ * then by the order in which they were submitted
  *
  * @author Hector Plahar
  */
-class TaskHandler implements Runnable {
+class TaskHandler implements Runnable, Comparable<TaskHandler> {
 
     private final Task task;
+    private final TaskListener listener;
 
-    TaskHandler(Task task) {
+    TaskHandler(Task task, TaskListener listener) {
         this.task = task;
+        this.listener = listener;
+    }
+
+    Task getTask() {
+        return task;
     }
 
     @Override
     public void run() {
+        listener.started(task);
         try {
+            this.task.setStartTime(System.currentTimeMillis());
             this.task.setStatus(TaskStatus.IN_PROGRESS);
             HibernateUtil.beginTransaction();
             task.execute();
@@ -28,6 +37,32 @@ class TaskHandler implements Runnable {
             Logger.error(caught);
             HibernateUtil.rollbackTransaction();
             this.task.setStatus(TaskStatus.EXCEPTION);
+        } finally {
+            this.task.setEndTime(System.currentTimeMillis());
+            try {
+                task.finished();
+            } catch (Throwable caught) {
+                Logger.error(caught);
+            }
+            listener.finished(task);
         }
     }
+
+    @Override
+    public int compareTo(TaskHandler o) {
+        int compare = Integer.compare(o.task.getPriority(), task.getPriority());
+        if (compare != 0)
+            return compare;
+        return Long.compare(task.getId(), o.task.getId());
+    }
+
+    /**
+     * Notified when the task for a handler starts and finishes running
+     */
+    interface TaskListener {
+
+        void started(Task task);
+
+        void finished(Task task);
+    }
 }
@@ -0,0 +1,47 @@
+package org.jbei.ice.lib.executor;
+
+import org.jbei.ice.lib.dto.ConfigurationKey;
+
+/**
+ * Lanes of the executor service. Each lane has its own threads and queue so that long running tasks
+ * in one lane (e.g. rebuilding the indexes) cannot starve tasks in another (e.g. exports requested by users)
+ *
+ * @author Hector Plahar
+ */
+public enum TaskLane {
+
+    // short tasks requested by (and possibly waited on by) users
+    INTERACTIVE(ConfigurationKey.EXECUTOR_INTERACTIVE_THREADS, 500),
+
+    // lucene, blast and annotation index updates. (single threaded by default since they lock the indexes)
+    INDEXING(ConfigurationKey.EXECUTOR_INDEXING_THREADS, 10000),
+
+    // transfers to and communication with other registries
+    TRANSFER(ConfigurationKey.EXECUTOR_TRANSFER_THREADS, 200),
+
+    // bulk background changes and scheduled tasks
+    MAINTENANCE(ConfigurationKey.EXECUTOR_MAINTENANCE_THREADS, 1000);
+
+    private final ConfigurationKey threadsKey;
+    private final int capacity;
+
+    TaskLane(ConfigurationKey threadsKey, int capacity) {
+        this.threadsKey = threadsKey;
+        this.capacity = capacity;
+    }
+
+    /**
+     * @return configuration key for the number of threads that run tasks in this lane
+     */
+    public ConfigurationKey getThreadsKey() {
+        return threadsKey;
+    }
+
+    /**
+     * @return maximum number of tasks that can be waiting to run in this lane. Tasks submitted when
+     * the queue is at capacity are rejected
+     */
+    public int getCapacity() {
+        return capacity;
+    }
+}
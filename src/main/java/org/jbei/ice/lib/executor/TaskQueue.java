@@ -0,0 +1,307 @@
+package org.jbei.ice.lib.executor;
+
+import org.hibernate.Session;
+import org.hibernate.Transaction;
+import org.jbei.ice.lib.common.logging.Logger;
+import org.jbei.ice.storage.DAOFactory;
+import org.jbei.ice.storage.hibernate.HibernateUtil;
+import org.jbei.ice.storage.hibernate.dao.QueuedTaskDAO;
+import org.jbei.ice.storage.model.QueuedTaskModel;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Database backed queue for {@link PersistentTask}s, so that submitted tasks are not lost on restarts.
+ * <p>
+ * Tasks are stored as part of the transaction that submits them and are run at least once. Each ICE instance
+ * (node) polls the queue and leases available tasks to run them in the executor service. Leases are renewed while
+ * the tasks run; the tasks of a node that stops without releasing them can be leased by any node once the leases
+ * expire. Tasks that fail are retried with an exponential backoff up to a maximum number of attempts, and long
+ * running tasks can record checkpoints from which they are resumed if they are interrupted.
+ *
+ * @author Hector Plahar
+ */
+public class TaskQueue {
+
+    private static final TaskQueue INSTANCE = new TaskQueue();
+
+    private static final long POLL_INTERVAL = TimeUnit.SECONDS.toMillis(2);
+    private static final long LEASE_DURATION = TimeUnit.MINUTES.toMillis(2);
+    private static final long RETENTION = TimeUnit.DAYS.toMillis(1);       // how long finished tasks are kept
+    private static final long MAX_BACKOFF = TimeUnit.HOURS.toMillis(1);
+    private static final long INITIAL_BACKOFF = TimeUnit.SECONDS.toMillis(30);
+    private static final int MAX_ATTEMPTS = 5;
+    private static final int MAX_LEASED_TASKS = 16;                          // max number leased by node at a time
+
+    private final String nodeId;
+    private final QueuedTaskDAO dao;
+    private final Set<Long> leased;
+    private Timer timer;
+    private long lastPurge;
+    private volatile boolean started;
+
+    private TaskQueue() {
+        this.nodeId = createNodeId();
+        this.dao = DAOFactory.getQueuedTaskDAO();
+        this.leased = ConcurrentHashMap.newKeySet();
+    }
+
+    public static TaskQueue getInstance() {
+        return INSTANCE;
+    }
+
+    public boolean isStarted() {
+        return started;
+    }
+
+    /**
+     * Starts polling the queue for tasks to run
+     */
+    public synchronized void start() {
+        if (started)
+            return;
+
+        Logger.info("Starting persistent task queue (node " + nodeId + ")");
+        timer = new Timer("ice-task-queue", true);
+        timer.schedule(new TimerTask() {
+            @Override
+            public void run() {
+                poll();
+            }
+        }, POLL_INTERVAL, POLL_INTERVAL);
+        started = true;
+    }
+
+    /**
+     * Stops polling the queue. Tasks that have been leased but are still running keep their leases until
+     * {@link #releaseLeases()} is called (or they expire)
+     */
+    public synchronized void stop() {
+        if (!started)
+            return;
+
+        Logger.info("Stopping persistent task queue");
+        started = false;
+        timer.cancel();
+        timer = null;
+    }
+
+    /**
+     * Returns the tasks leased by this node that have not finished running to the queue, so that they can be
+     * resumed (by any node) without waiting for their leases to expire. Expected to be called on shutdown after
+     * the executor service has stopped
+     */
+    public void releaseLeases() {
+        if (leased.isEmpty())
+            return;
+
+        try {
+            HibernateUtil.beginTransaction();
+            int count = dao.release(nodeId, new ArrayList<>(leased));
+            HibernateUtil.commitTransaction();
+            leased.clear();
+            Logger.info("Released " + count + " unfinished task(s)");
+        } catch (Exception e) {
+            HibernateUtil.rollbackTransaction();
+            Logger.error(e);
+        }
+    }
+
+    /**
+     * Adds a task to the queue. The task is stored using the current transaction (if there is one) so it is only
+     * queued if that transaction is committed. The task is not added if it has a key and a task with the same key
+     * is already waiting to be run
+     *
+     * @param task task to add
+     * @param <T>  persistent task
+     */
+    <T extends Task & PersistentTask> void enqueue(T task) {
+        boolean inTransaction = HibernateUtil.getSessionFactory().getCurrentSession().getTransaction().isActive();
+        if (!inTransaction)
+            HibernateUtil.beginTransaction();
+
+        try {
+            if (task.getKey() != null && dao.hasPending(task.getKey())) {
+                Logger.info("Task " + task.getKey() + " is already queued");
+            } else {
+                Date now = new Date();
+                QueuedTaskModel model = new QueuedTaskModel();
+                model.setType(task.getType());
+                model.setData(task.getData());
+                model.setTaskKey(task.getKey());
+                model.setLane(task.getLane());
+                model.setPriority(task.getPriority());
+                model.setStatus(TaskStatus.PENDING);
+                model.setAvailableAt(now);
+                model.setCreationTime(now);
+                model.setModificationTime(now);
+                dao.create(model);
+            }
+
+            if (!inTransaction)
+                HibernateUtil.commitTransaction();
+        } catch (RuntimeException e) {
+            if (!inTransaction)
+                HibernateUtil.rollbackTransaction();
+            throw e;
+        }
+        task.setStatus(TaskStatus.PENDING);
+    }
+
+    /**
+     * Renews the leases on the running tasks, and leases available tasks and submits them to the executor service
+     */
+    private void poll() {
+        List<LeasedTask> tasks = new ArrayList<>();
+        try {
+            HibernateUtil.beginTransaction();
+            Date now = new Date();
+            Date leaseExpires = new Date(now.getTime() + LEASE_DURATION);
+            dao.renewLeases(nodeId, new ArrayList<>(leased), leaseExpires);
+
+            int available = MAX_LEASED_TASKS - leased.size();
+            if (available > 0) {
+                for (QueuedTaskModel model : dao.getAvailable(now, available)) {
+                    if (!dao.lease(model.getId(), nodeId, now, leaseExpires))
+                        continue;   // leased by another node
+
+                    Task task;
+                    try {
+                        task = model.getType().create(model.getData());
+                    } catch (Exception e) {
+                        // kept (with the error) for inspection instead of being retried
+                        Logger.error("Could not create task " + model.getId() + " of type " + model.getType(), e);
+                        dao.finish(model.getId(), nodeId, TaskStatus.EXCEPTION,
+                                truncate("Could not create task: " + e), now);
+                        continue;
+                    }
+                    task.setCheckpoint(model.getCheckpoint());
+                    tasks.add(new LeasedTask(model.getId(), task));
+                    leased.add(model.getId());
+                }
+            }
+
+            if (now.getTime() - lastPurge > TimeUnit.HOURS.toMillis(1)) {
+                dao.deleteFinished(new Date(now.getTime() - RETENTION));
+                lastPurge = now.getTime();
+            }
+            HibernateUtil.commitTransaction();
+        } catch (Throwable e) {
+            HibernateUtil.rollbackTransaction();
+            Logger.error(e);
+            for (LeasedTask task : tasks)
+                leased.remove(task.getQueuedId());
+            return;
+        }
+
+        // submit after the leases are committed
+        List<Long> rejected = new ArrayList<>();
+        for (LeasedTask task : tasks) {
+            if (!IceExecutorService.getInstance().runTask(task)) {
+                leased.remove(task.getQueuedId());
+                rejected.add(task.getQueuedId());
+            }
+        }
+
+        if (!rejected.isEmpty()) {
+            try {
+                HibernateUtil.beginTransaction();
+                dao.release(nodeId, rejected);
+                HibernateUtil.commitTransaction();
+            } catch (Throwable e) {
+                HibernateUtil.rollbackTransaction();
+                Logger.error(e);
+            }
+        }
+    }
+
+    /**
+     * Marks a task as completed if this node still holds the lease on it. Called in the transaction the task was
+     * run in
+     */
+    void completed(long queuedId) {
+        if (!dao.finish(queuedId, nodeId, TaskStatus.COMPLETED, null, new Date()))
+            Logger.warn("Lease on task " + queuedId + " was lost before it completed; it may be run again");
+    }
+
+    /**
+     * Records the failure of a task and schedules it to be retried (unless it has failed too many times). Called
+     * after the transaction the task was run in has been rolled back
+     */
+    void failed(long queuedId, String error) {
+        try {
+            HibernateUtil.beginTransaction();
+            QueuedTaskModel model = dao.get(queuedId);
+            // the lease may have expired and the task been leased by another node
+            if (model != null && model.getStatus() == TaskStatus.IN_PROGRESS && nodeId.equals(model.getLeaseOwner())) {
+                Date now = new Date();
+                model.setLeaseOwner(null);
+                model.setLeaseExpires(null);
+                model.setModificationTime(now);
+                model.setLastError(truncate(error));
+                if (model.getAttempts() >= MAX_ATTEMPTS) {
+                    Logger.error("Task " + queuedId + " (" + model.getType() + ") failed " + model.getAttempts()
+                            + " times. Giving up");
+                    model.setStatus(TaskStatus.EXCEPTION);
+                } else {
+                    model.setStatus(TaskStatus.PENDING);
+                    model.setAvailableAt(new Date(now.getTime() + getBackoff(model.getAttempts())));
+                }
+                dao.update(model);
+            }
+            HibernateUtil.commitTransaction();
+        } catch (Exception e) {
+            HibernateUtil.rollbackTransaction();
+            Logger.error(e);
+        }
+    }
+
+    /**
+     * Records a checkpoint for a running task (and renews its lease) in a separate transaction so that it is
+     * available if the task is interrupted
+     */
+    void checkpoint(long queuedId, String checkpoint) {
+        Session session = HibernateUtil.newSession();
+        Transaction transaction = session.beginTransaction();
+        try {
+            dao.updateCheckpoint(session, queuedId, checkpoint, new Date(System.currentTimeMillis() + LEASE_DURATION));
+            transaction.commit();
+        } catch (Exception e) {
+            transaction.rollback();
+            Logger.error(e);
+        } finally {
+            session.close();
+        }
+    }
+
+    void finished(long queuedId) {
+        leased.remove(queuedId);
+    }
+
+    private static String truncate(String error) {
+        return error == null || error.length() <= 1024 ? error : error.substring(0, 1024);
+    }
+
+    /**
+     * @param attempts number of times task has been attempted
+     * @return time to wait before the next attempt; doubles with each attempt
+     */
+    static long getBackoff(int attempts) {
+        int exponent = Math.min(Math.max(0, attempts - 1), 16);
+        return Math.min(MAX_BACKOFF, INITIAL_BACKOFF << exponent);
+    }
+
+    private static String createNodeId() {
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (UnknownHostException e) {
+            host = "unknown";
+        }
+        return host + ":" + UUID.randomUUID().toString().substring(0, 8);
+    }
+}
@@ -13,5 +13,13 @@ public enum TaskStatus {
 
     // terminal states
     COMPLETED,       // task run completed successfully
-    EXCEPTION       // an exception caused the task to stop
+    EXCEPTION,      // an exception caused the task to stop
+    REJECTED;       // not run because the queue for the task's lane was full or the executor is not running
+
+    /**
+     * @return true if the task will not change status anymore
+     */
+    public boolean isTerminal() {
+        return this == COMPLETED || this == EXCEPTION || this == REJECTED;
+    }
 }
@@ -0,0 +1,65 @@
+package org.jbei.ice.lib.executor;
+
+import org.jbei.ice.lib.bulkupload.BulkUploadDeleteTask;
+import org.jbei.ice.lib.entry.EntryPermissionTask;
+import org.jbei.ice.lib.entry.export.CustomExportTask;
+import org.jbei.ice.lib.search.RebuildLuceneIndexTask;
+import org.jbei.ice.lib.search.blast.RebuildBlastIndexTask;
+
+/**
+ * Types of tasks that can be stored in the persistent task queue
+ *
+ * @author Hector Plahar
+ */
+public enum TaskType {
+
+    BLAST_INDEX {
+        @Override
+        public Task create(String data) {
+            return RebuildBlastIndexTask.fromData(data);
+        }
+    },
+
+    LUCENE_INDEX {
+        @Override
+        public Task create(String data) {
+            return new RebuildLuceneIndexTask();
+        }
+    },
+
+    BULK_UPLOAD_DELETE {
+        @Override
+        public Task create(String data) {
+            return BulkUploadDeleteTask.fromData(data);
+        }
+    },
+
+    TRANSFER {
+        @Override
+        public Task create(String data) {
+            return TransferTask.fromData(data);
+        }
+    },
+
+    CUSTOM_EXPORT {
+        @Override
+        public Task create(String data) {
+            return CustomExportTask.fromData(data);
+        }
+    },
+
+    ENTRY_PERMISSION {
+        @Override
+        public Task create(String data) {
+            return EntryPermissionTask.fromData(data);
+        }
+    };
+
+    /**
+     * Re-creates a task of this type
+     *
+     * @param data task data (see {@link PersistentTask#getData()})
+     * @return task
+     */
+    public abstract Task create(String data);
+}
@@ -0,0 +1,34 @@
+package org.jbei.ice.lib.executor;
+
+import org.jbei.ice.lib.access.PermissionException;
+import org.jbei.ice.lib.account.AccountController;
+import org.jbei.ice.lib.dto.TaskInfo;
+
+import java.util.List;
+
+/**
+ * Administrative view of the tasks submitted to the executor service
+ *
+ * @author Hector Plahar
+ */
+public class Tasks {
+
+    private final String userId;
+
+    public Tasks(String userId) {
+        this.userId = userId;
+    }
+
+    /**
+     * Retrieves the queued, running and recently finished tasks
+     *
+     * @return list of tasks
+     * @throws PermissionException if the user is not an administrator
+     */
+    public List<TaskInfo> get() {
+        if (!new AccountController().isAdministrator(userId))
+            throw new PermissionException("Administrative privileges required");
+
+        return IceExecutorService.getInstance().getTasks();
+    }
+}
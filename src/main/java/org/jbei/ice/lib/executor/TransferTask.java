@@ -1,5 +1,8 @@
 package org.jbei.ice.lib.executor;
 
+import com.google.gson.Gson;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
 import org.apache.commons.lang3.StringUtils;
 import org.jbei.ice.lib.account.AccountType;
 import org.jbei.ice.lib.common.logging.Logger;
@@ -18,7 +21,7 @@ import java.util.List;
  *
  * @author Hector Plahar
  */
-public class TransferTask extends Task {
+public class TransferTask extends Task implements PersistentTask {
 
     private final String userId;
     private final long remoteId;
@@ -30,6 +33,31 @@ public class TransferTask extends Task {
         this.entrySelection = entrySelection;
     }
 
+    static TransferTask fromData(String data) {
+        JsonObject object = new JsonParser().parse(data).getAsJsonObject();
+        EntrySelection selection = new Gson().fromJson(object.get("selection"), EntrySelection.class);
+        return new TransferTask(object.get("userId").getAsString(), object.get("remoteId").getAsLong(), selection);
+    }
+
+    @Override
+    public TaskType getType() {
+        return TaskType.TRANSFER;
+    }
+
+    @Override
+    public String getData() {
+        JsonObject object = new JsonObject();
+        object.addProperty("userId", userId);
+        object.addProperty("remoteId", remoteId);
+        object.add("selection", new Gson().toJsonTree(entrySelection));
+        return object.toString();
+    }
+
+    @Override
+    public TaskLane getLane() {
+        return TaskLane.TRANSFER;
+    }
+
     public void execute() {
         RemoteTransfer transfer = new RemoteTransfer();
         Account account = DAOFactory.getAccountDAO().getByEmail(userId);
@@ -8,6 +8,8 @@ import org.jbei.ice.lib.account.AccountTransfer;
 import org.jbei.ice.lib.account.TokenHash;
 import org.jbei.ice.lib.common.logging.Logger;
 import org.jbei.ice.lib.dto.access.AccessPermission;
+import org.jbei.ice.lib.dto.common.CursorPage;
+import org.jbei.ice.lib.dto.common.PageCursor;
 import org.jbei.ice.lib.dto.common.PageParameters;
 import org.jbei.ice.lib.dto.entry.PartData;
 import org.jbei.ice.lib.dto.entry.Visibility;
@@ -260,7 +262,7 @@ public class FolderContents {
         Account account = DAOFactory.getAccountDAO().getByEmail(userId);
         List<Group> accountGroups = new GroupController().getAllGroups(account);
         if (!folderAuthorization.isAdmin(userId))
-            entries = DAOFactory.getPermissionDAO().getCanReadEntries(account, accountGroups, entries);
+            entries = new EntryAuthorization().getCanReadEntries(account, accountGroups, entries);
 
         if (entries == null || entries.isEmpty())
             return new ArrayList<>();
@@ -350,8 +352,7 @@ public class FolderContents {
         FolderDetails details = folder.toDataTransferObject();
 
         // all local entries at this point
-        long folderSize = folderDAO.getFolderSize(folderId, pageParameters.getFilter(), visibleOnly);
-        details.setCount(folderSize);
+        details.setCount(getFolderSize(folderId, pageParameters, visibleOnly));
 
         if (userId != null) {
             List<AccessPermission> permissions = getAndFilterFolderPermissions(userId, folder);
@@ -377,7 +378,7 @@ public class FolderContents {
         }
 
         // retrieve folder contents
-        List<Long> results = folderDAO.retrieveFolderContents(folderId, pageParameters, visibleOnly);
+        List<Long> results = retrieveContents(folderId, pageParameters, visibleOnly, details);
         for (Long entryId : results) {
             PartData info = ModelToInfoFactory.createTableView(entryId, fields);
             details.getEntries().add(info);
@@ -385,6 +386,29 @@ public class FolderContents {
         return details;
     }
 
+    // when paging with a cursor, the size is only counted for the first page
+    private long getFolderSize(long folderId, PageParameters pageParameters, boolean visibleOnly) {
+        PageCursor cursor = pageParameters.getCursor();
+        if (cursor != null && cursor.hasCount())
+            return cursor.getCount();
+        return folderDAO.getFolderSize(folderId, pageParameters.getFilter(), visibleOnly);
+    }
+
+    // ids of the entries on the page; when paging with a cursor, the cursor for the next page is set in details
+    private List<Long> retrieveContents(long folderId, PageParameters pageParameters, boolean visibleOnly,
+                                        FolderDetails details) {
+        PageCursor cursor = pageParameters.getCursor();
+        if (cursor == null)
+            return folderDAO.retrieveFolderContents(folderId, pageParameters, visibleOnly);
+
+        CursorPage page = folderDAO.retrieveFolderContents(folderId, cursor, pageParameters.getLimit(),
+                pageParameters.getFilter(), visibleOnly);
+        PageCursor next = page.next(details.getCount());
+        if (next != null)
+            details.setNextCursor(next.encode());
+        return page.getIds();
+    }
+
     /**
      * Determines (based on user access privileges and folder type), if the
      *
@@ -482,11 +506,10 @@ public class FolderContents {
         FolderDetails details = folder.toDataTransferObject();
         details.setCanEdit(canEdit);
 
-        long folderSize = folderDAO.getFolderSize(folderId, pageParameters.getFilter(), true);
-        details.setCount(folderSize);
+        details.setCount(getFolderSize(folderId, pageParameters, true));
 
         // retrieve folder contents
-        List<Long> results = folderDAO.retrieveFolderContents(folderId, pageParameters, true);
+        List<Long> results = retrieveContents(folderId, pageParameters, true, details);
         for (Long entryId : results) {
             PartData info = ModelToInfoFactory.createTableView(entryId, fields);
             info.setCanEdit(canEdit);
@@ -1,6 +1,7 @@
 package org.jbei.ice.lib.folder;
 
 import org.apache.commons.lang3.StringUtils;
+import org.jbei.ice.lib.access.AccountPrincipalsCache;
 import org.jbei.ice.lib.access.PermissionException;
 import org.jbei.ice.lib.access.PermissionsController;
 import org.jbei.ice.lib.account.AccountController;
@@ -8,6 +9,8 @@ import org.jbei.ice.lib.account.AccountTransfer;
 import org.jbei.ice.lib.bulkupload.BulkUploadInfo;
 import org.jbei.ice.lib.bulkupload.BulkUploads;
 import org.jbei.ice.lib.common.logging.Logger;
+import org.jbei.ice.lib.dto.common.CursorPage;
+import org.jbei.ice.lib.dto.common.PageCursor;
 import org.jbei.ice.lib.dto.entry.PartData;
 import org.jbei.ice.lib.dto.entry.Visibility;
 import org.jbei.ice.lib.dto.folder.FolderAuthorization;
@@ -108,14 +111,54 @@ public class FolderController {
      * @return wrapper around the retrieved entries
      */
     public FolderDetails getPublicEntries(ColumnField sort, int offset, int limit, boolean asc, List<String> fields) {
+        return getPublicEntries(sort, offset, limit, asc, fields, null);
+    }
+
+    /**
+     * Retrieves entries that are made available publicly and have been modified (or made public) after the specified
+     * time. Used by partners to incrementally sync their local index of the public entries on this instance
+     *
+     * @param modifiedAfter if not null, only entries modified or made public after this time are retrieved
+     * @return wrapper around the retrieved entries
+     */
+    public FolderDetails getPublicEntries(ColumnField sort, int offset, int limit, boolean asc, List<String> fields,
+                                          Date modifiedAfter) {
         Group publicGroup = new GroupController().createOrRetrievePublicGroup();
         Set<Group> groups = new HashSet<>();
         groups.add(publicGroup);
 
         EntryDAO entryDAO = DAOFactory.getEntryDAO();
-        List<Long> results = entryDAO.retrieveVisibleEntries(null, groups, sort, asc, offset, limit, null);
-        long visibleCount = entryDAO.visibleEntryCount(null, groups, null);
+        List<Long> results = entryDAO.retrieveVisibleEntries(null, groups, sort, asc, offset, limit, null, modifiedAfter);
+        long visibleCount = entryDAO.visibleEntryCount(null, groups, null, modifiedAfter);
+        return createPublicEntries(results, visibleCount, fields);
+    }
+
+    /**
+     * Retrieves a page of the entries that are made available publicly (and have been modified or made public after
+     * the specified time) positioned using a cursor. The number of entries is only counted for the first page
+     *
+     * @param cursor        position of page
+     * @param limit         maximum number of entries to retrieve
+     * @param modifiedAfter if not null, only entries modified or made public after this time are retrieved
+     * @return wrapper around the retrieved entries and the cursor for the next page (if there is one)
+     */
+    public FolderDetails getPublicEntries(PageCursor cursor, int limit, List<String> fields, Date modifiedAfter) {
+        Group publicGroup = new GroupController().createOrRetrievePublicGroup();
+        Set<Group> groups = new HashSet<>();
+        groups.add(publicGroup);
+
+        EntryDAO entryDAO = DAOFactory.getEntryDAO();
+        CursorPage page = entryDAO.retrieveVisibleEntries(null, groups, cursor, limit, null, modifiedAfter);
+        long visibleCount = page.getCount(() -> entryDAO.visibleEntryCount(null, groups, null, modifiedAfter));
+
+        FolderDetails details = createPublicEntries(page.getIds(), visibleCount, fields);
+        PageCursor next = page.next(visibleCount);
+        if (next != null)
+            details.setNextCursor(next.encode());
+        return details;
+    }
 
+    private FolderDetails createPublicEntries(List<Long> results, long visibleCount, List<String> fields) {
         FolderDetails details = new FolderDetails();
         details.setCount(visibleCount);
 
@@ -269,6 +312,7 @@ public class FolderController {
 
                 permissionDAO.clearPermissions(folder);
                 dao.delete(folder);
+                AccountPrincipalsCache.getInstance().invalidateAll();
                 return details;
 
             default:
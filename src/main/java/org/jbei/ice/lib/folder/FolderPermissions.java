@@ -1,5 +1,6 @@
 package org.jbei.ice.lib.folder;
 
+import org.jbei.ice.lib.access.AccountPrincipalsCache;
 import org.jbei.ice.lib.access.PermissionException;
 import org.jbei.ice.lib.access.Permissions;
 import org.jbei.ice.lib.access.PermissionsController;
@@ -140,6 +141,7 @@ public class FolderPermissions extends Permissions {
         Group publicGroup = groupController.createOrRetrievePublicGroup();
 
         permissionDAO.removePermission(null, folder, null, null, publicGroup, true, false);
+        AccountPrincipalsCache.getInstance().invalidateAll();
         if (folder.isPropagatePermissions()) {
             for (Entry folderContent : folder.getContents()) {
                 EntryPermissions entryPermissions = new EntryPermissions(Long.toString(folderContent.getId()), userId);
@@ -243,6 +245,7 @@ public class FolderPermissions extends Permissions {
             return false;
 
         permissionDAO.delete(permission);
+        AccountPrincipalsCache.getInstance().invalidateAll();
         return true;
     }
 
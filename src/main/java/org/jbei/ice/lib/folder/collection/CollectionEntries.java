@@ -2,6 +2,8 @@ package org.jbei.ice.lib.folder.collection;
 
 import org.jbei.ice.lib.access.PermissionException;
 import org.jbei.ice.lib.account.AccountType;
+import org.jbei.ice.lib.dto.common.CursorPage;
+import org.jbei.ice.lib.dto.common.PageCursor;
 import org.jbei.ice.lib.dto.common.Results;
 import org.jbei.ice.lib.dto.entry.EntryType;
 import org.jbei.ice.lib.dto.entry.PartData;
@@ -122,6 +124,53 @@ public class CollectionEntries {
         }
     }
 
+    /**
+     * Retrieves a page of entries (based on the type of collection) positioned using a cursor. The number of
+     * available entries is counted for the first page only and carried in the cursor for the following pages.
+     * Samples are not paged using a cursor; the first page is returned without a cursor for the next one
+     *
+     * @param cursor position of page
+     * @param limit  maximum number of entries to retrieve
+     * @param filter optional text
+     * @param fields fields to include
+     * @return wrapper around list of parts on page, the number of such entries that are available and the cursor
+     * for the next page (if there is one)
+     */
+    public Results<PartData> getEntries(PageCursor cursor, int limit, String filter, List<String> fields) {
+        switch (this.type) {
+            case PERSONAL:
+            default:
+                if (userId == null || userId.isEmpty())
+                    throw new PermissionException("User id is required to retrieve owner entries");
+                OwnerEntries ownerEntries = new OwnerEntries(userId, userId);
+                return ownerEntries.retrieveOwnerEntries(cursor, limit, filter, fields);
+
+            case FEATURED:
+            case AVAILABLE:
+                VisibleEntries visibleEntries = new VisibleEntries(userId);
+                return visibleEntries.getEntries(cursor, limit, filter, fields);
+
+            case SHARED:
+                SharedEntries sharedEntries = new SharedEntries(this.userId);
+                return sharedEntries.getEntries(cursor, limit, filter, fields);
+
+            case DELETED:
+                return this.getEntriesByVisibility(Visibility.DELETED, cursor, limit, this.userId, filter, fields);
+
+            case DRAFTS:
+                return this.getEntriesByVisibility(Visibility.DRAFT, cursor, limit, this.userId, filter, fields);
+
+            case PENDING:
+                return this.getEntriesByVisibility(Visibility.PENDING, cursor, limit, null, filter, fields);
+
+            case TRANSFERRED:
+                return this.getEntriesByVisibility(Visibility.TRANSFERRED, cursor, limit, null, filter, fields);
+
+            case SAMPLES:
+                return this.getSampleEntries(cursor.getSortField(), cursor.isAscending(), 0, limit, filter, fields);
+        }
+    }
+
     private Results<PartData> getSampleEntries(ColumnField field, boolean asc, int offset, int limit, String filter, List<String> fields) {
         SampleEntries entries = new SampleEntries(this.userId);
         final List<PartData> list = entries.get(field, asc, offset, limit, filter, fields);
@@ -226,4 +275,15 @@ public class CollectionEntries {
         results.setResultCount(entryDAO.getByVisibilityCount(user, visibility, filter));
         return results;
     }
+
+    private Results<PartData> getEntriesByVisibility(Visibility visibility, PageCursor cursor, int limit, String user,
+                                                     String filter, List<String> fields) {
+        CursorPage page = entryDAO.getByVisibility(user, visibility, cursor, limit, filter);
+        List<PartData> data = new ArrayList<>();
+        for (Long id : page.getIds()) {
+            PartData info = ModelToInfoFactory.createTableView(id, fields);
+            data.add(info);
+        }
+        return page.toResults(data, () -> entryDAO.getByVisibilityCount(user, visibility, filter));
+    }
 }
@@ -1,5 +1,6 @@
 package org.jbei.ice.lib.group;
 
+import org.jbei.ice.lib.access.AccountPrincipalsCache;
 import org.jbei.ice.lib.access.PermissionException;
 import org.jbei.ice.lib.account.AccountController;
 import org.jbei.ice.lib.account.AccountTransfer;
@@ -95,6 +96,7 @@ public class GroupController {
                 continue;
             memberAccount.getGroups().add(group);
             accountController.save(memberAccount);
+            AccountPrincipalsCache.getInstance().invalidate(memberAccount.getEmail());
         }
 
         info = group.toDataTransferObject();
@@ -125,6 +127,7 @@ public class GroupController {
 
         DAOFactory.getPermissionDAO().clearPermissions(group);
         dao.delete(group);
+        AccountPrincipalsCache.getInstance().invalidateAll();
         return true;
     }
 
@@ -1,6 +1,7 @@
 package org.jbei.ice.lib.group;
 
 import org.apache.commons.lang3.StringUtils;
+import org.jbei.ice.lib.access.AccountPrincipalsCache;
 import org.jbei.ice.lib.access.PermissionException;
 import org.jbei.ice.lib.account.AccountController;
 import org.jbei.ice.lib.account.AccountTransfer;
@@ -141,6 +142,7 @@ public class Groups {
                 group.getMembers().add(memberAccount);
                 memberAccount.getGroups().add(group);
                 accountDAO.update(memberAccount);
+                AccountPrincipalsCache.getInstance().invalidate(memberAccount.getEmail());
             }
         }
 
@@ -258,6 +260,7 @@ public class Groups {
             group.getMembers().add(memberToAdd);
             memberToAdd.getGroups().add(group);
             accountDAO.update(memberToAdd);
+            AccountPrincipalsCache.getInstance().invalidate(memberToAdd.getEmail());
         }
 
         // all emails remaining should be removed
@@ -268,6 +271,7 @@ public class Groups {
             memberAccount.getGroups().remove(group);
             group.getMembers().remove(memberAccount);
             accountDAO.update(memberAccount);
+            AccountPrincipalsCache.getInstance().invalidate(memberAccount.getEmail());
         }
 
         //
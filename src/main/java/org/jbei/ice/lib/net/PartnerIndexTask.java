@@ -0,0 +1,144 @@
+package org.jbei.ice.lib.net;
+
+import org.jbei.ice.lib.common.logging.Logger;
+import org.jbei.ice.lib.dto.ConfigurationKey;
+import org.jbei.ice.lib.dto.folder.FolderDetails;
+import org.jbei.ice.lib.dto.web.RemotePartnerStatus;
+import org.jbei.ice.lib.executor.IceExecutorService;
+import org.jbei.ice.lib.executor.Task;
+import org.jbei.ice.lib.executor.TaskLane;
+import org.jbei.ice.lib.search.PartnerIndex;
+import org.jbei.ice.lib.utils.Utils;
+import org.jbei.ice.storage.DAOFactory;
+import org.jbei.ice.storage.model.RemotePartner;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Task to sync the local index of the public entries of registry partners ({@link PartnerIndex}). Only the
+ * entries modified (or made public) since the last sync are retrieved from each partner; all the entries are
+ * retrieved daily to pick up entries that have been deleted or are no longer public. Entries are indexed a page at
+ * a time as they are retrieved
+ *
+ * @author Hector Plahar
+ */
+public class PartnerIndexTask extends Task {
+
+    private static final int PAGE_SIZE = 500;
+    private static final long FULL_SYNC_INTERVAL = TimeUnit.DAYS.toMillis(1);
+    private static final long CLOCK_SKEW = TimeUnit.MINUTES.toMillis(5);   // allowance for partner clock differences
+    private static Timer timer;
+
+    private final RemoteContact remoteContact;
+
+    public PartnerIndexTask() {
+        this.remoteContact = new RemoteContact();
+    }
+
+    /**
+     * Schedules the sync to run periodically (see {@link ConfigurationKey#PARTNER_INDEX_SYNC_MINUTES}). Changes to
+     * the interval take effect on restart
+     */
+    public static synchronized void schedule() {
+        if (timer != null || !PartnerIndex.isEnabled())
+            return;
+
+        long interval = TimeUnit.MINUTES.toMillis(Integer.decode(
+                Utils.getConfigValue(ConfigurationKey.PARTNER_INDEX_SYNC_MINUTES)));
+        timer = new Timer("ice-partner-index", true);
+        timer.scheduleAtFixedRate(new TimerTask() {
+            @Override
+            public void run() {
+                IceExecutorService.getInstance().runTask(new PartnerIndexTask());
+            }
+        }, TimeUnit.MINUTES.toMillis(1), interval);
+    }
+
+    public static synchronized void cancel() {
+        if (timer != null) {
+            timer.cancel();
+            timer = null;
+        }
+        PartnerIndex.close();
+    }
+
+    @Override
+    public TaskLane getLane() {
+        return TaskLane.TRANSFER;
+    }
+
+    @Override
+    public int getPriority() {
+        return LOW_PRIORITY;
+    }
+
+    @Override
+    public String getKey() {
+        return "partner-index";
+    }
+
+    @Override
+    public void execute() {
+        String value = Utils.getConfigValue(ConfigurationKey.JOIN_WEB_OF_REGISTRIES);
+        if (!PartnerIndex.isEnabled() || !("yes".equalsIgnoreCase(value) || "true".equalsIgnoreCase(value)))
+            return;
+
+        try {
+            PartnerIndex index = PartnerIndex.getInstance();
+            Set<Long> partnerIds = new HashSet<>();
+            List<RemotePartner> partners = DAOFactory.getRemotePartnerDAO().getRegistryPartners();
+            if (partners != null) {
+                for (RemotePartner partner : partners) {
+                    if (partner.getUrl() == null || partner.getPartnerStatus() != RemotePartnerStatus.APPROVED)
+                        continue;
+
+                    partnerIds.add(partner.getId());
+                    try {
+                        sync(index, partner);
+                    } catch (Exception e) {
+                        Logger.error("Could not sync partner index for " + partner.getUrl(), e);
+                    }
+                }
+            }
+            index.retainPartners(partnerIds);
+        } catch (IOException e) {
+            Logger.error(e);
+        }
+    }
+
+    private void sync(PartnerIndex index, RemotePartner partner) throws IOException {
+        long syncTime = System.currentTimeMillis();
+        long lastSync = index.getSyncTime(partner.getId());
+        boolean full = lastSync == 0 || syncTime - index.getFullSyncTime(partner.getId()) > FULL_SYNC_INTERVAL;
+
+        int offset = 0;
+        String cursor = "";     // partners that do not page using cursors use the offset
+        while (true) {
+            Map<String, Object> queryParams = new HashMap<>();
+            queryParams.put("offset", offset);
+            queryParams.put("limit", PAGE_SIZE);
+            queryParams.put("sort", "created");
+            queryParams.put("asc", true);
+            if (cursor != null)
+                queryParams.put("cursor", cursor);
+            if (!full)
+                queryParams.put("modifiedSince", lastSync - CLOCK_SKEW);
+
+            FolderDetails details = remoteContact.getFolderEntries(partner.getUrl(), queryParams, partner.getApiKey());
+            if (details == null)
+                throw new IOException("No response retrieving entries");
+
+            // index each page as it is retrieved instead of holding all the entries of partner in memory
+            index.update(partner.getId(), details.getEntries(), syncTime);
+            offset += details.getEntries().size();
+            if (details.getEntries().size() < PAGE_SIZE || offset >= details.getCount())
+                break;
+            cursor = details.getNextCursor();
+        }
+
+        index.completeSync(partner.getId(), full, syncTime);
+        Logger.info("Synced " + offset + (full ? "" : " modified") + " entries from " + partner.getUrl());
+    }
+}
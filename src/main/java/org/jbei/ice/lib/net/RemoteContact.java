@@ -159,7 +159,7 @@ public class RemoteContact {
         IceRestClient client = new IceRestClient(url, apiKey);
         for (Map.Entry<String, Object> entry : queryParams.entrySet())
             client.queryParam(entry.getKey(), entry.getValue());
-        client.queryParam("fields", "hasSequence", "status", "creationTime");
+        client.queryParam("fields", "hasSequence", "status", "creationTime", "alias");
         return client.get("rest/folders/public/entries", FolderDetails.class);
     }
 
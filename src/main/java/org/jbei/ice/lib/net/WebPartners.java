@@ -4,6 +4,7 @@ import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.validator.routines.UrlValidator;
 import org.jbei.ice.lib.access.AccessTokens;
 import org.jbei.ice.lib.access.PermissionException;
+import org.jbei.ice.lib.access.VerifiedCredentialCache;
 import org.jbei.ice.lib.account.AccountController;
 import org.jbei.ice.lib.account.TokenHash;
 import org.jbei.ice.lib.common.logging.Logger;
@@ -172,6 +173,7 @@ public class WebPartners {
             partner.setAuthenticationToken(tokenHash.encrypt(thisInstance.getApiKey() +
                     request.getUrl(), partner.getSalt()));
             dao.update(partner);
+            VerifiedCredentialCache.getInstance().invalidatePartner(partner.getUrl());
         } else {
             // save in db
             request.setStatus(RemotePartnerStatus.APPROVED);
@@ -204,6 +206,7 @@ public class WebPartners {
             return false;
 
         dao.delete(partner);
+        VerifiedCredentialCache.getInstance().invalidatePartner(partner.getUrl());
         // todo : contact deleted partner since they cannot contact anymore?
         return true;
     }
@@ -225,6 +228,7 @@ public class WebPartners {
         }
 
         dao.delete(requester);
+        VerifiedCredentialCache.getInstance().invalidatePartner(requester.getUrl());
         return true;
     }
 
@@ -275,6 +279,7 @@ public class WebPartners {
         partner.setAuthenticationToken(hash);
         partner.setApiKey(remotePartner.getApiKey()); // todo : check api key (validate?)
         partner = dao.update(partner);
+        VerifiedCredentialCache.getInstance().invalidatePartner(partner.getUrl());
         return partner.toDataTransferObject();
     }
 
@@ -304,6 +309,8 @@ public class WebPartners {
         String hash = tokenHash.encrypt(thisInstance.getApiKey() + remotePartner.getUrl(), salt);
         remotePartnerModel.setAuthenticationToken(hash);
         dao.update(remotePartnerModel);
+        VerifiedCredentialCache.getInstance().invalidatePartner(url);
+        VerifiedCredentialCache.getInstance().invalidatePartner(remotePartnerModel.getUrl());
 
         return thisInstance;
     }
@@ -322,7 +329,9 @@ public class WebPartners {
 
         Logger.info(userId + ": updating partner (" + existing.getUrl() + ") to " + partner.toString());
         existing.setPartnerStatus(partner.getStatus());
-        return dao.update(existing).toDataTransferObject();
+        existing = dao.update(existing);
+        VerifiedCredentialCache.getInstance().invalidatePartner(existing.getUrl());
+        return existing.toDataTransferObject();
     }
 
     /**
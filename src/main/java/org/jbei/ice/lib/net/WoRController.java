@@ -1,5 +1,6 @@
 package org.jbei.ice.lib.net;
 
+import org.jbei.ice.lib.access.VerifiedCredentialCache;
 import org.jbei.ice.lib.account.AccountController;
 import org.jbei.ice.lib.common.logging.Logger;
 import org.jbei.ice.lib.config.ConfigurationSettings;
@@ -71,6 +72,7 @@ public class WoRController {
             return true;
 
         dao.delete(partner);
+        VerifiedCredentialCache.getInstance().invalidatePartner(partner.getUrl());
         return true;
     }
 
@@ -102,6 +104,7 @@ public class WoRController {
             existing.setPartnerStatus(partner.getStatus());
             existing.setAuthenticationToken(apiKey);
             dao.update(existing);
+            VerifiedCredentialCache.getInstance().invalidatePartner(existing.getUrl());
             return true;
         } catch (Exception e) {
             Logger.error(e);
@@ -15,7 +15,8 @@ import java.nio.charset.Charset;
 /**
  * Uses a heuristic to detect the type of sequence, based on the first few xters in the file
  * <br>
- * This assumes a single sequence so multi-fasta files are not supported
+ * This assumes a single sequence so multi-fasta files are not supported. Files with multiple records are read using
+ * {@link SequenceRecordReader} (e.g. for bulk uploads)
  *
  * @author Hector Plahar
  */
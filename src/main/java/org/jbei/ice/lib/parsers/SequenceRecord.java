@@ -0,0 +1,101 @@
+package org.jbei.ice.lib.parsers;
+
+import org.jbei.ice.lib.dto.FeaturedDNASequence;
+import org.jbei.ice.lib.entry.sequence.SequenceFormat;
+import org.jbei.ice.lib.parsers.fasta.FastaParser;
+import org.jbei.ice.lib.parsers.genbank.GenBankParser;
+
+import java.util.List;
+
+/**
+ * A single record (the lines for one sequence) read from a FASTA or GenBank file that may contain multiple records.
+ * See {@link SequenceRecordReader}
+ *
+ * @author Hector Plahar
+ */
+public class SequenceRecord {
+
+    private final int index;
+    private final SequenceFormat format;
+    private final List<String> lines;
+
+    SequenceRecord(int index, SequenceFormat format, List<String> lines) {
+        this.index = index;
+        this.format = format;
+        this.lines = lines;
+    }
+
+    /**
+     * @return position (starting at 1) of this record in the file it was read from
+     */
+    public int getIndex() {
+        return index;
+    }
+
+    public SequenceFormat getFormat() {
+        return format;
+    }
+
+    public List<String> getLines() {
+        return lines;
+    }
+
+    /**
+     * @return name of the record (first word of a FASTA header or the LOCUS name for GenBank), or null if the
+     * record does not have one
+     */
+    public String getName() {
+        String line = lines.get(0);
+        String[] words = (format == SequenceFormat.FASTA ? line.substring(1) : line).trim().split("\\s+");
+        int position = format == SequenceFormat.FASTA ? 0 : 1;
+        if (words.length <= position || words[position].isEmpty())
+            return null;
+        return words[position];
+    }
+
+    /**
+     * @return description of the record (rest of a FASTA header after the name or the GenBank DEFINITION), or null
+     * if the record does not have one
+     */
+    public String getDescription() {
+        if (format == SequenceFormat.FASTA) {
+            String header = lines.get(0).substring(1).trim();
+            int space = header.indexOf(' ');
+            if (space == -1)
+                return null;
+            return header.substring(space + 1).trim();
+        }
+
+        StringBuilder definition = null;
+        for (String line : lines) {
+            if (definition == null) {
+                if (line.startsWith("DEFINITION"))
+                    definition = new StringBuilder(line.substring("DEFINITION".length()).trim());
+                else if (line.startsWith("ORIGIN"))
+                    break;
+                continue;
+            }
+
+            // continuation lines of the definition are indented
+            if (line.isEmpty() || !Character.isWhitespace(line.charAt(0)))
+                break;
+            definition.append(' ').append(line.trim());
+        }
+
+        if (definition == null || definition.length() == 0)
+            return null;
+        return definition.toString();
+    }
+
+    /**
+     * Parses this record. This does not require access to the database so records can be parsed concurrently
+     *
+     * @param entryType optional type of entry the sequence is for
+     * @return parsed sequence
+     * @throws InvalidFormatParserException if the record cannot be parsed
+     */
+    public FeaturedDNASequence parse(String... entryType) throws InvalidFormatParserException {
+        AbstractParser parser = format == SequenceFormat.GENBANK ? new GenBankParser() : new FastaParser();
+        return parser.parse(lines.iterator(), entryType);
+    }
+}
@@ -0,0 +1,119 @@
+package org.jbei.ice.lib.parsers;
+
+import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.LineIterator;
+import org.jbei.ice.lib.entry.sequence.SequenceFormat;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.NoSuchElementException;
+
+/**
+ * Reads the records in a FASTA or GenBank file one at a time, so that files containing a large number of
+ * records do not have to be read into memory. A FASTA record starts with a <code>&gt;</code> header line and
+ * a GenBank record with a <code>LOCUS</code> line and ends with <code>//</code>. Lines outside records are ignored
+ *
+ * @author Hector Plahar
+ */
+public class SequenceRecordReader implements Iterator<SequenceRecord>, Closeable {
+
+    private final LineIterator lines;
+    private final SequenceFormat format;
+    private String pending;         // first line of the next record
+    private SequenceRecord next;
+    private int count;
+
+    /**
+     * @param inputStream stream for the file. It is closed when this reader is closed
+     * @throws IOException if the file does not contain any FASTA or GenBank records
+     */
+    public SequenceRecordReader(InputStream inputStream) throws IOException {
+        this.lines = IOUtils.lineIterator(inputStream, StandardCharsets.UTF_8);
+
+        // format is determined by the first line that is not blank (or a FASTA comment)
+        while (lines.hasNext()) {
+            String line = lines.next();
+            if (!line.trim().isEmpty() && !line.startsWith(";")) {
+                pending = line;
+                break;
+            }
+        }
+
+        if (pending != null && pending.startsWith(">"))
+            format = SequenceFormat.FASTA;
+        else if (pending != null && pending.startsWith("LOCUS"))
+            format = SequenceFormat.GENBANK;
+        else {
+            lines.close();
+            throw new IOException("Could not find FASTA or GenBank records in file");
+        }
+    }
+
+    public SequenceFormat getFormat() {
+        return format;
+    }
+
+    @Override
+    public boolean hasNext() {
+        if (next == null)
+            next = readRecord();
+        return next != null;
+    }
+
+    @Override
+    public SequenceRecord next() {
+        if (!hasNext())
+            throw new NoSuchElementException();
+
+        SequenceRecord record = next;
+        next = null;
+        return record;
+    }
+
+    @Override
+    public void close() throws IOException {
+        lines.close();
+    }
+
+    private SequenceRecord readRecord() {
+        // skip to the start of the next record
+        while (pending == null && lines.hasNext()) {
+            String line = lines.next();
+            if (isRecordStart(line))
+                pending = line;
+        }
+
+        if (pending == null)
+            return null;
+
+        List<String> recordLines = new ArrayList<>();
+        recordLines.add(pending);
+        pending = null;
+
+        while (lines.hasNext()) {
+            String line = lines.next();
+            if (isRecordStart(line)) {
+                pending = line;
+                break;
+            }
+
+            recordLines.add(line);
+            if (format == SequenceFormat.GENBANK && line.startsWith("//"))
+                break;
+        }
+
+        count += 1;
+        return new SequenceRecord(count, format, recordLines);
+    }
+
+    private boolean isRecordStart(String line) {
+        if (format == SequenceFormat.FASTA)
+            return line.startsWith(">");
+        return line.startsWith("LOCUS");
+    }
+}
@@ -1,21 +1,15 @@
 package org.jbei.ice.lib.parsers.fasta;
 
-import org.biojava.bio.BioException;
-import org.biojavax.bio.seq.RichSequence;
-import org.biojavax.bio.seq.RichSequence.IOTools;
-import org.biojavax.bio.seq.RichSequenceIterator;
 import org.jbei.ice.lib.dto.FeaturedDNASequence;
 import org.jbei.ice.lib.parsers.AbstractParser;
 import org.jbei.ice.lib.parsers.InvalidFormatParserException;
 
-import java.io.BufferedReader;
-import java.io.IOException;
-import java.io.StringReader;
 import java.util.Iterator;
 import java.util.LinkedList;
 
 /**
- * Parse FASTA files.
+ * Parse FASTA files. The residues of the first record are appended as each line is scanned, so the file is not
+ * read into memory (or re-tokenized) before it is parsed.
  *
  * @author Hector Plahar, Zinovii Dmytriv, Timothy Ham
  */
@@ -23,29 +17,37 @@ public class FastaParser extends AbstractParser {
 
     @Override
     public FeaturedDNASequence parse(Iterator<String> iterator, String... entryType) throws InvalidFormatParserException {
-        try {
-            String textSequence = getSequence(iterator);
-            textSequence = cleanSequence(textSequence);
-            textSequence = textSequence.replaceAll("\t", "\n");
-            try (BufferedReader br = new BufferedReader(new StringReader(textSequence))) {
-                FeaturedDNASequence sequence;
-                RichSequenceIterator richSequences;
-                if (entryType.length > 0 && entryType[0].equals("protein")) {
-                    richSequences = IOTools.readFastaProtein(br, null);
-                } else {
-                    richSequences = IOTools.readFastaDNA(br, null);
-                }
-
-                if (richSequences.hasNext()) {
-                    RichSequence richSequence = richSequences.nextRichSequence();
-                    sequence = new FeaturedDNASequence(richSequence.seqString(), new LinkedList<>());
-                } else {
-                    throw new InvalidFormatParserException("No sequence found in sequence file!");
-                }
-                return sequence;
+        boolean protein = entryType.length > 0 && "protein".equals(entryType[0]);
+        StringBuilder residues = new StringBuilder();
+        boolean header = false;
+
+        while (iterator.hasNext()) {
+            String line = iterator.next();
+            if (line.startsWith(">")) {
+                if (header)
+                    break;          // only the first record is parsed
+                header = true;
+                continue;
+            }
+
+            if (!header || line.startsWith(";"))   // comment
+                continue;
+
+            for (int i = 0; i < line.length(); i += 1) {
+                char c = line.charAt(i);
+                if (Character.isWhitespace(c) || Character.isDigit(c))
+                    continue;
+
+                if (!Character.isLetter(c) && c != '-' && c != '*')
+                    throw new InvalidFormatParserException("Couldn't parse FASTA sequence! Invalid character " + c);
+
+                residues.append(protein ? Character.toUpperCase(c) : Character.toLowerCase(c));
             }
-        } catch (BioException | IOException e) {
-            throw new InvalidFormatParserException("Couldn't parse FASTA sequence!", e);
         }
+
+        if (!header)
+            throw new InvalidFormatParserException("No sequence found in sequence file!");
+
+        return new FeaturedDNASequence(residues.toString(), new LinkedList<>());
     }
 }
@@ -131,10 +131,7 @@ public class FeaturesSection extends GenBankSection {
         if (currentNote == null)
             return false;
 
-        line = line.replaceAll("\\\\", " ");
-        line = line.replaceAll("\"\"", "\"");
-
-        currentNote.setValue(currentNote.getValue() + line);
+        currentNote.setValue(currentNote.getValue() + unescape(line));
         return true;
     }
 
@@ -173,13 +170,25 @@ public class FeaturesSection extends GenBankSection {
         if (value.endsWith("\""))
             value = value.substring(0, value.length() - 1);
 
-        value = value.replaceAll("\\\\", " ");
-        value = value.replaceAll("\"\"", "\"");
-
-        currentNote.setValue(value);
+        currentNote.setValue(unescape(value));
         determineFeatureName();
     }
 
+    /**
+     * Replaces backslashes with spaces and escaped (doubled) quotes with a single quote. Most values contain
+     * neither, in which case the value is returned as is
+     *
+     * @param value qualifier value
+     * @return unescaped value
+     */
+    private String unescape(String value) {
+        if (value.indexOf('\\') != -1)
+            value = value.replace('\\', ' ');
+        if (value.contains("\"\""))
+            value = value.replace("\"\"", "\"");
+        return value;
+    }
+
     /**
      * Tries to determine the feature name, from a list of possible qualifier keywords that might
      * contain it.
@@ -1,6 +1,5 @@
 package org.jbei.ice.lib.parsers.genbank;
 
-import org.apache.commons.lang3.StringUtils;
 import org.jbei.ice.lib.dto.FeaturedDNASequence;
 import org.jbei.ice.lib.parsers.AbstractParser;
 
@@ -15,15 +14,22 @@ public class GenBankParser extends AbstractParser {
 
     private FeaturedDNASequence sequence;
 
+    /**
+     * Section tags start at the beginning of a line so this only returns the first word of lines that do not start
+     * with whitespace. Most lines (sequence, features and continuation lines) are indented so they are skipped
+     * without further processing
+     *
+     * @param line line to check
+     * @return first word of line or empty string if line starts with whitespace
+     */
     private String getFirstWordFromLine(String line) {
-        if (StringUtils.isBlank(line))
-            return "";
-
-        String[] chunks = line.split("\\s+");
-        if (chunks.length == 0)
+        if (line.isEmpty() || Character.isWhitespace(line.charAt(0)))
             return "";
 
-        return chunks[0];
+        int end = 1;
+        while (end < line.length() && !Character.isWhitespace(line.charAt(end)))
+            end += 1;
+        return line.substring(0, end);
     }
 
     /**
@@ -65,6 +71,8 @@ public class GenBankParser extends AbstractParser {
 
             // encountered new tag
             if (genbankTag != null) {
+                if (currentSection != null)
+                    currentSection.end();
                 currentSection = process(genbankTag);
             }
 
@@ -72,8 +80,8 @@ public class GenBankParser extends AbstractParser {
                 currentSection.process(line);
         }
 
-        // todo : at this point we have the entire sequence converted into this object
-        // todo : however, it is still being held in memory
+        if (currentSection != null)
+            currentSection.end();
         return sequence;
     }
 }
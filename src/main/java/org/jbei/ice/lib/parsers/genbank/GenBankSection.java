@@ -17,6 +17,12 @@ public abstract class GenBankSection {
 
     public abstract void process(String line);
 
+    /**
+     * Called when the section ends (at the start of the next section or the end of the document)
+     */
+    public void end() {
+    }
+
     public FeaturedDNASequence getSequence() {
         return this.sequence;
     }
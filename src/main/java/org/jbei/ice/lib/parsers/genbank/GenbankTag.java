@@ -2,6 +2,9 @@ package org.jbei.ice.lib.parsers.genbank;
 
 import org.apache.commons.lang3.StringUtils;
 
+import java.util.HashMap;
+import java.util.Map;
+
 public enum GenbankTag {
     LOCUS,
     DEFINITION,
@@ -21,15 +24,17 @@ public enum GenbankTag {
     CONTIG,
     ORIGIN;
 
+    private static final Map<String, GenbankTag> TAGS = new HashMap<>();
+
+    static {
+        for (GenbankTag tag : GenbankTag.values())
+            TAGS.put(tag.name(), tag);
+    }
+
     public static GenbankTag getTagForString(String tagString) {
         if (StringUtils.isBlank(tagString))
             return null;
 
-        for (GenbankTag tag : GenbankTag.values()) {
-            if (tag.name().equals(tagString.trim().toUpperCase()))
-                return tag;
-        }
-
-        return null;
+        return TAGS.get(tagString.trim().toUpperCase());
     }
 }
@@ -1,11 +1,11 @@
 package org.jbei.ice.lib.parsers.genbank;
 
 import org.jbei.ice.lib.dto.FeaturedDNASequence;
-import org.jbei.ice.lib.utils.Utils;
-
-import java.util.Arrays;
 
 /**
+ * <code>ORIGIN</code> section of a GenBank file. The residues are appended as each line is scanned; the position
+ * numbers and whitespace are skipped without splitting the line
+ *
  * @author Hector Plahar
  */
 public class OriginSection extends GenBankSection {
@@ -18,17 +18,27 @@ public class OriginSection extends GenBankSection {
     }
 
     public void process(String line) {
-        if (line.contains("ORIGIN"))
+        if (line.startsWith("ORIGIN") || line.startsWith("//"))
             return;
 
-        if (line.trim().equals("//"))
-            sequence.setSequence(sequenceString.toString());
+        int length = line.length();
+        int i = 0;
+
+        // skip leading whitespace and position number (sometimes sequence block is un-numbered fasta)
+        while (i < length && Character.isWhitespace(line.charAt(i)))
+            i += 1;
+        while (i < length && Character.isDigit(line.charAt(i)))
+            i += 1;
 
-        line = cleanSequence(line);
-        String[] chunks = line.split("\\s+");
-        if (chunks[0].matches("\\d*")) { // sometimes sequence block is un-numbered fasta
-            chunks[0] = "";
+        for (; i < length; i += 1) {
+            char c = line.charAt(i);
+            if (!Character.isWhitespace(c))
+                sequenceString.append(Character.toLowerCase(c));
         }
-        sequenceString.append(Utils.join("", Arrays.asList(chunks)).toLowerCase());
+    }
+
+    @Override
+    public void end() {
+        sequence.setSequence(sequenceString.toString());
     }
 }
@@ -0,0 +1,34 @@
+package org.jbei.ice.lib.search;
+
+import org.jbei.ice.lib.executor.Task;
+import org.jbei.ice.lib.executor.TaskLane;
+import org.jbei.ice.storage.hibernate.TrigramIndexes;
+
+/**
+ * Task to create the database indexes used by the text filters for entry lists, folders and features
+ * (see {@link TrigramIndexes}). Run on startup; indexes that already exist are not rebuilt
+ *
+ * @author Hector Plahar
+ */
+public class FilterIndexTask extends Task {
+
+    @Override
+    public TaskLane getLane() {
+        return TaskLane.MAINTENANCE;
+    }
+
+    @Override
+    public int getPriority() {
+        return LOW_PRIORITY;
+    }
+
+    @Override
+    public String getKey() {
+        return "filter-indexes";
+    }
+
+    @Override
+    public void execute() {
+        TrigramIndexes.create();
+    }
+}
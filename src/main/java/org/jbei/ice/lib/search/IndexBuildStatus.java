@@ -9,10 +9,21 @@ public class IndexBuildStatus implements IDataTransferModel {
 
     private final long done;
     private final long total;
+    private final double rate;
 
     public IndexBuildStatus(long done, long total) {
+        this(done, total, 0);
+    }
+
+    /**
+     * @param done  number of items processed
+     * @param total total number of items to process
+     * @param rate  throughput (items processed per second)
+     */
+    public IndexBuildStatus(long done, long total, double rate) {
         this.done = done;
         this.total = total;
+        this.rate = rate;
     }
 
     public long getDone() {
@@ -22,4 +33,8 @@ public class IndexBuildStatus implements IDataTransferModel {
     public long getTotal() {
         return this.total;
     }
+
+    public double getRate() {
+        return this.rate;
+    }
 }
@@ -0,0 +1,286 @@
+package org.jbei.ice.lib.search;
+
+import com.google.gson.Gson;
+import org.apache.lucene.analysis.Analyzer;
+import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.document.*;
+import org.apache.lucene.index.*;
+import org.apache.lucene.queries.TermsQuery;
+import org.apache.lucene.queryparser.simple.SimpleQueryParser;
+import org.apache.lucene.search.*;
+import org.apache.lucene.store.Directory;
+import org.apache.lucene.store.FSDirectory;
+import org.apache.lucene.util.BytesRef;
+import org.jbei.ice.lib.common.logging.Logger;
+import org.jbei.ice.lib.dto.ConfigurationKey;
+import org.jbei.ice.lib.dto.entry.EntryType;
+import org.jbei.ice.lib.dto.entry.PartData;
+import org.jbei.ice.lib.dto.search.SearchQuery;
+import org.jbei.ice.lib.dto.search.SearchResult;
+import org.jbei.ice.lib.dto.search.SearchResults;
+import org.jbei.ice.lib.utils.Utils;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+
+/**
+ * Local Lucene index of the public entries of web of registries partners, so that web searches can be answered
+ * without contacting each partner. The index is kept separate from the entry index and is updated by
+ * {@link org.jbei.ice.lib.net.PartnerIndexTask}.
+ * <p>
+ * The time each partner was last synced (and last fully synced) is stored with the index commit, so an index that
+ * is deleted is fully re-synced
+ *
+ * @author Hector Plahar
+ */
+public class PartnerIndex {
+
+    private static final String INDEX_DIR = "partner-index";
+    private static final String PARTNER = "partner";
+    private static final String KEY = "key";
+    private static final String TYPE = "type";
+    private static final String DATA = "data";
+    private static final String SYNC = "sync";       // time of the sync that last retrieved the entry
+    private static final String SYNC_PREFIX = "sync.";
+    private static final String FULL_SYNC_PREFIX = "full.";
+    private static final Map<String, Float> SEARCH_FIELDS = new HashMap<>();
+
+    static {
+        SEARCH_FIELDS.put("partId", 4f);
+        SEARCH_FIELDS.put("name", 3f);
+        SEARCH_FIELDS.put("alias", 2f);
+        SEARCH_FIELDS.put("summary", 1f);
+    }
+
+    private static PartnerIndex INSTANCE;
+
+    private final Analyzer analyzer;
+    private final IndexWriter writer;
+    private final SearcherManager searcherManager;
+    private final Map<String, String> syncTimes;
+    private final Gson gson;
+
+    private PartnerIndex(Path path) throws IOException {
+        Directory directory = FSDirectory.open(path);
+        this.analyzer = new StandardAnalyzer();
+        this.writer = new IndexWriter(directory, new IndexWriterConfig(analyzer));
+        this.searcherManager = new SearcherManager(writer, true, null);
+        this.syncTimes = new HashMap<>();
+        Map<String, String> commitData = writer.getCommitData();
+        if (commitData != null)
+            this.syncTimes.putAll(commitData);
+        this.gson = new Gson();
+    }
+
+    public static synchronized PartnerIndex getInstance() throws IOException {
+        if (INSTANCE == null) {
+            Path path = Paths.get(Utils.getConfigValue(ConfigurationKey.DATA_DIRECTORY), INDEX_DIR);
+            INSTANCE = new PartnerIndex(path);
+        }
+        return INSTANCE;
+    }
+
+    /**
+     * @return true if the local index has been enabled (see {@link ConfigurationKey#PARTNER_INDEX_SYNC_MINUTES})
+     */
+    public static boolean isEnabled() {
+        String value = Utils.getConfigValue(ConfigurationKey.PARTNER_INDEX_SYNC_MINUTES);
+        try {
+            return Integer.decode(value) > 0;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
+    public static synchronized void close() {
+        if (INSTANCE == null)
+            return;
+
+        try {
+            INSTANCE.searcherManager.close();
+            INSTANCE.writer.close();
+        } catch (IOException e) {
+            Logger.error(e);
+        }
+        INSTANCE = null;
+    }
+
+    /**
+     * @param partnerId unique identifier for partner
+     * @return time (ms) the entries for partner were last synced, or 0 if they have not been
+     */
+    public synchronized long getSyncTime(long partnerId) {
+        return getTime(SYNC_PREFIX + partnerId);
+    }
+
+    /**
+     * @param partnerId unique identifier for partner
+     * @return time (ms) all entries for partner were last synced, or 0 if they have not been
+     */
+    public synchronized long getFullSyncTime(long partnerId) {
+        return getTime(FULL_SYNC_PREFIX + partnerId);
+    }
+
+    /**
+     * Adds or updates a page of the entries retrieved from a partner. The changes are committed with the sync time
+     * by {@link #completeSync(long, boolean, long)}
+     *
+     * @param partnerId unique identifier for partner
+     * @param entries   public entries of partner (changed since the last sync)
+     * @param syncTime  time the sync the entries were retrieved in started
+     * @throws IOException on exception updating the index
+     */
+    public synchronized void update(long partnerId, List<PartData> entries, long syncTime) throws IOException {
+        String partner = Long.toString(partnerId);
+        for (PartData entry : entries) {
+            Document document = createDocument(partner, entry, syncTime);
+            writer.updateDocument(new Term(KEY, document.get(KEY)), document);
+        }
+    }
+
+    /**
+     * Records the completed sync of the entries of a partner. For a full sync, the entries of partner that were not
+     * retrieved (i.e. deleted or no longer public) are removed
+     *
+     * @param partnerId unique identifier for partner
+     * @param full      if true, all the public entries of partner were retrieved
+     * @param syncTime  time the sync started
+     * @throws IOException on exception updating the index
+     */
+    public synchronized void completeSync(long partnerId, boolean full, long syncTime) throws IOException {
+        if (full) {
+            String partner = Long.toString(partnerId);
+            writer.deleteDocuments(new BooleanQuery.Builder()
+                    .add(new TermQuery(new Term(PARTNER, partner)), BooleanClause.Occur.FILTER)
+                    .add(new TermQuery(new Term(SYNC, Long.toString(syncTime))), BooleanClause.Occur.MUST_NOT)
+                    .build());
+            syncTimes.put(FULL_SYNC_PREFIX + partnerId, Long.toString(syncTime));
+        }
+        syncTimes.put(SYNC_PREFIX + partnerId, Long.toString(syncTime));
+        commit();
+    }
+
+    /**
+     * Removes the entries of partners that are not in the specified set (e.g. no longer approved)
+     *
+     * @param partnerIds unique identifiers for partners whose entries are kept
+     * @throws IOException on exception updating the index
+     */
+    public synchronized void retainPartners(Set<Long> partnerIds) throws IOException {
+        Set<String> removed = new HashSet<>();
+        for (String key : syncTimes.keySet()) {
+            String id = key.substring(key.indexOf('.') + 1);
+            if (!partnerIds.contains(Long.decode(id)))
+                removed.add(id);
+        }
+
+        if (removed.isEmpty())
+            return;
+
+        for (String id : removed) {
+            writer.deleteDocuments(new Term(PARTNER, id));
+            syncTimes.remove(SYNC_PREFIX + id);
+            syncTimes.remove(FULL_SYNC_PREFIX + id);
+        }
+        commit();
+    }
+
+    /**
+     * Searches the indexed entries of the specified partners. Only the query string, entry types and paging
+     * parameters of the query are used
+     *
+     * @param query      search query
+     * @param partnerIds unique identifiers for partners whose entries are searched
+     * @return search results for each partner (that has been synced), keyed by partner id
+     * @throws IOException on exception searching the index
+     */
+    public Map<Long, SearchResults> search(SearchQuery query, Collection<Long> partnerIds) throws IOException {
+        Map<Long, SearchResults> results = new HashMap<>();
+        for (Long partnerId : partnerIds) {
+            if (getSyncTime(partnerId) > 0)
+                results.put(partnerId, new SearchResults());
+        }
+        if (results.isEmpty())
+            return results;
+
+        BooleanQuery.Builder builder = new BooleanQuery.Builder();
+        String queryString = query.getQueryString();
+        if (queryString == null || queryString.trim().isEmpty()) {
+            builder.add(new MatchAllDocsQuery(), BooleanClause.Occur.MUST);
+        } else {
+            SimpleQueryParser parser = new SimpleQueryParser(analyzer, SEARCH_FIELDS);
+            builder.add(parser.parse(queryString), BooleanClause.Occur.MUST);
+        }
+
+        List<EntryType> entryTypes = query.getEntryTypes();
+        if (entryTypes != null && !entryTypes.isEmpty() && entryTypes.size() < EntryType.values().length) {
+            List<BytesRef> types = new ArrayList<>();
+            for (EntryType type : entryTypes)
+                types.add(new BytesRef(type.name()));
+            builder.add(new TermsQuery(TYPE, types), BooleanClause.Occur.FILTER);
+        }
+        Query luceneQuery = builder.build();
+        int start = Math.max(0, query.getParameters().getStart());
+        int count = Math.max(1, query.getParameters().getRetrieveCount());
+
+        searcherManager.maybeRefresh();
+        IndexSearcher searcher = searcherManager.acquire();
+        try {
+            // top hits for each partner; partners are few so search each separately
+            for (Map.Entry<Long, SearchResults> entry : results.entrySet()) {
+                Query partnerQuery = new BooleanQuery.Builder()
+                        .add(luceneQuery, BooleanClause.Occur.MUST)
+                        .add(new TermQuery(new Term(PARTNER, Long.toString(entry.getKey()))), BooleanClause.Occur.FILTER)
+                        .build();
+                TopDocs topDocs = searcher.search(partnerQuery, start + count);
+                SearchResults searchResults = entry.getValue();
+                searchResults.setResultCount(topDocs.totalHits);
+                for (int i = start; i < topDocs.scoreDocs.length; i += 1) {
+                    ScoreDoc scoreDoc = topDocs.scoreDocs[i];
+                    Document document = searcher.doc(scoreDoc.doc);
+                    SearchResult result = new SearchResult();
+                    result.setEntryInfo(gson.fromJson(document.get(DATA), PartData.class));
+                    result.setScore(scoreDoc.score);
+                    result.setMaxScore(topDocs.getMaxScore());
+                    searchResults.getResults().add(result);
+                }
+            }
+        } finally {
+            searcherManager.release(searcher);
+        }
+        return results;
+    }
+
+    private Document createDocument(String partner, PartData entry, long syncTime) {
+        Document document = new Document();
+        document.add(new StringField(PARTNER, partner, Field.Store.NO));
+        document.add(new StringField(SYNC, Long.toString(syncTime), Field.Store.NO));
+        document.add(new StringField(KEY, partner + ":" + entry.getId(), Field.Store.YES));
+        if (entry.getType() != null)
+            document.add(new StringField(TYPE, entry.getType().name(), Field.Store.NO));
+        addText(document, "partId", entry.getPartId());
+        addText(document, "name", entry.getName());
+        addText(document, "alias", entry.getAlias());
+        addText(document, "summary", entry.getShortDescription());
+        document.add(new StoredField(DATA, gson.toJson(entry)));
+        return document;
+    }
+
+    private void addText(Document document, String field, String value) {
+        if (value != null && !value.isEmpty())
+            document.add(new TextField(field, value, Field.Store.NO));
+    }
+
+    private long getTime(String key) {
+        String value = syncTimes.get(key);
+        return value == null ? 0 : Long.decode(value);
+    }
+
+    private void commit() throws IOException {
+        writer.setCommitData(new HashMap<>(syncTimes));
+        writer.commit();
+        searcherManager.maybeRefresh();
+    }
+}
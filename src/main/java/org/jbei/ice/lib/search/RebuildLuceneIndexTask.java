@@ -6,7 +6,10 @@ import org.hibernate.search.FullTextSession;
 import org.hibernate.search.MassIndexer;
 import org.hibernate.search.Search;
 import org.jbei.ice.lib.common.logging.Logger;
+import org.jbei.ice.lib.executor.PersistentTask;
 import org.jbei.ice.lib.executor.Task;
+import org.jbei.ice.lib.executor.TaskLane;
+import org.jbei.ice.lib.executor.TaskType;
 import org.jbei.ice.storage.hibernate.HibernateUtil;
 
 /**
@@ -14,7 +17,32 @@ import org.jbei.ice.storage.hibernate.HibernateUtil;
  *
  * @author Hector Plahar
  */
-public class RebuildLuceneIndexTask extends Task {
+public class RebuildLuceneIndexTask extends Task implements PersistentTask {
+
+    @Override
+    public TaskLane getLane() {
+        return TaskLane.INDEXING;
+    }
+
+    @Override
+    public int getPriority() {
+        return LOW_PRIORITY;
+    }
+
+    @Override
+    public String getKey() {
+        return "lucene";
+    }
+
+    @Override
+    public TaskType getType() {
+        return TaskType.LUCENE_INDEX;
+    }
+
+    @Override
+    public String getData() {
+        return null;
+    }
 
     @Override
     public void execute() {
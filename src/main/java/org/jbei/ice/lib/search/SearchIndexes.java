@@ -6,9 +6,7 @@ import org.jbei.ice.lib.account.AccountController;
 import org.jbei.ice.lib.common.logging.Logger;
 import org.jbei.ice.lib.dto.search.*;
 import org.jbei.ice.lib.executor.IceExecutorService;
-import org.jbei.ice.lib.search.blast.BlastException;
-import org.jbei.ice.lib.search.blast.BlastPlus;
-import org.jbei.ice.lib.search.blast.StandardBlastDatabase;
+import org.jbei.ice.lib.search.blast.*;
 import org.jbei.ice.storage.hibernate.search.HibernateSearch;
 
 import java.util.HashMap;
@@ -89,11 +87,7 @@ public class SearchIndexes {
                 break;
 
             case BLAST:
-                try {
-                    StandardBlastDatabase.getInstance().checkRebuild(true);
-                } catch (BlastException e) {
-                    Logger.error(e);
-                }
+                IceExecutorService.getInstance().runTask(new RebuildBlastIndexTask(Action.FORCE_BUILD, null));
                 break;
 
             default:
@@ -8,6 +8,8 @@ import java.util.LinkedList;
 import java.util.List;
 
 /**
+ * Search results from a single partner in a web of registries search
+ *
  * @author Hector Plahar
  */
 public class WebResult implements IDataTransferModel {
@@ -15,11 +17,19 @@ public class WebResult implements IDataTransferModel {
     private RegistryPartner partner;
     private long count;
     private List<SearchResult> results;
+    private Status status = Status.COMPLETE;
+    private long indexTime;
 
     public WebResult() {
         this.results = new LinkedList<>();
     }
 
+    public WebResult(RegistryPartner partner, Status status) {
+        this();
+        this.partner = partner;
+        this.status = status;
+    }
+
     public RegistryPartner getPartner() {
         return partner;
     }
@@ -43,4 +53,30 @@ public class WebResult implements IDataTransferModel {
     public void setResults(List<SearchResult> results) {
         this.results = results;
     }
+
+    /**
+     * @return time the results were last synced, if the results are from the local index of partner entries
+     * (see {@link PartnerIndex}); 0 if the results are from a (live) search of partner
+     */
+    public long getIndexTime() {
+        return indexTime;
+    }
+
+    public void setIndexTime(long indexTime) {
+        this.indexTime = indexTime;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public enum Status {
+        COMPLETE,       // partner responded with its results
+        TIMED_OUT,      // partner did not respond before the search deadline
+        FAILED          // request to partner failed
+    }
 }
@@ -1,35 +1,65 @@
 package org.jbei.ice.lib.search;
 
+import org.jbei.ice.lib.common.logging.Logger;
 import org.jbei.ice.lib.dto.ConfigurationKey;
 import org.jbei.ice.lib.dto.search.SearchQuery;
 import org.jbei.ice.lib.dto.search.SearchResult;
 import org.jbei.ice.lib.dto.search.SearchResults;
 import org.jbei.ice.lib.dto.web.RegistryPartner;
 import org.jbei.ice.lib.dto.web.RemotePartnerStatus;
-import org.jbei.ice.lib.executor.IceExecutorService;
-import org.jbei.ice.lib.executor.Task;
-import org.jbei.ice.lib.executor.TaskStatus;
 import org.jbei.ice.lib.utils.Utils;
 import org.jbei.ice.services.rest.IceRestClient;
 import org.jbei.ice.storage.DAOFactory;
 import org.jbei.ice.storage.hibernate.dao.RemotePartnerDAO;
 import org.jbei.ice.storage.model.RemotePartner;
 
-import java.util.Iterator;
-import java.util.LinkedList;
-import java.util.List;
+import javax.ws.rs.client.Client;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 
 /**
- * Search for other ICE instances
+ * Search for other ICE instances.
+ * <p>
+ * The search is sent to all partners at once using a dedicated pool of asynchronous http requests. Each request has
+ * connect and read timeouts of the time remaining until the search deadline, so requests to partners that do not
+ * respond are abandoned (and the threads running them released) by the deadline. If a partner has not responded
+ * after a fraction of the search deadline (or its request fails) the request is sent again (hedged) and the first
+ * response is used. Partners that have not responded by the deadline are reported as timed out and the results
+ * marked as partial.
+ * <p>
+ * Partners whose entries have been synced to the local index of partner entries ({@link PartnerIndex}) are
+ * searched locally, unless a live search is requested or the query is a sequence (blast) search
  *
  * @author Hector Plahar
  */
 public class WebSearch {
 
+    private static final int MAX_REQUEST_THREADS = 64;
+    private static final long DEFAULT_TIMEOUT = TimeUnit.SECONDS.toMillis(10);
+
+    // requests block a thread until they complete or time out, so threads are created as needed (up to a maximum)
+    // instead of queueing requests behind others that are waiting on slow partners
+    private static final ExecutorService REQUEST_EXECUTOR = new ThreadPoolExecutor(0, MAX_REQUEST_THREADS,
+            60, TimeUnit.SECONDS, new SynchronousQueue<>(), daemonThreadFactory("ice-web-search"));
+    private static final ScheduledExecutorService SCHEDULER = Executors.newSingleThreadScheduledExecutor(
+            daemonThreadFactory("ice-web-search-hedge"));
+    private static volatile Client client;
+
     private final RemotePartnerDAO remotePartnerDAO;
+    private final boolean live;
 
     public WebSearch() {
+        this(false);
+    }
+
+    /**
+     * @param live if true, all partners are searched directly instead of using the local index of their entries
+     */
+    public WebSearch(boolean live) {
         this.remotePartnerDAO = DAOFactory.getRemotePartnerDAO();
+        this.live = live;
     }
 
     /**
@@ -42,30 +72,61 @@ public class WebSearch {
      * @return list of search results
      */
     public WebSearchResults run(SearchQuery query, boolean includeThisInstance) {
+        return run(query, includeThisInstance, null);
+    }
+
+    /**
+     * Searches all registries in the web of registries configuration with this registry, reporting the results
+     * for each registry as they are received. Returns once all partners have responded or the search deadline
+     * (see {@link ConfigurationKey#WEB_SEARCH_TIMEOUT}) has passed
+     *
+     * @param query               wrapper around search query
+     * @param includeThisInstance whether to include results from this instance of ICE
+     * @param listener            optional listener notified (on the calling thread) with the results from each
+     *                            registry, including partners that did not respond in time
+     * @return merged search results
+     */
+    public WebSearchResults run(SearchQuery query, boolean includeThisInstance, Consumer<WebResult> listener) {
         List<RemotePartner> partners = this.remotePartnerDAO.getRegistryPartners();
 
         if (partners == null)
             return null;
 
-        List<SearchTask> searchTasks = new LinkedList<>();
+        long timeout = getTimeout();
+        long deadline = System.currentTimeMillis() + timeout;
+        BlockingQueue<WebResult> responses = new LinkedBlockingQueue<>();
+        Map<RegistryPartner, CompletableFuture<SearchResults>> pending = new LinkedHashMap<>();
+        List<WebResult> indexedResults = new ArrayList<>();
+        Map<Long, SearchResults> indexed = searchIndex(query, partners);
 
-        // for each approved partner run the search task
+        // for each approved partner use the indexed results or send the search request
         for (RemotePartner partner : partners) {
             if (partner.getUrl() == null || partner.getPartnerStatus() != RemotePartnerStatus.APPROVED)
                 continue;
 
-            SearchTask task = runSearchThread(partner, query);
-            searchTasks.add(task);
+            RegistryPartner registryPartner = partner.toDataTransferObject();
+            SearchResults partnerResults = indexed.get(partner.getId());
+            if (partnerResults != null) {
+                WebResult result = createResult(registryPartner, partnerResults, null);
+                result.setIndexTime(getIndexTime(partner.getId()));
+                indexedResults.add(result);
+                continue;
+            }
+
+            CompletableFuture<SearchResults> future = searchPartner(partner, query, deadline);
+            future.whenComplete((results, error) -> responses.add(createResult(registryPartner, results, error)));
+            pending.put(registryPartner, future);
         }
 
-        WebSearchResults searchResults = new WebSearchResults(searchTasks.size() + 1);
+        WebSearchResults searchResults = new WebSearchResults(pending.size() + indexedResults.size() + 1);
+        searchResults.setQuery(query);
+        for (WebResult result : indexedResults)
+            addResult(searchResults, result, listener);
 
-        // search this instance (gives the threads time to complete)
-//        String inWWoR = Utils.getConfigValue(ConfigurationKey.JOIN_WEB_OF_REGISTRIES);
+        // search this instance while waiting for partners
         if (includeThisInstance) {
             SearchIndexes searchIndexes = new SearchIndexes();
             SearchResults results = searchIndexes.runSearch(null, query);
-            searchResults.setQuery(query);
 
             WebResult thisResult = new WebResult();
             thisResult.getResults().addAll(results.getResults());
@@ -78,81 +139,205 @@ public class WebSearch {
             thisPartner.setName(projectName);
 
             thisResult.setPartner(thisPartner);
-            searchResults.getResults().add(thisResult);
-            searchResults.setTotalCount(thisResult.getCount());
+            addResult(searchResults, thisResult, listener);
         }
 
-        // go through tasks and check if completed
-        while (!searchTasks.isEmpty()) {
-            Iterator<SearchTask> iterator = searchTasks.iterator();
-
-            // todo : set time limit and abandon task (shutdown) if exceeded (or after give it till after this instance is searched)
-            while (iterator.hasNext()) {
-                SearchTask task = iterator.next();
-                TaskStatus status = task.getStatus();
-                if (status == TaskStatus.COMPLETED || status == TaskStatus.EXCEPTION) {
-                    iterator.remove();
-                    if (status == TaskStatus.COMPLETED) {
-                        WebResult webResult = new WebResult();
-                        webResult.setPartner(task.getPartner().toDataTransferObject());
-
-                        SearchResults partnerResults = task.getResults();
-                        webResult.setCount(partnerResults.getResultCount());
-                        webResult.getResults().addAll(partnerResults.getResults());
-
-                        searchResults.getResults().add(webResult);
-                        searchResults.setTotalCount(searchResults.getTotalCount() + partnerResults.getResultCount());
-                    }
-                }
+        // collect partner results as they are received
+        int remaining = pending.size();
+        try {
+            while (remaining > 0) {
+                WebResult result = responses.poll(deadline - System.currentTimeMillis(), TimeUnit.MILLISECONDS);
+                if (result == null)
+                    break;
+
+                remaining -= 1;
+                pending.remove(result.getPartner());
+                addResult(searchResults, result, listener);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        // partners that did not respond in time
+        for (Map.Entry<RegistryPartner, CompletableFuture<SearchResults>> entry : pending.entrySet()) {
+            RegistryPartner partner = entry.getKey();
+            WebResult result;
+            if (entry.getValue().cancel(false)) {
+                Logger.warn("Web search: " + partner.getUrl() + " did not respond within " + timeout + "ms");
+                result = new WebResult(partner, WebResult.Status.TIMED_OUT);
+            } else {
+                // completed just as the deadline passed
+                result = entry.getValue().handle((results, error) -> createResult(partner, results, error)).join();
             }
+            addResult(searchResults, result, listener);
         }
 
         return searchResults;
     }
 
-    protected SearchTask runSearchThread(RemotePartner partner, SearchQuery query) {
-        SearchTask searchTask = new SearchTask(partner, query);
-        IceExecutorService.getInstance().runTask(searchTask);
-        return searchTask;
+    /**
+     * Searches the local index for the entries of partners that have been synced
+     *
+     * @return results for partners that have been synced, keyed by partner id. Empty if index is not used
+     */
+    private Map<Long, SearchResults> searchIndex(SearchQuery query, List<RemotePartner> partners) {
+        if (live || query.hasBlastQuery() || !PartnerIndex.isEnabled())
+            return new HashMap<>();
+
+        List<Long> partnerIds = new ArrayList<>();
+        for (RemotePartner partner : partners)
+            partnerIds.add(partner.getId());
+
+        try {
+            return PartnerIndex.getInstance().search(query, partnerIds);
+        } catch (Exception e) {
+            Logger.error("Could not search partner index", e);
+            return new HashMap<>();
+        }
+    }
+
+    private long getIndexTime(long partnerId) {
+        try {
+            return PartnerIndex.getInstance().getSyncTime(partnerId);
+        } catch (Exception e) {
+            return 0;
+        }
     }
 
-    public static class SearchTask extends Task {
+    private void addResult(WebSearchResults searchResults, WebResult result, Consumer<WebResult> listener) {
+        searchResults.getResults().add(result);
+        searchResults.setTotalCount(searchResults.getTotalCount() + result.getCount());
+        if (result.getStatus() != WebResult.Status.COMPLETE)
+            searchResults.setPartial(true);
 
-        private final RemotePartner partner;
-        private final SearchQuery query;
-        private final SearchResults results;
+        if (listener != null)
+            listener.accept(result);
+    }
 
-        public SearchTask(RemotePartner partner, SearchQuery query) {
-            this.partner = partner;
-            this.query = query;
-            this.results = new SearchResults();
+    private WebResult createResult(RegistryPartner partner, SearchResults results, Throwable error) {
+        if (error instanceof CancellationException)
+            return new WebResult(partner, WebResult.Status.TIMED_OUT);
+
+        if (error != null || results == null) {
+            if (error != null)
+                Logger.warn("Web search: request to " + partner.getUrl() + " failed: " + error.getMessage());
+            return new WebResult(partner, WebResult.Status.FAILED);
         }
 
-        @Override
-        public void execute() {
-            IceRestClient client = new IceRestClient(partner.getUrl(), partner.getApiKey());
-            SearchResults results = client.post("/rest/search", query, SearchResults.class);
-            if (results == null)
-                return;
+        WebResult webResult = new WebResult(partner, WebResult.Status.COMPLETE);
+        for (SearchResult result : results.getResults()) {
+            result.setPartner(partner);
+            webResult.getResults().add(result);
+        }
+        webResult.setCount(results.getResultCount());
+        return webResult;
+    }
 
-            RegistryPartner registryPartner = partner.toDataTransferObject();
-            for (SearchResult result : results.getResults()) {
-                result.setPartner(registryPartner);
-                this.results.getResults().add(result);
+    /**
+     * Sends the search request to the partner, and again (once) if there is no response after a quarter of the
+     * time until the deadline or the first request fails
+     *
+     * @param deadline time (in milliseconds since the epoch) by which requests to the partner time out
+     * @return future completed with the first response from partner
+     */
+    protected CompletableFuture<SearchResults> searchPartner(RemotePartner partner, SearchQuery query, long deadline) {
+        IceRestClient restClient = new IceRestClient(getClient(), partner.getUrl(), partner.getApiKey());
+        PartnerSearch search = new PartnerSearch(restClient, query, deadline);
+        search.send();
+
+        long timeout = deadline - System.currentTimeMillis();
+        ScheduledFuture<?> hedge = SCHEDULER.schedule(search::hedge, timeout / 4, TimeUnit.MILLISECONDS);
+        search.result.whenComplete((results, error) -> hedge.cancel(false));
+        return search.result;
+    }
+
+    private static long getTimeout() {
+        String value = Utils.getConfigValue(ConfigurationKey.WEB_SEARCH_TIMEOUT);
+        try {
+            long timeout = TimeUnit.SECONDS.toMillis(Long.decode(value));
+            if (timeout > 0)
+                return timeout;
+        } catch (NumberFormatException e) {
+            Logger.warn("Invalid value \"" + value + "\" for " + ConfigurationKey.WEB_SEARCH_TIMEOUT);
+        }
+        return DEFAULT_TIMEOUT;
+    }
+
+    // shared by all searches. timeouts are set on each request from the current configuration
+    private static Client getClient() {
+        if (client == null) {
+            synchronized (WebSearch.class) {
+                if (client == null)
+                    client = IceRestClient.createClient(REQUEST_EXECUTOR);
             }
-            this.results.setResultCount(results.getResultCount());
         }
+        return client;
+    }
+
+    private static ThreadFactory daemonThreadFactory(String prefix) {
+        AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + "-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
 
-        public SearchResults getResults() {
-            return this.results;
+    /**
+     * Search request to a single partner with at most one additional (hedged) request
+     */
+    private static class PartnerSearch {
+
+        private final IceRestClient restClient;
+        private final SearchQuery query;
+        private final long deadline;
+        private final CompletableFuture<SearchResults> result = new CompletableFuture<>();
+        private int outstanding;
+        private boolean hedged;
+
+        PartnerSearch(IceRestClient restClient, SearchQuery query, long deadline) {
+            this.restClient = restClient;
+            this.query = query;
+            this.deadline = deadline;
+        }
+
+        synchronized void send() {
+            outstanding += 1;
+            CompletableFuture<SearchResults> request;
+            try {
+                long timeout = deadline - System.currentTimeMillis();
+                if (timeout <= 0)
+                    throw new TimeoutException("Search deadline passed");
+                request = restClient.postAsync("/rest/search", query, SearchResults.class, timeout);
+            } catch (Exception e) {
+                request = new CompletableFuture<>();
+                request.completeExceptionally(e);
+            }
+            request.whenComplete(this::received);
         }
 
-        public RemotePartner getPartner() {
-            return this.partner;
+        synchronized void hedge() {
+            if (hedged || result.isDone())
+                return;
+
+            hedged = true;
+            send();
         }
 
-        // partner id -> total results from that partner
-        // partner id -> results from that partner (paged)
+        private synchronized void received(SearchResults results, Throwable error) {
+            outstanding -= 1;
+            if (result.isDone())
+                return;
+
+            if (error == null) {
+                result.complete(results);   // null if partner responded with an error status
+                return;
+            }
 
+            if (!hedged)
+                hedge();
+            else if (outstanding == 0)
+                result.completeExceptionally(error);
+        }
     }
 }
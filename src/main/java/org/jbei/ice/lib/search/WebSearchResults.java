@@ -16,6 +16,7 @@ public class WebSearchResults implements IDataTransferModel {
     private long totalCount;
     private List<WebResult> results;
     private SearchQuery query;
+    private boolean partial;
 
     public WebSearchResults(int numberOfPartners) {
         this.results = new ArrayList<>(numberOfPartners);
@@ -40,4 +41,15 @@ public class WebSearchResults implements IDataTransferModel {
     public void setQuery(SearchQuery query) {
         this.query = query;
     }
+
+    /**
+     * @return true if one or more partners did not respond (in time) with their results
+     */
+    public boolean isPartial() {
+        return partial;
+    }
+
+    public void setPartial(boolean partial) {
+        this.partial = partial;
+    }
 }
@@ -0,0 +1,48 @@
+package org.jbei.ice.lib.search.blast;
+
+import org.jbei.ice.lib.search.IndexBuildStatus;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Tracks the progress of a full blast database rebuild. The counters are reset when the rebuild completes
+ *
+ * @author Hector Plahar
+ */
+public class BlastBuildProgress {
+
+    private static final BlastBuildProgress INSTANCE = new BlastBuildProgress();
+    private final AtomicLong doneCounter = new AtomicLong();
+    private final AtomicLong totalCounter = new AtomicLong();
+    private volatile long startTime;
+
+    private BlastBuildProgress() {
+    }
+
+    public static BlastBuildProgress getInstance() {
+        return INSTANCE;
+    }
+
+    void started(long total) {
+        doneCounter.set(0L);
+        totalCounter.set(total);
+        startTime = System.currentTimeMillis();
+    }
+
+    void added(long increment) {
+        doneCounter.addAndGet(increment);
+    }
+
+    void completed() {
+        doneCounter.set(0L);
+        totalCounter.set(0L);
+        startTime = 0;
+    }
+
+    public IndexBuildStatus getStatus() {
+        long done = doneCounter.get();
+        long elapsed = System.currentTimeMillis() - startTime;
+        double rate = (startTime == 0 || elapsed <= 0) ? 0 : (done * 1000.0) / elapsed;
+        return new IndexBuildStatus(done, totalCounter.get(), rate);
+    }
+}
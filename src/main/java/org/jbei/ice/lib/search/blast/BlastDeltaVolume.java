@@ -0,0 +1,205 @@
+package org.jbei.ice.lib.search.blast;
+
+import org.jbei.ice.lib.common.logging.Logger;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.*;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * Small blast volume that holds sequences created or updated since the last full format of the main
+ * (base) blast database. It is formatted on its own so that single sequence changes do not require a
+ * format of the entire database. Searches are run against both volumes through a blast alias file.
+ * <p>
+ * Since records cannot be removed from the base volume without a full format, the part numbers of sequences
+ * that have been updated or deleted since the last compaction are tracked as "stale" and hits for them from the
+ * base volume are ignored. Records in the delta volume have their identifiers prefixed with {@link #MARKER}
+ * to distinguish them from base volume hits.
+ *
+ * @author Hector Plahar
+ */
+class BlastDeltaVolume {
+
+    static final String MARKER = "~";
+    private static final String FILE_NAME = "BlastFastaFile.delta";
+    private static final String STALE_FILE_NAME = "stale.txt";
+    private static final String[] DB_EXTENSIONS = {".nhr", ".nin", ".nsq", ".nog", ".nsd", ".nsi", ".ndb",
+            ".not", ".ntf", ".nto", ".log"};
+
+    private final Path indexPath;
+    private final String baseDbName;
+    private final String dbName;
+    private final String aliasName;
+    private final BlastFastaFile fastaFile;
+    private final Path staleFile;
+    private final Set<String> stalePartNumbers;
+    private int recordCount;
+
+    BlastDeltaVolume(Path indexPath, String baseDbName) {
+        this.indexPath = indexPath;
+        this.baseDbName = baseDbName;
+        this.dbName = baseDbName + "_delta";
+        this.aliasName = baseDbName + "_all";
+        this.fastaFile = new BlastFastaFile(indexPath, FILE_NAME);
+        this.staleFile = Paths.get(indexPath.toString(), STALE_FILE_NAME);
+        this.stalePartNumbers = Collections.synchronizedSet(new HashSet<>());
+        load();
+    }
+
+    /**
+     * Name of the database to search. This is the alias covering both base and delta volumes when the delta
+     * volume has any records, or the base database otherwise
+     *
+     * @return name of database to run searches against
+     */
+    String getSearchDbName() {
+        if (recordCount > 0 && Files.exists(Paths.get(indexPath.toString(), aliasName + ".nal")))
+            return aliasName;
+        return baseDbName;
+    }
+
+    int getRecordCount() {
+        return recordCount;
+    }
+
+    boolean isEmpty() {
+        return recordCount == 0 && stalePartNumbers.isEmpty();
+    }
+
+    /**
+     * @param partNumber part number of sequence hit from the base volume
+     * @return true if the base volume copy of the sequence is out of date and the hit should be ignored
+     */
+    boolean isStale(String partNumber) {
+        return partNumber != null && stalePartNumbers.contains(partNumber.trim().toLowerCase());
+    }
+
+    Set<String> getStalePartNumbers() {
+        return new HashSet<>(stalePartNumbers);
+    }
+
+    List<String> getRecords() throws IOException {
+        return fastaFile.readRecords();
+    }
+
+    /**
+     * Adds (or replaces) the sequence record for the specified part in this volume and re-formats it.
+     *
+     * @param partNumber part number for sequence
+     * @param fasta      fasta record for the sequence with the identifier prefixed by {@link #MARKER}
+     * @param blastPlus  used to format the volume
+     * @throws BlastException on exception formatting the volume
+     */
+    void put(String partNumber, String fasta, BlastPlus blastPlus) throws BlastException {
+        markStale(partNumber);
+        try {
+            fastaFile.delete(partNumber);
+        } catch (IOException e) {
+            throw new BlastException(e);
+        }
+        if (!fastaFile.write(Collections.singletonList(fasta)))
+            throw new BlastException("Could not write to delta fasta file");
+        format(blastPlus);
+    }
+
+    /**
+     * Removes the sequence record for the specified part from this volume (if it exists) and marks
+     * the base volume copy as stale
+     *
+     * @param partNumber part number for sequence
+     * @param blastPlus  used to re-format the volume
+     * @throws BlastException on exception formatting the volume
+     */
+    void remove(String partNumber, BlastPlus blastPlus) throws BlastException {
+        markStale(partNumber);
+        try {
+            fastaFile.delete(partNumber);
+        } catch (IOException e) {
+            throw new BlastException(e);
+        }
+        format(blastPlus);
+    }
+
+    /**
+     * Discards all records in this volume, its formatted database and the stale records list. Expected to be
+     * called after the base volume has been (re)built to include the changes
+     */
+    void clear() {
+        try {
+            Files.deleteIfExists(fastaFile.getFilePath());
+            Files.deleteIfExists(staleFile);
+            Files.deleteIfExists(Paths.get(indexPath.toString(), aliasName + ".nal"));
+            deleteFormattedDb();
+        } catch (IOException e) {
+            Logger.error(e);
+        }
+        stalePartNumbers.clear();
+        recordCount = 0;
+    }
+
+    private void format(BlastPlus blastPlus) throws BlastException {
+        try {
+            recordCount = fastaFile.readRecords().size();
+            if (recordCount == 0) {
+                Files.deleteIfExists(Paths.get(indexPath.toString(), aliasName + ".nal"));
+                deleteFormattedDb();
+                return;
+            }
+        } catch (IOException e) {
+            throw new BlastException(e);
+        }
+
+        blastPlus.formatBlastDb(fastaFile, dbName);
+        writeAlias();
+    }
+
+    private void writeAlias() throws BlastException {
+        List<String> lines = Arrays.asList(
+                "#",
+                "# Alias file created by ICE. Combines the base and delta blast volumes",
+                "#",
+                "TITLE " + baseDbName,
+                "DBLIST " + baseDbName + " " + dbName);
+        try {
+            Path tmp = Paths.get(indexPath.toString(), aliasName + ".nal.tmp");
+            Files.write(tmp, lines, StandardCharsets.UTF_8);
+            Files.move(tmp, Paths.get(indexPath.toString(), aliasName + ".nal"),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            throw new BlastException(e);
+        }
+    }
+
+    private void markStale(String partNumber) throws BlastException {
+        if (!stalePartNumbers.add(partNumber.trim().toLowerCase()))
+            return;
+
+        try {
+            Files.write(staleFile, Collections.singletonList(partNumber.trim().toLowerCase()), StandardCharsets.UTF_8,
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException e) {
+            throw new BlastException(e);
+        }
+    }
+
+    private void deleteFormattedDb() throws IOException {
+        for (String extension : DB_EXTENSIONS) {
+            Files.deleteIfExists(Paths.get(indexPath.toString(), dbName + extension));
+        }
+    }
+
+    private void load() {
+        try {
+            if (Files.exists(staleFile)) {
+                try (Stream<String> lines = Files.lines(staleFile, StandardCharsets.UTF_8)) {
+                    lines.map(String::trim).filter(line -> !line.isEmpty()).forEach(stalePartNumbers::add);
+                }
+            }
+            recordCount = fastaFile.readRecords().size();
+        } catch (IOException e) {
+            Logger.error("Could not load blast delta volume", e);
+        }
+    }
+}
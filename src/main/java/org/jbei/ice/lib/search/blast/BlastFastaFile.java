@@ -3,11 +3,14 @@ package org.jbei.ice.lib.search.blast;
 import org.apache.commons.io.FileUtils;
 import org.jbei.ice.lib.common.logging.Logger;
 
+import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileOutputStream;
 import java.io.IOException;
+import java.nio.channels.FileChannel;
 import java.nio.channels.FileLock;
 import java.nio.file.*;
+import java.util.*;
 import java.util.stream.Stream;
 
 /**
@@ -20,6 +23,7 @@ public class BlastFastaFile {
     private final static String FILE_NAME = "BlastFastaFile";
     private static final String LOCK_FILE_NAME = "write.lock";
     private final Path filePath;
+    private final String fileName;
     private boolean exclude;
     private FileLock lock;
 
@@ -27,10 +31,20 @@ public class BlastFastaFile {
      * @param dir directory path for the fasta file
      */
     public BlastFastaFile(Path dir) {
+        this(dir, FILE_NAME);
+    }
+
+    /**
+     * @param dir      directory path for the fasta file
+     * @param fileName name of the fasta file in <code>dir</code>. Used for additional volumes (e.g. the delta) that
+     *                 share the directory (and lock) of the main fasta file
+     */
+    public BlastFastaFile(Path dir, String fileName) {
         if (Files.exists(dir) && !Files.isDirectory(dir))
             throw new IllegalArgumentException("Cannot create fasta file in " + dir + " because it is not a directory");
 
-        this.filePath = Paths.get(dir.toString(), FILE_NAME);
+        this.fileName = fileName;
+        this.filePath = Paths.get(dir.toString(), fileName);
         this.exclude = false;
     }
 
@@ -89,6 +103,32 @@ public class BlastFastaFile {
         }
     }
 
+    /**
+     * @return length (in bytes) of the fasta file. 0 if it does not exist
+     * @throws IOException on exception reading the file attributes
+     */
+    public long size() throws IOException {
+        return Files.exists(this.filePath) ? Files.size(this.filePath) : 0;
+    }
+
+    /**
+     * Discards the contents of the fasta file after the specified length; e.g. records written after the last
+     * checkpoint of an interrupted rebuild
+     *
+     * @param length length (in bytes) to truncate the file to
+     * @return true if the file was truncated, false if it does not exist or is shorter than the length
+     * @throws IOException on exception truncating the file
+     */
+    public boolean truncate(long length) throws IOException {
+        if (!Files.exists(this.filePath) || Files.size(this.filePath) < length)
+            return false;
+
+        try (FileChannel channel = FileChannel.open(this.filePath, StandardOpenOption.WRITE)) {
+            channel.truncate(length);
+        }
+        return true;
+    }
+
     public boolean write(Iterable<String> iterable) {
         File lockFile = createLock();
         if (lockFile == null)
@@ -112,43 +152,91 @@ public class BlastFastaFile {
     }
 
     public void delete(String partNumber) throws IOException {
+        delete(Collections.singleton(partNumber));
+    }
+
+    /**
+     * Removes the records for all the specified part numbers in a single pass over the fasta file
+     *
+     * @param partNumbers part numbers of records to remove
+     * @throws IOException on exception writing the updated file
+     */
+    public void delete(Set<String> partNumbers) throws IOException {
+        if (partNumbers.isEmpty() || !Files.exists(this.filePath))
+            return;
+
+        Set<String> toRemove = new HashSet<>();
+        for (String partNumber : partNumbers)
+            toRemove.add(partNumber.trim().toLowerCase());
+
         File lockFile = createLock();
         if (lockFile == null)
             return;
 
         try {
-            Path tmpFile = Paths.get(filePath.getParent().toString(), FILE_NAME + ".tmp");
+            Path tmpFile = Paths.get(filePath.getParent().toString(), fileName + ".tmp");
             Files.deleteIfExists(tmpFile);
             Files.createFile(tmpFile);
             if (!Files.exists(tmpFile))
                 throw new IOException(tmpFile + " could not be created");
 
-            Stream<String> lines = Files.lines(this.filePath);
-
-            lines.forEach(line -> {
-
-                if (line.startsWith(">")) {
-                    String[] split = line.split(",");
-                    if (split.length != 4)
-                        return;
-
-                    exclude = split[3].trim().equalsIgnoreCase(partNumber.trim());
+            exclude = false;
+            try (Stream<String> lines = Files.lines(this.filePath);
+                 BufferedWriter writer = Files.newBufferedWriter(tmpFile, StandardOpenOption.APPEND)) {
+                Iterator<String> iterator = lines.iterator();
+                while (iterator.hasNext()) {
+                    String line = iterator.next();
+                    if (line.startsWith(">")) {
+                        String[] split = line.split(",");
+                        if (split.length != 4)
+                            continue;
+
+                        exclude = toRemove.contains(split[3].trim().toLowerCase());
+                    }
+
+                    if (exclude)
+                        continue;
+
+                    writer.write(line);
+                    writer.newLine();
                 }
-
-                if (exclude) return;
-
-                try {
-                    Files.write(tmpFile, (line + "\n").getBytes(), StandardOpenOption.APPEND);
-                } catch (IOException e) {
-                    Logger.error(e);
-                }
-            });
+            }
             Files.move(tmpFile, filePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
         } finally {
             releaseLock(lockFile);
         }
     }
 
+    /**
+     * @return the fasta records (header line followed by the sequence lines) in this file
+     * @throws IOException on exception reading the file
+     */
+    public List<String> readRecords() throws IOException {
+        List<String> records = new ArrayList<>();
+        if (!Files.exists(this.filePath))
+            return records;
+
+        StringBuilder builder = null;
+        try (Stream<String> lines = Files.lines(this.filePath)) {
+            Iterator<String> iterator = lines.iterator();
+            while (iterator.hasNext()) {
+                String line = iterator.next();
+                if (line.startsWith(">")) {
+                    if (builder != null)
+                        records.add(builder.toString());
+                    builder = new StringBuilder();
+                }
+
+                if (builder != null)
+                    builder.append(line).append("\n");
+            }
+        }
+
+        if (builder != null)
+            records.add(builder.toString());
+        return records;
+    }
+
     public boolean isLocked() {
         return lock != null && lock.isValid();
     }
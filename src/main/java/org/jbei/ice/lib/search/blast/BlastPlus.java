@@ -27,6 +27,16 @@ public class BlastPlus {
         return Paths.get(Utils.getConfigValue(ConfigurationKey.BLAST_INSTALL_DIR));
     }
 
+    /**
+     * @return true if the BLAST+ programs required for sequence searches are available in the configured
+     * installation directory
+     */
+    public boolean isInstalled() {
+        Path installDirectory = getBlastInstallDirectory();
+        return Files.isExecutable(Paths.get(installDirectory.toString(), BlastProgram.BLAST_N.getName()))
+                && Files.isExecutable(Paths.get(installDirectory.toString(), "makeblastdb"));
+    }
+
     /**
      * Run the bl2seq program on multiple subjects.
      * <p>
@@ -126,22 +136,10 @@ public class BlastPlus {
         }
     }
 
+    /**
+     * @return progress of the blast database rebuild, if one is running
+     */
     public IndexBuildStatus getStatus() {
-//        Path path = Paths.get(indexPath.toString(), LOCK_FILE_NAME);
-//
-//        if (Files.exists(path)) {
-//            try {
-//                BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
-//                long seconds = attributes.creationTime().to(TimeUnit.SECONDS);
-//                if ((Instant.now().getEpochSecond() - seconds) > 3 * 24 * 60) {
-//                    Files.delete(path);
-//                    return new IndexBuildStatus(0, 0);
-//                }
-//            } catch (IOException e) {
-//                // ok to ignore
-//            }
-//            return new IndexBuildStatus(0, 1);
-//        }
-        return new IndexBuildStatus(0, 0);
+        return BlastBuildProgress.getInstance().getStatus();
     }
 }
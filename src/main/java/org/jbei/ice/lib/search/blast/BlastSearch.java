@@ -42,7 +42,7 @@ public class BlastSearch {
             Path commandPath = Paths.get(Utils.getConfigValue(ConfigurationKey.BLAST_INSTALL_DIR),
                     query.getBlastProgram().getName());
             String blastDb = Paths.get(this.indexPath.toString(), this.dbName).toString();
-            if (!Files.exists(Paths.get(blastDb + ".nsq"))) {
+            if (!Files.exists(Paths.get(blastDb + ".nsq")) && !Files.exists(Paths.get(blastDb + ".nal"))) {
                 return "";
             }
 
@@ -1,14 +1,20 @@
 package org.jbei.ice.lib.search.blast;
 
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParser;
 import org.jbei.ice.lib.common.logging.Logger;
+import org.jbei.ice.lib.executor.PersistentTask;
 import org.jbei.ice.lib.executor.Task;
+import org.jbei.ice.lib.executor.TaskLane;
+import org.jbei.ice.lib.executor.TaskType;
 
 /**
  * Task to rebuild the blast index
  *
  * @author Hector Plahar
  */
-public class RebuildBlastIndexTask extends Task {
+public class RebuildBlastIndexTask extends Task implements PersistentTask {
 
     private final Action action;
     private final String partId;
@@ -25,6 +31,48 @@ public class RebuildBlastIndexTask extends Task {
         this(Action.CHECK, null);
     }
 
+    public static RebuildBlastIndexTask fromData(String data) {
+        JsonObject object = new JsonParser().parse(data).getAsJsonObject();
+        JsonElement partId = object.get("partId");
+        return new RebuildBlastIndexTask(Action.valueOf(object.get("action").getAsString()),
+                partId == null || partId.isJsonNull() ? null : partId.getAsString());
+    }
+
+    @Override
+    public TaskType getType() {
+        return TaskType.BLAST_INDEX;
+    }
+
+    @Override
+    public String getData() {
+        JsonObject object = new JsonObject();
+        object.addProperty("action", action.name());
+        object.addProperty("partId", partId);
+        return object.toString();
+    }
+
+    @Override
+    public TaskLane getLane() {
+        return TaskLane.INDEXING;
+    }
+
+    /**
+     * Changes for individual sequences are run before checks, re-builds and compaction
+     */
+    @Override
+    public int getPriority() {
+        return partId == null ? LOW_PRIORITY : NORMAL_PRIORITY;
+    }
+
+    /**
+     * Only actions on the whole database are de-duplicated. Changes to individual sequences have to be applied in
+     * order of submission
+     */
+    @Override
+    public String getKey() {
+        return partId == null ? "blast:" + action.name() : null;
+    }
+
     /**
      * Executes one of the following requested actions:
      * <p>
@@ -32,7 +80,11 @@ public class RebuildBlastIndexTask extends Task {
      * <code>CREATE</code>: add a new sequence to the blast database<br>
      * <code>DELETE</code>: delete a sequence from the blast database<br>
      * <code>UPDATE</code>: update the blast database by removing and adding a sequence<br>
-     * code>FORCE_REBUILD</code>: blow away existing blast database and create a new one from scratch
+     * code>FORCE_REBUILD</code>: blow away existing blast database and create a new one from scratch<br>
+     * <code>COMPACT</code>: fold the incremental (delta) changes into the main blast database
+     * <p>
+     * Rebuilds record the last sequence written (and the length of the fasta file) as a checkpoint and resume from
+     * it if the task is re-run from the persistent task queue after being interrupted.
      * <p>
      * The blast database uses a lock file to prevent multiple concurrent actions that modify if
      */
@@ -48,7 +100,7 @@ public class RebuildBlastIndexTask extends Task {
 
             switch (this.action) {
                 case CHECK:
-                    standardBlastDatabase.checkRebuild(false);
+                    standardBlastDatabase.checkRebuild(false, getResumePosition(), this::recordCheckpoint);
                     break;
 
                 case CREATE:
@@ -64,11 +116,23 @@ public class RebuildBlastIndexTask extends Task {
                     break;
 
                 case FORCE_BUILD:
-                    standardBlastDatabase.checkRebuild(true);
+                    standardBlastDatabase.checkRebuild(true, getResumePosition(), this::recordCheckpoint);
+                    break;
+
+                case COMPACT:
+                    standardBlastDatabase.compact();
                     break;
             }
         } catch (Exception e) {
             Logger.error(e);
         }
     }
+
+    private StandardBlastDatabase.RebuildCheckpoint getResumePosition() {
+        return StandardBlastDatabase.RebuildCheckpoint.fromString(getCheckpoint());
+    }
+
+    private void recordCheckpoint(StandardBlastDatabase.RebuildCheckpoint position) {
+        checkpoint(position.toString());
+    }
 }
@@ -6,14 +6,23 @@ import org.biojava.bio.seq.DNATools;
 import org.biojava.bio.seq.RNATools;
 import org.biojava.bio.symbol.IllegalSymbolException;
 import org.biojava.bio.symbol.SymbolList;
+import org.hibernate.Session;
 import org.jbei.ice.lib.common.logging.Logger;
+import org.jbei.ice.lib.dto.ConfigurationKey;
 import org.jbei.ice.lib.dto.entry.EntryType;
 import org.jbei.ice.lib.dto.entry.PartData;
 import org.jbei.ice.lib.dto.search.BlastProgram;
 import org.jbei.ice.lib.dto.search.BlastQuery;
 import org.jbei.ice.lib.dto.search.SearchResult;
+import org.jbei.ice.lib.dto.search.SequenceSearchEngine;
 import org.jbei.ice.lib.entry.HasEntry;
+import org.jbei.ice.lib.executor.IceExecutorService;
+import org.jbei.ice.lib.search.kmer.KmerHit;
+import org.jbei.ice.lib.search.kmer.KmerSearchEngine;
+import org.jbei.ice.lib.search.kmer.KmerSubject;
+import org.jbei.ice.lib.utils.Utils;
 import org.jbei.ice.storage.DAOFactory;
+import org.jbei.ice.storage.hibernate.HibernateUtil;
 import org.jbei.ice.storage.hibernate.dao.SequenceDAO;
 import org.jbei.ice.storage.model.Entry;
 import org.jbei.ice.storage.model.Sequence;
@@ -23,6 +32,9 @@ import java.io.StringReader;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.function.Function;
 
 import static org.jbei.ice.lib.utils.SequenceUtils.breakUpLines;
 
@@ -34,17 +46,35 @@ import static org.jbei.ice.lib.utils.SequenceUtils.breakUpLines;
 public class StandardBlastDatabase extends BlastDatabase {
 
     private static StandardBlastDatabase INSTANCE;
+    private static final long COMPACT_CHECK_INTERVAL = TimeUnit.HOURS.toMillis(6);
+    private static final int CHECKPOINT_INTERVAL = 5000;     // number of sequences written between rebuild checkpoints
     private final Object LOCK;
     private BlastPlus blastPlus;
     private BlastFastaFile blastFastaFile;
+    private BlastDeltaVolume deltaVolume;
+    private KmerSearchEngine kmerSearchEngine;
     private SequenceDAO sequenceDAO;
+    private Timer compactTimer;
+    private volatile EngineSelection engineSelection;
 
     private StandardBlastDatabase() {
         super("blast");
         blastPlus = new BlastPlus();
         sequenceDAO = DAOFactory.getSequenceDAO();
         blastFastaFile = new BlastFastaFile(indexPath);
+        deltaVolume = new BlastDeltaVolume(indexPath, this.dbName);
+        kmerSearchEngine = new KmerSearchEngine(Paths.get(indexPath.toString(), "kmer"));
         LOCK = new Object();
+
+        // periodically fold pending changes in the delta volume into the base volume
+        compactTimer = new Timer("ice-blast-compact", true);
+        compactTimer.schedule(new TimerTask() {
+            @Override
+            public void run() {
+                if (!deltaVolume.isEmpty() || kmerSearchEngine.getPendingChangeCount() > 0)
+                    IceExecutorService.getInstance().runTask(new RebuildBlastIndexTask(Action.COMPACT, null));
+            }
+        }, COMPACT_CHECK_INTERVAL, COMPACT_CHECK_INTERVAL);
     }
 
     public static StandardBlastDatabase getInstance() {
@@ -53,7 +83,25 @@ public class StandardBlastDatabase extends BlastDatabase {
         return INSTANCE;
     }
 
+    /**
+     * Stops the periodic check for pending changes to compact, if the database has been initialized
+     */
+    public static void cancel() {
+        StandardBlastDatabase instance = INSTANCE;
+        if (instance != null)
+            instance.compactTimer.cancel();
+    }
+
     private static String getSequenceFasta(Sequence sequence) {
+        return getSequenceFasta(sequence, "");
+    }
+
+    /**
+     * @param sequence sequence to convert to a fasta record
+     * @param idPrefix prefix for the record identifier. Used to distinguish records in the delta volume
+     * @return fasta record for sequence or null if the sequence cannot be indexed
+     */
+    private static String getSequenceFasta(Sequence sequence, String idPrefix) {
         String sequenceString = "";
         String temp = sequence.getSequence();
 
@@ -80,15 +128,55 @@ public class StandardBlastDatabase extends BlastDatabase {
         if (StringUtils.isEmpty(sequenceString))
             return null;
 
+        String idString = ">" + idPrefix + getSequenceTitle(sequence);
+        idString += "\n";
+        return (idString + sequenceString + "\n");
+    }
+
+    /**
+     * @param sequence sequence whose title is to be generated
+     * @return title (<code>id,type,name,partNumber</code>) used to identify the sequence in search results
+     */
+    private static String getSequenceTitle(Sequence sequence) {
         long id = sequence.getEntry().getId();
-        String idString = ">" + id;
+        String idString = Long.toString(id);
         idString += DELIMITER + sequence.getEntry().getRecordType();
         String name = sequence.getEntry().getName() == null ? "None" : sequence.getEntry().getName();
         idString += DELIMITER + name;
         String pNumber = sequence.getEntry().getPartNumber();
         idString += DELIMITER + pNumber;
-        idString += "\n";
-        return (idString + sequenceString + "\n");
+        return idString;
+    }
+
+    /**
+     * @param sequence sequence to convert
+     * @return subject for the embedded search engine or null if the sequence cannot be indexed
+     */
+    private static KmerSubject getKmerSubject(Sequence sequence) {
+        if (StringUtils.isBlank(sequence.getSequence()))
+            return null;
+        return new KmerSubject(getSequenceTitle(sequence), sequence.getSequence());
+    }
+
+    /**
+     * Determines which engine is used for sequence searches. The embedded engine is used when it is explicitly
+     * selected or when BLAST+ is not installed. The selection is resolved once and resolved again only when the
+     * engine or BLAST+ installation directory settings change
+     *
+     * @return true if sequence searches are run using the embedded engine, false if BLAST+ is used
+     */
+    public boolean isEmbeddedEngine() {
+        String engine = Utils.getConfigValue(ConfigurationKey.SEQUENCE_SEARCH_ENGINE).trim();
+        String installDirectory = Utils.getConfigValue(ConfigurationKey.BLAST_INSTALL_DIR);
+
+        EngineSelection selection = engineSelection;
+        if (selection == null || !selection.isFor(engine, installDirectory)) {
+            boolean embedded = SequenceSearchEngine.EMBEDDED.name().equalsIgnoreCase(engine)
+                    || !blastPlus.isInstalled();
+            selection = new EngineSelection(engine, installDirectory, embedded);
+            engineSelection = selection;
+        }
+        return selection.embedded;
     }
 
     public boolean isLocked() {
@@ -115,6 +203,9 @@ public class StandardBlastDatabase extends BlastDatabase {
      * @throws BlastException if results of running blast is null
      */
     public HashMap<String, SearchResult> runBlast(BlastQuery query) throws BlastException {
+        if (isEmbeddedEngine())
+            return runEmbeddedSearch(query);
+
         List<String> options;
         if (query.getBlastProgram() == null || query.getBlastProgram() == BlastProgram.BLAST_N)
             options = Arrays.asList("-perc_identity", "70", "-outfmt",
@@ -123,13 +214,30 @@ public class StandardBlastDatabase extends BlastDatabase {
             options = Arrays.asList("-outfmt",
                     "10 stitle qstart qend sstart send sstrand evalue bitscore score length nident");
 
-        BlastSearch blastSearch = new BlastSearch(this.indexPath, this.dbName);
+        BlastSearch blastSearch = new BlastSearch(this.indexPath, deltaVolume.getSearchDbName());
         String result = blastSearch.run(query, options.toArray(new String[]{}));
         if (result == null)
             throw new BlastException("Exception running blast");
         return processBlastOutput(result, query.getSequence().length());
     }
 
+    /**
+     * Runs a sequence search using the embedded (in-process) engine. Only <code>blastn</code> searches are supported
+     *
+     * @param query wrapper around blast query
+     * @return map of unique entry identifier (whose sequence was a subject) to the search result hit details
+     * @throws BlastException if the requested program is not supported
+     */
+    private HashMap<String, SearchResult> runEmbeddedSearch(BlastQuery query) throws BlastException {
+        if (query.getBlastProgram() != null && query.getBlastProgram() != BlastProgram.BLAST_N)
+            throw new BlastException(query.getBlastProgram().getName() + " is not supported by the embedded engine");
+
+        List<String[]> rows = new ArrayList<>();
+        for (KmerHit hit : kmerSearchEngine.search(query.getSequence(), 70))
+            rows.add(hit.toBlastRow());
+        return processBlastRows(rows, query.getSequence().length(), false);
+    }
+
     /**
      * Processes the result of a blast search
      *
@@ -138,26 +246,48 @@ public class StandardBlastDatabase extends BlastDatabase {
      * @return mapping of entryId to search result object containing information about the blast search for that particular hit
      */
     private LinkedHashMap<String, SearchResult> processBlastOutput(String blastOutput, int queryLength) {
-        LinkedHashMap<String, SearchResult> hashMap = new LinkedHashMap<>();
-
         try (CSVReader reader = new CSVReader(new StringReader(blastOutput))) {
             List<String[]> lines = reader.readAll();
             reader.close();
-
-            for (String[] line : lines) {
-                SearchResult info = parseBlastOutputLine(line);
-                if (info == null)
-                    continue;
-
-                info.setQueryLength(queryLength);
-                String idString = Long.toString(info.getEntryInfo().getId());
-                // if there is an existing record for same entry with a lower relative score then replace
-                hashMap.putIfAbsent(idString, info);
-            }
+            return processBlastRows(lines, queryLength, true);
         } catch (IOException e) {
             Logger.error(e);
             return null;
         }
+    }
+
+    /**
+     * Processes blast output rows (in order of relevance) from either BLAST+ or the embedded engine
+     *
+     * @param lines       output rows
+     * @param queryLength length of query sequence
+     * @param checkStale  whether to drop hits from the base volume for sequences that have changed since it was
+     *                    built. The embedded engine applies changes directly so its hits are always current
+     * @return mapping of entryId to search result object containing information about the blast search for that particular hit
+     */
+    private LinkedHashMap<String, SearchResult> processBlastRows(List<String[]> lines, int queryLength,
+                                                                 boolean checkStale) {
+        LinkedHashMap<String, SearchResult> hashMap = new LinkedHashMap<>();
+
+        for (String[] line : lines) {
+            if (line.length < 4)
+                continue;
+
+            // hits from the delta volume are always current; base volume hits may have been replaced or deleted
+            if (line[0].startsWith(BlastDeltaVolume.MARKER))
+                line[0] = line[0].substring(BlastDeltaVolume.MARKER.length());
+            else if (checkStale && deltaVolume.isStale(line[3]))
+                continue;
+
+            SearchResult info = parseBlastOutputLine(line);
+            if (info == null)
+                continue;
+
+            info.setQueryLength(queryLength);
+            String idString = Long.toString(info.getEntryInfo().getId());
+            // if there is an existing record for same entry with a lower relative score then replace
+            hashMap.putIfAbsent(idString, info);
+        }
 
         return hashMap;
     }
@@ -195,24 +325,149 @@ public class StandardBlastDatabase extends BlastDatabase {
 
     /**
      * Rebuilds the blast database if it doesn't exist. The rebuild can be forced
-     * regardless of the existence of the database
+     * regardless of the existence of the database. If the database exists and is not being rebuilt, any pending
+     * changes in the delta volume are compacted into it
      *
      * @param force whether to rebuild the database regardless of whether it exists or not
      * @throws BlastException on exception rebuilding sequence db
      */
     public void checkRebuild(boolean force) throws BlastException {
-        if (!force && blastDatabaseExists()) {
-            Logger.info("Blast database found in " + indexPath.toString());
-            return;
+        checkRebuild(force, null, position -> {
+        });
+    }
+
+    /**
+     * Rebuilds the blast database if it doesn't exist (or if forced), with support for resuming an interrupted
+     * rebuild. A BLAST+ rebuild writes sequences to the fasta file in batches, ordered by sequence identifier,
+     * and reports the identifier of the last sequence written and the length of the fasta file after each batch.
+     * A rebuild that is resumed truncates the fasta file to that length (discarding records written after the
+     * checkpoint) and appends the sequences after that identifier instead of starting over.
+     * The embedded engine always rebuilds from the start
+     *
+     * @param force      whether to rebuild the database regardless of whether it exists or not
+     * @param resume     checkpoint of an interrupted rebuild, or null to start a new one
+     * @param checkpoint notified with the position of the rebuild after each batch
+     * @throws BlastException on exception rebuilding sequence db
+     */
+    public void checkRebuild(boolean force, RebuildCheckpoint resume, Consumer<RebuildCheckpoint> checkpoint)
+            throws BlastException {
+        synchronized (LOCK) {
+            boolean embedded = isEmbeddedEngine();
+            boolean exists = embedded ? kmerSearchEngine.exists() : blastDatabaseExists();
+            if (!force && exists && resume == null) {
+                Logger.info("Sequence search index found in " + indexPath.toString());
+                compact();
+                return;
+            }
+
+            BlastBuildProgress progress = BlastBuildProgress.getInstance();
+            progress.started(sequenceDAO.getSequenceCount());
+            try {
+                if (embedded) {
+                    try (AllSequencesStream<KmerSubject> stream = new AllSequencesStream<>(sequenceDAO, progress,
+                            StandardBlastDatabase::getKmerSubject, 0)) {
+                        kmerSearchEngine.rebuild(stream);
+                    } catch (IOException e) {
+                        throw new BlastException(e);
+                    }
+                } else {
+                    // write all sequences in database to fasta file (a new one unless resuming)
+                    long resumeAfter = 0;
+                    try {
+                        if (resume != null && blastFastaFile.truncate(resume.getFastaLength())) {
+                            resumeAfter = resume.getLastId();
+                            Logger.info("Resuming blast database rebuild after sequence " + resumeAfter);
+                        } else {
+                            blastFastaFile.createNew();
+                        }
+                    } catch (IOException e) {
+                        throw new BlastException(e);
+                    }
+
+                    try (AllSequencesStream<String> stream = new AllSequencesStream<>(sequenceDAO, progress,
+                            StandardBlastDatabase::getSequenceFasta, resumeAfter)) {
+                        List<String> records = new ArrayList<>(CHECKPOINT_INTERVAL);
+                        while (stream.hasNext()) {
+                            records.add(stream.next());
+                            if (records.size() < CHECKPOINT_INTERVAL)
+                                continue;
+
+                            writeFastaRecords(records);
+                            records.clear();
+                            checkpoint.accept(new RebuildCheckpoint(stream.getLastId(), blastFastaFile.size()));
+                        }
+                        writeFastaRecords(records);
+
+                        blastPlus.formatBlastDb(blastFastaFile, this.dbName);
+                        deltaVolume.clear();
+                    } catch (IOException e) {
+                        throw new BlastException(e);
+                    }
+                }
+                Logger.info("Indexed " + progress.getStatus().getDone() + " sequence(s) at "
+                        + String.format("%.1f", progress.getStatus().getRate()) + " sequences/sec");
+            } finally {
+                progress.completed();
+            }
         }
+    }
 
-        // delete fasta file and create a new one with all sequences in database
-        blastFastaFile.createNew();
-        Iterable<String> iterable = () -> new AllSequencesStream(sequenceDAO);
-        blastFastaFile.write(iterable);
-        blastPlus.formatBlastDb(blastFastaFile, this.dbName);
+    private void writeFastaRecords(List<String> records) throws BlastException {
+        if (!records.isEmpty() && !blastFastaFile.write(records))
+            throw new BlastException("Could not write records to blast fasta file");
     }
 
+    /**
+     * Folds pending incremental changes into the main index of the selected search engine. For BLAST+ the
+     * sequences in the delta volume are merged into the base volume, with the stale records removed, and the base
+     * database is re-formatted. The delta is empty on completion.
+     *
+     * @throws BlastException on exception formatting the base database
+     */
+    public void compact() throws BlastException {
+        synchronized (LOCK) {
+            if (isEmbeddedEngine()) {
+                if (kmerSearchEngine.getPendingChangeCount() == 0)
+                    return;
+
+                Logger.info("Compacting " + kmerSearchEngine.getPendingChangeCount() + " sequence search change(s)");
+                try {
+                    kmerSearchEngine.compact();
+                } catch (IOException e) {
+                    throw new BlastException(e);
+                }
+                return;
+            }
+
+            if (deltaVolume.isEmpty())
+                return;
+
+            Logger.info("Compacting blast delta volume (" + deltaVolume.getRecordCount() + " sequence(s), "
+                    + deltaVolume.getStalePartNumbers().size() + " change(s))");
+            try {
+                List<String> records = new ArrayList<>();
+                for (String record : deltaVolume.getRecords()) {
+                    records.add(">" + record.substring(1 + BlastDeltaVolume.MARKER.length()));
+                }
+
+                blastFastaFile.delete(deltaVolume.getStalePartNumbers());
+                if (!records.isEmpty() && !blastFastaFile.write(records))
+                    throw new BlastException("Could not write delta records to blast fasta file");
+            } catch (IOException e) {
+                throw new BlastException(e);
+            }
+
+            blastPlus.formatBlastDb(blastFastaFile, this.dbName);
+            deltaVolume.clear();
+        }
+    }
+
+    /**
+     * Adds the sequence for the specified part to the delta of the selected search engine. This only
+     * requires indexing the (small) delta instead of the entire database.
+     *
+     * @param partId part number of entry whose sequence is to be added
+     */
     public void addSequence(String partId) {
         Entry entry = new HasEntry().getEntry(partId);
         if (entry == null) {
@@ -221,53 +476,59 @@ public class StandardBlastDatabase extends BlastDatabase {
         }
 
         Sequence sequence = sequenceDAO.getByEntry(entry);
-        final String blastFasta = getSequenceFasta(sequence);
-        if (blastFasta == null)
+        if (sequence == null)
             return;
 
-        blastFastaFile.write(() -> new Iterator<String>() {
-            private boolean called = false;
-
-            @Override
-            public boolean hasNext() {
-                if (called)
-                    return false;
-
-                called = true;
-                return true;
-            }
-
-            @Override
-            public String next() {
-                return blastFasta;
+        synchronized (LOCK) {
+            try {
+                if (isEmbeddedEngine()) {
+                    KmerSubject subject = getKmerSubject(sequence);
+                    if (subject == null)
+                        return;
+                    kmerSearchEngine.put(entry.getPartNumber(), subject);
+                } else {
+                    final String blastFasta = getSequenceFasta(sequence, BlastDeltaVolume.MARKER);
+                    if (blastFasta == null)
+                        return;
+                    deltaVolume.put(entry.getPartNumber(), blastFasta, blastPlus);
+                }
+                checkCompactThreshold();
+            } catch (BlastException | IOException e) {
+                Logger.error(e);
             }
-        });
-
-        try {
-            blastPlus.formatBlastDb(blastFastaFile, this.dbName);
-        } catch (BlastException e) {
-            Logger.error(e);
         }
     }
 
     public void removeSequence(String partId) {
-        try {
-            blastFastaFile.delete(partId);
-            blastPlus.formatBlastDb(blastFastaFile, this.dbName);
-        } catch (IOException | BlastException e) {
-            Logger.error(e);
+        synchronized (LOCK) {
+            try {
+                if (isEmbeddedEngine())
+                    kmerSearchEngine.remove(partId);
+                else
+                    deltaVolume.remove(partId, blastPlus);
+                checkCompactThreshold();
+            } catch (BlastException | IOException e) {
+                Logger.error(e);
+            }
         }
     }
 
     public void updateSequence(String partId) {
-        // remove and add
+        // the delta replaces any existing record for the part
+        addSequence(partId);
+    }
+
+    private void checkCompactThreshold() throws BlastException {
+        int threshold;
         try {
-            blastFastaFile.delete(partId);
-        } catch (IOException e) {
-            Logger.error(e);
-            return;
+            threshold = Integer.parseInt(Utils.getConfigValue(ConfigurationKey.BLAST_DELTA_COMPACT_THRESHOLD).trim());
+        } catch (NumberFormatException e) {
+            threshold = Integer.parseInt(ConfigurationKey.BLAST_DELTA_COMPACT_THRESHOLD.getDefaultValue());
         }
-        addSequence(partId);
+
+        if (deltaVolume.getRecordCount() >= threshold || deltaVolume.getStalePartNumbers().size() >= threshold
+                || kmerSearchEngine.getPendingChangeCount() >= threshold)
+            compact();
     }
 
     /**
@@ -280,40 +541,159 @@ public class StandardBlastDatabase extends BlastDatabase {
         return Files.exists(Paths.get(indexPath.toString(), this.dbName + ".nsq"));
     }
 
-    private static class AllSequencesStream implements Iterator<String> {
-
-        private int available;
-        private int currentOffset;
-        private SequenceDAO dao;
-        private String nextValue;
-
-        public AllSequencesStream(SequenceDAO sequenceDAO) {
-            dao = sequenceDAO;
-            available = dao.getSequenceCount();
+    /**
+     * Iterates over all sequences available for indexing, converted to the representation required by the
+     * search engine. Sequences are retrieved in batches, ordered by identifier, using keyset paging in a separate
+     * session that is cleared after each batch
+     */
+    private static class AllSequencesStream<T> implements Iterator<T>, AutoCloseable {
+
+        private static final int BATCH_SIZE = 1000;
+        private final SequenceDAO dao;
+        private final Session session;
+        private final BlastBuildProgress progress;
+        private final Function<Sequence, T> converter;
+        private Iterator<Sequence> batch;
+        private long lastId;
+        private boolean exhausted;
+        private T nextValue;
+
+        AllSequencesStream(SequenceDAO sequenceDAO, BlastBuildProgress progress, Function<Sequence, T> converter,
+                           long startAfter) {
+            this.dao = sequenceDAO;
+            this.lastId = startAfter;
+            this.progress = progress;
+            this.converter = converter;
+            this.session = HibernateUtil.newSession();
+            this.session.setDefaultReadOnly(true);
+            this.batch = Collections.emptyIterator();
         }
 
         @Override
         public boolean hasNext() {
-            while (currentOffset < available) {
-                Sequence sequence = dao.getSequence(currentOffset++);
-                if (sequence == null || sequence.getEntry() == null)
+            if (nextValue != null)
+                return true;
+
+            while (true) {
+                if (!batch.hasNext() && !nextBatch())
+                    return false;
+
+                Sequence sequence = batch.next();
+                lastId = sequence.getId();
+                progress.added(1);
+                if (sequence.getEntry() == null)
                     continue;
 
-                nextValue = getSequenceFasta(sequence);
+                nextValue = converter.apply(sequence);
                 if (nextValue == null)
                     continue;
 
                 return true;
             }
+        }
+
+        private boolean nextBatch() {
+            if (exhausted)
+                return false;
 
-            return false;
+            session.clear();
+            List<Sequence> sequences = dao.getSequenceBatch(session, lastId, BATCH_SIZE);
+            if (sequences.size() < BATCH_SIZE)
+                exhausted = true;
+            batch = sequences.iterator();
+            return batch.hasNext();
+        }
+
+        /**
+         * @return identifier of the last sequence read (including sequences that were skipped). Once a value is
+         * returned by {@link #next()}, this is the identifier of its sequence until {@link #hasNext()} is called
+         */
+        long getLastId() {
+            return lastId;
         }
 
         @Override
-        public String next() {
-            if (StringUtils.isEmpty(nextValue))
-                throw new IllegalStateException("No value available. Make sure call to hasNext() returns true");
-            return nextValue;
+        public T next() {
+            if (!hasNext())
+                throw new NoSuchElementException();
+
+            T value = nextValue;
+            nextValue = null;
+            return value;
+        }
+
+        @Override
+        public void close() {
+            if (session.isOpen())
+                session.close();
+        }
+    }
+
+    /**
+     * Position of an (interrupted) BLAST+ rebuild: the identifier of the last sequence written to the fasta file and
+     * the length of the file once it was written
+     */
+    public static class RebuildCheckpoint {
+
+        private final long lastId;
+        private final long fastaLength;
+
+        public RebuildCheckpoint(long lastId, long fastaLength) {
+            this.lastId = lastId;
+            this.fastaLength = fastaLength;
+        }
+
+        /**
+         * @param value checkpoint value, as returned by {@link #toString()}
+         * @return checkpoint, or null if the value is not a valid checkpoint (e.g. one recorded without the length
+         * of the fasta file, which cannot be resumed from)
+         */
+        public static RebuildCheckpoint fromString(String value) {
+            if (value == null)
+                return null;
+
+            String[] split = value.split(":");
+            if (split.length != 2)
+                return null;
+
+            try {
+                return new RebuildCheckpoint(Long.decode(split[0]), Long.decode(split[1]));
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+
+        public long getLastId() {
+            return lastId;
+        }
+
+        public long getFastaLength() {
+            return fastaLength;
+        }
+
+        @Override
+        public String toString() {
+            return lastId + ":" + fastaLength;
+        }
+    }
+
+    /**
+     * Engine selected for the engine and BLAST+ installation directory settings it was resolved for
+     */
+    private static class EngineSelection {
+
+        private final String engine;
+        private final String installDirectory;
+        private final boolean embedded;
+
+        EngineSelection(String engine, String installDirectory, boolean embedded) {
+            this.engine = engine;
+            this.installDirectory = installDirectory;
+            this.embedded = embedded;
+        }
+
+        boolean isFor(String engine, String installDirectory) {
+            return this.engine.equals(engine) && Objects.equals(this.installDirectory, installDirectory);
         }
     }
 }
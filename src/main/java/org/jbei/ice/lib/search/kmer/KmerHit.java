@@ -0,0 +1,125 @@
+package org.jbei.ice.lib.search.kmer;
+
+import java.util.Locale;
+
+/**
+ * Alignment of a query against a single subject found by the {@link KmerSearchEngine}. Coordinates are one-based
+ * and follow the blast conventions: query coordinates are always on the plus strand and subject start is greater
+ * than subject end for minus strand hits
+ *
+ * @author Hector Plahar
+ */
+public class KmerHit {
+
+    private final String title;
+    private final int queryStart;
+    private final int queryEnd;
+    private final int subjectStart;
+    private final int subjectEnd;
+    private final boolean plus;
+    private final int score;
+    private final int length;
+    private final int identities;
+    private double bitScore;
+    private double eValue;
+
+    KmerHit(String title, int queryStart, int queryEnd, int subjectStart, int subjectEnd, boolean plus, int score,
+            int length, int identities) {
+        this.title = title;
+        this.queryStart = queryStart;
+        this.queryEnd = queryEnd;
+        this.subjectStart = subjectStart;
+        this.subjectEnd = subjectEnd;
+        this.plus = plus;
+        this.score = score;
+        this.length = length;
+        this.identities = identities;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public int getQueryStart() {
+        return queryStart;
+    }
+
+    public int getQueryEnd() {
+        return queryEnd;
+    }
+
+    public int getSubjectStart() {
+        return subjectStart;
+    }
+
+    public int getSubjectEnd() {
+        return subjectEnd;
+    }
+
+    public boolean isPlus() {
+        return plus;
+    }
+
+    public int getScore() {
+        return score;
+    }
+
+    public int getLength() {
+        return length;
+    }
+
+    public int getIdentities() {
+        return identities;
+    }
+
+    public double getBitScore() {
+        return bitScore;
+    }
+
+    public double getEValue() {
+        return eValue;
+    }
+
+    void setStatistics(double bitScore, double eValue) {
+        this.bitScore = bitScore;
+        this.eValue = eValue;
+    }
+
+    /**
+     * @return percentage of aligned positions that are identical
+     */
+    public double getPercentIdentity() {
+        return length == 0 ? 0 : (identities * 100.0) / length;
+    }
+
+    /**
+     * Formats this hit as a row with the same columns as the blast output format
+     * <code>10 stitle qstart qend sstart send sstrand evalue bitscore score length nident</code>, with the subject
+     * title split on commas (as happens when parsing the blast csv output)
+     *
+     * @return blast style output row
+     */
+    public String[] toBlastRow() {
+        String[] titleFields = title.split(",");
+        String[] row = new String[titleFields.length + 10];
+        System.arraycopy(titleFields, 0, row, 0, titleFields.length);
+        int i = titleFields.length;
+        row[i++] = Integer.toString(queryStart);
+        row[i++] = Integer.toString(queryEnd);
+        row[i++] = Integer.toString(subjectStart);
+        row[i++] = Integer.toString(subjectEnd);
+        row[i++] = plus ? "plus" : "minus";
+        row[i++] = formatEValue(eValue);
+        row[i++] = String.format(Locale.ROOT, "%.1f", bitScore);
+        row[i++] = Integer.toString(score);
+        row[i++] = Integer.toString(length);
+        row[i] = Integer.toString(identities);
+        return row;
+    }
+
+    private static String formatEValue(double eValue) {
+        if (eValue < 1e-180)
+            return "0.0";
+        return String.format(Locale.ROOT, "%.2e", eValue);
+    }
+}
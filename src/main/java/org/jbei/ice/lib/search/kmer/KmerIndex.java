@@ -0,0 +1,420 @@
+package org.jbei.ice.lib.search.kmer;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * Immutable, memory-mapped inverted index of nucleotide k-mers to the subject sequences (and positions)
+ * they occur in.
+ * <p>
+ * To keep the index small only the minimizers of each subject (the k-mer with the lowest hash in every
+ * window of {@link #WINDOW} consecutive k-mers) are indexed. Any exact match between a query and a subject
+ * that is at least <code>K + WINDOW - 1</code> long is therefore guaranteed to share an indexed k-mer.
+ * <p>
+ * The index is stored in a directory as three files:
+ * <ul>
+ * <li><code>subjects</code> - subject titles and lengths</li>
+ * <li><code>residues</code> - concatenated (lower case) subject residues</li>
+ * <li><code>postings</code> - k-mer offsets followed by posting subject ordinals and positions</li>
+ * </ul>
+ * Postings are addressed with int offsets and so the index is limited to about 500 million minimizers
+ *
+ * @author Hector Plahar
+ */
+public class KmerIndex implements Closeable {
+
+    public static final int K = 11;
+    static final int WINDOW = 10;
+    static final int MASK = (1 << (2 * K)) - 1;
+
+    private static final int VERSION = 1;
+    private static final String SUBJECTS_FILE = "subjects";
+    private static final String RESIDUES_FILE = "residues";
+    private static final String POSTINGS_FILE = "postings";
+    private static final long SEGMENT_SIZE = 1L << 30;
+
+    private final String[] titles;
+    private final long[] residueOffsets;
+    private final int[] lengths;
+    private final long totalLength;
+    private final ByteBuffer[] residueSegments;
+    private final IntBuffer offsets;
+    private final IntBuffer postingSubjects;
+    private final IntBuffer postingPositions;
+    private final List<FileChannel> channels;
+
+    private KmerIndex(String[] titles, long[] residueOffsets, int[] lengths, ByteBuffer[] residueSegments,
+                      IntBuffer offsets, IntBuffer postingSubjects, IntBuffer postingPositions,
+                      List<FileChannel> channels) {
+        this.titles = titles;
+        this.residueOffsets = residueOffsets;
+        this.lengths = lengths;
+        this.residueSegments = residueSegments;
+        this.offsets = offsets;
+        this.postingSubjects = postingSubjects;
+        this.postingPositions = postingPositions;
+        this.channels = channels;
+
+        long total = 0;
+        for (int length : lengths)
+            total += length;
+        this.totalLength = total;
+    }
+
+    /**
+     * @param c nucleotide character
+     * @return 2-bit code for the nucleotide, or -1 if it is not one of <code>acgt</code> (or <code>u</code>)
+     */
+    static int encode(byte c) {
+        switch (c) {
+            case 'a':
+            case 'A':
+                return 0;
+            case 'c':
+            case 'C':
+                return 1;
+            case 'g':
+            case 'G':
+                return 2;
+            case 't':
+            case 'T':
+            case 'u':
+            case 'U':
+                return 3;
+            default:
+                return -1;
+        }
+    }
+
+    /**
+     * Hash used to select minimizers. Invertible mixing of the k-mer code avoids favouring poly-A stretches
+     */
+    static int hash(int kmer) {
+        int h = kmer * 0x9E3779B1;
+        h ^= h >>> 15;
+        return (h * 0x85EBCA77) & 0x7fffffff;
+    }
+
+    /**
+     * Builds a new index in the specified directory from the subject sequences. Any existing index in the
+     * directory is replaced. Subjects are treated as circular: k-mers spanning the origin are indexed and positions
+     * are reported in the coordinates of the sequence concatenated with itself (as is done for the blast database).
+     *
+     * @param directory directory to write the index files to
+     * @param subjects  subject sequences to index
+     * @return the new index, memory mapped from the directory
+     * @throws IOException on exception writing or mapping the index files
+     */
+    public static KmerIndex build(Path directory, Iterator<KmerSubject> subjects) throws IOException {
+        Files.createDirectories(directory);
+        Path residuesPath = Paths.get(directory.toString(), RESIDUES_FILE + ".tmp");
+        Path subjectsPath = Paths.get(directory.toString(), SUBJECTS_FILE + ".tmp");
+        Path postingsPath = Paths.get(directory.toString(), POSTINGS_FILE + ".tmp");
+
+        // first pass: write residues and subject details to disk
+        int count = 0;
+        try (OutputStream residues = new BufferedOutputStream(Files.newOutputStream(residuesPath));
+             DataOutputStream subjectsOut = new DataOutputStream(new BufferedOutputStream(
+                     Files.newOutputStream(subjectsPath)))) {
+            subjectsOut.writeInt(VERSION);
+            subjectsOut.writeInt(0); // placeholder
+            long offset = 0;
+            while (subjects.hasNext()) {
+                KmerSubject subject = subjects.next();
+                byte[] bytes = subject.getResidues();
+                if (bytes.length == 0)
+                    continue;
+
+                // keep subjects from straddling residue segments so that each can be read from a single buffer
+                long segmentEnd = ((offset / SEGMENT_SIZE) + 1) * SEGMENT_SIZE;
+                if (offset + bytes.length > segmentEnd && bytes.length <= SEGMENT_SIZE) {
+                    byte[] padding = new byte[(int) (segmentEnd - offset)];
+                    residues.write(padding);
+                    offset = segmentEnd;
+                }
+
+                residues.write(bytes);
+                subjectsOut.writeUTF(subject.getTitle());
+                subjectsOut.writeLong(offset);
+                subjectsOut.writeInt(bytes.length);
+                offset += bytes.length;
+                count += 1;
+            }
+        }
+
+        // update the subject count
+        try (FileChannel channel = FileChannel.open(subjectsPath, StandardOpenOption.WRITE)) {
+            ByteBuffer countBuffer = ByteBuffer.allocate(4).putInt(count);
+            countBuffer.flip();
+            channel.write(countBuffer, 4);
+        }
+
+        move(residuesPath, Paths.get(directory.toString(), RESIDUES_FILE));
+        move(subjectsPath, Paths.get(directory.toString(), SUBJECTS_FILE));
+
+        // second and third passes over the mapped residues: count, then fill, the minimizer postings
+        KmerIndex residuesOnly = loadSubjects(directory, null, null, null, new ArrayList<>());
+        try {
+            int[] counts = new int[MASK + 2];
+            for (int s = 0; s < residuesOnly.size(); s += 1) {
+                int subject = s;
+                residuesOnly.forEachMinimizer(subject, (kmer, position) -> counts[kmer + 1] += 1);
+            }
+
+            long total = 0;
+            for (int i = 1; i < counts.length; i += 1) {
+                total += counts[i];
+                if (total > Integer.MAX_VALUE / 4)
+                    throw new IOException("Too many minimizers (" + total + ") for k-mer index");
+                counts[i] += counts[i - 1];
+            }
+
+            int postingCount = counts[MASK + 1];
+            int[] fill = new int[MASK + 1];
+            System.arraycopy(counts, 0, fill, 0, MASK + 1);
+            int[] postingSubjects = new int[postingCount];
+            int[] postingPositions = new int[postingCount];
+            for (int s = 0; s < residuesOnly.size(); s += 1) {
+                int subject = s;
+                residuesOnly.forEachMinimizer(subject, (kmer, position) -> {
+                    int index = fill[kmer]++;
+                    postingSubjects[index] = subject;
+                    postingPositions[index] = position;
+                });
+            }
+
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                    Files.newOutputStream(postingsPath), 1 << 16))) {
+                out.writeInt(VERSION);
+                out.writeInt(K);
+                out.writeInt(postingCount);
+                for (int value : counts)
+                    out.writeInt(value);
+                for (int value : postingSubjects)
+                    out.writeInt(value);
+                for (int value : postingPositions)
+                    out.writeInt(value);
+            }
+        } finally {
+            residuesOnly.close();
+        }
+
+        move(postingsPath, Paths.get(directory.toString(), POSTINGS_FILE));
+        return load(directory);
+    }
+
+    /**
+     * @param directory directory containing the index files
+     * @return true if the directory contains a complete index
+     */
+    public static boolean exists(Path directory) {
+        return Files.exists(Paths.get(directory.toString(), SUBJECTS_FILE))
+                && Files.exists(Paths.get(directory.toString(), RESIDUES_FILE))
+                && Files.exists(Paths.get(directory.toString(), POSTINGS_FILE));
+    }
+
+    /**
+     * Memory maps an existing index
+     *
+     * @param directory directory containing the index files
+     * @return mapped index
+     * @throws IOException on exception reading the index files
+     */
+    public static KmerIndex load(Path directory) throws IOException {
+        List<FileChannel> channels = new ArrayList<>();
+        FileChannel channel = FileChannel.open(Paths.get(directory.toString(), POSTINGS_FILE), StandardOpenOption.READ);
+        channels.add(channel);
+
+        ByteBuffer header = ByteBuffer.allocate(12);
+        channel.read(header, 0);
+        header.flip();
+        if (header.getInt() != VERSION || header.getInt() != K)
+            throw new IOException("Incompatible k-mer index in " + directory);
+        int postingCount = header.getInt();
+
+        long position = 12;
+        long offsetsBytes = (MASK + 2) * 4L;
+        IntBuffer offsets = channel.map(FileChannel.MapMode.READ_ONLY, position, offsetsBytes).asIntBuffer();
+        position += offsetsBytes;
+        IntBuffer subjects = channel.map(FileChannel.MapMode.READ_ONLY, position, postingCount * 4L).asIntBuffer();
+        position += postingCount * 4L;
+        IntBuffer positions = channel.map(FileChannel.MapMode.READ_ONLY, position, postingCount * 4L).asIntBuffer();
+        return loadSubjects(directory, offsets, subjects, positions, channels);
+    }
+
+    private static KmerIndex loadSubjects(Path directory, IntBuffer offsets, IntBuffer postingSubjects,
+                                          IntBuffer postingPositions, List<FileChannel> channels)
+            throws IOException {
+        String[] titles;
+        long[] residueOffsets;
+        int[] lengths;
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(
+                Files.newInputStream(Paths.get(directory.toString(), SUBJECTS_FILE))))) {
+            if (in.readInt() != VERSION)
+                throw new IOException("Incompatible k-mer index in " + directory);
+
+            int count = in.readInt();
+            titles = new String[count];
+            residueOffsets = new long[count];
+            lengths = new int[count];
+            for (int i = 0; i < count; i += 1) {
+                titles[i] = in.readUTF();
+                residueOffsets[i] = in.readLong();
+                lengths[i] = in.readInt();
+            }
+        }
+
+        FileChannel residueChannel = FileChannel.open(Paths.get(directory.toString(), RESIDUES_FILE),
+                StandardOpenOption.READ);
+        channels.add(residueChannel);
+        long size = residueChannel.size();
+        int segmentCount = (int) ((size + SEGMENT_SIZE - 1) / SEGMENT_SIZE);
+        ByteBuffer[] segments = new ByteBuffer[segmentCount];
+        for (int i = 0; i < segmentCount; i += 1) {
+            long start = i * SEGMENT_SIZE;
+            segments[i] = residueChannel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(SEGMENT_SIZE, size - start));
+        }
+
+        return new KmerIndex(titles, residueOffsets, lengths, segments, offsets, postingSubjects, postingPositions,
+                channels);
+    }
+
+    private static void move(Path source, Path target) throws IOException {
+        Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * @return number of subjects in the index
+     */
+    public int size() {
+        return titles.length;
+    }
+
+    /**
+     * @return total number of residues across all subjects
+     */
+    public long getTotalLength() {
+        return totalLength;
+    }
+
+    public String getTitle(int subject) {
+        return titles[subject];
+    }
+
+    public int getLength(int subject) {
+        return lengths[subject];
+    }
+
+    /**
+     * @param subject  subject ordinal
+     * @param position position in subject. Positions greater than the subject length wrap around the origin
+     * @return residue at the specified position
+     */
+    public byte residue(int subject, int position) {
+        long offset = residueOffsets[subject] + (position % lengths[subject]);
+        return residueSegments[(int) (offset / SEGMENT_SIZE)].get((int) (offset % SEGMENT_SIZE));
+    }
+
+    /**
+     * @return residues for the specified subject
+     */
+    byte[] residues(int subject) {
+        byte[] bytes = new byte[lengths[subject]];
+        for (int i = 0; i < bytes.length; i += 1)
+            bytes[i] = residue(subject, i);
+        return bytes;
+    }
+
+    /**
+     * @param kmer encoded k-mer
+     * @return number of postings for the k-mer
+     */
+    int occurrences(int kmer) {
+        return offsets.get(kmer + 1) - offsets.get(kmer);
+    }
+
+    /**
+     * Calls the consumer for each subject position at which the k-mer is an indexed minimizer
+     *
+     * @param kmer     encoded k-mer
+     * @param consumer receives (subject, position) pairs
+     */
+    void forEachPosting(int kmer, PostingConsumer consumer) {
+        int end = offsets.get(kmer + 1);
+        for (int i = offsets.get(kmer); i < end; i += 1) {
+            consumer.accept(postingSubjects.get(i), postingPositions.get(i));
+        }
+    }
+
+    private void forEachMinimizer(int subject, PostingConsumer consumer) {
+        int length = lengths[subject];
+        if (length < K)
+            return;
+
+        // k-mers starting in [0, length) of the circularized sequence
+        int kmerCount = length;
+        int[] codes = new int[kmerCount];
+        int[] hashes = new int[kmerCount];
+        int code = 0;
+        int valid = 0;
+        for (int i = 0; i < length + K - 1; i += 1) {
+            int value = encode(residue(subject, i));
+            if (value < 0) {
+                valid = 0;
+                code = 0;
+            } else {
+                code = ((code << 2) | value) & MASK;
+                valid += 1;
+            }
+
+            int start = i - K + 1;
+            if (start < 0)
+                continue;
+
+            codes[start] = code;
+            hashes[start] = valid >= K ? hash(code) : -1;
+        }
+
+        int last = -1;
+        int windows = Math.max(1, kmerCount - WINDOW + 1);
+        for (int window = 0; window < windows; window += 1) {
+            int min = -1;
+            int end = Math.min(window + WINDOW, kmerCount);
+            for (int i = window; i < end; i += 1) {
+                if (hashes[i] < 0)
+                    continue;
+                if (min == -1 || hashes[i] < hashes[min])
+                    min = i;
+            }
+
+            if (min != -1 && min != last) {
+                consumer.accept(codes[min], min);
+                last = min;
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        for (FileChannel channel : channels)
+            channel.close();
+    }
+
+    /**
+     * Receives k-mer postings
+     */
+    interface PostingConsumer {
+        void accept(int value, int position);
+    }
+}
@@ -0,0 +1,480 @@
+package org.jbei.ice.lib.search.kmer;
+
+import org.jbei.ice.lib.common.logging.Logger;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * In-process nucleotide sequence search engine. An alternative to running the external BLAST+ programs for
+ * sequence searches.
+ * <p>
+ * Subjects are held in a memory-mapped {@link KmerIndex}. Query k-mers are looked up in the index and each seed
+ * is extended (ungapped, with an x-drop cut off) in both directions using the same match/mismatch scores as
+ * <code>megablast</code> (the default <code>blastn</code> task). Hits are scored with Karlin-Altschul statistics
+ * for those scores so that e-values and bit scores are comparable with blast output.
+ * <p>
+ * Changes to individual subjects are applied to a small in-memory delta (persisted alongside the index) and the
+ * replaced or removed subjects in the base index are ignored until the next {@link #compact()}
+ *
+ * @author Hector Plahar
+ */
+public class KmerSearchEngine {
+
+    private static final int MATCH = 1;
+    private static final int MISMATCH = -2;
+    private static final int X_DROP = 20;
+    private static final int MAX_OCCURRENCES = 5000;
+    private static final double MAX_E_VALUE = 10;
+    private static final double LAMBDA = 1.28;
+    private static final double K_PARAM = 0.46;
+    private static final String DELTA_FILE = "delta";
+
+    private final Path directory;
+    private volatile KmerIndex index;
+    private volatile Map<String, Integer> indexPartNumbers;
+    private volatile BitSet staleSubjects;
+    private final Map<String, DeltaSubject> delta;
+    private final Set<String> stalePartNumbers;
+
+    /**
+     * @param directory directory for index files. An existing index in the directory is loaded
+     */
+    public KmerSearchEngine(Path directory) {
+        this.directory = directory;
+        this.delta = new ConcurrentHashMap<>();
+        this.stalePartNumbers = ConcurrentHashMap.newKeySet();
+        this.indexPartNumbers = new HashMap<>();
+        this.staleSubjects = new BitSet();
+
+        if (KmerIndex.exists(directory)) {
+            try {
+                setIndex(KmerIndex.load(directory));
+                loadDelta();
+            } catch (IOException e) {
+                Logger.error("Could not load k-mer index in " + directory, e);
+            }
+        }
+    }
+
+    /**
+     * @return true if there is an index available for searches
+     */
+    public boolean exists() {
+        return index != null;
+    }
+
+    /**
+     * @return number of pending changes in the delta since the last rebuild or compaction
+     */
+    public int getPendingChangeCount() {
+        return Math.max(delta.size(), stalePartNumbers.size());
+    }
+
+    /**
+     * Builds a new index from the specified subjects, replacing the existing index and any pending changes
+     *
+     * @param subjects subjects to index
+     * @throws IOException on exception building the index
+     */
+    public synchronized void rebuild(Iterator<KmerSubject> subjects) throws IOException {
+        KmerIndex previous = this.index;
+        KmerIndex rebuilt = KmerIndex.build(directory, subjects);
+        delta.clear();
+        stalePartNumbers.clear();
+        staleSubjects = new BitSet();
+        setIndex(rebuilt);
+        saveDelta();
+
+        // the previous mappings remain readable by searches still using them
+        if (previous != null)
+            previous.close();
+    }
+
+    /**
+     * Folds the pending changes into the base index
+     *
+     * @throws IOException on exception building the index
+     */
+    public synchronized void compact() throws IOException {
+        KmerIndex base = this.index;
+        if (base == null || getPendingChangeCount() == 0)
+            return;
+
+        BitSet stale = staleSubjects;
+        Iterator<DeltaSubject> deltaIterator = new ArrayList<>(delta.values()).iterator();
+        rebuild(new Iterator<KmerSubject>() {
+            private int next = stale.nextClearBit(0);
+
+            @Override
+            public boolean hasNext() {
+                return next < base.size() || deltaIterator.hasNext();
+            }
+
+            @Override
+            public KmerSubject next() {
+                if (next < base.size()) {
+                    int subject = next;
+                    next = stale.nextClearBit(next + 1);
+                    return new KmerSubject(base.getTitle(subject), base.residues(subject));
+                }
+
+                DeltaSubject deltaSubject = deltaIterator.next();
+                return new KmerSubject(deltaSubject.title, deltaSubject.residues);
+            }
+        });
+    }
+
+    /**
+     * Adds or replaces the subject for the specified part number
+     *
+     * @param partNumber part number for the subject
+     * @param subject    subject details
+     * @throws IOException on exception saving the change
+     */
+    public synchronized void put(String partNumber, KmerSubject subject) throws IOException {
+        String key = partNumber.trim().toLowerCase();
+        markStale(key);
+        delta.put(key, new DeltaSubject(subject.getTitle(), subject.getResidues()));
+        saveDelta();
+    }
+
+    /**
+     * Removes the subject for the specified part number
+     *
+     * @param partNumber part number for the subject
+     * @throws IOException on exception saving the change
+     */
+    public synchronized void remove(String partNumber) throws IOException {
+        String key = partNumber.trim().toLowerCase();
+        markStale(key);
+        delta.remove(key);
+        saveDelta();
+    }
+
+    /**
+     * Searches for subjects that match the query sequence on either strand
+     *
+     * @param query              nucleotide query sequence
+     * @param minPercentIdentity minimum percentage identity of a hit
+     * @return best hit for each matching subject, ordered by e-value (lowest first) and then by bit score
+     */
+    public List<KmerHit> search(String query, double minPercentIdentity) {
+        byte[] plus = query.replaceAll("\\s", "").toLowerCase().getBytes(StandardCharsets.US_ASCII);
+        List<KmerHit> hits = new ArrayList<>();
+        if (plus.length < KmerIndex.K)
+            return hits;
+
+        byte[] minus = reverseComplement(plus);
+        KmerIndex base = this.index;
+        BitSet stale = this.staleSubjects;
+        long dbLength = base == null ? 0 : base.getTotalLength();
+        for (DeltaSubject subject : delta.values())
+            dbLength += subject.residues.length;
+
+        // best hit per subject
+        Map<Integer, KmerHit> baseHits = new HashMap<>();
+        Map<DeltaSubject, KmerHit> deltaHits = new HashMap<>();
+
+        for (boolean isPlus : new boolean[]{true, false}) {
+            byte[] q = isPlus ? plus : minus;
+            Map<Long, Integer> extended = new HashMap<>();
+
+            forEachKmer(q, (kmer, queryPosition) -> {
+                if (base != null && base.occurrences(kmer) <= MAX_OCCURRENCES) {
+                    base.forEachPosting(kmer, (subject, subjectPosition) -> {
+                        if (stale.get(subject))
+                            return;
+
+                        long diagonal = ((long) subject << 32) ^ ((subjectPosition - queryPosition) & 0xffffffffL);
+                        Integer end = extended.get(diagonal);
+                        if (end != null && queryPosition < end)
+                            return;
+
+                        int length = base.getLength(subject);
+                        KmerHit hit = extend(q, queryPosition, subjectPosition, length,
+                                position -> base.residue(subject, position), base.getTitle(subject), isPlus);
+                        extended.put(diagonal, hit.getQueryEnd());
+                        keepBest(baseHits, subject, hit);
+                    });
+                }
+
+                for (DeltaSubject subject : delta.values()) {
+                    int[] positions = subject.kmers.get(kmer);
+                    if (positions == null)
+                        continue;
+
+                    for (int subjectPosition : positions) {
+                        KmerHit hit = extend(q, queryPosition, subjectPosition, subject.residues.length,
+                                position -> subject.residues[position % subject.residues.length], subject.title,
+                                isPlus);
+                        keepBest(deltaHits, subject, hit);
+                    }
+                }
+            });
+        }
+
+        List<KmerHit> candidates = new ArrayList<>(baseHits.values());
+        candidates.addAll(deltaHits.values());
+        for (KmerHit candidate : candidates) {
+            KmerHit hit = toQueryCoordinates(candidate, plus.length);
+            double bitScore = (LAMBDA * hit.getScore() - Math.log(K_PARAM)) / Math.log(2);
+            double eValue = (double) plus.length * dbLength * Math.pow(2, -bitScore);
+            if (eValue > MAX_E_VALUE || hit.getPercentIdentity() < minPercentIdentity)
+                continue;
+
+            hit.setStatistics(bitScore, eValue);
+            hits.add(hit);
+        }
+
+        hits.sort(Comparator.comparingDouble(KmerHit::getEValue)
+                .thenComparing(Comparator.comparingDouble(KmerHit::getBitScore).reversed()));
+        return hits;
+    }
+
+    private static <T> void keepBest(Map<T, KmerHit> hits, T key, KmerHit hit) {
+        KmerHit existing = hits.get(key);
+        if (existing == null || existing.getScore() < hit.getScore())
+            hits.put(key, hit);
+    }
+
+    /**
+     * Ungapped x-drop extension of a seed in both directions. Positions are zero-based on the searched strand of
+     * the query and in the circularized (concatenated with itself) subject coordinates
+     */
+    private static KmerHit extend(byte[] query, int queryPosition, int subjectPosition, int subjectLength,
+                                  ResidueReader subject, String title, boolean isPlus) {
+        int subjectLimit = subjectLength * 2;
+
+        // seed
+        int score = 0;
+        int identities = 0;
+        for (int i = 0; i < KmerIndex.K; i += 1) {
+            boolean match = same(query[queryPosition + i], subject.read(subjectPosition + i));
+            score += match ? MATCH : MISMATCH;
+            identities += match ? 1 : 0;
+        }
+
+        // extend right
+        int best = score;
+        int bestIdentities = identities;
+        int right = KmerIndex.K;
+        int bestRight = right;
+        while (queryPosition + right < query.length && subjectPosition + right < subjectLimit
+                && right < subjectLength) {
+            boolean match = same(query[queryPosition + right], subject.read(subjectPosition + right));
+            score += match ? MATCH : MISMATCH;
+            identities += match ? 1 : 0;
+            right += 1;
+            if (score > best) {
+                best = score;
+                bestIdentities = identities;
+                bestRight = right;
+            } else if (best - score > X_DROP) {
+                break;
+            }
+        }
+
+        // extend left
+        score = best;
+        identities = bestIdentities;
+        int left = 0;
+        int bestLeft = 0;
+        while (queryPosition - left > 0 && subjectPosition - left > 0 && bestRight + left < subjectLength) {
+            left += 1;
+            boolean match = same(query[queryPosition - left], subject.read(subjectPosition - left));
+            score += match ? MATCH : MISMATCH;
+            identities += match ? 1 : 0;
+            if (score > best) {
+                best = score;
+                bestIdentities = identities;
+                bestLeft = left;
+            } else if (best - score > X_DROP) {
+                break;
+            }
+        }
+
+        int queryStart = queryPosition - bestLeft;
+        int subjectStart = subjectPosition - bestLeft;
+        int length = bestLeft + bestRight;
+        return new KmerHit(title, queryStart, queryStart + length, subjectStart, subjectStart + length, isPlus,
+                best, length, bestIdentities);
+    }
+
+    /**
+     * Converts a hit in (zero-based, end exclusive) searched strand coordinates to blast style coordinates
+     */
+    private static KmerHit toQueryCoordinates(KmerHit hit, int queryLength) {
+        if (hit.isPlus()) {
+            return new KmerHit(hit.getTitle(), hit.getQueryStart() + 1, hit.getQueryEnd(),
+                    hit.getSubjectStart() + 1, hit.getSubjectEnd(), true, hit.getScore(), hit.getLength(),
+                    hit.getIdentities());
+        }
+
+        return new KmerHit(hit.getTitle(), queryLength - hit.getQueryEnd() + 1, queryLength - hit.getQueryStart(),
+                hit.getSubjectEnd(), hit.getSubjectStart() + 1, false, hit.getScore(), hit.getLength(),
+                hit.getIdentities());
+    }
+
+    private static boolean same(byte a, byte b) {
+        int code = KmerIndex.encode(a);
+        return code >= 0 && code == KmerIndex.encode(b);
+    }
+
+    private static void forEachKmer(byte[] sequence, KmerIndex.PostingConsumer consumer) {
+        int code = 0;
+        int valid = 0;
+        for (int i = 0; i < sequence.length; i += 1) {
+            int value = KmerIndex.encode(sequence[i]);
+            if (value < 0) {
+                valid = 0;
+                code = 0;
+                continue;
+            }
+
+            code = ((code << 2) | value) & KmerIndex.MASK;
+            valid += 1;
+            if (valid >= KmerIndex.K)
+                consumer.accept(code, i - KmerIndex.K + 1);
+        }
+    }
+
+    static byte[] reverseComplement(byte[] sequence) {
+        byte[] result = new byte[sequence.length];
+        for (int i = 0; i < sequence.length; i += 1) {
+            byte c = sequence[sequence.length - 1 - i];
+            switch (c) {
+                case 'a':
+                    result[i] = 't';
+                    break;
+                case 't':
+                case 'u':
+                    result[i] = 'a';
+                    break;
+                case 'c':
+                    result[i] = 'g';
+                    break;
+                case 'g':
+                    result[i] = 'c';
+                    break;
+                default:
+                    result[i] = 'n';
+            }
+        }
+        return result;
+    }
+
+    private void setIndex(KmerIndex index) {
+        Map<String, Integer> partNumbers = new HashMap<>();
+        for (int s = 0; s < index.size(); s += 1) {
+            String partNumber = partNumber(index.getTitle(s));
+            if (partNumber != null)
+                partNumbers.put(partNumber, s);
+        }
+        this.indexPartNumbers = partNumbers;
+        this.index = index;
+    }
+
+    private void markStale(String key) {
+        stalePartNumbers.add(key);
+        Integer subject = indexPartNumbers.get(key);
+        if (subject != null) {
+            BitSet stale = (BitSet) staleSubjects.clone();
+            stale.set(subject);
+            staleSubjects = stale;
+        }
+    }
+
+    /**
+     * @param title subject title (<code>id,type,name,partNumber</code>)
+     * @return lower cased part number in the title or null if the title is not in the expected format
+     */
+    private static String partNumber(String title) {
+        String[] split = title.split(",");
+        if (split.length < 4)
+            return null;
+        return split[split.length - 1].trim().toLowerCase();
+    }
+
+    private void saveDelta() throws IOException {
+        Files.createDirectories(directory);
+        Path tmp = Paths.get(directory.toString(), DELTA_FILE + ".tmp");
+        try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+            out.writeInt(stalePartNumbers.size());
+            for (String partNumber : stalePartNumbers)
+                out.writeUTF(partNumber);
+
+            out.writeInt(delta.size());
+            for (Map.Entry<String, DeltaSubject> entry : delta.entrySet()) {
+                out.writeUTF(entry.getKey());
+                out.writeUTF(entry.getValue().title);
+                out.writeInt(entry.getValue().residues.length);
+                out.write(entry.getValue().residues);
+            }
+        }
+        Files.move(tmp, Paths.get(directory.toString(), DELTA_FILE), StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private void loadDelta() throws IOException {
+        Path path = Paths.get(directory.toString(), DELTA_FILE);
+        if (!Files.exists(path))
+            return;
+
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            int staleCount = in.readInt();
+            for (int i = 0; i < staleCount; i += 1)
+                markStale(in.readUTF());
+
+            int deltaCount = in.readInt();
+            for (int i = 0; i < deltaCount; i += 1) {
+                String key = in.readUTF();
+                String title = in.readUTF();
+                byte[] residues = new byte[in.readInt()];
+                in.readFully(residues);
+                delta.put(key, new DeltaSubject(title, residues));
+            }
+        }
+    }
+
+    private interface ResidueReader {
+        byte read(int position);
+    }
+
+    /**
+     * Subject that has been added or updated since the last rebuild. All k-mers (not just minimizers) are indexed
+     */
+    private static class DeltaSubject {
+        private final String title;
+        private final byte[] residues;
+        private final Map<Integer, int[]> kmers;
+
+        DeltaSubject(String title, byte[] residues) {
+            this.title = title;
+            this.residues = residues;
+            this.kmers = new HashMap<>();
+
+            // circularize so that k-mers spanning the origin are included
+            int extra = Math.min(KmerIndex.K - 1, residues.length);
+            byte[] circular = Arrays.copyOf(residues, residues.length + extra);
+            System.arraycopy(residues, 0, circular, residues.length, extra);
+
+            Map<Integer, List<Integer>> positions = new HashMap<>();
+            forEachKmer(circular, (kmer, position) -> {
+                if (position < residues.length)
+                    positions.computeIfAbsent(kmer, k -> new ArrayList<>()).add(position);
+            });
+            for (Map.Entry<Integer, List<Integer>> entry : positions.entrySet()) {
+                int[] values = new int[entry.getValue().size()];
+                for (int i = 0; i < values.length; i += 1)
+                    values[i] = entry.getValue().get(i);
+                kmers.put(entry.getKey(), values);
+            }
+        }
+    }
+}
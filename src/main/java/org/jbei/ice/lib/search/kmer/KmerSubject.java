@@ -0,0 +1,37 @@
+package org.jbei.ice.lib.search.kmer;
+
+import java.nio.charset.StandardCharsets;
+
+/**
+ * A subject sequence to be indexed for k-mer searches
+ *
+ * @author Hector Plahar
+ */
+public class KmerSubject {
+
+    private final String title;
+    private final byte[] residues;
+
+    /**
+     * @param title    subject title. Uses the same format as the blast fasta headers (without the leading
+     *                 <code>&gt;</code>) so that hits can be processed the same way as blast results
+     * @param sequence subject sequence
+     */
+    public KmerSubject(String title, String sequence) {
+        this.title = title;
+        this.residues = sequence.trim().toLowerCase().getBytes(StandardCharsets.US_ASCII);
+    }
+
+    KmerSubject(String title, byte[] residues) {
+        this.title = title;
+        this.residues = residues;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public byte[] getResidues() {
+        return residues;
+    }
+}
@@ -0,0 +1,130 @@
+package org.jbei.ice.lib.utils;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Compact encodings for the residues of a sequence. DNA sequences consisting only of (lower case)
+ * <code>a</code>, <code>c</code>, <code>g</code> and <code>t</code> are packed into 2 bits per residue; all other
+ * sequences (ambiguous bases, upper case, proteins) are deflate compressed
+ *
+ * @author Hector Plahar
+ */
+public class ResidueCodec {
+
+    public enum Encoding {
+        TWO_BIT,
+        DEFLATE
+    }
+
+    private static final String BASES = "acgt";
+
+    /**
+     * @param residues residues to encode
+     * @return the most compact encoding that can represent the residues exactly
+     */
+    public static Encoding getEncoding(String residues) {
+        for (int i = 0; i < residues.length(); i += 1) {
+            if (BASES.indexOf(residues.charAt(i)) == -1)
+                return Encoding.DEFLATE;
+        }
+        return Encoding.TWO_BIT;
+    }
+
+    /**
+     * Encodes residues
+     *
+     * @param residues residues to encode
+     * @param encoding encoding to use. {@link Encoding#TWO_BIT} requires the residues to consist only of
+     *                 <code>acgt</code>
+     * @return encoded residues
+     * @throws IllegalArgumentException if the residues cannot be represented using the encoding
+     */
+    public static byte[] encode(String residues, Encoding encoding) {
+        if (encoding == Encoding.DEFLATE)
+            return deflate(residues);
+
+        byte[] packed = new byte[(residues.length() + 3) / 4];
+        for (int i = 0; i < residues.length(); i += 1) {
+            int value = BASES.indexOf(residues.charAt(i));
+            if (value == -1)
+                throw new IllegalArgumentException("Cannot pack residue " + residues.charAt(i));
+            packed[i / 4] |= value << (6 - 2 * (i % 4));
+        }
+        return packed;
+    }
+
+    /**
+     * Decodes all the residues
+     *
+     * @param data     encoded residues
+     * @param encoding encoding of the residues
+     * @param length   number of residues
+     * @return residues
+     */
+    public static String decode(byte[] data, Encoding encoding, int length) {
+        StringBuilder builder = new StringBuilder(length);
+        char[] buffer = new char[8192];
+        try (Reader reader = getReader(data, encoding, length)) {
+            int read;
+            while ((read = reader.read(buffer)) != -1)
+                builder.append(buffer, 0, read);
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Could not decode residues", e);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Reader for decoding the residues as they are read, so that the residues are not all held in memory
+     *
+     * @param data     encoded residues
+     * @param encoding encoding of the residues
+     * @param length   number of residues
+     * @return reader for the residues
+     */
+    public static Reader getReader(byte[] data, Encoding encoding, int length) {
+        if (encoding == Encoding.DEFLATE) {
+            InputStream stream = new InflaterInputStream(new ByteArrayInputStream(data));
+            return new InputStreamReader(stream, StandardCharsets.UTF_8);
+        }
+
+        return new Reader() {
+            private int position;
+
+            @Override
+            public int read(char[] buffer, int offset, int count) {
+                if (position >= length)
+                    return -1;
+
+                int read = Math.min(count, length - position);
+                for (int i = 0; i < read; i += 1) {
+                    int value = (data[position / 4] >> (6 - 2 * (position % 4))) & 3;
+                    buffer[offset + i] = BASES.charAt(value);
+                    position += 1;
+                }
+                return read;
+            }
+
+            @Override
+            public void close() {
+            }
+        };
+    }
+
+    private static byte[] deflate(String residues) {
+        ByteArrayOutputStream byteStream = new ByteArrayOutputStream();
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION);
+        try (OutputStream stream = new DeflaterOutputStream(byteStream, deflater)) {
+            stream.write(residues.getBytes(StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new IllegalArgumentException("Could not compress residues", e);
+        } finally {
+            deflater.end();
+        }
+        return byteStream.toByteArray();
+    }
+}
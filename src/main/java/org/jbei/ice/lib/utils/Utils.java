@@ -2,7 +2,7 @@ package org.jbei.ice.lib.utils;
 
 import org.apache.commons.lang3.RandomStringUtils;
 import org.jbei.ice.lib.common.logging.Logger;
-import org.jbei.ice.lib.config.ConfigurationSettings;
+import org.jbei.ice.lib.config.ConfigurationCache;
 import org.jbei.ice.lib.dto.ConfigurationKey;
 
 import java.io.*;
@@ -128,11 +128,7 @@ public class Utils {
     }
 
     public static String getConfigValue(ConfigurationKey key) {
-        ConfigurationSettings controller = new ConfigurationSettings();
-        String value = controller.getPropertyValue(key);
-        if (value != null)
-            return value;
-        return key.getDefaultValue();
+        return ConfigurationCache.getInstance().getValue(key);
     }
 
     public static String getString(InputStream stream) throws IOException {
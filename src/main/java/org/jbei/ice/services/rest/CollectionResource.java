@@ -1,6 +1,7 @@
 package org.jbei.ice.services.rest;
 
 import org.jbei.ice.lib.common.logging.Logger;
+import org.jbei.ice.lib.dto.common.PageCursor;
 import org.jbei.ice.lib.dto.common.Results;
 import org.jbei.ice.lib.dto.entry.PartData;
 import org.jbei.ice.lib.folder.collection.Collection;
@@ -79,7 +80,9 @@ public class CollectionResource extends RestResource {
     }
 
     /**
-     * Retrieve entries by collection type using paging parameters, including a filter
+     * Retrieve entries by collection type using paging parameters, including a filter. If a cursor is specified
+     * (empty for the first page) the offset is ignored and the page following the cursor is retrieved; the results
+     * include the cursor for the next page
      */
     @GET
     @Produces(MediaType.APPLICATION_JSON)
@@ -90,13 +93,19 @@ public class CollectionResource extends RestResource {
                          @DefaultValue("created") @QueryParam("sort") final String sort,
                          @DefaultValue("false") @QueryParam("asc") final boolean asc,
                          @DefaultValue("") @QueryParam("filter") String filter,
-                         @QueryParam("fields") List<String> fields) {
+                         @QueryParam("fields") List<String> fields,
+                         @QueryParam("cursor") String cursor) {
         String userId = requireUserId();
         CollectionType type = CollectionType.valueOf(collectionType.toUpperCase());
         ColumnField sortField = ColumnField.valueOf(sort.toUpperCase());
+        PageCursor pageCursor = getCursor(cursor, sortField, asc);
         log(userId, "retrieving entries for collection " + type);
         CollectionEntries entries = new CollectionEntries(userId, type);
-        Results<PartData> results = entries.getEntries(sortField, asc, offset, limit, filter, fields);
+        Results<PartData> results;
+        if (pageCursor == null)
+            results = entries.getEntries(sortField, asc, offset, limit, filter, fields);
+        else
+            results = entries.getEntries(pageCursor, limit, filter, fields);
         return super.respond(results);
     }
 }
@@ -51,6 +51,32 @@ public class ConfigResource extends RestResource {
         return controller.getSystemVersion(url);
     }
 
+    /**
+     * Retrieves the hit and miss counts of the second-level cache and of the cached API key and partner token
+     * verifications. Requires administrative privileges
+     *
+     * @return cache statistics
+     */
+    @GET
+    @Path("/cache")
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response getCacheStatistics() {
+        String userId = requireUserId();
+        return super.respond(controller.getCacheStatistics(userId));
+    }
+
+    /**
+     * Clears the second-level cache. Requires administrative privileges
+     */
+    @DELETE
+    @Path("/cache")
+    public Response clearCache() {
+        String userId = requireUserId();
+        log(userId, "clearing second-level cache");
+        controller.clearCache(userId);
+        return super.respond(Response.Status.OK);
+    }
+
     /**
      * Retrieves the value for the specified config key
      *
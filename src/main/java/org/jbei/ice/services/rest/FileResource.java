@@ -18,6 +18,7 @@ import org.jbei.ice.lib.entry.Entries;
 import org.jbei.ice.lib.entry.EntriesAsCSV;
 import org.jbei.ice.lib.entry.EntrySelection;
 import org.jbei.ice.lib.entry.attachment.Attachments;
+import org.jbei.ice.lib.entry.sequence.FormattedSequence;
 import org.jbei.ice.lib.entry.sequence.InputStreamWrapper;
 import org.jbei.ice.lib.entry.sequence.PartSequence;
 import org.jbei.ice.lib.entry.sequence.SequenceFormat;
@@ -28,6 +29,7 @@ import org.jbei.ice.lib.net.RemoteSequence;
 import org.jbei.ice.lib.parsers.InvalidFormatParserException;
 import org.jbei.ice.lib.utils.Utils;
 import org.jbei.ice.storage.DAOFactory;
+import org.jbei.ice.storage.hibernate.HibernateUtil;
 import org.jbei.ice.storage.hibernate.dao.ShotgunSequenceDAO;
 import org.jbei.ice.storage.model.ShotgunSequence;
 import org.jbei.ice.storage.model.TraceSequence;
@@ -210,9 +212,22 @@ public class FileResource extends RestResource {
 
             return addHeaders(Response.ok(stream), wrapper.getName());
         } else {
-            InputStreamWrapper wrapper = new PartSequence(userId, partId).toFile(SequenceFormat.fromString(downloadType));
-            StreamingOutput stream = output -> IOUtils.copy(wrapper.getInputStream(), output);
-            return addHeaders(Response.ok(stream), wrapper.getName());
+            FormattedSequence sequence = new PartSequence(userId, partId).toStream(SequenceFormat.fromString(downloadType));
+            if (sequence == null)
+                return super.respond(Response.Status.NOT_FOUND);
+
+            StreamingOutput stream = output -> {
+                // response filter has already committed the request transaction
+                HibernateUtil.beginTransaction();
+                try {
+                    sequence.write(output);
+                    HibernateUtil.commitTransaction();
+                } catch (IOException | RuntimeException e) {
+                    HibernateUtil.rollbackTransaction();
+                    throw e;
+                }
+            };
+            return addHeaders(Response.ok(stream), sequence.getName());
         }
     }
 
@@ -5,6 +5,7 @@ import org.jbei.ice.lib.access.PermissionException;
 import org.jbei.ice.lib.access.PermissionsController;
 import org.jbei.ice.lib.common.logging.Logger;
 import org.jbei.ice.lib.dto.access.AccessPermission;
+import org.jbei.ice.lib.dto.common.PageCursor;
 import org.jbei.ice.lib.dto.common.PageParameters;
 import org.jbei.ice.lib.dto.folder.FolderDetails;
 import org.jbei.ice.lib.dto.folder.FolderType;
@@ -21,6 +22,7 @@ import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Date;
 import java.util.List;
 
 /**
@@ -204,9 +206,10 @@ public class FolderResource extends RestResource {
 
     /**
      * Retrieves the entries for specified folder. Handles request
-     * from a local client (ui) or from a remote ice instance
+     * from a local client (ui) or from a remote ice instance. If a cursor is specified (empty for the first page)
+     * the offset is ignored and the entries following the cursor are retrieved
      *
-     * @return list of retrieved entries wrapped in folder object
+     * @return list of retrieved entries wrapped in folder object, along with the cursor for the next page
      */
     @GET
     @Produces(MediaType.APPLICATION_JSON)
@@ -219,13 +222,19 @@ public class FolderResource extends RestResource {
                               @DefaultValue("") @QueryParam("filter") String filter,
                               @QueryParam("token") String token,                            // todo: move to headers
                               @QueryParam("userId") String remoteUserId,                    // todo : ditto
-                              @QueryParam("fields") List<String> fields) {
+                              @QueryParam("fields") List<String> fields,
+                              @DefaultValue("0") @QueryParam("modifiedSince") long modifiedSince,
+                              @QueryParam("cursor") String cursor) {
         final ColumnField field = ColumnField.valueOf(sort.toUpperCase());
+        final PageCursor pageCursor = getCursor(cursor, field, asc);
         if (folderId.equalsIgnoreCase("public")) {                              // todo : move to separate rest resource path
             RegistryPartner registryPartner = requireWebPartner();
             // return public entries
             log(registryPartner.getUrl(), "requesting public entries");
-            return this.controller.getPublicEntries(field, offset, limit, asc, fields);
+            Date modifiedAfter = modifiedSince > 0 ? new Date(modifiedSince) : null;
+            if (pageCursor != null)
+                return this.controller.getPublicEntries(pageCursor, limit, fields, modifiedAfter);
+            return this.controller.getPublicEntries(field, offset, limit, asc, fields, modifiedAfter);
         }
 
         // userId can be empty for public folders
@@ -237,6 +246,7 @@ public class FolderResource extends RestResource {
                 message += " filtered by \"" + filter + "\"";
             FolderContents folderContents = new FolderContents();
             PageParameters pageParameters = new PageParameters(offset, limit, field, asc, filter);
+            pageParameters.setCursor(pageCursor);
 
             if (StringUtils.isEmpty(userId)) {
                 if (StringUtils.isEmpty(token)) {  // todo :verify partner? {
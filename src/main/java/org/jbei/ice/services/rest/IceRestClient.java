@@ -3,6 +3,7 @@ package org.jbei.ice.services.rest;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.glassfish.jersey.client.ClientConfig;
+import org.glassfish.jersey.client.ClientProperties;
 import org.glassfish.jersey.media.multipart.FormDataMultiPart;
 import org.glassfish.jersey.media.multipart.MultiPartFeature;
 import org.jbei.ice.lib.common.logging.Logger;
@@ -10,12 +11,15 @@ import org.jbei.ice.lib.dto.ConfigurationKey;
 import org.jbei.ice.lib.dto.entry.EntryType;
 import org.jbei.ice.lib.utils.Utils;
 
+import javax.ws.rs.client.Client;
 import javax.ws.rs.client.ClientBuilder;
 import javax.ws.rs.client.Entity;
 import javax.ws.rs.client.Invocation;
 import javax.ws.rs.client.WebTarget;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
 
 /**
  * ICE REST client
@@ -28,12 +32,7 @@ public class IceRestClient extends RestClient {
     private String token;
 
     public IceRestClient(String url) {
-        ClientConfig clientConfig = new ClientConfig();
-        clientConfig.register(IceRequestFilter.class);
-        clientConfig.register(PartDataJSONHandler.class);
-        clientConfig.register(ArrayDataJSONHandler.class);
-        clientConfig.register(MultiPartFeature.class);
-        target = ClientBuilder.newClient(clientConfig).target("https://" + url);
+        this(ClientBuilder.newClient(createConfig()), url, null);
     }
 
     public IceRestClient(String url, String token) {
@@ -41,6 +40,41 @@ public class IceRestClient extends RestClient {
         this.token = token;
     }
 
+    /**
+     * Creates a rest client that sends requests using the specified (shared) client
+     *
+     * @param client client to use. See {@link #createClient(ExecutorService)}
+     * @param url    url of the ICE instance
+     * @param token  api token for the web of registries, or null
+     */
+    public IceRestClient(Client client, String url, String token) {
+        target = client.target("https://" + url);
+        this.token = token;
+    }
+
+    /**
+     * Creates a client that can be shared by rest clients, for asynchronous requests. Timeouts are set for each
+     * request (see {@link #postAsync(String, Object, Class, long)})
+     *
+     * @param executorService executor service used to run (and complete) the asynchronous requests
+     * @return client
+     */
+    public static Client createClient(ExecutorService executorService) {
+        return ClientBuilder.newBuilder()
+                .withConfig(createConfig())
+                .executorService(executorService)
+                .build();
+    }
+
+    private static ClientConfig createConfig() {
+        ClientConfig clientConfig = new ClientConfig();
+        clientConfig.register(IceRequestFilter.class);
+        clientConfig.register(PartDataJSONHandler.class);
+        clientConfig.register(ArrayDataJSONHandler.class);
+        clientConfig.register(MultiPartFeature.class);
+        return clientConfig;
+    }
+
     public void queryParam(String name, Object... values) {
         target = target.queryParam(name, values);
     }
@@ -62,6 +96,32 @@ public class IceRestClient extends RestClient {
         return null;
     }
 
+    /**
+     * Asynchronous version of {@link #post(String, Object, Class)}. The returned future completes with null if the
+     * response does not have a status of OK, and exceptionally if the request fails or times out
+     *
+     * @param timeout connect and read timeout, in milliseconds, for this request. The request (and the thread
+     *                running it) is released once this elapses without a response
+     */
+    public <T> CompletableFuture<T> postAsync(String path, Object object, Class<T> responseClass, long timeout) {
+        int timeoutMillis = (int) Math.max(1, Math.min(Integer.MAX_VALUE, timeout));
+        Invocation.Builder invocationBuilder = target.path(path).request(MediaType.APPLICATION_JSON_TYPE)
+                .property(ClientProperties.CONNECT_TIMEOUT, timeoutMillis)
+                .property(ClientProperties.READ_TIMEOUT, timeoutMillis);
+        setHeaders(invocationBuilder);
+        return invocationBuilder.rx()
+                .post(Entity.entity(object, MediaType.APPLICATION_JSON_TYPE))
+                .thenApply(response -> {
+                    try {
+                        if (response.hasEntity() && response.getStatus() == Response.Status.OK.getStatusCode())
+                            return response.readEntity(responseClass);
+                        return null;
+                    } finally {
+                        response.close();
+                    }
+                }).toCompletableFuture();
+    }
+
     @Override
     public <T> T put(String path, Object object, Class<T> responseClass) {
         Invocation.Builder invocationBuilder = target.path(path).request(MediaType.APPLICATION_JSON_TYPE);
@@ -6,7 +6,9 @@ import org.jbei.ice.lib.access.PermissionException;
 import org.jbei.ice.lib.access.TokenVerification;
 import org.jbei.ice.lib.account.UserSessions;
 import org.jbei.ice.lib.common.logging.Logger;
+import org.jbei.ice.lib.dto.common.PageCursor;
 import org.jbei.ice.lib.dto.web.RegistryPartner;
+import org.jbei.ice.lib.shared.ColumnField;
 
 import javax.servlet.http.HttpServletRequest;
 import javax.ws.rs.HeaderParam;
@@ -230,6 +232,29 @@ public class RestResource {
         return Response.status(Response.Status.INTERNAL_SERVER_ERROR).build();
     }
 
+    /**
+     * Creates the cursor for paging a list of results using the cursor parameter in a request
+     *
+     * @param cursor    cursor token from request. An empty token requests the first page
+     * @param sortField sort field for the first page
+     * @param asc       sort order for the first page
+     * @return cursor for page, or null if no cursor token was specified (page using offset)
+     * @throws WebApplicationException with bad request status if the cursor token is not valid
+     */
+    protected PageCursor getCursor(String cursor, ColumnField sortField, boolean asc) {
+        if (cursor == null)
+            return null;
+
+        if (cursor.trim().isEmpty())
+            return PageCursor.first(sortField, asc);
+
+        try {
+            return PageCursor.decode(cursor);
+        } catch (IllegalArgumentException e) {
+            throw new WebApplicationException(e.getMessage(), Response.Status.BAD_REQUEST);
+        }
+    }
+
     /**
      * Used to log user actions
      *
@@ -0,0 +1,32 @@
+package org.jbei.ice.services.rest;
+
+import org.jbei.ice.lib.executor.Tasks;
+
+import javax.ws.rs.GET;
+import javax.ws.rs.Path;
+import javax.ws.rs.Produces;
+import javax.ws.rs.core.MediaType;
+import javax.ws.rs.core.Response;
+
+/**
+ * REST resource for monitoring background tasks
+ *
+ * @author Hector Plahar
+ */
+@Path("/tasks")
+public class TaskResource extends RestResource {
+
+    /**
+     * Retrieves the tasks (with their status and timings) that are queued, running or have recently finished
+     * running. Requires administrative privileges
+     *
+     * @return list of tasks
+     */
+    @GET
+    @Produces(MediaType.APPLICATION_JSON)
+    public Response get() {
+        String userId = requireUserId();
+        Tasks tasks = new Tasks(userId);
+        return super.respond(tasks.get());
+    }
+}
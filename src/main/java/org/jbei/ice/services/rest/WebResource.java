@@ -1,5 +1,7 @@
 package org.jbei.ice.services.rest;
 
+import com.google.gson.Gson;
+import com.google.gson.GsonBuilder;
 import org.jbei.ice.lib.common.logging.Logger;
 import org.jbei.ice.lib.dto.ConfigurationKey;
 import org.jbei.ice.lib.dto.FeaturedDNASequence;
@@ -14,14 +16,18 @@ import org.jbei.ice.lib.net.RemoteContact;
 import org.jbei.ice.lib.net.RemoteEntries;
 import org.jbei.ice.lib.net.RemoteEntriesAsCSV;
 import org.jbei.ice.lib.net.WoRController;
+import org.jbei.ice.lib.search.WebResult;
 import org.jbei.ice.lib.search.WebSearch;
 import org.jbei.ice.storage.DAOFactory;
+import org.jbei.ice.storage.hibernate.HibernateUtil;
 import org.jbei.ice.storage.model.Configuration;
 
 import javax.ws.rs.*;
 import javax.ws.rs.core.MediaType;
 import javax.ws.rs.core.Response;
-import java.io.File;
+import javax.ws.rs.core.StreamingOutput;
+import java.io.*;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 /**
@@ -183,12 +189,54 @@ public class WebResource extends RestResource {
     @Consumes(MediaType.APPLICATION_JSON)
     @Path("/entries")
     public Response searchWebEntries(final SearchQuery query,
-                                     @DefaultValue("true") @QueryParam("includeLocal") boolean includeLocal) {
+                                     @DefaultValue("true") @QueryParam("includeLocal") boolean includeLocal,
+                                     @DefaultValue("false") @QueryParam("live") boolean live) {
         requireUserId();
-        WebSearch webSearch = new WebSearch();
+        WebSearch webSearch = new WebSearch(live);
         return super.respond(webSearch.run(query, includeLocal));
     }
 
+    /**
+     * Streaming version of {@link #searchWebEntries(SearchQuery, boolean, boolean)}. The results from each registry are
+     * written (one {@link WebResult} JSON object per line) as soon as they are received, instead of waiting for
+     * the slowest registry
+     */
+    @POST
+    @Produces("application/x-ndjson")
+    @Consumes(MediaType.APPLICATION_JSON)
+    @Path("/entries/stream")
+    public Response streamWebEntries(final SearchQuery query,
+                                     @DefaultValue("true") @QueryParam("includeLocal") boolean includeLocal,
+                                     @DefaultValue("false") @QueryParam("live") boolean live) {
+        requireUserId();
+        StreamingOutput stream = output -> {
+            final Gson gson = new GsonBuilder().create();
+            final Writer writer = new OutputStreamWriter(output, StandardCharsets.UTF_8);
+
+            // response filter has already committed the request transaction
+            HibernateUtil.beginTransaction();
+            try {
+                new WebSearch(live).run(query, includeLocal, result -> {
+                    try {
+                        gson.toJson(result, writer);
+                        writer.write('\n');
+                        writer.flush();
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+                HibernateUtil.commitTransaction();
+            } catch (UncheckedIOException e) {
+                HibernateUtil.rollbackTransaction();
+                throw e.getCause();
+            } catch (RuntimeException e) {
+                HibernateUtil.rollbackTransaction();
+                throw e;
+            }
+        };
+        return Response.ok(stream).build();
+    }
+
     @GET
     @Produces(MediaType.APPLICATION_JSON)
     @Consumes(MediaType.APPLICATION_JSON)
@@ -2,8 +2,15 @@ package org.jbei.ice.servlet;
 
 import org.hibernate.SessionFactory;
 import org.jbei.ice.ApplicationInitialize;
+import org.jbei.ice.lib.account.SessionReaperTask;
 import org.jbei.ice.lib.common.logging.Logger;
+import org.jbei.ice.lib.config.ConfigurationRefreshTask;
+import org.jbei.ice.lib.entry.sequence.PackedSequenceCleanupTask;
+import org.jbei.ice.lib.entry.sequence.annotation.AutoAnnotationBuildTask;
 import org.jbei.ice.lib.executor.IceExecutorService;
+import org.jbei.ice.lib.executor.TaskQueue;
+import org.jbei.ice.lib.net.PartnerIndexTask;
+import org.jbei.ice.lib.search.blast.StandardBlastDatabase;
 import org.jbei.ice.storage.hibernate.HibernateUtil;
 
 import javax.servlet.ServletContextEvent;
@@ -28,8 +35,16 @@ public class IceServletContextListener implements ServletContextListener {
     public void contextDestroyed(ServletContextEvent event) {
         Logger.info("Destroying Servlet Context");
 
-        // shutdown executor service
+        // shutdown executor service and return unfinished tasks to the persistent queue
+        TaskQueue.getInstance().stop();
         IceExecutorService.getInstance().stopService();
+        TaskQueue.getInstance().releaseLeases();
+        PartnerIndexTask.cancel();
+        SessionReaperTask.cancel();
+        PackedSequenceCleanupTask.cancel();
+        AutoAnnotationBuildTask.cancel();
+        ConfigurationRefreshTask.cancel();
+        StandardBlastDatabase.cancel();
 
         closeSessionFactory(HibernateUtil.getSessionFactory());
 
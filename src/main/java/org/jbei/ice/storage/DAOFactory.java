@@ -41,6 +41,9 @@ public class DAOFactory {
     private static CustomEntryFieldDAO customEntryFieldDAO;
     private static CustomEntryFieldValueDAO customEntryFieldValueDAO;
     private static SampleCreateModelDAO sampleCreateModelDAO;
+    private static QueuedTaskDAO queuedTaskDAO;
+    private static UserSessionDAO userSessionDAO;
+    private static EntryAccessDAO entryAccessDAO;
 
     public static AccountDAO getAccountDAO() {
         if (accountDAO == null)
@@ -245,4 +248,22 @@ public class DAOFactory {
             sampleCreateModelDAO = new SampleCreateModelDAO();
         return sampleCreateModelDAO;
     }
+
+    public static QueuedTaskDAO getQueuedTaskDAO() {
+        if (queuedTaskDAO == null)
+            queuedTaskDAO = new QueuedTaskDAO();
+        return queuedTaskDAO;
+    }
+
+    public static UserSessionDAO getUserSessionDAO() {
+        if (userSessionDAO == null)
+            userSessionDAO = new UserSessionDAO();
+        return userSessionDAO;
+    }
+
+    public static EntryAccessDAO getEntryAccessDAO() {
+        if (entryAccessDAO == null)
+            entryAccessDAO = new EntryAccessDAO();
+        return entryAccessDAO;
+    }
 }
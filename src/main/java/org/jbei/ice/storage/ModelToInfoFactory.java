@@ -10,10 +10,7 @@ import org.jbei.ice.storage.model.*;
 
 import java.text.DateFormat;
 import java.text.SimpleDateFormat;
-import java.util.ArrayList;
-import java.util.HashSet;
-import java.util.List;
-import java.util.Set;
+import java.util.*;
 
 /**
  * Factory for converting {@link Entry}s to a {@link org.jbei.ice.lib.dto.entry.PartData}
@@ -259,6 +256,60 @@ public class ModelToInfoFactory {
 
 
     public static PartData createTableView(long entryId, List<String> fields) {
+        Entry entry = DAOFactory.getEntryDAO().get(entryId);
+
+        // has sample
+        boolean hasSample = DAOFactory.getSampleDAO().hasSample(entry);
+
+        // has sequence
+        boolean hasSequence = false;
+        boolean hasOriginalSequence = false;
+        if (Visibility.valueToEnum(entry.getVisibility()) != Visibility.REMOTE) {
+            SequenceDAO sequenceDAO = DAOFactory.getSequenceDAO();
+            hasSequence = sequenceDAO.hasSequence(entry.getId());
+            hasOriginalSequence = sequenceDAO.hasOriginalSequence(entry.getId());
+        }
+
+        return createTableView(entry, getTableViewFields(fields), hasSample, hasSequence, hasOriginalSequence);
+    }
+
+    /**
+     * Creates the table views for a page of entries. The entries and their sample and sequence flags are retrieved
+     * using a fixed number of queries regardless of the number of entries.
+     *
+     * @param entryIds unique identifiers for entries
+     * @param fields   optional fields to include in addition to the default
+     * @return list of table views in the same order as the entry identifiers. Entries that cannot be retrieved
+     * are skipped
+     */
+    public static List<PartData> createTableViews(List<Long> entryIds, List<String> fields) {
+        List<PartData> views = new ArrayList<>(entryIds.size());
+        if (entryIds.isEmpty())
+            return views;
+
+        Map<Long, Entry> entries = new HashMap<>();
+        for (Entry entry : DAOFactory.getEntryDAO().getEntriesByIdSet(entryIds)) {
+            entries.put(entry.getId(), entry);
+        }
+
+        Set<Long> withSamples = DAOFactory.getSampleDAO().getEntryIdsWithSamples(entryIds);
+        SequenceDAO sequenceDAO = DAOFactory.getSequenceDAO();
+        Set<Long> withSequence = sequenceDAO.getEntryIdsWithSequence(entryIds);
+        Set<Long> withOriginalSequence = sequenceDAO.getEntryIdsWithOriginalSequence(entryIds);
+
+        Set<String> fieldsToProcess = getTableViewFields(fields);
+        for (Long entryId : entryIds) {
+            Entry entry = entries.get(entryId);
+            if (entry == null)
+                continue;
+
+            views.add(createTableView(entry, fieldsToProcess, withSamples.contains(entryId),
+                    withSequence.contains(entryId), withOriginalSequence.contains(entryId)));
+        }
+        return views;
+    }
+
+    private static Set<String> getTableViewFields(List<String> fields) {
         Set<String> fieldsToProcess;
         if (fields == null)
             fieldsToProcess = new HashSet<>();
@@ -270,9 +321,12 @@ public class ModelToInfoFactory {
         fieldsToProcess.add("recordType");
         fieldsToProcess.add("creation_time");
         fieldsToProcess.add("short_description");
+        return fieldsToProcess;
+    }
 
+    private static PartData createTableView(Entry entry, Set<String> fieldsToProcess, boolean hasSample,
+                                            boolean hasSequence, boolean hasOriginalSequence) {
         // minimum set of values
-        Entry entry = DAOFactory.getEntryDAO().get(entryId);
         EntryType type = EntryType.nameToType(entry.getRecordType());
         PartData view = new PartData(type);
         view.setId(entry.getId());
@@ -281,20 +335,21 @@ public class ModelToInfoFactory {
         view.setName(entry.getName());
         view.setShortDescription(entry.getShortDescription());
         view.setCreationTime(entry.getCreationTime().getTime());
+        if (entry.getModificationTime() != null)
+            view.setModificationTime(entry.getModificationTime().getTime());
         view.setStatus(entry.getStatus());
         view.setShortDescription(entry.getShortDescription());
 
         // has sample
-        view.setHasSample(DAOFactory.getSampleDAO().hasSample(entry));
+        view.setHasSample(hasSample);
 
         // has sequence
         Visibility visibility = Visibility.valueToEnum(entry.getVisibility());
         if (visibility == Visibility.REMOTE) {
             view.setHasSequence(entry.getLongDescriptionType().equalsIgnoreCase("sequence"));
         } else {
-            SequenceDAO sequenceDAO = DAOFactory.getSequenceDAO();
-            view.setHasSequence(sequenceDAO.hasSequence(entry.getId()));
-            view.setHasOriginalSequence(sequenceDAO.hasOriginalSequence(entry.getId()));
+            view.setHasSequence(hasSequence);
+            view.setHasOriginalSequence(hasOriginalSequence);
         }
 
         // optional values
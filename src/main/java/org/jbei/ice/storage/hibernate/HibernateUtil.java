@@ -3,9 +3,15 @@ package org.jbei.ice.storage.hibernate;
 import org.hibernate.Session;
 import org.hibernate.SessionFactory;
 import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.hibernate.boot.spi.SessionFactoryOptions;
+import org.hibernate.cfg.AvailableSettings;
 import org.hibernate.cfg.Configuration;
 import org.hibernate.service.ServiceRegistry;
+import org.hibernate.stat.CacheRegionStatistics;
+import org.hibernate.stat.Statistics;
 import org.jbei.ice.lib.common.logging.Logger;
+import org.jbei.ice.lib.dto.CacheRegionInfo;
+import org.jbei.ice.lib.dto.CacheStatistics;
 import org.jbei.ice.storage.model.*;
 
 /**
@@ -99,6 +105,14 @@ public class HibernateUtil {
                     getConnectionProperties(configuration);
                 }
 
+                // statistics add overhead to every session so (unless set explicitly) they are only collected
+                // for the cache hit and miss counts when the second-level cache is enabled
+                if (configuration.getProperty(AvailableSettings.GENERATE_STATISTICS) == null) {
+                    boolean cacheEnabled = Boolean.parseBoolean(
+                            configuration.getProperty(AvailableSettings.USE_SECOND_LEVEL_CACHE));
+                    configuration.setProperty(AvailableSettings.GENERATE_STATISTICS, Boolean.toString(cacheEnabled));
+                }
+
                 ServiceRegistry serviceRegistry = new StandardServiceRegistryBuilder().applySettings(
                         configuration.getProperties()).build();
 
@@ -147,6 +161,10 @@ public class HibernateUtil {
                 configuration.addAnnotatedClass(CustomEntryFieldValueModel.class);
                 configuration.addAnnotatedClass(SequenceHistoryModel.class);
                 configuration.addAnnotatedClass(SampleCreateModel.class);
+                configuration.addAnnotatedClass(QueuedTaskModel.class);
+                configuration.addAnnotatedClass(PackedSequence.class);
+                configuration.addAnnotatedClass(UserSessionModel.class);
+                configuration.addAnnotatedClass(EntryAccessModel.class);
 
                 sessionFactory = configuration.buildSessionFactory(serviceRegistry);
             } catch (Throwable e) {
@@ -168,6 +186,43 @@ public class HibernateUtil {
         return sessionFactory;
     }
 
+    /**
+     * Retrieves the hit and miss counts of the second-level and query caches. Counts are only collected when
+     * <code>hibernate.generate_statistics</code> is enabled, which by default follows
+     * <code>hibernate.cache.use_second_level_cache</code>
+     *
+     * @return cache statistics
+     */
+    public static CacheStatistics getCacheStatistics() {
+        SessionFactoryOptions options = getSessionFactory().getSessionFactoryOptions();
+        Statistics statistics = getSessionFactory().getStatistics();
+
+        CacheStatistics cacheStatistics = new CacheStatistics();
+        cacheStatistics.setEnabled(options.isSecondLevelCacheEnabled());
+        cacheStatistics.setQueryCacheEnabled(options.isQueryCacheEnabled());
+        cacheStatistics.setQueryCacheHitCount(statistics.getQueryCacheHitCount());
+        cacheStatistics.setQueryCacheMissCount(statistics.getQueryCacheMissCount());
+        cacheStatistics.setQueryCachePutCount(statistics.getQueryCachePutCount());
+
+        for (String name : statistics.getSecondLevelCacheRegionNames()) {
+            CacheRegionStatistics region = statistics.getCacheRegionStatistics(name);
+            if (region == null)
+                continue;
+
+            cacheStatistics.getRegions().add(new CacheRegionInfo(name, region.getHitCount(), region.getMissCount(),
+                    region.getPutCount(), region.getElementCountInMemory()));
+        }
+        return cacheStatistics;
+    }
+
+    /**
+     * Evicts all entries from the second-level and query caches and resets the statistics
+     */
+    public static void clearCache() {
+        getSessionFactory().getCache().evictAllRegions();
+        getSessionFactory().getStatistics().clear();
+    }
+
     public static void close() {
         currentSession().disconnect();
         if (sessionFactory != null && !sessionFactory.isClosed()) {
@@ -0,0 +1,105 @@
+package org.jbei.ice.storage.hibernate;
+
+import org.hibernate.HibernateException;
+import org.hibernate.Session;
+import org.hibernate.dialect.Dialect;
+import org.hibernate.dialect.PostgreSQL81Dialect;
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.jbei.ice.lib.common.logging.Logger;
+
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * Trigram (<code>pg_trgm</code>) indexes for the text columns that are filtered using case insensitive substring
+ * matches (<code>lower(column) like '%text%'</code>). These matches cannot use regular (b-tree) indexes, so without
+ * the trigram indexes each filter scans the table.
+ * <p>
+ * The indexes are only created when the database is PostgreSQL and the extension is available. Other databases
+ * (e.g. H2, which is used for tests) run the same filters without them
+ *
+ * @author Hector Plahar
+ */
+public class TrigramIndexes {
+
+    private static final String SUFFIX = "_trgm_idx";
+
+    // table and column for each index. short_description is only filtered on (along with the other entry columns)
+    // by the folder contents filter, which needs an index on each of the columns to avoid scanning the table
+    private static final String[][] COLUMNS = {
+            {"entries", "name"},
+            {"entries", "alias"},
+            {"entries", "part_number"},
+            {"entries", "short_description"},
+            {"features", "name"}
+    };
+
+    /**
+     * @return true if the database supports trigram indexes
+     */
+    public static boolean isSupported() {
+        Dialect dialect = HibernateUtil.getSessionFactory().unwrap(SessionFactoryImplementor.class)
+                .getJdbcServices().getDialect();
+        return dialect instanceof PostgreSQL81Dialect;
+    }
+
+    /**
+     * Creates the trigram indexes that do not exist (and the extension if it has not been created). The indexes are
+     * built concurrently so that writes to the tables are not blocked while they are built. This can take a while
+     * on large tables so this is expected to be run in the background. An index left invalid by a failed
+     * concurrent build is dropped and built again
+     */
+    public static void create() {
+        if (!isSupported()) {
+            Logger.info("Database does not support trigram indexes. Text filters will not be indexed");
+            return;
+        }
+
+        Session session = HibernateUtil.newSession();
+        try {
+            session.doWork(connection -> {
+                boolean autoCommit = connection.getAutoCommit();
+                connection.setAutoCommit(true);
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("CREATE EXTENSION IF NOT EXISTS pg_trgm");
+
+                    Set<String> existing = new HashSet<>();
+                    Set<String> invalid = new HashSet<>();
+                    try (ResultSet resultSet = statement.executeQuery("SELECT c.relname, i.indisvalid FROM pg_index i "
+                            + "JOIN pg_class c ON c.oid = i.indexrelid WHERE c.relname LIKE '%" + SUFFIX + "'")) {
+                        while (resultSet.next()) {
+                            if (resultSet.getBoolean(2))
+                                existing.add(resultSet.getString(1));
+                            else
+                                invalid.add(resultSet.getString(1));
+                        }
+                    }
+
+                    for (String[] column : COLUMNS) {
+                        String name = column[0] + "_" + column[1] + SUFFIX;
+                        if (existing.contains(name))
+                            continue;
+
+                        if (invalid.contains(name)) {
+                            Logger.info("Dropping invalid trigram index " + name);
+                            statement.execute("DROP INDEX CONCURRENTLY IF EXISTS " + name);
+                        }
+
+                        // concurrent builds cannot run in a transaction block, hence the auto commit
+                        Logger.info("Creating trigram index " + name);
+                        statement.execute("CREATE INDEX CONCURRENTLY IF NOT EXISTS " + name + " ON " + column[0]
+                                + " USING gin (lower(" + column[1] + ") gin_trgm_ops)");
+                    }
+                } finally {
+                    connection.setAutoCommit(autoCommit);
+                }
+            });
+        } catch (HibernateException e) {
+            Logger.warn("Could not create trigram indexes: " + e.getMessage());
+        } finally {
+            session.close();
+        }
+    }
+}
@@ -76,7 +76,7 @@ public class AccountDAO extends HibernateRepository<Account> {
             CriteriaQuery<Account> query = getBuilder().createQuery(Account.class);
             Root<Account> from = query.from(Account.class);
             query.where(getBuilder().equal(getBuilder().lower(from.get("email")), email.trim().toLowerCase()));
-            return currentSession().createQuery(query).uniqueResult();
+            return currentSession().createQuery(query).setCacheable(true).uniqueResult();
         } catch (HibernateException e) {
             Logger.error(e);
             throw new DAOException("Failed to retrieve Account by email: " + email, e);
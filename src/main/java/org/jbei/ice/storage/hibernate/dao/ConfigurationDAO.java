@@ -9,6 +9,7 @@ import org.jbei.ice.storage.model.Configuration;
 
 import javax.persistence.criteria.CriteriaQuery;
 import javax.persistence.criteria.Root;
+import java.util.List;
 
 /**
  * Manage {@link Configuration} objects in the database.
@@ -38,11 +39,27 @@ public class ConfigurationDAO extends HibernateRepository<Configuration> {
             CriteriaQuery<Configuration> query = getBuilder().createQuery(Configuration.class);
             Root<Configuration> root = query.from(Configuration.class);
             query.where(getBuilder().equal(root.get("key"), key));
-            return currentSession().createQuery(query).uniqueResult();
+            return currentSession().createQuery(query).setCacheable(true).uniqueResult();
         } catch (HibernateException e) {
             Logger.error(e);
             throw new DAOException("Failed to get Configuration using key: " + key, e);
         }
     }
-}
 
+    /**
+     * Retrieves all the stored configuration values
+     *
+     * @return list of configuration objects
+     * @throws DAOException on Hibernate Exception
+     */
+    public List<Configuration> getAll() {
+        try {
+            CriteriaQuery<Configuration> query = getBuilder().createQuery(Configuration.class);
+            query.from(Configuration.class);
+            return currentSession().createQuery(query).list();
+        } catch (HibernateException he) {
+            Logger.error(he);
+            throw new DAOException(he);
+        }
+    }
+}
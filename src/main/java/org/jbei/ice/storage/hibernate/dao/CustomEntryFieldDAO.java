@@ -24,7 +24,7 @@ public class CustomEntryFieldDAO extends HibernateRepository<CustomEntryFieldMod
         else
             query.where(getBuilder().equal(from.get("entryType"), type), getBuilder().equal(from.get("disabled"), false));
 
-        return currentSession().createQuery(query).list();
+        return currentSession().createQuery(query).setCacheable(true).list();
     }
 
     /**
@@ -39,6 +39,6 @@ public class CustomEntryFieldDAO extends HibernateRepository<CustomEntryFieldMod
         CriteriaQuery<CustomEntryFieldModel> query = getBuilder().createQuery(CustomEntryFieldModel.class);
         Root<CustomEntryFieldModel> from = query.from(CustomEntryFieldModel.class);
         query.where(getBuilder().equal(from.get("entryType"), type), getBuilder().equal(from.get("label"), label));
-        return currentSession().createQuery(query).uniqueResultOptional();
+        return currentSession().createQuery(query).setCacheable(true).uniqueResultOptional();
     }
 }
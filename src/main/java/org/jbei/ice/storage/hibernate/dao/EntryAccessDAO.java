@@ -0,0 +1,421 @@
+package org.jbei.ice.storage.hibernate.dao;
+
+import org.hibernate.HibernateException;
+import org.hibernate.Session;
+import org.jbei.ice.lib.common.logging.Logger;
+import org.jbei.ice.lib.dto.entry.Visibility;
+import org.jbei.ice.lib.dto.folder.FolderType;
+import org.jbei.ice.lib.group.GroupController;
+import org.jbei.ice.storage.DAOException;
+import org.jbei.ice.storage.hibernate.HibernateRepository;
+import org.jbei.ice.storage.model.*;
+
+import javax.persistence.criteria.*;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Data accessor object for the effective access of accounts and groups to entries ({@link EntryAccessModel}).
+ * <p>
+ * The rows are derived from the permission and folder tables; {@link PermissionDAO} and {@link FolderDAO} keep them
+ * up to date as permissions and folder contents change, and {@link #rebuild()} derives them all
+ *
+ * @author Hector Plahar
+ */
+public class EntryAccessDAO extends HibernateRepository<EntryAccessModel> {
+
+    // maximum number of ids in a single IN query
+    private static final int BATCH_SIZE = 500;
+
+    private static final String ACCESS = EntryAccessModel.class.getName();
+
+    // permissions that grant access to a principal (excludes remote shares)
+    private static final String GRANTS = "(p.canRead = true or p.canWrite = true) "
+            + "and (p.account is not null or p.group is not null)";
+
+    private static final String INSERT_ENTRY_PERMISSIONS = "insert into " + ACCESS
+            + " (entryId, accountId, groupId, canWrite, permissionId)"
+            + " select p.entry.id, p.account.id, p.group.id, p.canWrite, p.id from " + Permission.class.getName() + " p"
+            + " where p.entry is not null and p.folder is null and " + GRANTS;
+
+    private static final String INSERT_FOLDER_PERMISSIONS = "insert into " + ACCESS
+            + " (entryId, accountId, groupId, canWrite, permissionId, folderId)"
+            + " select e.id, p.account.id, p.group.id, p.canWrite, p.id, f.id from " + Permission.class.getName() + " p"
+            + " join p.folder f join f.contents e where p.entry is null and " + GRANTS;
+
+    private static final String INSERT_PUBLIC_FOLDERS = "insert into " + ACCESS + " (entryId, groupId, folderId)"
+            + " select e.id, g.id, f.id from " + Folder.class.getName() + " f join f.contents e, "
+            + Group.class.getName() + " g where f.type = :type and g.uuid = :uuid";
+
+    @Override
+    public EntryAccessModel get(long id) {
+        return super.get(EntryAccessModel.class, id);
+    }
+
+    /**
+     * Determines if the account, or any of the groups, has access to the entry
+     *
+     * @param entryId   unique identifier of entry
+     * @param accountId unique identifier of account
+     * @param groupIds  unique identifiers of the groups that the account belongs to
+     * @param write     true to check for write access, false for read access
+     * @return true if there is access
+     * @throws DAOException on Hibernate Exception
+     */
+    public boolean hasAccess(long entryId, long accountId, Collection<Long> groupIds, boolean write) {
+        try {
+            CriteriaQuery<Long> query = getBuilder().createQuery(Long.class);
+            Root<EntryAccessModel> from = query.from(EntryAccessModel.class);
+            List<Predicate> predicates = new ArrayList<>();
+            predicates.add(getBuilder().equal(from.get("entryId"), entryId));
+            predicates.add(getPrincipalPredicate(from, accountId, groupIds));
+            if (write)
+                predicates.add(getBuilder().isTrue(from.<Boolean>get("canWrite")));
+            query.select(from.get("id")).where(predicates.toArray(new Predicate[0]));
+            return !currentSession().createQuery(query).setMaxResults(1).list().isEmpty();
+        } catch (HibernateException he) {
+            Logger.error(he);
+            throw new DAOException(he);
+        }
+    }
+
+    /**
+     * Filters the given list of entries, removing those that the specified account cannot read; those that the
+     * account does not own and neither the account nor any of the groups has access to. Only entries with a
+     * visibility of OK or PENDING are retained
+     *
+     * @param account  account to filter entries by
+     * @param groupIds unique identifiers of the groups that the account belongs to
+     * @param entries  list of entry ids to filter
+     * @return filtered list of entry ids
+     * @throws DAOException on Hibernate Exception
+     */
+    public List<Long> getCanReadEntries(Account account, Collection<Long> groupIds, List<Long> entries) {
+        List<Long> results = new ArrayList<>();
+
+        try {
+            for (int i = 0; i < entries.size(); i += BATCH_SIZE) {
+                List<Long> batch = entries.subList(i, Math.min(entries.size(), i + BATCH_SIZE));
+                CriteriaQuery<Long> query = getBuilder().createQuery(Long.class);
+                Root<Entry> from = query.from(Entry.class);
+
+                Subquery<Long> access = query.subquery(Long.class);
+                Root<EntryAccessModel> accessFrom = access.from(EntryAccessModel.class);
+                access.select(accessFrom.get("id")).where(
+                        getBuilder().equal(accessFrom.get("entryId"), from.get("id")),
+                        getPrincipalPredicate(accessFrom, account.getId(), groupIds));
+
+                query.select(from.get("id")).where(
+                        from.get("id").in(batch),
+                        from.get("visibility").in(Visibility.OK.getValue(), Visibility.PENDING.getValue()),
+                        getBuilder().or(
+                                getBuilder().equal(from.get("ownerEmail"), account.getEmail()),
+                                getBuilder().exists(access)));
+                results.addAll(currentSession().createQuery(query).list());
+            }
+            return results;
+        } catch (HibernateException he) {
+            Logger.error(he);
+            throw new DAOException(he);
+        }
+    }
+
+    /**
+     * Filters the given list of entries, removing those that the specified account cannot write to; those that the
+     * account does not own and neither the account nor any of the groups has write access to. Entries that do not
+     * exist are also removed
+     *
+     * @param account  account to filter entries by
+     * @param groupIds unique identifiers of the groups that the account belongs to
+     * @param entries  list of entry ids to filter
+     * @return filtered list of entry ids
+     * @throws DAOException on Hibernate Exception
+     */
+    public List<Long> getCanWriteEntries(Account account, Collection<Long> groupIds, List<Long> entries) {
+        List<Long> results = new ArrayList<>();
+
+        try {
+            for (int i = 0; i < entries.size(); i += BATCH_SIZE) {
+                List<Long> batch = entries.subList(i, Math.min(entries.size(), i + BATCH_SIZE));
+                CriteriaQuery<Long> query = getBuilder().createQuery(Long.class);
+                Root<Entry> from = query.from(Entry.class);
+
+                Subquery<Long> access = query.subquery(Long.class);
+                Root<EntryAccessModel> accessFrom = access.from(EntryAccessModel.class);
+                access.select(accessFrom.get("id")).where(
+                        getBuilder().equal(accessFrom.get("entryId"), from.get("id")),
+                        getPrincipalPredicate(accessFrom, account.getId(), groupIds),
+                        getBuilder().isTrue(accessFrom.<Boolean>get("canWrite")));
+
+                query.select(from.get("id")).where(
+                        from.get("id").in(batch),
+                        getBuilder().or(
+                                getBuilder().equal(from.get("ownerEmail"), account.getEmail()),
+                                getBuilder().exists(access)));
+                results.addAll(currentSession().createQuery(query).list());
+            }
+            return results;
+        } catch (HibernateException he) {
+            Logger.error(he);
+            throw new DAOException(he);
+        }
+    }
+
+    /**
+     * Adds the access granted by a newly created permission. For folder permissions, access is added for all the
+     * entries in the folder
+     *
+     * @param permission created permission
+     * @throws DAOException on Hibernate Exception
+     */
+    public void grant(Permission permission) {
+        grant(currentSession(), permission);
+    }
+
+    /**
+     * Adds the access granted by a newly created permission using the specified session (see
+     * {@link PermissionDAO#createEntryPermissions(Session, List, Account, Group, boolean, boolean)})
+     *
+     * @param session    session permission was created in
+     * @param permission created permission
+     * @throws DAOException on Hibernate Exception
+     */
+    public void grant(Session session, Permission permission) {
+        if ((!permission.isCanRead() && !permission.isCanWrite())
+                || (permission.getAccount() == null && permission.getGroup() == null))
+            return;
+
+        try {
+            if (permission.getEntry() != null && permission.getFolder() == null) {
+                session.save(new EntryAccessModel(permission.getEntry().getId(), permission));
+            } else if (permission.getEntry() == null && permission.getFolder() != null) {
+                session.flush();
+                session.createQuery(INSERT_FOLDER_PERMISSIONS + " and p.id = :id")
+                        .setParameter("id", permission.getId())
+                        .executeUpdate();
+            }
+        } catch (HibernateException he) {
+            Logger.error(he);
+            throw new DAOException(he);
+        }
+    }
+
+    /**
+     * Removes the access granted by the specified permissions
+     *
+     * @param permissionIds unique identifiers of permissions that are being deleted
+     * @throws DAOException on Hibernate Exception
+     */
+    public void revoke(List<Long> permissionIds) {
+        revoke(currentSession(), permissionIds);
+    }
+
+    /**
+     * Removes the access granted by the specified permissions using the specified session
+     *
+     * @param session       session permissions are being deleted in
+     * @param permissionIds unique identifiers of permissions that are being deleted
+     * @throws DAOException on Hibernate Exception
+     */
+    public void revoke(Session session, List<Long> permissionIds) {
+        try {
+            for (int i = 0; i < permissionIds.size(); i += BATCH_SIZE) {
+                List<Long> batch = permissionIds.subList(i, Math.min(permissionIds.size(), i + BATCH_SIZE));
+                CriteriaDelete<EntryAccessModel> delete = getBuilder().createCriteriaDelete(EntryAccessModel.class);
+                Root<EntryAccessModel> from = delete.from(EntryAccessModel.class);
+                delete.where(from.get("permissionId").in(batch));
+                session.createQuery(delete).executeUpdate();
+            }
+        } catch (HibernateException he) {
+            Logger.error(he);
+            throw new DAOException(he);
+        }
+    }
+
+    /**
+     * Removes the access granted by all the permissions for the specified folder
+     *
+     * @param folder folder whose permissions are being deleted
+     * @throws DAOException on Hibernate Exception
+     */
+    public void revokeFolderPermissions(Folder folder) {
+        try {
+            CriteriaDelete<EntryAccessModel> delete = getBuilder().createCriteriaDelete(EntryAccessModel.class);
+            Root<EntryAccessModel> from = delete.from(EntryAccessModel.class);
+            delete.where(getBuilder().equal(from.get("folderId"), folder.getId()),
+                    getBuilder().isNotNull(from.get("permissionId")));
+            currentSession().createQuery(delete).executeUpdate();
+        } catch (HibernateException he) {
+            Logger.error(he);
+            throw new DAOException(he);
+        }
+    }
+
+    /**
+     * Removes the access granted by all the permissions for the specified group
+     *
+     * @param group group whose permissions are being deleted
+     * @throws DAOException on Hibernate Exception
+     */
+    public void revokeGroupPermissions(Group group) {
+        try {
+            CriteriaDelete<EntryAccessModel> delete = getBuilder().createCriteriaDelete(EntryAccessModel.class);
+            Root<EntryAccessModel> from = delete.from(EntryAccessModel.class);
+            delete.where(getBuilder().equal(from.get("groupId"), group.getId()),
+                    getBuilder().isNotNull(from.get("permissionId")));
+            currentSession().createQuery(delete).executeUpdate();
+        } catch (HibernateException he) {
+            Logger.error(he);
+            throw new DAOException(he);
+        }
+    }
+
+    /**
+     * Adds the access granted by the folder (its permissions and whether it is public) to entries that have been
+     * added to the folder. Expected to be called after the folder contents have been updated
+     *
+     * @param folder   folder entries were added to
+     * @param entryIds unique identifiers of entries added
+     * @throws DAOException on Hibernate Exception
+     */
+    public void addFolderEntries(Folder folder, List<Long> entryIds) {
+        try {
+            currentSession().flush();
+            for (int i = 0; i < entryIds.size(); i += BATCH_SIZE) {
+                List<Long> batch = entryIds.subList(i, Math.min(entryIds.size(), i + BATCH_SIZE));
+
+                // entries that were already in the folder
+                deleteFolderEntries(folder, batch);
+
+                currentSession().createQuery(INSERT_FOLDER_PERMISSIONS + " and f.id = :folder and e.id in (:entries)")
+                        .setParameter("folder", folder.getId())
+                        .setParameterList("entries", batch)
+                        .executeUpdate();
+
+                if (folder.getType() == FolderType.PUBLIC) {
+                    currentSession().createQuery(INSERT_PUBLIC_FOLDERS + " and f.id = :folder and e.id in (:entries)")
+                            .setParameter("type", FolderType.PUBLIC)
+                            .setParameter("uuid", GroupController.PUBLIC_GROUP_UUID)
+                            .setParameter("folder", folder.getId())
+                            .setParameterList("entries", batch)
+                            .executeUpdate();
+                }
+            }
+        } catch (HibernateException he) {
+            Logger.error(he);
+            throw new DAOException(he);
+        }
+    }
+
+    /**
+     * Removes the access granted by the folder to entries that have been removed from the folder
+     *
+     * @param folder   folder entries were removed from
+     * @param entryIds unique identifiers of entries removed
+     * @throws DAOException on Hibernate Exception
+     */
+    public void removeFolderEntries(Folder folder, List<Long> entryIds) {
+        try {
+            for (int i = 0; i < entryIds.size(); i += BATCH_SIZE)
+                deleteFolderEntries(folder, entryIds.subList(i, Math.min(entryIds.size(), i + BATCH_SIZE)));
+        } catch (HibernateException he) {
+            Logger.error(he);
+            throw new DAOException(he);
+        }
+    }
+
+    /**
+     * Adds or removes the public access to the entries in the folder when the folder type has changed to or from
+     * {@link FolderType#PUBLIC}
+     *
+     * @param folder folder that has been created or updated
+     * @throws DAOException on Hibernate Exception
+     */
+    public void updatePublicFolder(Folder folder) {
+        try {
+            CriteriaQuery<Long> query = getBuilder().createQuery(Long.class);
+            Root<EntryAccessModel> from = query.from(EntryAccessModel.class);
+            query.select(from.get("id")).where(getBuilder().equal(from.get("folderId"), folder.getId()),
+                    getBuilder().isNull(from.get("permissionId")));
+            boolean hasPublicAccess = !currentSession().createQuery(query).setMaxResults(1).list().isEmpty();
+            boolean isPublic = folder.getType() == FolderType.PUBLIC;
+            if (hasPublicAccess == isPublic)
+                return;
+
+            if (!isPublic) {
+                CriteriaDelete<EntryAccessModel> delete = getBuilder().createCriteriaDelete(EntryAccessModel.class);
+                Root<EntryAccessModel> deleteFrom = delete.from(EntryAccessModel.class);
+                delete.where(getBuilder().equal(deleteFrom.get("folderId"), folder.getId()),
+                        getBuilder().isNull(deleteFrom.get("permissionId")));
+                currentSession().createQuery(delete).executeUpdate();
+                return;
+            }
+
+            currentSession().flush();
+            currentSession().createQuery(INSERT_PUBLIC_FOLDERS + " and f.id = :folder")
+                    .setParameter("type", FolderType.PUBLIC)
+                    .setParameter("uuid", GroupController.PUBLIC_GROUP_UUID)
+                    .setParameter("folder", folder.getId())
+                    .executeUpdate();
+        } catch (HibernateException he) {
+            Logger.error(he);
+            throw new DAOException(he);
+        }
+    }
+
+    /**
+     * Removes all the access granted by the folder. Expected to be called when the folder is being deleted
+     *
+     * @param folder folder being deleted
+     * @throws DAOException on Hibernate Exception
+     */
+    public void deleteFolder(Folder folder) {
+        try {
+            CriteriaDelete<EntryAccessModel> delete = getBuilder().createCriteriaDelete(EntryAccessModel.class);
+            Root<EntryAccessModel> from = delete.from(EntryAccessModel.class);
+            delete.where(getBuilder().equal(from.get("folderId"), folder.getId()));
+            currentSession().createQuery(delete).executeUpdate();
+        } catch (HibernateException he) {
+            Logger.error(he);
+            throw new DAOException(he);
+        }
+    }
+
+    /**
+     * Derives all the access from the permission and folder tables, replacing any existing access
+     *
+     * @return number of access rows created
+     * @throws DAOException on Hibernate Exception
+     */
+    public int rebuild() {
+        try {
+            currentSession().flush();
+            currentSession().createQuery("delete from " + ACCESS).executeUpdate();
+            int count = currentSession().createQuery(INSERT_ENTRY_PERMISSIONS).executeUpdate();
+            count += currentSession().createQuery(INSERT_FOLDER_PERMISSIONS).executeUpdate();
+            count += currentSession().createQuery(INSERT_PUBLIC_FOLDERS)
+                    .setParameter("type", FolderType.PUBLIC)
+                    .setParameter("uuid", GroupController.PUBLIC_GROUP_UUID)
+                    .executeUpdate();
+            return count;
+        } catch (HibernateException he) {
+            Logger.error(he);
+            throw new DAOException(he);
+        }
+    }
+
+    private void deleteFolderEntries(Folder folder, List<Long> entryIds) {
+        CriteriaDelete<EntryAccessModel> delete = getBuilder().createCriteriaDelete(EntryAccessModel.class);
+        Root<EntryAccessModel> from = delete.from(EntryAccessModel.class);
+        delete.where(getBuilder().equal(from.get("folderId"), folder.getId()), from.get("entryId").in(entryIds));
+        currentSession().createQuery(delete).executeUpdate();
+    }
+
+    private Predicate getPrincipalPredicate(Root<EntryAccessModel> from, long accountId, Collection<Long> groupIds) {
+        Predicate account = getBuilder().equal(from.get("accountId"), accountId);
+        if (groupIds == null || groupIds.isEmpty())
+            return account;
+        return getBuilder().or(account, from.get("groupId").in(groupIds));
+    }
+}
@@ -2,6 +2,8 @@ package org.jbei.ice.storage.hibernate.dao;
 
 import org.hibernate.HibernateException;
 import org.jbei.ice.lib.common.logging.Logger;
+import org.jbei.ice.lib.dto.common.CursorPage;
+import org.jbei.ice.lib.dto.common.PageCursor;
 import org.jbei.ice.lib.dto.entry.AutoCompleteField;
 import org.jbei.ice.lib.dto.entry.EntryType;
 import org.jbei.ice.lib.dto.entry.Visibility;
@@ -11,6 +13,7 @@ import org.jbei.ice.storage.DAOException;
 import org.jbei.ice.storage.hibernate.HibernateRepository;
 import org.jbei.ice.storage.model.*;
 
+import javax.persistence.Tuple;
 import javax.persistence.criteria.*;
 import java.util.*;
 
@@ -81,7 +84,8 @@ public class EntryDAO extends HibernateRepository<Entry> {
             Root<Entry> from = query.from(Entry.class);
 
             ArrayList<Predicate> predicates = new ArrayList<>();
-            predicates.add(getBuilder().like(getBuilder().lower(from.get("partNumber")), "%" + token.toLowerCase() + "%"));
+            if (SubstringFilter.isSet(token))
+                predicates.add(SubstringFilter.create(getBuilder(), from, token, "partNumber"));
             if (include != null && !include.isEmpty()) {
                 predicates.add(from.get("recordType").in(include));
             }
@@ -161,6 +165,19 @@ public class EntryDAO extends HibernateRepository<Entry> {
      */
     public List<Long> retrieveVisibleEntries(Account account, Set<Group> groups, ColumnField sortField, boolean asc,
                                              int start, int count, String filter) {
+        return retrieveVisibleEntries(account, groups, sortField, asc, start, count, filter, null);
+    }
+
+    /**
+     * Retrieve {@link Entry Entries} visible to everyone that were modified after the specified time.
+     *
+     * @param modifiedAfter only entries modified (or shared with the account or groups) after this time are
+     *                      retrieved. If null, all are retrieved
+     * @return list of visible entry ids
+     * @throws DAOException on hibernate exception
+     */
+    public List<Long> retrieveVisibleEntries(Account account, Set<Group> groups, ColumnField sortField, boolean asc,
+                                             int start, int count, String filter, Date modifiedAfter) {
         try {
             CriteriaQuery<Long> query = getBuilder().createQuery(Long.class);
             Root<Entry> from = query.from(Entry.class);
@@ -182,6 +199,8 @@ public class EntryDAO extends HibernateRepository<Entry> {
 
             // check filter
             createFilterPredicate(from, filter, predicates);
+            if (modifiedAfter != null)
+                predicates.add(changedAfter(query, from, account, groups, modifiedAfter));
 
             query.select(from.get("id")).where(predicates.toArray(new Predicate[0]));
             query.orderBy(asc ? getBuilder().asc(from.get(fieldName)) : getBuilder().desc(from.get(fieldName)));
@@ -194,6 +213,10 @@ public class EntryDAO extends HibernateRepository<Entry> {
 
     // todo : or entry is in a folder that is public
     public long visibleEntryCount(Account account, Set<Group> groups, String filter) {
+        return visibleEntryCount(account, groups, filter, null);
+    }
+
+    public long visibleEntryCount(Account account, Set<Group> groups, String filter, Date modifiedAfter) {
         try {
             CriteriaQuery<Long> query = getBuilder().createQuery(Long.class);
             Root<Permission> from = query.from(Permission.class);
@@ -209,14 +232,10 @@ public class EntryDAO extends HibernateRepository<Entry> {
             }
             predicates.add(predicate);
 
-            if (filter != null && !filter.trim().isEmpty()) {
-                filter = filter.toLowerCase();
-                predicates.add(getBuilder().or(
-                        getBuilder().like(getBuilder().lower(entry.get("name")), "%" + filter + "%"),
-                        getBuilder().like(getBuilder().lower(entry.get("alias")), "%" + filter + "%")
-                ));
-            }
+            createFilterPredicate(entry, filter, predicates);
             predicates.add(getBuilder().equal(entry.get("visibility"), Visibility.OK.getValue()));
+            if (modifiedAfter != null)
+                predicates.add(changedAfter(query, entry, account, groups, modifiedAfter));
             query.select(getBuilder().countDistinct(entry.get("id"))).where(predicates.toArray(new Predicate[0]));
             return currentSession().createQuery(query).uniqueResult();
         } catch (HibernateException he) {
@@ -226,28 +245,13 @@ public class EntryDAO extends HibernateRepository<Entry> {
     }
 
     private void checkAddFilter(List<Predicate> predicates, Root<Entry> root, String filter) {
-        if (filter == null || filter.trim().isEmpty())
-            return;
-
-        filter = filter.toLowerCase();
-        predicates.add(getBuilder().or(
-                getBuilder().like(getBuilder().lower(root.get("name")), "%" + filter + "%"),
-                getBuilder().like(getBuilder().lower(root.get("alias")), "%" + filter + "%"),
-                getBuilder().like(getBuilder().lower(root.get("partNumber")), "%" + filter + "%")
-                )
-        );
+        createFilterPredicate(root, filter, predicates);
     }
 
+    // filter text in name, alias or part number
     private void createFilterPredicate(Path<Entry> entry, String filter, List<Predicate> predicates) {
-        if (filter != null && !filter.trim().isEmpty()) {
-            filter = filter.toLowerCase();
-            predicates.add(getBuilder().or(
-                    getBuilder().like(getBuilder().lower(entry.get("name")), "%" + filter + "%"),
-                    getBuilder().like(getBuilder().lower(entry.get("alias")), "%" + filter + "%"),
-                    getBuilder().like(getBuilder().lower(entry.get("partNumber")), "%" + filter + "%")
-                    )
-            );
-        }
+        if (SubstringFilter.isSet(filter))
+            predicates.add(SubstringFilter.create(getBuilder(), entry, filter, SubstringFilter.ENTRY_FIELDS));
     }
 
     /**
@@ -391,6 +395,198 @@ public class EntryDAO extends HibernateRepository<Entry> {
         }
     }
 
+    /**
+     * Retrieves a page of the {@link Entry Entries} visible to the specified account or groups, positioned using a
+     * cursor instead of an offset.
+     *
+     * @param cursor        position of page
+     * @param limit         maximum number of entries to retrieve
+     * @param modifiedAfter only entries modified (or shared with the account or groups) after this time are
+     *                      retrieved. If null, all are retrieved
+     * @return page of visible entry ids
+     * @throws DAOException on hibernate exception
+     */
+    public CursorPage retrieveVisibleEntries(Account account, Set<Group> groups, PageCursor cursor, int limit,
+                                             String filter, Date modifiedAfter) {
+        try {
+            CriteriaQuery<Tuple> query = getBuilder().createTuple();
+            Root<Entry> from = query.from(Entry.class);
+            List<Predicate> predicates = new ArrayList<>();
+            predicates.add(getBuilder().equal(from.get("visibility"), Visibility.OK.getValue()));
+            predicates.add(hasPermission(query, from, account, groups));
+            createFilterPredicate(from, filter, predicates);
+            if (modifiedAfter != null)
+                predicates.add(changedAfter(query, from, account, groups, modifiedAfter));
+            return getPage(query, from, predicates, cursor, limit);
+        } catch (HibernateException he) {
+            Logger.error(he);
+            throw new DAOException(he);
+        }
+    }
+
+    /**
+     * Retrieves a page of all the entries with visibility of "ok" or "pending", positioned using a cursor
+     *
+     * @param cursor position of page
+     * @param limit  maximum number of entries to retrieve
+     * @return page of entry ids
+     * @throws DAOException on hibernate exception
+     */
+    public CursorPage retrieveAllEntryIds(PageCursor cursor, int limit, String filter) {
+        try {
+            CriteriaQuery<Tuple> query = getBuilder().createTuple();
+            Root<Entry> from = query.from(Entry.class);
+            List<Predicate> predicates = new ArrayList<>();
+            predicates.add(from.get("visibility").in(Visibility.OK.getValue(), Visibility.PENDING.getValue()));
+            checkAddFilter(predicates, from, filter);
+            return getPage(query, from, predicates, cursor, limit);
+        } catch (HibernateException he) {
+            Logger.error(he);
+            throw new DAOException(he);
+        }
+    }
+
+    /**
+     * Retrieves a page of the entries owned by account with specified email and with visibility of "pending" or
+     * "ok", positioned using a cursor
+     *
+     * @param ownerEmail email for account whose entries are to be retrieved
+     * @param cursor     position of page
+     * @param limit      maximum number of entries to retrieve
+     * @return page of entry ids
+     * @throws DAOException on hibernate exception
+     */
+    public CursorPage retrieveOwnerEntries(String ownerEmail, PageCursor cursor, int limit, String filter) {
+        try {
+            CriteriaQuery<Tuple> query = getBuilder().createTuple();
+            Root<Entry> from = query.from(Entry.class);
+            List<Predicate> predicates = getOwnerPredicate(from, ownerEmail);
+            checkAddFilter(predicates, from, filter);
+            return getPage(query, from, predicates, cursor, limit);
+        } catch (HibernateException he) {
+            Logger.error(he);
+            throw new DAOException(he);
+        }
+    }
+
+    /**
+     * Retrieves a page of the entries for the specified owner that the requester has read access to, positioned
+     * using a cursor
+     *
+     * @param cursor position of page
+     * @param limit  maximum number of entries to retrieve
+     * @return page of entry ids
+     * @throws DAOException on hibernate exception
+     */
+    public CursorPage retrieveUserEntries(Account requester, String owner, Set<Group> requesterGroups,
+                                          PageCursor cursor, int limit, String filter) {
+        try {
+            CriteriaQuery<Tuple> query = getBuilder().createTuple();
+            Root<Entry> from = query.from(Entry.class);
+            List<Predicate> predicates = new ArrayList<>();
+            predicates.add(getBuilder().equal(from.get("visibility"), Visibility.OK.getValue()));
+            predicates.add(getBuilder().equal(from.get("ownerEmail"), owner));
+            predicates.add(hasPermission(query, from, requester, requesterGroups));
+            createFilterPredicate(from, filter, predicates);
+            return getPage(query, from, predicates, cursor, limit);
+        } catch (HibernateException he) {
+            Logger.error(he);
+            throw new DAOException(he);
+        }
+    }
+
+    /**
+     * Retrieves a page of the entries shared with the requester (or groups requester belongs to), positioned using
+     * a cursor
+     *
+     * @param cursor position of page
+     * @param limit  maximum number of entries to retrieve
+     * @return page of entry ids
+     * @throws DAOException on hibernate exception
+     */
+    public CursorPage sharedWithUserEntries(Account requester, Set<Group> accountGroups, PageCursor cursor, int limit,
+                                            String filter) {
+        try {
+            CriteriaQuery<Tuple> query = getBuilder().createTuple();
+            Root<Entry> from = query.from(Entry.class);
+            List<Predicate> predicates = new ArrayList<>();
+            predicates.add(getBuilder().equal(from.get("visibility"), Visibility.OK.getValue()));
+            predicates.add(getBuilder().notEqual(from.get("ownerEmail"), requester.getEmail()));
+            predicates.add(hasPermission(query, from, requester, accountGroups));
+            createFilterPredicate(from, filter, predicates);
+            return getPage(query, from, predicates, cursor, limit);
+        } catch (HibernateException he) {
+            Logger.error(he);
+            throw new DAOException(he);
+        }
+    }
+
+    /**
+     * Retrieves a page of the entries with the specified visibility, positioned using a cursor
+     *
+     * @param ownerEmail optional owner of entries
+     * @param cursor     position of page
+     * @param limit      maximum number of entries to retrieve
+     * @return page of entry ids
+     * @throws DAOException on hibernate exception
+     */
+    public CursorPage getByVisibility(String ownerEmail, Visibility visibility, PageCursor cursor, int limit,
+                                      String filter) {
+        try {
+            CriteriaQuery<Tuple> query = getBuilder().createTuple();
+            Root<Entry> from = query.from(Entry.class);
+            List<Predicate> predicates = new ArrayList<>();
+            predicates.add(getBuilder().equal(from.get("visibility"), visibility.getValue()));
+            if (ownerEmail != null)
+                predicates.add(getBuilder().equal(from.get("ownerEmail"), ownerEmail));
+            checkAddFilter(predicates, from, filter);
+            return getPage(query, from, predicates, cursor, limit);
+        } catch (HibernateException he) {
+            Logger.error(he);
+            throw new DAOException(he);
+        }
+    }
+
+    private CursorPage getPage(CriteriaQuery<Tuple> query, Root<Entry> from, List<Predicate> predicates,
+                               PageCursor cursor, int limit) {
+        return new KeysetPaging(getBuilder(), cursor).list(currentSession(), query, from, predicates, limit);
+    }
+
+    // entry has a permission for the account or any of the groups. an exists sub query (instead of a join) does not
+    // return duplicates, so results do not have to be distinct
+    private Predicate hasPermission(CriteriaQuery<?> query, Root<Entry> entry, Account account, Set<Group> groups) {
+        Subquery<Long> subquery = query.subquery(Long.class);
+        Root<Permission> permission = subquery.from(Permission.class);
+        subquery.select(permission.<Long>get("id")).where(
+                getBuilder().equal(permission.get("entry"), entry),
+                hasAccess(permission, account, groups));
+        return getBuilder().exists(subquery);
+    }
+
+    // entry was modified, or a permission on it was granted to the account or groups (e.g. it was made public),
+    // after the specified time
+    private Predicate changedAfter(CriteriaQuery<?> query, Path<Entry> entry, Account account, Set<Group> groups,
+                                   Date time) {
+        Subquery<Long> subquery = query.subquery(Long.class);
+        Root<Permission> permission = subquery.from(Permission.class);
+        subquery.select(permission.<Long>get("id")).where(
+                getBuilder().equal(permission.get("entry"), entry),
+                hasAccess(permission, account, groups),
+                getBuilder().greaterThan(permission.<Date>get("creationTime"), time));
+        return getBuilder().or(
+                getBuilder().greaterThan(entry.<Date>get("modificationTime"), time),
+                getBuilder().exists(subquery));
+    }
+
+    private Predicate hasAccess(Root<Permission> permission, Account account, Set<Group> groups) {
+        List<Predicate> access = new ArrayList<>();
+        if (account != null)
+            access.add(getBuilder().equal(permission.get("account"), account));
+        if (groups != null && !groups.isEmpty())
+            access.add(permission.get("group").in(groups));
+        return getBuilder().or(access.toArray(new Predicate[0]));
+    }
+
     /**
      * Retrieve {@link Entry} objects of the given list of ids.
      *
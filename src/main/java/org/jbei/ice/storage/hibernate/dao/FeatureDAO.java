@@ -1,18 +1,18 @@
 package org.jbei.ice.storage.hibernate.dao;
 
 import org.hibernate.HibernateException;
+import org.hibernate.Session;
 import org.jbei.ice.lib.common.logging.Logger;
 import org.jbei.ice.lib.utils.SequenceUtils;
 import org.jbei.ice.storage.DAOException;
 import org.jbei.ice.storage.hibernate.HibernateRepository;
 import org.jbei.ice.storage.model.Feature;
 
+import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.JoinType;
 import javax.persistence.criteria.Root;
-import java.util.HashMap;
-import java.util.List;
-import java.util.Map;
-import java.util.Optional;
+import java.util.*;
 
 /**
  * Hibernate data accessor object for {@link Feature}s
@@ -21,6 +21,9 @@ import java.util.Optional;
  */
 public class FeatureDAO extends HibernateRepository<Feature> {
 
+    // maximum number of hashes in a single IN query
+    private static final int HASH_BATCH_SIZE = 500;
+
     @Override
     public Feature get(long id) {
         return super.get(Feature.class, id);
@@ -41,16 +44,45 @@ public class FeatureDAO extends HibernateRepository<Feature> {
             CriteriaQuery<Feature> query = getBuilder().createQuery(Feature.class);
             Root<Feature> from = query.from(Feature.class);
             query.where(getBuilder().equal(from.get("hash"), hash));
-            return currentSession().createQuery(query).uniqueResultOptional();
+            return currentSession().createQuery(query).setCacheable(true).uniqueResultOptional();
         } catch (HibernateException e) {
             Logger.error(e);
             throw new DAOException("Failed to get Feature by sequence!", e);
         }
     }
 
+    /**
+     * Retrieves the {@link Feature}s with the given sequence hashes (see
+     * {@link SequenceUtils#calculateSequenceHash(String)}). The hashes are looked up in batches using
+     * <code>IN</code> queries instead of one query per hash
+     *
+     * @param hashes sequence hashes of features to retrieve
+     * @return map of hash to feature for the hashes that have a matching feature
+     * @throws DAOException on Hibernate Exception
+     */
+    public Map<String, Feature> getByHashes(Collection<String> hashes) {
+        Map<String, Feature> results = new HashMap<>();
+        List<String> list = new ArrayList<>(new HashSet<>(hashes));
+
+        try {
+            for (int i = 0; i < list.size(); i += HASH_BATCH_SIZE) {
+                List<String> batch = list.subList(i, Math.min(list.size(), i + HASH_BATCH_SIZE));
+                CriteriaQuery<Feature> query = getBuilder().createQuery(Feature.class);
+                Root<Feature> from = query.from(Feature.class);
+                query.where(from.get("hash").in(batch));
+                for (Feature feature : currentSession().createQuery(query).list())
+                    results.put(feature.getHash(), feature);
+            }
+            return results;
+        } catch (HibernateException he) {
+            Logger.error(he);
+            throw new DAOException(he);
+        }
+    }
+
     private void buildFilter(CriteriaQuery<?> query, Root<Feature> from, String filter) {
-        if (filter != null && !filter.isEmpty())
-            query.where(getBuilder().like(getBuilder().lower(from.get("name")), "%" + filter.toLowerCase() + "%"));
+        if (SubstringFilter.isSet(filter))
+            query.where(SubstringFilter.create(getBuilder(), from, filter, "name"));
         else
             query.where(getBuilder().isNotNull(from.get("name")), getBuilder().notEqual(from.get("name"), ""));
     }
@@ -80,6 +112,35 @@ public class FeatureDAO extends HibernateRepository<Feature> {
         }
     }
 
+    /**
+     * Retrieves a batch of named features ordered by identifier, starting after the specified identifier
+     * (keyset paging). Intended for iterating over all features in a separate session that is cleared between
+     * batches.
+     *
+     * @param session session to run query in
+     * @param afterId identifier of the last feature in the previous batch, or 0 for the first batch
+     * @param limit   maximum number of features to retrieve
+     * @return list of features; empty when there are no more features
+     * @throws DAOException on Hibernate Exception
+     */
+    public List<Feature> getFeatureBatch(Session session, long afterId, int limit) {
+        try {
+            CriteriaBuilder builder = session.getCriteriaBuilder();
+            CriteriaQuery<Feature> query = builder.createQuery(Feature.class);
+            Root<Feature> from = query.from(Feature.class);
+            from.fetch("curation", JoinType.LEFT);
+            query.where(
+                    builder.greaterThan(from.get("id"), afterId),
+                    builder.isNotNull(from.get("name")),
+                    builder.notEqual(from.get("name"), ""));
+            query.orderBy(builder.asc(from.get("id")));
+            return session.createQuery(query).setMaxResults(limit).setReadOnly(true).list();
+        } catch (HibernateException he) {
+            Logger.error(he);
+            throw new DAOException(he);
+        }
+    }
+
     public long getFeaturesGroupByCount() {
         try {
             CriteriaQuery<Long> query = getBuilder().createQuery(Long.class);
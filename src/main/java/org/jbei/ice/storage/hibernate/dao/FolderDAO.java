@@ -3,6 +3,8 @@ package org.jbei.ice.storage.hibernate.dao;
 import org.hibernate.HibernateException;
 import org.hibernate.Session;
 import org.jbei.ice.lib.common.logging.Logger;
+import org.jbei.ice.lib.dto.common.CursorPage;
+import org.jbei.ice.lib.dto.common.PageCursor;
 import org.jbei.ice.lib.dto.common.PageParameters;
 import org.jbei.ice.lib.dto.entry.EntryType;
 import org.jbei.ice.lib.dto.entry.Visibility;
@@ -12,6 +14,7 @@ import org.jbei.ice.storage.DAOException;
 import org.jbei.ice.storage.hibernate.HibernateRepository;
 import org.jbei.ice.storage.model.*;
 
+import javax.persistence.Tuple;
 import javax.persistence.criteria.*;
 import java.util.*;
 
@@ -22,6 +25,30 @@ import java.util.*;
  */
 public class FolderDAO extends HibernateRepository<Folder> {
 
+    // effective access to entries derived from folder permissions and public folders; kept up to date as folder
+    // contents and types change
+    private final EntryAccessDAO entryAccessDAO = new EntryAccessDAO();
+
+    @Override
+    public Folder create(Folder folder) {
+        folder = super.create(folder);
+        entryAccessDAO.updatePublicFolder(folder);
+        return folder;
+    }
+
+    @Override
+    public Folder update(Folder folder) {
+        folder = super.update(folder);
+        entryAccessDAO.updatePublicFolder(folder);
+        return folder;
+    }
+
+    @Override
+    public void delete(Folder folder) {
+        entryAccessDAO.deleteFolder(folder);
+        super.delete(folder);
+    }
+
     /**
      * Retrieves stored folder by locally unique identifier
      *
@@ -65,6 +92,7 @@ public class FolderDAO extends HibernateRepository<Folder> {
             folder.getContents().removeIf(entry -> entries.contains(entry.getId()));
             folder.setModificationTime(new Date());
             currentSession().update(folder);
+            entryAccessDAO.removeFolderEntries(folder, entries);
             return folder;
         } catch (Exception he) {
             Logger.error(he);
@@ -192,16 +220,42 @@ public class FolderDAO extends HibernateRepository<Folder> {
         }
     }
 
+    /**
+     * Retrieves a page of the entries in a folder, positioned using a cursor
+     *
+     * @param folderId    unique identifier for folder whose entries are being retrieved
+     * @param cursor      position of page
+     * @param limit       maximum number of entries to retrieve
+     * @param filter      optional text to filter entries by
+     * @param visibleOnly whether to only include entries with "OK" visibility
+     * @return page of entry ids
+     * @throws DAOException on Exception retrieving
+     */
+    public CursorPage retrieveFolderContents(long folderId, PageCursor cursor, int limit, String filter,
+                                             boolean visibleOnly) {
+        try {
+            CriteriaQuery<Tuple> query = getBuilder().createTuple();
+            Root<Folder> from = query.from(Folder.class);
+            Join<Folder, Entry> entry = from.join("contents");
+
+            List<Predicate> predicates = getPredicates(entry, filter);
+            predicates.add(getBuilder().equal(from.get("id"), folderId));
+            if (visibleOnly) {
+                predicates.add(entry.get("visibility").in(Arrays.asList(Visibility.OK.getValue(),
+                        Visibility.REMOTE.getValue())));
+            }
+            return new KeysetPaging(getBuilder(), cursor).list(currentSession(), query, entry, predicates, limit);
+        } catch (HibernateException he) {
+            Logger.error(he);
+            throw new DAOException(he);
+        }
+    }
+
     private List<Predicate> getPredicates(Join<Folder, Entry> entry, String filter) {
         ArrayList<Predicate> predicates = new ArrayList<>();
-        if (filter != null && !filter.trim().isEmpty()) {
-            filter = filter.toLowerCase();
-            predicates.add(getBuilder().or(
-                    getBuilder().like(getBuilder().lower(entry.get("name")), "%" + filter + "%"),
-                    getBuilder().like(getBuilder().lower(entry.get("alias")), "%" + filter + "%"),
-                    getBuilder().like(getBuilder().lower(entry.get("shortDescription")), "%" + filter + "%"),
-                    getBuilder().like(getBuilder().lower(entry.get("partNumber")), "%" + filter + "%")
-            ));
+        if (SubstringFilter.isSet(filter)) {
+            predicates.add(SubstringFilter.create(getBuilder(), entry, filter, "name", "alias", "shortDescription",
+                    "partNumber"));
         }
         return predicates;
     }
@@ -213,6 +267,11 @@ public class FolderDAO extends HibernateRepository<Folder> {
             folder.getContents().addAll(entrys);
             folder.setModificationTime(new Date());
             session.saveOrUpdate(folder);
+
+            List<Long> entryIds = new ArrayList<>();
+            for (Entry entry : entrys)
+                entryIds.add(entry.getId());
+            entryAccessDAO.addFolderEntries(folder, entryIds);
             return folder;
         } catch (Exception e) {
             Logger.error(e);
@@ -43,7 +43,7 @@ public class GroupDAO extends HibernateRepository<Group> {
             CriteriaQuery<Group> query = getBuilder().createQuery(Group.class);
             Root<Group> from = query.from(Group.class);
             query.where(getBuilder().equal(from.get("uuid"), uuid));
-            return currentSession().createQuery(query).uniqueResult();
+            return currentSession().createQuery(query).setCacheable(true).uniqueResult();
         } catch (Exception e) {
             Logger.error(e);
             throw new DAOException(e);
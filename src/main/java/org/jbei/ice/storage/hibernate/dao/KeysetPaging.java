@@ -0,0 +1,104 @@
+package org.jbei.ice.storage.hibernate.dao;
+
+import org.hibernate.Session;
+import org.jbei.ice.lib.dto.common.CursorPage;
+import org.jbei.ice.lib.dto.common.PageCursor;
+import org.jbei.ice.storage.model.Entry;
+
+import javax.persistence.Tuple;
+import javax.persistence.criteria.*;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Retrieves a page of entries positioned using a {@link PageCursor}. Entries are ordered by the sort field and then
+ * by id (so that the order is unique), and the page starts after the last entry of the previous page. Sorting on
+ * creation time uses the id, which increases with creation time.
+ * <p>
+ * The seek compares the sort column itself (so that an index on it can be used); entries with no value for the sort
+ * field follow all the others (in id order) and are retrieved with a separate <code>IS NULL</code> query
+ *
+ * @author Hector Plahar
+ */
+class KeysetPaging {
+
+    private final CriteriaBuilder builder;
+    private final PageCursor cursor;
+    private final String field;     // null if sorting by id
+
+    KeysetPaging(CriteriaBuilder builder, PageCursor cursor) {
+        this.builder = builder;
+        this.cursor = cursor;
+        String fieldName = EntryAccessorUtilities.columnFieldToString(cursor.getSortField());
+        this.field = "creationTime".equals(fieldName) ? null : fieldName;
+    }
+
+    /**
+     * Retrieves the page of entries following the cursor position
+     *
+     * @param session    session to retrieve entries in
+     * @param query      query that <code>entry</code> belongs to. The selection, restriction and order are set here
+     * @param entry      entry path in query
+     * @param predicates restrictions on the entries
+     * @param limit      maximum number of entries to retrieve
+     * @return page of entries
+     */
+    CursorPage list(Session session, CriteriaQuery<Tuple> query, Path<Entry> entry, List<Predicate> predicates,
+                    int limit) {
+        Path<Long> id = entry.get("id");
+        List<Long> ids = new ArrayList<>();
+        if (field == null) {
+            List<Predicate> restrictions = new ArrayList<>(predicates);
+            if (!cursor.isFirst())
+                restrictions.add(afterId(id));
+            query.multiselect(id).where(restrictions.toArray(new Predicate[0])).orderBy(order(id));
+            for (Tuple row : session.createQuery(query).setMaxResults(limit).list())
+                ids.add(row.get(0, Long.class));
+            return new CursorPage(cursor, limit, ids, null);
+        }
+
+        Path<String> value = entry.get(field);
+        boolean nullValues = !cursor.isFirst() && cursor.getLastValue() == null;
+        String lastValue = null;
+
+        // entries with a value for the sort field
+        if (!nullValues) {
+            List<Predicate> restrictions = new ArrayList<>(predicates);
+            restrictions.add(builder.isNotNull(value));
+            if (!cursor.isFirst()) {
+                String last = cursor.getLastValue();
+                restrictions.add(builder.or(
+                        cursor.isAscending() ? builder.greaterThan(value, last) : builder.lessThan(value, last),
+                        builder.and(builder.equal(value, last), afterId(id))));
+            }
+            query.multiselect(id, value).where(restrictions.toArray(new Predicate[0]))
+                    .orderBy(order(value), order(id));
+            for (Tuple row : session.createQuery(query).setMaxResults(limit).list()) {
+                ids.add(row.get(0, Long.class));
+                lastValue = row.get(1, String.class);
+            }
+            if (ids.size() == limit)
+                return new CursorPage(cursor, limit, ids, lastValue);
+        }
+
+        // followed by the entries without one
+        List<Predicate> restrictions = new ArrayList<>(predicates);
+        restrictions.add(builder.isNull(value));
+        if (nullValues)
+            restrictions.add(afterId(id));
+        query.multiselect(id).where(restrictions.toArray(new Predicate[0])).orderBy(order(id));
+        List<Tuple> rows = session.createQuery(query).setMaxResults(limit - ids.size()).list();
+        for (Tuple row : rows)
+            ids.add(row.get(0, Long.class));
+        return new CursorPage(cursor, limit, ids, rows.isEmpty() ? lastValue : null);
+    }
+
+    private Predicate afterId(Path<Long> id) {
+        long lastId = cursor.getLastId();
+        return cursor.isAscending() ? builder.greaterThan(id, lastId) : builder.lessThan(id, lastId);
+    }
+
+    private Order order(Expression<?> expression) {
+        return cursor.isAscending() ? builder.asc(expression) : builder.desc(expression);
+    }
+}
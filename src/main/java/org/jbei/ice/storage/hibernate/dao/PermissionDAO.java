@@ -13,6 +13,8 @@ import org.jbei.ice.storage.model.*;
 import javax.persistence.criteria.*;
 import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
@@ -23,6 +25,30 @@ import java.util.Set;
  */
 public class PermissionDAO extends HibernateRepository<Permission> {
 
+    // effective access derived from permissions; kept up to date as permissions are created and deleted
+    private final EntryAccessDAO entryAccessDAO = new EntryAccessDAO();
+
+    @Override
+    public Permission create(Permission permission) {
+        permission = super.create(permission);
+        entryAccessDAO.grant(permission);
+        return permission;
+    }
+
+    @Override
+    public Permission update(Permission permission) {
+        permission = super.update(permission);
+        entryAccessDAO.revoke(Collections.singletonList(permission.getId()));
+        entryAccessDAO.grant(permission);
+        return permission;
+    }
+
+    @Override
+    public void delete(Permission permission) {
+        entryAccessDAO.revoke(Collections.singletonList(permission.getId()));
+        super.delete(permission);
+    }
+
     private Predicate getPredicate(Root<Permission> root, String path, Object object) {
         if (object == null)
             return getBuilder().isNull(root.get(path));
@@ -124,6 +150,13 @@ public class PermissionDAO extends HibernateRepository<Permission> {
     public int removePermission(Entry entry, Folder folder, BulkUpload upload, Account account, Group group,
                                 boolean canRead, boolean canWrite) {
         try {
+            List<Long> ids = new ArrayList<>();
+            for (Permission permission : createPermissionQuery(entry, folder, upload, account, group, canRead,
+                    canWrite).list()) {
+                ids.add(permission.getId());
+            }
+            entryAccessDAO.revoke(ids);
+
             CriteriaDelete<Permission> delete = getBuilder().createCriteriaDelete(Permission.class);
             Root<Permission> from = delete.from(Permission.class);
             List<Predicate> predicates = new ArrayList<>();
@@ -144,6 +177,111 @@ public class PermissionDAO extends HibernateRepository<Permission> {
         }
     }
 
+    /**
+     * Creates the specified permission for each of the entries that does not already have it. The permissions (and
+     * the access they grant) are saved in the specified session so that they are sent to the database in JDBC
+     * batches when it is flushed.
+     * <p>
+     * The session is expected to be a separate (non-context bound) session, typically obtained from
+     * {@link org.jbei.ice.storage.hibernate.HibernateUtil#newSession()}, that the caller commits and clears
+     * between batches of entries
+     *
+     * @param session  session to create permissions in
+     * @param entryIds unique identifiers of entries to create permission for. Entries that do not exist are ignored
+     * @param account  account being granted permission, or null for a group permission
+     * @param group    group being granted permission, or null for an account permission
+     * @param canRead  read permission
+     * @param canWrite write permission
+     * @return unique identifiers of the entries that permissions were created for
+     * @throws DAOException on Hibernate Exception
+     */
+    public List<Long> createEntryPermissions(Session session, List<Long> entryIds, Account account, Group group,
+                                             boolean canRead, boolean canWrite) {
+        try {
+            CriteriaBuilder builder = session.getCriteriaBuilder();
+            CriteriaQuery<Long> query = builder.createQuery(Long.class);
+            Root<Entry> from = query.from(Entry.class);
+
+            Subquery<Long> existing = query.subquery(Long.class);
+            Root<Permission> permissionFrom = existing.from(Permission.class);
+            existing.select(permissionFrom.get("id")).where(
+                    builder.equal(permissionFrom.get("entry"), from),
+                    builder.isNull(permissionFrom.get("folder")),
+                    builder.isNull(permissionFrom.get("upload")),
+                    getPredicate(permissionFrom, "account", account),
+                    getPredicate(permissionFrom, "group", group),
+                    builder.equal(permissionFrom.get("canRead"), canRead),
+                    builder.equal(permissionFrom.get("canWrite"), canWrite));
+
+            query.select(from.get("id")).where(from.get("id").in(entryIds), builder.not(builder.exists(existing)));
+            List<Long> ids = session.createQuery(query).list();
+
+            for (Long id : ids) {
+                Permission permission = new Permission();
+                permission.setEntry(session.load(Entry.class, id));
+                permission.setAccount(account);
+                permission.setGroup(group);
+                permission.setCanRead(canRead);
+                permission.setCanWrite(canWrite);
+                session.save(permission);
+                entryAccessDAO.grant(session, permission);
+            }
+            return ids;
+        } catch (HibernateException he) {
+            Logger.error(he);
+            throw new DAOException(he);
+        }
+    }
+
+    /**
+     * Deletes the specified permission from each of the entries, using the specified session (see
+     * {@link #createEntryPermissions(Session, List, Account, Group, boolean, boolean)})
+     *
+     * @param session  session to delete permissions in
+     * @param entryIds unique identifiers of entries to delete permission from
+     * @param account  account whose permission is being deleted, or null for a group permission
+     * @param group    group whose permission is being deleted, or null for an account permission
+     * @param canRead  read permission
+     * @param canWrite write permission
+     * @return unique identifiers of the entries that permissions were deleted from
+     * @throws DAOException on Hibernate Exception
+     */
+    public List<Long> removeEntryPermissions(Session session, List<Long> entryIds, Account account, Group group,
+                                             boolean canRead, boolean canWrite) {
+        try {
+            CriteriaBuilder builder = session.getCriteriaBuilder();
+            CriteriaQuery<Object[]> query = builder.createQuery(Object[].class);
+            Root<Permission> from = query.from(Permission.class);
+            query.multiselect(from.get("id"), from.get("entry").get("id")).where(
+                    from.get("entry").get("id").in(entryIds),
+                    builder.isNull(from.get("folder")),
+                    builder.isNull(from.get("upload")),
+                    getPredicate(from, "account", account),
+                    getPredicate(from, "group", group),
+                    builder.equal(from.get("canRead"), canRead),
+                    builder.equal(from.get("canWrite"), canWrite));
+
+            List<Long> ids = new ArrayList<>();
+            Set<Long> entries = new HashSet<>();
+            for (Object[] result : session.createQuery(query).list()) {
+                ids.add((Long) result[0]);
+                entries.add((Long) result[1]);
+            }
+            if (ids.isEmpty())
+                return new ArrayList<>();
+
+            entryAccessDAO.revoke(session, ids);
+            CriteriaDelete<Permission> delete = builder.createCriteriaDelete(Permission.class);
+            Root<Permission> deleteFrom = delete.from(Permission.class);
+            delete.where(deleteFrom.get("id").in(ids));
+            session.createQuery(delete).executeUpdate();
+            return new ArrayList<>(entries);
+        } catch (HibernateException he) {
+            Logger.error(he);
+            throw new DAOException(he);
+        }
+    }
+
     public List<Permission> getEntryPermissions(Entry entry) {
         try {
             CriteriaQuery<Permission> query = getBuilder().createQuery(Permission.class);
@@ -220,6 +358,7 @@ public class PermissionDAO extends HibernateRepository<Permission> {
     }
 
     public int clearPermissions(Folder folder) {
+        entryAccessDAO.revokeFolderPermissions(folder);
         Session session = currentSession();
         Query query = session.createQuery("delete " + Permission.class.getName() + " where folder = :folder");
         query.setParameter("folder", folder);
@@ -232,6 +371,7 @@ public class PermissionDAO extends HibernateRepository<Permission> {
     }
 
     public int clearPermissions(Group group) {
+        entryAccessDAO.revokeGroupPermissions(group);
         Session session = currentSession();
         Query query = session.createQuery("delete " + Permission.class.getName() + " where group = :group");
         query.setParameter("group", group);
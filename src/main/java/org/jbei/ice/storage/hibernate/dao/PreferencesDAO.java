@@ -28,7 +28,7 @@ public class PreferencesDAO extends HibernateRepository<Preference> {
             CriteriaQuery<Preference> query = getBuilder().createQuery(Preference.class);
             Root<Preference> from = query.from(Preference.class);
             query.where(getBuilder().equal(from.get("account"), account), from.get("key").in(keyString));
-            return currentSession().createQuery(query).list();
+            return currentSession().createQuery(query).setCacheable(true).list();
         } catch (HibernateException he) {
             Logger.error(he);
             throw new DAOException(he);
@@ -43,7 +43,7 @@ public class PreferencesDAO extends HibernateRepository<Preference> {
                     getBuilder().equal(from.get("account"), account),
                     getBuilder().equal(from.get("key"), key.toUpperCase())
             );
-            return currentSession().createQuery(query).uniqueResult();
+            return currentSession().createQuery(query).setCacheable(true).uniqueResult();
         } catch (HibernateException he) {
             Logger.error(he);
             throw new DAOException(he);
@@ -55,7 +55,7 @@ public class PreferencesDAO extends HibernateRepository<Preference> {
             CriteriaQuery<Preference> query = getBuilder().createQuery(Preference.class);
             Root<Preference> from = query.from(Preference.class);
             query.where(getBuilder().equal(from.get("account"), account), from.get("key").in(keys));
-            List<Preference> result = currentSession().createQuery(query).list();
+            List<Preference> result = currentSession().createQuery(query).setCacheable(true).list();
 
             Iterator iterator = result.iterator();
             HashMap<String, String> results = new HashMap<>();
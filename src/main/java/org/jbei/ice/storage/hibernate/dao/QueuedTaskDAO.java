@@ -0,0 +1,243 @@
+package org.jbei.ice.storage.hibernate.dao;
+
+import org.hibernate.HibernateException;
+import org.hibernate.Session;
+import org.jbei.ice.lib.common.logging.Logger;
+import org.jbei.ice.lib.executor.TaskStatus;
+import org.jbei.ice.storage.DAOException;
+import org.jbei.ice.storage.hibernate.HibernateRepository;
+import org.jbei.ice.storage.model.QueuedTaskModel;
+
+import javax.persistence.criteria.*;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Data accessor object for the persistent task queue ({@link QueuedTaskModel})
+ * <p>
+ * Tasks waiting to be run have a status of {@link TaskStatus#PENDING} and leased tasks a status of
+ * {@link TaskStatus#IN_PROGRESS}. Leases are acquired with a conditional update so that only one node can
+ * acquire the lease on a task at a time
+ *
+ * @author Hector Plahar
+ */
+public class QueuedTaskDAO extends HibernateRepository<QueuedTaskModel> {
+
+    @Override
+    public QueuedTaskModel get(long id) {
+        return super.get(QueuedTaskModel.class, id);
+    }
+
+    /**
+     * Retrieves tasks that can be leased; pending tasks that are available to run and leased tasks whose
+     * lease has expired. Tasks are returned in order of priority (highest first) and then order of creation
+     *
+     * @param now   current time
+     * @param limit maximum number of tasks to return
+     * @return list of tasks that can be leased
+     */
+    public List<QueuedTaskModel> getAvailable(Date now, int limit) {
+        try {
+            CriteriaBuilder builder = getBuilder();
+            CriteriaQuery<QueuedTaskModel> query = builder.createQuery(QueuedTaskModel.class);
+            Root<QueuedTaskModel> from = query.from(QueuedTaskModel.class);
+            query.where(isAvailable(builder, from, now))
+                    .orderBy(builder.desc(from.get("priority")), builder.asc(from.get("id")));
+            return currentSession().createQuery(query).setMaxResults(limit).list();
+        } catch (HibernateException he) {
+            Logger.error(he);
+            throw new DAOException(he);
+        }
+    }
+
+    /**
+     * Acquires the lease on a task if it is still available
+     *
+     * @param id           unique identifier for task
+     * @param owner        unique identifier for node acquiring the lease
+     * @param now          current time
+     * @param leaseExpires time at which lease expires if it is not renewed
+     * @return true if the lease was acquired, false if the task is not available (e.g. was leased by another node)
+     */
+    public boolean lease(long id, String owner, Date now, Date leaseExpires) {
+        try {
+            CriteriaBuilder builder = getBuilder();
+            CriteriaUpdate<QueuedTaskModel> update = builder.createCriteriaUpdate(QueuedTaskModel.class);
+            Root<QueuedTaskModel> from = update.from(QueuedTaskModel.class);
+            update.set(from.get("status"), TaskStatus.IN_PROGRESS);
+            update.set(from.get("leaseOwner"), owner);
+            update.set(from.get("leaseExpires"), leaseExpires);
+            update.set(from.get("modificationTime"), now);
+            update.set(from.<Integer>get("attempts"), builder.sum(from.<Integer>get("attempts"), 1));
+            update.where(builder.equal(from.get("id"), id), isAvailable(builder, from, now));
+            return currentSession().createQuery(update).executeUpdate() == 1;
+        } catch (HibernateException he) {
+            Logger.error(he);
+            throw new DAOException(he);
+        }
+    }
+
+    /**
+     * Extends the leases held by a node on the specified tasks
+     *
+     * @param owner        unique identifier for node holding the leases
+     * @param ids          identifiers for tasks whose leases are to be extended
+     * @param leaseExpires new lease expiration time
+     * @return number of leases extended
+     */
+    public int renewLeases(String owner, Collection<Long> ids, Date leaseExpires) {
+        if (ids.isEmpty())
+            return 0;
+
+        try {
+            CriteriaBuilder builder = getBuilder();
+            CriteriaUpdate<QueuedTaskModel> update = builder.createCriteriaUpdate(QueuedTaskModel.class);
+            Root<QueuedTaskModel> from = update.from(QueuedTaskModel.class);
+            update.set(from.get("leaseExpires"), leaseExpires);
+            update.where(from.get("id").in(ids),
+                    builder.equal(from.get("leaseOwner"), owner),
+                    builder.equal(from.get("status"), TaskStatus.IN_PROGRESS));
+            return currentSession().createQuery(update).executeUpdate();
+        } catch (HibernateException he) {
+            Logger.error(he);
+            throw new DAOException(he);
+        }
+    }
+
+    /**
+     * Returns tasks leased by a node to the queue so they can be leased again immediately (by any node)
+     *
+     * @param owner unique identifier for node holding the leases
+     * @param ids   identifiers for tasks to release
+     * @return number of tasks released
+     */
+    public int release(String owner, Collection<Long> ids) {
+        if (ids.isEmpty())
+            return 0;
+
+        try {
+            CriteriaBuilder builder = getBuilder();
+            CriteriaUpdate<QueuedTaskModel> update = builder.createCriteriaUpdate(QueuedTaskModel.class);
+            Root<QueuedTaskModel> from = update.from(QueuedTaskModel.class);
+            update.set(from.get("status"), TaskStatus.PENDING);
+            update.set(from.get("leaseOwner"), (Object) null);
+            update.set(from.get("leaseExpires"), (Object) null);
+            update.set(from.<Integer>get("attempts"), builder.diff(from.<Integer>get("attempts"), 1));
+            update.where(from.get("id").in(ids),
+                    builder.equal(from.get("leaseOwner"), owner),
+                    builder.equal(from.get("status"), TaskStatus.IN_PROGRESS));
+            return currentSession().createQuery(update).executeUpdate();
+        } catch (HibernateException he) {
+            Logger.error(he);
+            throw new DAOException(he);
+        }
+    }
+
+    /**
+     * Marks a leased task as finished (completed, or failed without further attempts) if the lease on it is still
+     * held by the specified node
+     *
+     * @param id     unique identifier for task
+     * @param owner  unique identifier for node holding the lease
+     * @param status {@link TaskStatus#COMPLETED} or {@link TaskStatus#EXCEPTION}
+     * @param error  optional error recorded for the task
+     * @param now    current time
+     * @return true if the task was updated, false if the lease is no longer held by owner (e.g. it expired and the
+     * task was leased by another node)
+     */
+    public boolean finish(long id, String owner, TaskStatus status, String error, Date now) {
+        try {
+            CriteriaBuilder builder = getBuilder();
+            CriteriaUpdate<QueuedTaskModel> update = builder.createCriteriaUpdate(QueuedTaskModel.class);
+            Root<QueuedTaskModel> from = update.from(QueuedTaskModel.class);
+            update.set(from.get("status"), status);
+            update.set(from.get("leaseOwner"), (Object) null);
+            update.set(from.get("leaseExpires"), (Object) null);
+            update.set(from.get("modificationTime"), now);
+            if (error != null)
+                update.set(from.get("lastError"), error);
+            update.where(builder.equal(from.get("id"), id),
+                    builder.equal(from.get("leaseOwner"), owner),
+                    builder.equal(from.get("status"), TaskStatus.IN_PROGRESS));
+            return currentSession().createQuery(update).executeUpdate() == 1;
+        } catch (HibernateException he) {
+            Logger.error(he);
+            throw new DAOException(he);
+        }
+    }
+
+    /**
+     * Records the checkpoint for a (long running) task and extends its lease. Uses the specified session so
+     * that the checkpoint can be committed independently of the transaction the task is run in
+     *
+     * @param session      session to use
+     * @param id           unique identifier for task
+     * @param checkpoint   checkpoint value
+     * @param leaseExpires new lease expiration time
+     */
+    public void updateCheckpoint(Session session, long id, String checkpoint, Date leaseExpires) {
+        try {
+            CriteriaBuilder builder = session.getCriteriaBuilder();
+            CriteriaUpdate<QueuedTaskModel> update = builder.createCriteriaUpdate(QueuedTaskModel.class);
+            Root<QueuedTaskModel> from = update.from(QueuedTaskModel.class);
+            update.set(from.get("checkpoint"), checkpoint);
+            update.set(from.get("leaseExpires"), leaseExpires);
+            update.where(builder.equal(from.get("id"), id));
+            session.createQuery(update).executeUpdate();
+        } catch (HibernateException he) {
+            Logger.error(he);
+            throw new DAOException(he);
+        }
+    }
+
+    /**
+     * Checks if there is a task with the specified key waiting to be run
+     *
+     * @param key task key
+     * @return true if a task with the key has a status of pending
+     */
+    public boolean hasPending(String key) {
+        try {
+            CriteriaQuery<Long> query = getBuilder().createQuery(Long.class);
+            Root<QueuedTaskModel> from = query.from(QueuedTaskModel.class);
+            query.select(getBuilder().countDistinct(from.get("id"))).where(
+                    getBuilder().equal(from.get("taskKey"), key),
+                    getBuilder().equal(from.get("status"), TaskStatus.PENDING));
+            return currentSession().createQuery(query).uniqueResult() > 0;
+        } catch (HibernateException he) {
+            Logger.error(he);
+            throw new DAOException(he);
+        }
+    }
+
+    /**
+     * Deletes tasks that completed (successfully or not) before the specified time
+     *
+     * @param before time before which tasks completed
+     * @return number of tasks deleted
+     */
+    public int deleteFinished(Date before) {
+        try {
+            CriteriaBuilder builder = getBuilder();
+            CriteriaDelete<QueuedTaskModel> delete = builder.createCriteriaDelete(QueuedTaskModel.class);
+            Root<QueuedTaskModel> from = delete.from(QueuedTaskModel.class);
+            delete.where(from.get("status").in(TaskStatus.COMPLETED, TaskStatus.EXCEPTION),
+                    builder.lessThan(from.<Date>get("modificationTime"), before));
+            return currentSession().createQuery(delete).executeUpdate();
+        } catch (HibernateException he) {
+            Logger.error(he);
+            throw new DAOException(he);
+        }
+    }
+
+    private Predicate isAvailable(CriteriaBuilder builder, Root<QueuedTaskModel> from, Date now) {
+        Predicate pending = builder.and(
+                builder.equal(from.get("status"), TaskStatus.PENDING),
+                builder.lessThanOrEqualTo(from.<Date>get("availableAt"), now));
+        Predicate expired = builder.and(
+                builder.equal(from.get("status"), TaskStatus.IN_PROGRESS),
+                builder.lessThan(from.<Date>get("leaseExpires"), now));
+        return builder.or(pending, expired);
+    }
+}
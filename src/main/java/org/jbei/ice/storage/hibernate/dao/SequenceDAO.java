@@ -1,19 +1,25 @@
 package org.jbei.ice.storage.hibernate.dao;
 
 import org.hibernate.HibernateException;
+import org.hibernate.Session;
+import org.hibernate.Transaction;
+import org.hibernate.exception.ConstraintViolationException;
 import org.jbei.ice.lib.common.logging.Logger;
 import org.jbei.ice.lib.dto.entry.Visibility;
 import org.jbei.ice.lib.entry.sequence.SequenceFormat;
 import org.jbei.ice.lib.entry.sequence.SequenceUtil;
+import org.jbei.ice.lib.utils.Utils;
 import org.jbei.ice.storage.DAOException;
 import org.jbei.ice.storage.hibernate.HibernateRepository;
+import org.jbei.ice.storage.hibernate.HibernateUtil;
 import org.jbei.ice.storage.model.Entry;
+import org.jbei.ice.storage.model.PackedSequence;
 import org.jbei.ice.storage.model.Sequence;
 
-import javax.persistence.criteria.CriteriaQuery;
-import javax.persistence.criteria.Join;
-import javax.persistence.criteria.Root;
-import java.util.Optional;
+import javax.persistence.PersistenceException;
+import javax.persistence.criteria.*;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
 
 /**
  * Manipulate {@link Sequence} and associated objects in the database.
@@ -22,8 +28,13 @@ import java.util.Optional;
  */
 public class SequenceDAO extends HibernateRepository<Sequence> {
 
+    // age after which reused packed residues are touched to keep them from being deleted as unused. Well within
+    // the minimum age of residues deleted by the cleanup (see PackedSequenceCleanupTask)
+    private static final long REUSE_TOUCH_AGE = TimeUnit.MINUTES.toMillis(10);
+
     /**
-     * Retrieve the {@link Sequence} object associated with the given {@link Entry} object.
+     * Retrieve the {@link Sequence} object associated with the given {@link Entry} object, along with its
+     * packed residues.
      *
      * @param entry entry associated with sequence
      * @return Sequence object.
@@ -32,6 +43,7 @@ public class SequenceDAO extends HibernateRepository<Sequence> {
         try {
             CriteriaQuery<Sequence> query = getBuilder().createQuery(Sequence.class);
             Root<Sequence> from = query.from(Sequence.class);
+            from.fetch("packedSequence", JoinType.LEFT);
             query.where(getBuilder().equal(from.get("entry"), entry));
             Optional<Sequence> sequence = currentSession().createQuery(query).uniqueResultOptional();
             return sequence.map(SequenceUtil::normalizeAnnotationLocations).orElse(null);
@@ -64,10 +76,11 @@ public class SequenceDAO extends HibernateRepository<Sequence> {
 
     public Optional<String> getSequenceString(Entry entry) {
         try {
-            CriteriaQuery<String> query = getBuilder().createQuery(String.class);
+            CriteriaQuery<Sequence> query = getBuilder().createQuery(Sequence.class);
             Root<Sequence> from = query.from(Sequence.class);
-            query.select(from.get("sequence")).where(getBuilder().equal(from.get("entry"), entry));
-            return currentSession().createQuery(query).uniqueResultOptional();
+            from.fetch("packedSequence", JoinType.LEFT);
+            query.where(getBuilder().equal(from.get("entry"), entry));
+            return currentSession().createQuery(query).uniqueResultOptional().map(Sequence::getSequence);
         } catch (HibernateException he) {
             Logger.error(he);
             throw new DAOException(he);
@@ -123,6 +136,51 @@ public class SequenceDAO extends HibernateRepository<Sequence> {
         }
     }
 
+    /**
+     * Retrieves the subset of the specified entry ids that have a sequence
+     *
+     * @param entryIds identifiers for entries to check
+     * @return set of identifiers for entries with sequences
+     */
+    public Set<Long> getEntryIdsWithSequence(Collection<Long> entryIds) {
+        return getEntryIdsWithSequence(entryIds, false);
+    }
+
+    /**
+     * Retrieves the subset of the specified entry ids that have a sequence with the original (user uploaded)
+     * sequence file available
+     *
+     * @param entryIds identifiers for entries to check
+     * @return set of identifiers for entries with original sequences
+     */
+    public Set<Long> getEntryIdsWithOriginalSequence(Collection<Long> entryIds) {
+        return getEntryIdsWithSequence(entryIds, true);
+    }
+
+    private Set<Long> getEntryIdsWithSequence(Collection<Long> entryIds, boolean original) {
+        if (entryIds == null || entryIds.isEmpty())
+            return new HashSet<>();
+
+        try {
+            CriteriaBuilder builder = getBuilder();
+            CriteriaQuery<Long> query = builder.createQuery(Long.class);
+            Root<Sequence> from = query.from(Sequence.class);
+            Join<Sequence, Entry> entry = from.join("entry");
+            if (original) {
+                query.where(entry.get("id").in(entryIds),
+                        builder.notEqual(from.get("sequenceUser"), ""),
+                        builder.isNotNull(from.get("sequenceUser")));
+            } else {
+                query.where(entry.get("id").in(entryIds));
+            }
+            query.select(entry.get("id")).distinct(true);
+            return new HashSet<>(currentSession().createQuery(query).list());
+        } catch (HibernateException he) {
+            Logger.error(he);
+            throw new DAOException(he);
+        }
+    }
+
     /**
      * Enables retrieving sequences in the database without loading everything in memory
      * <p/>
@@ -136,13 +194,14 @@ public class SequenceDAO extends HibernateRepository<Sequence> {
      * }
      * </code>
      *
-     * @return Sequence at the specified offset
+     * @return Sequence (with its packed residues) at the specified offset
      * @throws DAOException on Hibernate Exception
      */
     public Sequence getSequence(int offset) {
         try {
             CriteriaQuery<Sequence> query = getBuilder().createQuery(Sequence.class);
             Root<Sequence> from = query.from(Sequence.class);
+            from.fetch("packedSequence", JoinType.LEFT);
             Join<Sequence, Entry> entry = from.join("entry");
             query.where(getBuilder().equal(entry.get("visibility"), Visibility.OK.getValue()));
             return currentSession().createQuery(query).setFirstResult(offset).setMaxResults(1).uniqueResult();
@@ -152,6 +211,39 @@ public class SequenceDAO extends HibernateRepository<Sequence> {
         }
     }
 
+    /**
+     * Retrieves a batch of sequences for valid (visibility=9) entries ordered by sequence identifier, starting
+     * after the specified identifier (keyset paging). Unlike {@link #getSequence(int)} the cost of each call does
+     * not grow with the position in the table.
+     * <p>
+     * The session is expected to be a separate (non-context bound) session, typically obtained from
+     * {@link org.jbei.ice.storage.hibernate.HibernateUtil#newSession()}, that the caller clears between batches
+     * so that large iterations do not accumulate entities.
+     *
+     * @param session session to run query in
+     * @param afterId identifier of the last sequence in the previous batch, or 0 for the first batch
+     * @param limit   maximum number of sequences to retrieve
+     * @return list of sequences with their entries and packed residues; empty when there are no more sequences
+     * @throws DAOException on Hibernate Exception
+     */
+    public List<Sequence> getSequenceBatch(Session session, long afterId, int limit) {
+        try {
+            CriteriaBuilder builder = session.getCriteriaBuilder();
+            CriteriaQuery<Sequence> query = builder.createQuery(Sequence.class);
+            Root<Sequence> from = query.from(Sequence.class);
+            Join<Sequence, Entry> entry = (Join<Sequence, Entry>) from.<Sequence, Entry>fetch("entry");
+            from.fetch("packedSequence", JoinType.LEFT);
+            query.where(
+                    builder.greaterThan(from.get("id"), afterId),
+                    builder.equal(entry.get("visibility"), Visibility.OK.getValue()));
+            query.orderBy(builder.asc(from.get("id")));
+            return session.createQuery(query).setMaxResults(limit).setReadOnly(true).list();
+        } catch (HibernateException he) {
+            Logger.error(he);
+            throw new DAOException(he);
+        }
+    }
+
     /**
      * @return number of sequences available for all valid (visibility=9) entry object
      */
@@ -169,8 +261,263 @@ public class SequenceDAO extends HibernateRepository<Sequence> {
         }
     }
 
+    /**
+     * Retrieves the identifier of the sequence associated with the specified entry, without loading the sequence
+     *
+     * @param entryId unique identifier for entry
+     * @return container with sequence identifier, or empty if the entry does not have a sequence
+     * @throws DAOException on Hibernate Exception
+     */
+    public Optional<Long> getSequenceId(long entryId) {
+        try {
+            CriteriaQuery<Long> query = getBuilder().createQuery(Long.class);
+            Root<Sequence> from = query.from(Sequence.class);
+            Join<Sequence, Entry> entry = from.join("entry");
+            query.select(from.get("id")).where(getBuilder().equal(entry.get("id"), entryId));
+            return currentSession().createQuery(query).setMaxResults(1).uniqueResultOptional();
+        } catch (HibernateException he) {
+            Logger.error(he);
+            throw new DAOException(he);
+        }
+    }
+
+    /**
+     * @param sequenceId unique identifier for sequence
+     * @return name of the stored file containing the sequence that was originally uploaded by the user, or null
+     * @throws DAOException on Hibernate Exception
+     */
+    public String getSequenceUser(long sequenceId) {
+        try {
+            CriteriaQuery<String> query = getBuilder().createQuery(String.class);
+            Root<Sequence> from = query.from(Sequence.class);
+            query.select(from.get("sequenceUser")).where(getBuilder().equal(from.get("id"), sequenceId));
+            return currentSession().createQuery(query).uniqueResult();
+        } catch (HibernateException he) {
+            Logger.error(he);
+            throw new DAOException(he);
+        }
+    }
+
+    /**
+     * @param sequenceId unique identifier for sequence
+     * @return number of residues in the sequence (computed by the database)
+     * @throws DAOException on Hibernate Exception
+     */
+    public int getSequenceLength(long sequenceId) {
+        try {
+            CriteriaQuery<Integer> query = getBuilder().createQuery(Integer.class);
+            Root<Sequence> from = query.from(Sequence.class);
+            Join<Sequence, PackedSequence> packed = from.join("packedSequence", JoinType.LEFT);
+            query.select(getBuilder().coalesce(getBuilder().length(from.<String>get("sequence")),
+                    packed.<Integer>get("length")))
+                    .where(getBuilder().equal(from.get("id"), sequenceId));
+            Integer length = currentSession().createQuery(query).uniqueResult();
+            return length == null ? 0 : length;
+        } catch (HibernateException he) {
+            Logger.error(he);
+            throw new DAOException(he);
+        }
+    }
+
+    /**
+     * Retrieves the packed residues of a sequence
+     *
+     * @param sequenceId unique identifier for sequence
+     * @return container with the packed residues, or empty if the residues of the sequence have not been packed
+     * @throws DAOException on Hibernate Exception
+     */
+    public Optional<PackedSequence> getPackedSequence(long sequenceId) {
+        try {
+            CriteriaQuery<PackedSequence> query = getBuilder().createQuery(PackedSequence.class);
+            Root<Sequence> from = query.from(Sequence.class);
+            query.select(from.<PackedSequence>get("packedSequence")).where(
+                    getBuilder().equal(from.get("id"), sequenceId),
+                    getBuilder().isNull(from.get("sequence")),
+                    getBuilder().isNotNull(from.get("packedSequence")));
+            return currentSession().createQuery(query).uniqueResultOptional();
+        } catch (HibernateException he) {
+            Logger.error(he);
+            throw new DAOException(he);
+        }
+    }
+
+    /**
+     * Retrieves part of the residues of a sequence that has not been packed. This enables large sequences to be
+     * read in chunks instead of loading the entire sequence string
+     *
+     * @param sequenceId unique identifier for sequence
+     * @param start      (zero based) index of the first residue to retrieve
+     * @param length     maximum number of residues to retrieve
+     * @return residues; fewer than the length if the end of the sequence is reached
+     * @throws DAOException on Hibernate Exception
+     */
+    public String getSequenceChunk(long sequenceId, int start, int length) {
+        try {
+            CriteriaQuery<String> query = getBuilder().createQuery(String.class);
+            Root<Sequence> from = query.from(Sequence.class);
+            query.select(getBuilder().substring(from.<String>get("sequence"), start + 1, length))
+                    .where(getBuilder().equal(from.get("id"), sequenceId));
+            String chunk = currentSession().createQuery(query).uniqueResult();
+            return chunk == null ? "" : chunk;
+        } catch (HibernateException he) {
+            Logger.error(he);
+            throw new DAOException(he);
+        }
+    }
+
+    /**
+     * Packs a batch of sequences whose residues are still stored in the sequence row, ordered by sequence
+     * identifier and starting after the specified identifier. Used to migrate sequences created before packed
+     * storage, in a separate session that the caller commits and clears between batches
+     *
+     * @param session session to run in
+     * @param afterId identifier of the last sequence in the previous batch, or 0 for the first batch
+     * @param limit   maximum number of sequences to pack
+     * @return identifiers of the packed sequences; empty when there are no more sequences to pack
+     * @throws DAOException on Hibernate Exception
+     */
+    public List<Long> packSequenceBatch(Session session, long afterId, int limit) {
+        try {
+            CriteriaBuilder builder = session.getCriteriaBuilder();
+            CriteriaQuery<Sequence> query = builder.createQuery(Sequence.class);
+            Root<Sequence> from = query.from(Sequence.class);
+            query.where(
+                    builder.greaterThan(from.get("id"), afterId),
+                    builder.isNotNull(from.get("sequence")),
+                    builder.notEqual(from.get("sequence"), ""));
+            query.orderBy(builder.asc(from.get("id")));
+
+            List<Long> ids = new ArrayList<>();
+            for (Sequence sequence : session.createQuery(query).setMaxResults(limit).list()) {
+                pack(session, sequence);
+                ids.add(sequence.getId());
+            }
+            return ids;
+        } catch (HibernateException he) {
+            Logger.error(he);
+            throw new DAOException(he);
+        }
+    }
+
+    /**
+     * Deletes packed residues that are no longer referenced by any sequence (e.g. after the residues of a
+     * sequence are updated). Residues packed (or reused by a sequence) after the specified time are kept since they
+     * may be referenced by a sequence that is yet to be committed
+     *
+     * @param session       session to run in
+     * @param createdBefore time before which unreferenced residues were packed to be deleted
+     * @return number of packed sequences deleted
+     * @throws DAOException on Hibernate Exception
+     */
+    public int deleteUnusedPackedSequences(Session session, Date createdBefore) {
+        try {
+            return session.createQuery("delete from PackedSequence p where "
+                    + "(p.creationTime is null or p.creationTime < :createdBefore) and not exists "
+                    + "(select s.id from Sequence s where s.packedSequence = p)")
+                    .setParameter("createdBefore", createdBefore)
+                    .executeUpdate();
+        } catch (HibernateException he) {
+            Logger.error(he);
+            throw new DAOException(he);
+        }
+    }
+
+    /**
+     * Creates the sequence, with its residues packed
+     */
+    @Override
+    public Sequence create(Sequence sequence) {
+        pack(currentSession(), sequence);
+        return super.create(sequence);
+    }
+
+    /**
+     * Updates the sequence. Residues that have been changed are packed
+     */
+    @Override
+    public Sequence update(Sequence sequence) {
+        pack(currentSession(), sequence);
+        return super.update(sequence);
+    }
+
     @Override
     public Sequence get(long id) {
         return super.get(Sequence.class, id);
     }
+
+    // moves the residues stored in the sequence row to the packed sequence with the same residues, creating it if
+    // there isn't one
+    private void pack(Session session, Sequence sequence) {
+        String residues = sequence.getInlineSequence();
+        if (residues == null || residues.isEmpty())
+            return;
+
+        // hash of the exact residues; same as the forward hash when the residues are normalized
+        String hash = Utils.encryptSHA(residues);
+
+        try {
+            PackedSequence packedSequence = getPackedSequence(session, hash);
+            if (packedSequence != null && !reuse(session, packedSequence)) {
+                // deleted by the cleanup since it was retrieved
+                session.evict(packedSequence);
+                packedSequence = null;
+            }
+
+            if (packedSequence == null) {
+                createPackedSequence(hash, residues);
+                packedSequence = getPackedSequence(session, hash);
+                if (packedSequence == null)
+                    throw new DAOException("Could not retrieve packed residues with hash " + hash);
+            }
+            sequence.setPackedSequence(packedSequence);
+        } catch (HibernateException he) {
+            Logger.error(he);
+            throw new DAOException(he);
+        }
+    }
+
+    // existing packed residues may no longer be referenced by any (committed) sequence and can be deleted by the
+    // periodic cleanup before this reference is committed. Residues that are old enough to be deleted are touched
+    // (in the caller's transaction) so that they are not; the update waits for a concurrent delete to complete and
+    // the delete re-checks the (updated) creation time of a row it waited on
+    private boolean reuse(Session session, PackedSequence packedSequence) {
+        Date now = new Date();
+        Date creationTime = packedSequence.getCreationTime();
+        if (creationTime != null && now.getTime() - creationTime.getTime() < REUSE_TOUCH_AGE)
+            return true;
+
+        return session.createQuery("update PackedSequence p set p.creationTime = :now where p.id = :id")
+                .setParameter("now", now)
+                .setParameter("id", packedSequence.getId())
+                .executeUpdate() > 0;
+    }
+
+    private PackedSequence getPackedSequence(Session session, String hash) {
+        CriteriaBuilder builder = session.getCriteriaBuilder();
+        CriteriaQuery<PackedSequence> query = builder.createQuery(PackedSequence.class);
+        Root<PackedSequence> from = query.from(PackedSequence.class);
+        query.where(builder.equal(from.get("hash"), hash));
+        return session.createQuery(query).uniqueResultOptional().orElse(null);
+    }
+
+    // packed residues are created (and committed) in a separate transaction so that a concurrent insert of the same
+    // residues, which violates the unique hash constraint, only fails this insert and not the caller's transaction.
+    // The residues are deleted by the periodic cleanup if the caller's transaction is rolled back
+    private void createPackedSequence(String hash, String residues) {
+        Session session = HibernateUtil.newSession();
+        Transaction transaction = session.beginTransaction();
+        try {
+            session.save(new PackedSequence(hash, residues));
+            session.flush();
+            transaction.commit();
+        } catch (PersistenceException e) {
+            transaction.rollback();
+            if (!(e instanceof ConstraintViolationException) && !(e.getCause() instanceof ConstraintViolationException))
+                throw e;
+
+            // created by a concurrent transaction
+        } finally {
+            session.close();
+        }
+    }
 }
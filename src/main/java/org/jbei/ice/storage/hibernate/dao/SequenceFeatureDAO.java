@@ -7,11 +7,9 @@ import org.jbei.ice.storage.DAOException;
 import org.jbei.ice.storage.hibernate.HibernateRepository;
 import org.jbei.ice.storage.model.*;
 
-import javax.persistence.criteria.CriteriaQuery;
-import javax.persistence.criteria.Join;
-import javax.persistence.criteria.Root;
-import java.util.Arrays;
-import java.util.List;
+import javax.persistence.Tuple;
+import javax.persistence.criteria.*;
+import java.util.*;
 
 /**
  * Hibernate Data accessor object for {@link SequenceFeature}s
@@ -134,4 +132,89 @@ public class SequenceFeatureDAO extends HibernateRepository<SequenceFeature> {
             throw new DAOException(he);
         }
     }
+
+    /**
+     * Retrieves a batch of the features of a sequence ordered by identifier, starting after the specified
+     * identifier (keyset paging). Only the columns needed to write out the features (along with their locations and
+     * attributes) are selected, so that the sequence (and its residues) is not loaded with each feature.
+     * <p>
+     * The returned objects are not attached to the session and only the identifier of the associated
+     * {@link Feature} is set
+     *
+     * @param sequenceId unique identifier for sequence
+     * @param afterId    identifier of the last feature in the previous batch, or 0 for the first batch
+     * @param limit      maximum number of features to retrieve
+     * @return list of features; empty when there are no more features
+     * @throws DAOException on Hibernate Exception
+     */
+    public List<SequenceFeature> getFeatureBatch(long sequenceId, long afterId, int limit) {
+        try {
+            CriteriaBuilder builder = getBuilder();
+            CriteriaQuery<Tuple> query = builder.createTupleQuery();
+            Root<SequenceFeature> from = query.from(SequenceFeature.class);
+            Join<SequenceFeature, Feature> feature = from.join("feature", JoinType.LEFT);
+            query.multiselect(from.get("id"), from.get("name"), from.get("genbankType"), from.get("strand"),
+                    from.get("uri"), from.get("annotationType"), feature.get("id"));
+            query.where(
+                    builder.equal(from.get("sequence").get("id"), sequenceId),
+                    builder.greaterThan(from.get("id"), afterId));
+            query.orderBy(builder.asc(from.get("id")));
+
+            Map<Long, SequenceFeature> features = new LinkedHashMap<>();
+            for (Tuple row : currentSession().createQuery(query).setMaxResults(limit).list()) {
+                Feature featureObject = null;
+                Long featureId = row.get(6, Long.class);
+                if (featureId != null) {
+                    featureObject = new Feature();
+                    featureObject.setId(featureId);
+                }
+
+                SequenceFeature sequenceFeature = new SequenceFeature(null, featureObject,
+                        row.get(3, Integer.class), row.get(1, String.class), row.get(2, String.class),
+                        row.get(5, SequenceFeature.AnnotationType.class));
+                sequenceFeature.setId(row.get(0, Long.class));
+                sequenceFeature.setUri(row.get(4, String.class));
+                features.put(sequenceFeature.getId(), sequenceFeature);
+            }
+
+            if (features.isEmpty())
+                return new ArrayList<>();
+
+            // locations
+            CriteriaQuery<Tuple> locationQuery = builder.createTupleQuery();
+            Root<AnnotationLocation> location = locationQuery.from(AnnotationLocation.class);
+            Path<Long> locationFeatureId = location.get("sequenceFeature").get("id");
+            locationQuery.multiselect(locationFeatureId, location.get("genbankStart"), location.get("end"));
+            locationQuery.where(locationFeatureId.in(features.keySet()));
+            locationQuery.orderBy(builder.asc(location.get("id")));
+            for (Tuple row : currentSession().createQuery(locationQuery).list()) {
+                SequenceFeature sequenceFeature = features.get(row.get(0, Long.class));
+                sequenceFeature.getAnnotationLocations().add(new AnnotationLocation(
+                        row.get(1, Integer.class), row.get(2, Integer.class), sequenceFeature));
+            }
+
+            // attributes
+            CriteriaQuery<Tuple> attributeQuery = builder.createTupleQuery();
+            Root<SequenceFeatureAttribute> attribute = attributeQuery.from(SequenceFeatureAttribute.class);
+            Path<Long> attributeFeatureId = attribute.get("sequenceFeature").get("id");
+            attributeQuery.multiselect(attributeFeatureId, attribute.get("key"), attribute.get("value"),
+                    attribute.get("quoted"));
+            attributeQuery.where(attributeFeatureId.in(features.keySet()));
+            attributeQuery.orderBy(builder.asc(attribute.get("id")));
+            for (Tuple row : currentSession().createQuery(attributeQuery).list()) {
+                SequenceFeature sequenceFeature = features.get(row.get(0, Long.class));
+                SequenceFeatureAttribute featureAttribute = new SequenceFeatureAttribute();
+                featureAttribute.setKey(row.get(1, String.class));
+                featureAttribute.setValue(row.get(2, String.class));
+                featureAttribute.setQuoted(row.get(3, Boolean.class));
+                featureAttribute.setSequenceFeature(sequenceFeature);
+                sequenceFeature.getSequenceFeatureAttributes().add(featureAttribute);
+            }
+
+            return new ArrayList<>(features.values());
+        } catch (HibernateException he) {
+            Logger.error(he);
+            throw new DAOException(he);
+        }
+    }
 }
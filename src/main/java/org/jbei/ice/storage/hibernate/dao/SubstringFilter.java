@@ -0,0 +1,62 @@
+package org.jbei.ice.storage.hibernate.dao;
+
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+
+/**
+ * Case insensitive substring filter on text fields (<code>lower(field) like '%text%'</code>). The expression matches
+ * the trigram indexes on the filtered columns (see {@link org.jbei.ice.storage.hibernate.TrigramIndexes}) so that
+ * they are used where available. Wildcards in the filter text are matched literally.
+ *
+ * @author Hector Plahar
+ */
+class SubstringFilter {
+
+    static final String[] ENTRY_FIELDS = {"name", "alias", "partNumber"};
+
+    private SubstringFilter() {
+    }
+
+    /**
+     * @return true if filter has text to filter by
+     */
+    static boolean isSet(String filter) {
+        return filter != null && !filter.trim().isEmpty();
+    }
+
+    /**
+     * @param filter filter text
+     * @return like pattern matching the filter text (lower case) anywhere in a value
+     */
+    static String pattern(String filter) {
+        String text = filter.trim().toLowerCase();
+        StringBuilder builder = new StringBuilder(text.length() + 2).append('%');
+        for (char c : text.toCharArray()) {
+            if (c == '%' || c == '_' || c == '\\')
+                builder.append('\\');   // default escape character for h2 and postgres
+            builder.append(c);
+        }
+        return builder.append('%').toString();
+    }
+
+    /**
+     * Creates a predicate for values of any of the fields containing the filter text
+     *
+     * @param builder criteria builder
+     * @param path    path to object with fields
+     * @param filter  filter text
+     * @param fields  names of the fields
+     * @return predicate or null if there is no filter text
+     */
+    static Predicate create(CriteriaBuilder builder, Path<?> path, String filter, String... fields) {
+        if (!isSet(filter))
+            return null;
+
+        String pattern = pattern(filter);
+        Predicate[] predicates = new Predicate[fields.length];
+        for (int i = 0; i < fields.length; i += 1)
+            predicates[i] = builder.like(builder.lower(path.<String>get(fields[i])), pattern);
+        return predicates.length == 1 ? predicates[0] : builder.or(predicates);
+    }
+}
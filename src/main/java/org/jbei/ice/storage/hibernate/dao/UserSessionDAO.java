@@ -0,0 +1,96 @@
+package org.jbei.ice.storage.hibernate.dao;
+
+import org.hibernate.HibernateException;
+import org.jbei.ice.lib.common.logging.Logger;
+import org.jbei.ice.storage.DAOException;
+import org.jbei.ice.storage.hibernate.HibernateRepository;
+import org.jbei.ice.storage.model.UserSessionModel;
+
+import javax.persistence.criteria.*;
+import java.util.Date;
+import java.util.Optional;
+
+/**
+ * Data accessor object for user sessions stored in the database ({@link UserSessionModel})
+ *
+ * @author Hector Plahar
+ */
+public class UserSessionDAO extends HibernateRepository<UserSessionModel> {
+
+    @Override
+    public UserSessionModel get(long id) {
+        return super.get(UserSessionModel.class, id);
+    }
+
+    public Optional<UserSessionModel> getBySessionId(String sessionId) {
+        try {
+            CriteriaQuery<UserSessionModel> query = getBuilder().createQuery(UserSessionModel.class);
+            Root<UserSessionModel> from = query.from(UserSessionModel.class);
+            query.where(getBuilder().equal(from.get("sessionId"), sessionId));
+            return currentSession().createQuery(query).uniqueResultOptional();
+        } catch (HibernateException he) {
+            Logger.error(he);
+            throw new DAOException(he);
+        }
+    }
+
+    public int updateLastAccessTime(String sessionId, Date time) {
+        try {
+            CriteriaUpdate<UserSessionModel> update = getBuilder().createCriteriaUpdate(UserSessionModel.class);
+            Root<UserSessionModel> from = update.from(UserSessionModel.class);
+            update.set(from.get("lastAccessTime"), time);
+            update.where(getBuilder().equal(from.get("sessionId"), sessionId));
+            return currentSession().createQuery(update).executeUpdate();
+        } catch (HibernateException he) {
+            Logger.error(he);
+            throw new DAOException(he);
+        }
+    }
+
+    public int deleteBySessionId(String sessionId) {
+        try {
+            CriteriaDelete<UserSessionModel> delete = getBuilder().createCriteriaDelete(UserSessionModel.class);
+            Root<UserSessionModel> from = delete.from(UserSessionModel.class);
+            delete.where(getBuilder().equal(from.get("sessionId"), sessionId));
+            return currentSession().createQuery(delete).executeUpdate();
+        } catch (HibernateException he) {
+            Logger.error(he);
+            throw new DAOException(he);
+        }
+    }
+
+    public int deleteByUserId(String userId) {
+        try {
+            CriteriaDelete<UserSessionModel> delete = getBuilder().createCriteriaDelete(UserSessionModel.class);
+            Root<UserSessionModel> from = delete.from(UserSessionModel.class);
+            delete.where(getBuilder().equal(from.get("userId"), userId));
+            return currentSession().createQuery(delete).executeUpdate();
+        } catch (HibernateException he) {
+            Logger.error(he);
+            throw new DAOException(he);
+        }
+    }
+
+    /**
+     * Deletes expired sessions
+     *
+     * @param idleBefore    sessions last accessed before this time are deleted
+     * @param createdBefore sessions created before this time are deleted
+     * @return number of sessions deleted
+     * @throws DAOException on Hibernate Exception
+     */
+    public int deleteExpired(Date idleBefore, Date createdBefore) {
+        try {
+            CriteriaBuilder builder = getBuilder();
+            CriteriaDelete<UserSessionModel> delete = builder.createCriteriaDelete(UserSessionModel.class);
+            Root<UserSessionModel> from = delete.from(UserSessionModel.class);
+            delete.where(builder.or(
+                    builder.lessThan(from.get("lastAccessTime"), idleBefore),
+                    builder.lessThan(from.get("creationTime"), createdBefore)));
+            return currentSession().createQuery(delete).executeUpdate();
+        } catch (HibernateException he) {
+            Logger.error(he);
+            throw new DAOException(he);
+        }
+    }
+}
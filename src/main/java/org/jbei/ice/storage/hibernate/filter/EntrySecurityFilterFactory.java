@@ -1,37 +1,40 @@
 package org.jbei.ice.storage.hibernate.filter;
 
-import org.apache.lucene.index.Term;
+import org.apache.lucene.queries.TermsQuery;
 import org.apache.lucene.search.BooleanClause;
 import org.apache.lucene.search.BooleanQuery;
 import org.apache.lucene.search.Query;
-import org.apache.lucene.search.TermQuery;
+import org.apache.lucene.util.BytesRef;
 import org.hibernate.search.annotations.Factory;
+import org.hibernate.search.annotations.Key;
+import org.hibernate.search.filter.FilterKey;
+import org.hibernate.search.filter.StandardFilterKey;
+import org.jbei.ice.lib.access.AccountPrincipals;
 import org.jbei.ice.lib.access.IndexField;
 
-import java.util.HashSet;
+import java.util.ArrayList;
+import java.util.List;
 
 /**
+ * Restricts search results to entries that can be read by an account. The filter is keyed on the account's
+ * principals so the filter (and its results) are reused across searches for as long as they do not change
+ *
  * @author Hector Plahar
  */
 public class EntrySecurityFilterFactory {
 
-    private String accountId;
-    private HashSet<String> groupUUids;
-    private HashSet<String> folderIds;
+    private AccountPrincipals principals;
 
     // injected parameter
-    public void setAccount(String accountId) {
-        this.accountId = accountId;
+    public void setPrincipals(AccountPrincipals principals) {
+        this.principals = principals;
     }
 
-    // injected parameter
-    public void setGroupUUids(HashSet<String> groupUUids) {
-        this.groupUUids = groupUUids;
-    }
-
-    // injected parameter
-    public void setFolderIds(HashSet<String> folderIds) {
-        this.folderIds = folderIds;
+    @Key
+    public FilterKey getKey() {
+        StandardFilterKey key = new StandardFilterKey();
+        key.addParameter(principals);
+        return key;
     }
 
     @Factory
@@ -39,20 +42,24 @@ public class EntrySecurityFilterFactory {
         BooleanQuery.Builder builder = new BooleanQuery.Builder();
 
         // must have either account id present or group uuid present
-        if (accountId != null) {
-            builder.add(new TermQuery(new Term(IndexField.CAN_READ, accountId)), BooleanClause.Occur.SHOULD);
-        }
+        List<BytesRef> canRead = new ArrayList<>();
+        if (principals.getEmail() != null)
+            canRead.add(new BytesRef(principals.getEmail()));
 
-        if (this.groupUUids != null) {
-            for (String uuid : this.groupUUids) {
-                builder.add(new TermQuery(new Term(IndexField.CAN_READ, uuid)), BooleanClause.Occur.SHOULD);
-            }
+        for (String uuid : principals.getGroupUUIDs()) {
+            canRead.add(new BytesRef(uuid));
         }
 
-        if (this.folderIds != null) {
-            for (String uuid : this.folderIds) {
-                builder.add(new TermQuery(new Term(IndexField.CONTAINED_IN, uuid)), BooleanClause.Occur.SHOULD);
+        if (!canRead.isEmpty())
+            builder.add(new TermsQuery(IndexField.CAN_READ, canRead), BooleanClause.Occur.SHOULD);
+
+        // or be contained in a folder that can be read
+        if (!principals.getFolderIds().isEmpty()) {
+            List<BytesRef> folderIds = new ArrayList<>(principals.getFolderIds().size());
+            for (String folderId : principals.getFolderIds()) {
+                folderIds.add(new BytesRef(folderId));
             }
+            builder.add(new TermsQuery(IndexField.CONTAINED_IN, folderIds), BooleanClause.Occur.SHOULD);
         }
 
         return builder.build();
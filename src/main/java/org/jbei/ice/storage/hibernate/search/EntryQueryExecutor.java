@@ -0,0 +1,236 @@
+package org.jbei.ice.storage.hibernate.search;
+
+import org.apache.lucene.document.Document;
+import org.apache.lucene.index.IndexReader;
+import org.apache.lucene.index.LeafReader;
+import org.apache.lucene.index.LeafReaderContext;
+import org.apache.lucene.index.MultiReader;
+import org.apache.lucene.search.*;
+import org.apache.lucene.uninverting.UninvertingReader;
+import org.hibernate.search.SearchFactory;
+import org.hibernate.search.indexes.IndexReaderAccessor;
+import org.jbei.ice.storage.model.Entry;
+
+import java.io.IOException;
+import java.util.*;
+
+/**
+ * Runs a query against the entry index and collects the requested page of hits, the total number of hits and the
+ * maximum score (over all hits, not just the page) in a single pass, using one collector.
+ * <p>
+ * The results of the (security) filter passed with the query are cached per index segment and reused across
+ * searches for as long as the filter does not change, as the full text filter is when enabled on a full text query.
+ * <p>
+ * Optionally, collection can be stopped once a threshold number of hits has been seen. In that case the returned
+ * count is a lower bound, and the page is taken from the first hits (in index order) up to the threshold. This is
+ * intended for listings where an exact count of a very large result set is not needed
+ *
+ * @author Hector Plahar
+ */
+class EntryQueryExecutor {
+
+    private static final Set<String> FIELDS = new HashSet<>(Arrays.asList("id", "owner"));
+
+    // sort fields that are not indexed with doc values and need to be un-inverted to sort on
+    private static final Map<String, UninvertingReader.Type> UNINVERTED_SORT_FIELDS =
+            Collections.singletonMap("partNumber_forSort", UninvertingReader.Type.SORTED);
+
+    // cached filter results, keyed on the filter and index segment
+    private static final LRUQueryCache FILTER_CACHE = new LRUQueryCache(256, 32 * 1024 * 1024);
+
+    private final SearchFactory searchFactory;
+
+    EntryQueryExecutor(SearchFactory searchFactory) {
+        this.searchFactory = searchFactory;
+    }
+
+    /**
+     * @param query          query to run
+     * @param filter         optional filter on the hits, whose results are cached. Null for no filter
+     * @param sort           sort for hits
+     * @param start          index of first hit to return
+     * @param count          maximum number of hits to return
+     * @param countThreshold number of hits after which collection stops. Use 0 to count all hits
+     * @return page of hits along with the total number of hits and the maximum score
+     * @throws IOException on exception reading from the index
+     */
+    EntryHits execute(Query query, Query filter, Sort sort, int start, int count, int countThreshold)
+            throws IOException {
+        IndexReaderAccessor accessor = searchFactory.getIndexReaderAccessor();
+        IndexReader reader = accessor.open(Entry.class);
+        IndexReader searchReader = reader;
+        try {
+            if (needsUninverting(sort))
+                searchReader = uninvert(reader);
+
+            IndexSearcher searcher = new IndexSearcher(searchReader);
+            Query searchQuery = query;
+            if (filter != null) {
+                searcher.setQueryCache(FILTER_CACHE);
+                searcher.setQueryCachingPolicy(new FilterCachingPolicy(searcher.rewrite(filter)));
+
+                BooleanQuery.Builder builder = new BooleanQuery.Builder();
+                builder.add(query, BooleanClause.Occur.MUST);
+                builder.add(filter, BooleanClause.Occur.FILTER);
+                searchQuery = builder.build();
+            }
+
+            int numHits = Math.max(1, start + count);
+            TopFieldCollector topCollector = TopFieldCollector.create(sort, numHits, false, true, true);
+            ThresholdCollector collector = new ThresholdCollector(topCollector, countThreshold);
+            searcher.search(searchQuery, collector);
+
+            TopDocs topDocs = topCollector.topDocs(start, count);
+            float maxScore = Float.isNaN(topDocs.getMaxScore()) ? -1f : topDocs.getMaxScore();
+            EntryHits hits = new EntryHits(topCollector.getTotalHits(), maxScore, collector.isTerminated());
+            for (ScoreDoc scoreDoc : topDocs.scoreDocs) {
+                Document document = searcher.doc(scoreDoc.doc, FIELDS);
+                hits.add(Long.decode(document.get("id")), document.get("owner"), scoreDoc.score);
+            }
+            return hits;
+        } finally {
+            if (searchReader != reader)
+                searchReader.close();
+            accessor.close(reader);
+        }
+    }
+
+    private boolean needsUninverting(Sort sort) {
+        for (SortField sortField : sort.getSort()) {
+            if (sortField.getField() != null && UNINVERTED_SORT_FIELDS.containsKey(sortField.getField()))
+                return true;
+        }
+        return false;
+    }
+
+    private IndexReader uninvert(IndexReader reader) throws IOException {
+        List<LeafReaderContext> leaves = reader.leaves();
+        LeafReader[] uninverted = new LeafReader[leaves.size()];
+        for (int i = 0; i < leaves.size(); i += 1) {
+            uninverted[i] = new UninvertingReader(leaves.get(i).reader(), UNINVERTED_SORT_FIELDS);
+        }
+        return new MultiReader(uninverted, false);
+    }
+
+    /**
+     * Caches the results of the filter only (and none of the other non-scoring clauses of the query)
+     */
+    private static class FilterCachingPolicy implements QueryCachingPolicy {
+
+        private final Query filter;     // rewritten, as seen by the cache
+
+        FilterCachingPolicy(Query filter) {
+            this.filter = filter;
+        }
+
+        @Override
+        public void onUse(Query query) {
+        }
+
+        @Override
+        public boolean shouldCache(Query query, LeafReaderContext context) {
+            return filter.equals(query);
+        }
+    }
+
+    /**
+     * Stops collection after a threshold number of hits (if one is specified)
+     */
+    private static class ThresholdCollector extends FilterCollector {
+
+        private final int threshold;
+        private int collected;
+        private boolean terminated;
+
+        ThresholdCollector(Collector in, int threshold) {
+            super(in);
+            this.threshold = threshold;
+        }
+
+        boolean isTerminated() {
+            return terminated;
+        }
+
+        @Override
+        public LeafCollector getLeafCollector(LeafReaderContext context) throws IOException {
+            if (threshold <= 0)
+                return super.getLeafCollector(context);
+
+            if (collected >= threshold) {
+                terminated = true;
+                throw new CollectionTerminatedException();
+            }
+
+            return new FilterLeafCollector(super.getLeafCollector(context)) {
+                @Override
+                public void collect(int doc) throws IOException {
+                    if (collected >= threshold) {
+                        terminated = true;
+                        throw new CollectionTerminatedException();
+                    }
+                    collected += 1;
+                    super.collect(doc);
+                }
+            };
+        }
+    }
+
+    /**
+     * Page of hits collected for a query
+     */
+    static class EntryHits {
+
+        private final int totalHits;
+        private final float maxScore;
+        private final boolean approximate;
+        private final List<Long> ids = new ArrayList<>();
+        private final List<String> owners = new ArrayList<>();
+        private final List<Float> scores = new ArrayList<>();
+
+        EntryHits(int totalHits, float maxScore, boolean approximate) {
+            this.totalHits = totalHits;
+            this.maxScore = maxScore;
+            this.approximate = approximate;
+        }
+
+        void add(long id, String owner, float score) {
+            ids.add(id);
+            owners.add(owner);
+            scores.add(score);
+        }
+
+        int size() {
+            return ids.size();
+        }
+
+        long getId(int index) {
+            return ids.get(index);
+        }
+
+        String getOwner(int index) {
+            return owners.get(index);
+        }
+
+        float getScore(int index) {
+            return scores.get(index);
+        }
+
+        /**
+         * @return total number of hits, or a lower bound for it if {@link #isApproximate()}
+         */
+        int getTotalHits() {
+            return totalHits;
+        }
+
+        /**
+         * @return maximum score over all the hits collected (not just the ones on the page)
+         */
+        float getMaxScore() {
+            return maxScore;
+        }
+
+        boolean isApproximate() {
+            return approximate;
+        }
+    }
+}
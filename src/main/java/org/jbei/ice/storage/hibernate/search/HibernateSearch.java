@@ -2,7 +2,9 @@ package org.jbei.ice.storage.hibernate.search;
 
 import org.apache.commons.lang3.StringUtils;
 import org.apache.lucene.analysis.standard.StandardAnalyzer;
+import org.apache.lucene.queries.TermsQuery;
 import org.apache.lucene.search.*;
+import org.apache.lucene.util.BytesRef;
 import org.hibernate.Session;
 import org.hibernate.search.FullTextQuery;
 import org.hibernate.search.FullTextSession;
@@ -10,7 +12,8 @@ import org.hibernate.search.Search;
 import org.hibernate.search.engine.ProjectionConstants;
 import org.hibernate.search.query.dsl.QueryBuilder;
 import org.hibernate.search.query.dsl.TermContext;
-import org.jbei.ice.lib.account.AccountController;
+import org.jbei.ice.lib.access.AccountPrincipals;
+import org.jbei.ice.lib.access.AccountPrincipalsCache;
 import org.jbei.ice.lib.common.logging.Logger;
 import org.jbei.ice.lib.dto.entry.EntryType;
 import org.jbei.ice.lib.dto.entry.PartData;
@@ -19,16 +22,17 @@ import org.jbei.ice.lib.dto.search.FieldFilter;
 import org.jbei.ice.lib.dto.search.SearchQuery;
 import org.jbei.ice.lib.dto.search.SearchResult;
 import org.jbei.ice.lib.dto.search.SearchResults;
-import org.jbei.ice.lib.folder.Folders;
-import org.jbei.ice.lib.group.GroupController;
 import org.jbei.ice.lib.search.QueryType;
 import org.jbei.ice.lib.search.filter.SearchFieldFactory;
 import org.jbei.ice.lib.shared.BioSafetyOption;
 import org.jbei.ice.lib.shared.ColumnField;
 import org.jbei.ice.storage.ModelToInfoFactory;
 import org.jbei.ice.storage.hibernate.HibernateUtil;
+import org.jbei.ice.storage.hibernate.filter.EntryHasFilterFactory;
+import org.jbei.ice.storage.hibernate.filter.EntrySecurityFilterFactory;
 import org.jbei.ice.storage.model.Entry;
 
+import java.io.IOException;
 import java.util.*;
 
 /**
@@ -39,6 +43,9 @@ import java.util.*;
  */
 public class HibernateSearch {
 
+    // number of hits after which collection stops when an approximate result count is requested
+    private static final int APPROXIMATE_COUNT_THRESHOLD = 10000;
+
     private HibernateSearch() {
     }
 
@@ -86,7 +93,6 @@ public class HibernateSearch {
         }
 
         Session session = HibernateUtil.getSessionFactory().getCurrentSession();
-        int resultCount;
         FullTextSession fullTextSession = Search.getFullTextSession(session);
         BooleanQuery.Builder builder = new BooleanQuery.Builder();
         QueryBuilder qb = fullTextSession.getSearchFactory().buildQueryBuilder().forEntity(Entry.class).get();
@@ -132,55 +138,24 @@ public class HibernateSearch {
         // check if there is a blast results
         createBlastFilterQuery(fullTextSession, blastResults, builder);
 
-        // wrap Lucene query in a org.hibernate.Query
-        FullTextQuery fullTextQuery = fullTextSession.createFullTextQuery(builder.build(), Entry.class);
-
         // get sorting values
         Sort sort = getSort(searchQuery.getParameters().isSortAscending(), searchQuery.getParameters().getSortField());
-        fullTextQuery.setSort(sort);
-        fullTextQuery.setProjection(ProjectionConstants.ID, "owner");
 
-        // enable security filter if needed
-        checkEnableSecurityFilter(userId, fullTextQuery);
-
-        // enable has attachment/sequence/sample (if needed)
-        checkEnableHasAttribute(fullTextQuery, searchQuery.getParameters());
-
-        // set paging params
-        fullTextQuery.setFirstResult(searchQuery.getParameters().getStart());
-        fullTextQuery.setMaxResults(searchQuery.getParameters().getRetrieveCount());
-
-        resultCount = fullTextQuery.getResultSize();
-        List<?> result = fullTextQuery.list();
-
-        LinkedList<SearchResult> searchResults = new LinkedList<>();
-
-        // since we are using projection, result is an arraylist of objects
-        for (Object object : result) {
-            Object[] objects = (Object[]) object;
-            long entryId = (Long) objects[0];
-            SearchResult searchResult;
-            if (blastResults != null) {
-                searchResult = blastResults.get(Long.toString(entryId));
-                if (searchResult == null) // this should not really happen since we already filter
-                    continue;
-            } else {
-                searchResult = new SearchResult();
-                searchResult.setScore(1f);
-                PartData info = ModelToInfoFactory.createTableView(entryId, null);
-                info.setOwner((String) objects[1]);
-                searchResult.setEntryInfo(info);
-            }
+        // security and has attachment/sequence/sample filters
+        Query query = createFilteredQuery(builder.build(), null, searchQuery.getParameters());
+        EntryQueryExecutor.EntryHits hits = executeQuery(fullTextSession, query, userId, sort,
+                searchQuery.getParameters());
+        if (hits == null)
+            return null;
 
-            searchResult.setMaxScore(1f);
-            searchResults.add(searchResult);
-        }
+        LinkedList<SearchResult> searchResults = createSearchResults(hits, blastResults, false);
 
         SearchResults results = new SearchResults();
-        results.setResultCount(resultCount);
+        results.setResultCount(hits.getTotalHits());
+        results.setResultCountApproximate(hits.isApproximate());
         results.setResults(searchResults);
 
-        Logger.info(userId + ": obtained " + resultCount + " results for empty query");
+        Logger.info(userId + ": obtained " + hits.getTotalHits() + " results for empty query");
         return results;
     }
 
@@ -202,11 +177,18 @@ public class HibernateSearch {
         FullTextSession fullTextSession = Search.getFullTextSession(session);
 
         QueryBuilder qb = fullTextSession.getSearchFactory().buildQueryBuilder().forEntity(Entry.class).get();
-        Query query = qb.keyword().onField("visibility").matching(Visibility.OK.getValue()).createQuery();
-
-        // todo : there is a limit of 1024 boolean clauses so return only return top blast results
         BooleanQuery.Builder builder = new BooleanQuery.Builder();
-        builder.add(query, BooleanClause.Occur.FILTER);
+
+        // restrict to visible blast hits
+        createBlastFilterQuery(fullTextSession, blastResults, builder);
+
+        // bio-safety level
+        if (searchQuery.getBioSafetyOption() != null) {
+            TermContext levelContext = qb.keyword();
+            Query biosafetyQuery = levelContext.onField("bioSafetyLevel").ignoreFieldBridge()
+                    .matching(searchQuery.getBioSafetyOption().getValue()).createQuery();
+            builder.add(biosafetyQuery, BooleanClause.Occur.MUST);
+        }
 
         // wrap Lucene query in a org.hibernate.Query
         Class<?>[] classes = SearchFieldFactory.classesForTypes(searchQuery.getEntryTypes());
@@ -218,20 +200,12 @@ public class HibernateSearch {
         // enable has attachment/sequence/sample (if needed)
         checkEnableHasAttribute(fullTextQuery, searchQuery.getParameters());
 
-        // bio-safety level
-        if (searchQuery.getBioSafetyOption() != null) {
-            TermContext levelContext = qb.keyword();
-            Query biosafetyQuery = levelContext.onField("bioSafetyLevel").ignoreFieldBridge()
-                    .matching(searchQuery.getBioSafetyOption().getValue()).createQuery();
-            builder.add(biosafetyQuery, BooleanClause.Occur.MUST);
-        }
-
         // execute search
         fullTextQuery.setProjection("id");
 
         // list contains an object array with one Long object
         List<?> luceneResult = fullTextQuery.list();
-        HashSet<String> resultSet = new HashSet<>();
+        HashSet<String> resultSet = new HashSet<>(luceneResult.size() * 2);
 
         // page
         for (Object object : luceneResult) {
@@ -252,12 +226,10 @@ public class HibernateSearch {
         return results;
     }
 
-    @SuppressWarnings("unchecked")
     public SearchResults executeSearch(String userId, HashMap<String, QueryType> terms,
                                        SearchQuery searchQuery,
                                        HashMap<String, SearchResult> blastResults) {
         Session session = HibernateUtil.getSessionFactory().getCurrentSession();
-        int resultCount;
         FullTextSession fullTextSession = Search.getFullTextSession(session);
         BooleanQuery.Builder builder = new BooleanQuery.Builder();
 
@@ -278,68 +250,132 @@ public class HibernateSearch {
         // check for blast search results filter
         createBlastFilterQuery(fullTextSession, blastResults, builder);
 
-        // wrap Lucene query in a org.hibernate.Query
-        FullTextQuery fullTextQuery = fullTextSession.createFullTextQuery(builder.build(), classes);
-
-        // get max score
-        fullTextQuery.setFirstResult(0);
-        fullTextQuery.setMaxResults(1);
-        fullTextQuery.setProjection(FullTextQuery.SCORE);
-        List<?> result = fullTextQuery.list();
-        float maxScore = -1f;
-        if (result.size() == 1) {
-            maxScore = (Float) ((Object[]) (result.get(0)))[0];
-        }
-        // end get max score
-
         // get sorting values
         Sort sort = getSort(searchQuery.getParameters().isSortAscending(), searchQuery.getParameters().getSortField());
-        fullTextQuery.setSort(sort);
-
-        // projection (specified properties must be stored in the index @Field(store=Store.YES))
-        fullTextQuery.setProjection(FullTextQuery.SCORE, FullTextQuery.ID, "owner");
 
-        // enable security filter if needed
-        checkEnableSecurityFilter(userId.toLowerCase(), fullTextQuery);
-
-        // check sample
-        checkEnableHasAttribute(fullTextQuery, searchQuery.getParameters());
+        // single pass for page of hits, total count and max score
+        Query query = createFilteredQuery(builder.build(), classes, searchQuery.getParameters());
+        EntryQueryExecutor.EntryHits hits = executeQuery(fullTextSession, query, userId, sort,
+                searchQuery.getParameters());
+        if (hits == null)
+            return null;
 
-        // set paging params
-        fullTextQuery.setFirstResult(searchQuery.getParameters().getStart());
-        fullTextQuery.setMaxResults(searchQuery.getParameters().getRetrieveCount());
+        Logger.info(userId + ": " + hits.getTotalHits() + " results for \"" + searchQuery.getQueryString() + "\"");
 
-        resultCount = fullTextQuery.getResultSize();
+        LinkedList<SearchResult> searchResults = createSearchResults(hits, blastResults, true);
 
-        // execute search
-        result = fullTextQuery.list();
-        Logger.info(userId + ": " + resultCount + " results for \"" + searchQuery.getQueryString() + "\"");
+        SearchResults results = new SearchResults();
+        results.setResultCount(hits.getTotalHits());
+        results.setResultCountApproximate(hits.isApproximate());
+        results.setResults(searchResults);
+        return results;
+    }
 
+    /**
+     * Converts a page of hits to search results. If there are blast results, the hits are mapped to them.
+     * Otherwise the table views for the hits are created in bulk
+     *
+     * @param hits         page of hits
+     * @param blastResults optional blast results the hits were filtered on
+     * @param scored       whether to use the hit scores or not (in which case all results have the same score)
+     * @return list of search results in the order of the hits
+     */
+    private LinkedList<SearchResult> createSearchResults(EntryQueryExecutor.EntryHits hits,
+                                                         HashMap<String, SearchResult> blastResults, boolean scored) {
         LinkedList<SearchResult> searchResults = new LinkedList<>();
-        for (Object[] objects : (Iterable<Object[]>) result) {
-            float score = (Float) objects[0];
-            Long entryId = (Long) objects[1];
-            SearchResult searchResult;
-            if (blastResults != null) {
-                searchResult = blastResults.get(Long.toString(entryId));
+        float maxScore = scored ? hits.getMaxScore() : 1f;
+
+        if (blastResults != null) {
+            for (int i = 0; i < hits.size(); i += 1) {
+                SearchResult searchResult = blastResults.get(Long.toString(hits.getId(i)));
                 if (searchResult == null) // this should not really happen since we already filter
                     continue;
-            } else {
-                searchResult = new SearchResult();
-                searchResult.setScore(score);
-                PartData info = ModelToInfoFactory.createTableView(entryId, null);
-                info.setOwner((String) objects[2]);
-                searchResult.setEntryInfo(info);
+
+                searchResult.setMaxScore(maxScore);
+                searchResults.add(searchResult);
             }
+            return searchResults;
+        }
+
+        List<Long> entryIds = new ArrayList<>(hits.size());
+        Map<Long, Integer> hitIndex = new HashMap<>();
+        for (int i = 0; i < hits.size(); i += 1) {
+            entryIds.add(hits.getId(i));
+            hitIndex.put(hits.getId(i), i);
+        }
+
+        for (PartData info : ModelToInfoFactory.createTableViews(entryIds, null)) {
+            int i = hitIndex.get(info.getId());
+            info.setOwner(hits.getOwner(i));
 
+            SearchResult searchResult = new SearchResult();
+            searchResult.setScore(scored ? hits.getScore(i) : 1f);
             searchResult.setMaxScore(maxScore);
+            searchResult.setEntryInfo(info);
             searchResults.add(searchResult);
         }
+        return searchResults;
+    }
+
+    /**
+     * Adds the entity class and has attachment/sequence/sample restrictions to the specified query as
+     * non-scoring clauses
+     *
+     * @param query      query to filter
+     * @param classes    entry classes to restrict results to. Null or empty for all entries
+     * @param parameters search parameters
+     * @return filtered query
+     */
+    private Query createFilteredQuery(Query query, Class<?>[] classes, SearchQuery.Parameters parameters) {
+        BooleanQuery.Builder builder = new BooleanQuery.Builder();
+        builder.add(query, BooleanClause.Occur.MUST);
+
+        if (classes != null && classes.length > 0) {
+            List<BytesRef> classNames = new ArrayList<>(classes.length);
+            for (Class<?> clazz : classes) {
+                classNames.add(new BytesRef(clazz.getName()));
+            }
+            builder.add(new TermsQuery(ProjectionConstants.OBJECT_CLASS, classNames), BooleanClause.Occur.FILTER);
+        }
 
-        SearchResults results = new SearchResults();
-        results.setResultCount(resultCount);
-        results.setResults(searchResults);
-        return results;
+        ArrayList<String> hasFields = getHasAttributeFields(parameters);
+        if (!hasFields.isEmpty()) {
+            EntryHasFilterFactory hasFilter = new EntryHasFilterFactory();
+            hasFilter.setField(hasFields);
+            builder.add(hasFilter.getFilter(), BooleanClause.Occur.FILTER);
+        }
+        return builder.build();
+    }
+
+    /**
+     * Runs the specified query with the security filter for the account (unless it has administrative privileges)
+     *
+     * @param fullTextSession session for the query
+     * @param query           query to run
+     * @param userId          identifier for account performing search
+     * @param sort            sort for the results
+     * @param parameters      search parameters (paging and approximate count)
+     * @return page of hits for the query, or null on exception reading from the index
+     */
+    private EntryQueryExecutor.EntryHits executeQuery(FullTextSession fullTextSession, Query query, String userId,
+                                                      Sort sort, SearchQuery.Parameters parameters) {
+        Query securityFilter = null;
+        AccountPrincipals principals = AccountPrincipalsCache.getInstance().get(userId);
+        if (!principals.isAdministrator()) {
+            EntrySecurityFilterFactory filterFactory = new EntrySecurityFilterFactory();
+            filterFactory.setPrincipals(principals);
+            securityFilter = filterFactory.getFilter();
+        }
+
+        int threshold = parameters.isApproximateCount() ? APPROXIMATE_COUNT_THRESHOLD : 0;
+        try {
+            EntryQueryExecutor executor = new EntryQueryExecutor(fullTextSession.getSearchFactory());
+            return executor.execute(query, securityFilter, sort, parameters.getStart(),
+                    parameters.getRetrieveCount(), threshold);
+        } catch (IOException e) {
+            Logger.error(e);
+            return null;
+        }
     }
 
     private void generateQueriesForType(FullTextSession fullTextSession, HashSet<String> fields,
@@ -410,7 +446,16 @@ public class HibernateSearch {
         }
     }
 
-    // empty blast results indicates valid results
+    /**
+     * Restricts the results of the query being built to the (visible) entries in the blast results. The entry ids
+     * are matched with a single terms query instead of a clause per id; this is not subject to the boolean clause
+     * limit and is evaluated as a doc id set so it scales to a large number of blast hits
+     *
+     * @param fullTextSession session for search
+     * @param blastResults    blast hits keyed by entry id. Null indicates that there is no blast query and
+     *                        empty that the blast query had no hits (which matches no entries)
+     * @param builder         query builder to add the filter clauses to
+     */
     private void createBlastFilterQuery(FullTextSession fullTextSession,
                                         final HashMap<String, SearchResult> blastResults,
                                         BooleanQuery.Builder builder) {
@@ -422,44 +467,41 @@ public class HibernateSearch {
         QueryBuilder qb = fullTextSession.getSearchFactory().buildQueryBuilder().forEntity(Entry.class).get();
         Query query = qb.keyword().onField("visibility").matching(Visibility.OK.getValue()).createQuery();
         builder.add(query, BooleanClause.Occur.FILTER);
+
+        List<BytesRef> ids = new ArrayList<>(blastResults.size());
         for (String id : blastResults.keySet()) {
-            Query filterQuery = qb.keyword().onField("id").matching(id).createQuery();
-            builder.add(filterQuery, BooleanClause.Occur.FILTER);
+            ids.add(new BytesRef(id));
         }
+        builder.add(new TermsQuery("id", ids), BooleanClause.Occur.FILTER);
     }
 
     /**
-     * Enables the security filter if the account does not have administrative privileges
+     * Enables the security filter if the account does not have administrative privileges. The principals used by
+     * the filter are cached per account
      *
      * @param userId        identifier for account which is checked for administrative privs
      * @param fullTextQuery search fulltextquery for which filter is enabled
      */
     private void checkEnableSecurityFilter(String userId, FullTextQuery fullTextQuery) {
-        Set<String> groupUUIDs = new HashSet<>();
-        Set<String> folderIds = new HashSet<>();
-
-        if (StringUtils.isEmpty(userId)) {
-            groupUUIDs.add(GroupController.PUBLIC_GROUP_UUID);
-        } else {
-            AccountController accountController = new AccountController();
-            if (accountController.isAdministrator(userId)) {
-                return;
-            }
-            groupUUIDs = new GroupController().retrieveAccountGroupUUIDs(userId);
-            folderIds = new Folders(userId).getCanReadFolderIds();
-        }
+        AccountPrincipals principals = AccountPrincipalsCache.getInstance().get(userId);
+        if (principals.isAdministrator())
+            return;
 
-        fullTextQuery.enableFullTextFilter("security")
-                .setParameter("account", userId)
-                .setParameter("folderIds", folderIds)
-                .setParameter("groupUUids", groupUUIDs);
+        fullTextQuery.enableFullTextFilter("security").setParameter("principals", principals);
     }
 
     private void checkEnableHasAttribute(FullTextQuery fullTextQuery, SearchQuery.Parameters parameters) {
-        if (parameters == null)
+        ArrayList<String> terms = getHasAttributeFields(parameters);
+        if (terms.isEmpty())
             return;
 
+        fullTextQuery.enableFullTextFilter("boolean").setParameter("field", terms);
+    }
+
+    private ArrayList<String> getHasAttributeFields(SearchQuery.Parameters parameters) {
         ArrayList<String> terms = new ArrayList<>(3);
+        if (parameters == null)
+            return terms;
 
         if (parameters.getHasSample()) {
             terms.add("hasSample");
@@ -472,11 +514,7 @@ public class HibernateSearch {
         if (parameters.getHasSequence()) {
             terms.add("hasSequence");
         }
-
-        if (terms.isEmpty())
-            return;
-
-        fullTextQuery.enableFullTextFilter("boolean").setParameter("field", terms);
+        return terms;
     }
 
     private static class SingletonHolder {
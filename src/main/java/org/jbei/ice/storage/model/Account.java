@@ -1,5 +1,7 @@
 package org.jbei.ice.storage.model;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.Type;
 import org.jbei.ice.lib.account.AccountTransfer;
 import org.jbei.ice.lib.account.AccountType;
@@ -17,6 +19,8 @@ import java.util.Set;
  * @author Timothy Ham, Zinovii Dmytriv, Hector Plahar
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "account")
 @Table(name = "accounts")
 @SequenceGenerator(name = "accounts_id", sequenceName = "accounts_id_seq", allocationSize = 1)
 public class Account implements DataModel {
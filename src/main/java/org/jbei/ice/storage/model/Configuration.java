@@ -1,5 +1,7 @@
 package org.jbei.ice.storage.model;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.jbei.ice.lib.dto.Setting;
 import org.jbei.ice.storage.DataModel;
 
@@ -12,6 +14,8 @@ import javax.persistence.*;
  * @author Hector Plahar, Timothy Ham
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "configuration")
 @Table(name = "configuration")
 @SequenceGenerator(name = "configuration_id", sequenceName = "configuration_id_seq", allocationSize = 1)
 public class Configuration implements DataModel {
@@ -1,5 +1,7 @@
 package org.jbei.ice.storage.model;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.jbei.ice.lib.dto.entry.CustomEntryField;
 import org.jbei.ice.lib.dto.entry.EntryField;
 import org.jbei.ice.lib.dto.entry.EntryType;
@@ -11,6 +13,8 @@ import java.util.ArrayList;
 import java.util.List;
 
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "custom_entry_field")
 @Table(name = "custom_entry_field")
 @SequenceGenerator(name = "custom_entry_field_id", sequenceName = "custom_entry_field_id_seq", allocationSize = 1)
 public class CustomEntryFieldModel implements DataModel {
@@ -69,7 +69,7 @@ import java.util.*;
 @Entity
 @Indexed(index = "Entry")
 @FullTextFilterDefs({
-        @FullTextFilterDef(name = "security", impl = EntrySecurityFilterFactory.class, cache = FilterCacheModeType.INSTANCE_ONLY),
+        @FullTextFilterDef(name = "security", impl = EntrySecurityFilterFactory.class, cache = FilterCacheModeType.INSTANCE_AND_DOCIDSETRESULTS),
         @FullTextFilterDef(name = "boolean", impl = EntryHasFilterFactory.class, cache = FilterCacheModeType.INSTANCE_ONLY)
 })
 @AnalyzerDef(name = "customanalyzer",
@@ -81,7 +81,10 @@ import java.util.*;
                         @org.hibernate.search.annotations.Parameter(name = "replacement", value = " ")
                 })
         })
-@Table(name = "entries")
+@Table(name = "entries", indexes = {
+        @javax.persistence.Index(name = "entries_owner_visibility_idx", columnList = "owner_email, visibility"),
+        @javax.persistence.Index(name = "entries_visibility_id_idx", columnList = "visibility, id")
+})
 @SequenceGenerator(name = "sequence", sequenceName = "entries_id_seq", allocationSize = 1)
 @Inheritance(strategy = InheritanceType.JOINED)
 public class Entry implements DataModel {
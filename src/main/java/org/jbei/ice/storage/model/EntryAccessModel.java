@@ -0,0 +1,96 @@
+package org.jbei.ice.storage.model;
+
+import org.jbei.ice.storage.DataModel;
+import org.jbei.ice.storage.IDataTransferModel;
+
+import javax.persistence.*;
+
+/**
+ * Effective access of an account or group to an entry. Derived from the {@link Permission}s on the entry, the
+ * permissions on the folders that contain the entry and whether any of those folders is public, so that access
+ * can be checked with a single indexed lookup. There is a row for each source of access: the permission that
+ * grants it and, for folders, the folder that the entry is in (public folders have no permission)
+ * <p>
+ * Maintained by {@link org.jbei.ice.storage.hibernate.dao.EntryAccessDAO} as permissions and folder contents change
+ *
+ * @author Hector Plahar
+ */
+@Entity
+@Table(name = "entry_access", indexes = {
+        @Index(name = "entry_access_entry_idx", columnList = "entry_id"),
+        @Index(name = "entry_access_account_entry_idx", columnList = "account_id, entry_id"),
+        @Index(name = "entry_access_group_entry_idx", columnList = "group_id, entry_id"),
+        @Index(name = "entry_access_permission_idx", columnList = "permission_id"),
+        @Index(name = "entry_access_folder_entry_idx", columnList = "folder_id, entry_id")
+})
+@SequenceGenerator(name = "entry_access_id", sequenceName = "entry_access_id_seq", allocationSize = 1)
+public class EntryAccessModel implements DataModel {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO, generator = "entry_access_id")
+    private long id;
+
+    @Column(name = "entry_id", nullable = false)
+    private long entryId;
+
+    @Column(name = "account_id")
+    private Long accountId;
+
+    @Column(name = "group_id")
+    private Long groupId;
+
+    // null for read access
+    @Column(name = "can_write")
+    private Boolean canWrite;
+
+    @Column(name = "permission_id")
+    private Long permissionId;
+
+    @Column(name = "folder_id")
+    private Long folderId;
+
+    public EntryAccessModel() {
+    }
+
+    public EntryAccessModel(long entryId, Permission permission) {
+        this.entryId = entryId;
+        this.accountId = permission.getAccount() == null ? null : permission.getAccount().getId();
+        this.groupId = permission.getGroup() == null ? null : permission.getGroup().getId();
+        this.canWrite = permission.isCanWrite();
+        this.permissionId = permission.getId();
+    }
+
+    @Override
+    public long getId() {
+        return id;
+    }
+
+    public long getEntryId() {
+        return entryId;
+    }
+
+    public Long getAccountId() {
+        return accountId;
+    }
+
+    public Long getGroupId() {
+        return groupId;
+    }
+
+    public boolean isCanWrite() {
+        return Boolean.TRUE.equals(canWrite);
+    }
+
+    public Long getPermissionId() {
+        return permissionId;
+    }
+
+    public Long getFolderId() {
+        return folderId;
+    }
+
+    @Override
+    public IDataTransferModel toDataTransferObject() {
+        return null;
+    }
+}
@@ -1,5 +1,7 @@
 package org.jbei.ice.storage.model;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.hibernate.annotations.Type;
 import org.jbei.ice.lib.dto.DNAFeature;
 import org.jbei.ice.lib.utils.SequenceUtils;
@@ -18,6 +20,8 @@ import javax.persistence.*;
  * @author Timothy Ham, Zinovii Dmytriv
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "feature")
 @Table(name = "features")
 @SequenceGenerator(name = "features_id", sequenceName = "features_id_seq", allocationSize = 1)
 public class Feature implements DataModel {
@@ -61,7 +61,8 @@ public class Folder implements DataModel {
 
     @ManyToMany(fetch = FetchType.LAZY)
     @JoinTable(name = "folder_entry", joinColumns = {@JoinColumn(name = "folder_id", nullable = false)},
-            inverseJoinColumns = {@JoinColumn(name = "entry_id", nullable = false)})
+            inverseJoinColumns = {@JoinColumn(name = "entry_id", nullable = false)},
+            indexes = {@Index(name = "folder_entry_folder_entry_idx", columnList = "folder_id, entry_id")})
     @LazyCollection(LazyCollectionOption.EXTRA)
     @ContainedIn
     private Set<Entry> contents = new LinkedHashSet<>();
@@ -0,0 +1,97 @@
+package org.jbei.ice.storage.model;
+
+import org.hibernate.annotations.Type;
+import org.jbei.ice.lib.utils.ResidueCodec;
+import org.jbei.ice.storage.DataModel;
+import org.jbei.ice.storage.IDataTransferModel;
+
+import javax.persistence.*;
+import java.io.Reader;
+import java.util.Date;
+
+/**
+ * Residues of a sequence stored in a compact encoding (see {@link ResidueCodec}). Residues are stored once
+ * (identified by their hash) regardless of how many {@link Sequence}s have them, and are only decoded when a
+ * sequence's residues are requested
+ *
+ * @author Hector Plahar
+ */
+@Entity
+@Table(name = "packed_sequences")
+@SequenceGenerator(name = "packed_sequences_id", sequenceName = "packed_sequences_id_seq", allocationSize = 1)
+public class PackedSequence implements DataModel {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO, generator = "packed_sequences_id")
+    private long id;
+
+    @Column(name = "hash", length = 40, nullable = false, unique = true)
+    private String hash;
+
+    @Column(name = "encoding", length = 10, nullable = false)
+    @Enumerated(EnumType.STRING)
+    private ResidueCodec.Encoding encoding;
+
+    @Column(name = "sequence_length", nullable = false)
+    private int length;
+
+    @Column(name = "data", nullable = false, length = Integer.MAX_VALUE)
+    @Type(type = "org.hibernate.type.BinaryType")
+    private byte[] data;
+
+    @Column(name = "creation_time")
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date creationTime;
+
+    public PackedSequence() {
+    }
+
+    public PackedSequence(String hash, String residues) {
+        this.hash = hash;
+        this.encoding = ResidueCodec.getEncoding(residues);
+        this.length = residues.length();
+        this.data = ResidueCodec.encode(residues, encoding);
+        this.creationTime = new Date();
+    }
+
+    @Override
+    public long getId() {
+        return id;
+    }
+
+    public String getHash() {
+        return hash;
+    }
+
+    public ResidueCodec.Encoding getEncoding() {
+        return encoding;
+    }
+
+    /**
+     * @return number of residues
+     */
+    public int getLength() {
+        return length;
+    }
+
+    public String getResidues() {
+        return ResidueCodec.decode(data, encoding, length);
+    }
+
+    public Reader getResiduesReader() {
+        return ResidueCodec.getReader(data, encoding, length);
+    }
+
+    /**
+     * @return time the residues were packed, or last reused by a sequence when they were old enough to be deleted
+     * if unused. Null for residues packed before the time was recorded
+     */
+    public Date getCreationTime() {
+        return creationTime;
+    }
+
+    @Override
+    public IDataTransferModel toDataTransferObject() {
+        return null;
+    }
+}
@@ -8,6 +8,7 @@ import org.jbei.ice.lib.dto.access.AccessPermission;
 import org.jbei.ice.storage.DataModel;
 
 import javax.persistence.*;
+import java.util.Date;
 
 /**
  * Permission object for storing permissions related to either folders or entries
@@ -16,7 +17,12 @@ import javax.persistence.*;
  * @author Hector Plahar
  */
 @Entity
-@Table(name = "PERMISSION")
+@Table(name = "PERMISSION", indexes = {
+        @Index(name = "permission_entry_group_idx", columnList = "entry_id, group_id"),
+        @Index(name = "permission_entry_account_idx", columnList = "entry_id, account_id"),
+        @Index(name = "permission_group_entry_idx", columnList = "group_id, entry_id"),
+        @Index(name = "permission_account_entry_idx", columnList = "account_id, entry_id")
+})
 @ClassBridge(name = "permission", analyze = Analyze.NO, impl = PermissionEntryBridge.class)
 @SequenceGenerator(name = "permission_id", sequenceName = "permission_id_seq", allocationSize = 1)
 public class Permission implements DataModel {
@@ -67,6 +73,11 @@ public class Permission implements DataModel {
     @JoinColumn(name = "client_id")
     private RemoteClientModel client;
 
+    // when the permission was granted (used to find entries that have been made public since a partner last synced)
+    @Column(name = "creation_time")
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date creationTime = new Date();
+
     public long getId() {
         return id;
     }
@@ -151,6 +162,14 @@ public class Permission implements DataModel {
         this.client = client;
     }
 
+    public Date getCreationTime() {
+        return creationTime;
+    }
+
+    public void setCreationTime(Date creationTime) {
+        this.creationTime = creationTime;
+    }
+
     @Override
     public AccessPermission toDataTransferObject() {
         AccessPermission access = new AccessPermission();
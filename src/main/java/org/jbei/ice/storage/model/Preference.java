@@ -1,5 +1,7 @@
 package org.jbei.ice.storage.model;
 
+import org.hibernate.annotations.Cache;
+import org.hibernate.annotations.CacheConcurrencyStrategy;
 import org.jbei.ice.lib.dto.bulkupload.PreferenceInfo;
 import org.jbei.ice.storage.DataModel;
 
@@ -16,6 +18,8 @@ import javax.persistence.*;
  * @author Hector Plahar
  */
 @Entity
+@Cacheable
+@Cache(usage = CacheConcurrencyStrategy.READ_WRITE, region = "preference")
 @Table(name = "PREFERENCE")
 @SequenceGenerator(name = "preferences_id", sequenceName = "preferences_id_seq", allocationSize = 1)
 public class Preference implements DataModel {
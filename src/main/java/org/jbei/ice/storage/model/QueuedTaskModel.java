@@ -0,0 +1,207 @@
+package org.jbei.ice.storage.model;
+
+import org.jbei.ice.lib.dto.TaskInfo;
+import org.jbei.ice.lib.executor.TaskLane;
+import org.jbei.ice.lib.executor.TaskStatus;
+import org.jbei.ice.lib.executor.TaskType;
+import org.jbei.ice.storage.DataModel;
+
+import javax.persistence.*;
+import java.util.Date;
+
+/**
+ * Task stored in the persistent task queue. Tasks are leased by an ICE instance (node) to be run. A lease that is
+ * not renewed expires, after which the task can be leased (and run) again by any node
+ *
+ * @author Hector Plahar
+ */
+@Entity
+@Table(name = "queued_task", indexes = {@Index(name = "queued_task_status_idx", columnList = "status, available_at")})
+@SequenceGenerator(name = "queued_task_id", sequenceName = "queued_task_id_seq", allocationSize = 1)
+public class QueuedTaskModel implements DataModel {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO, generator = "queued_task_id")
+    private long id;
+
+    @Column(name = "type", length = 32, nullable = false)
+    @Enumerated(EnumType.STRING)
+    private TaskType type;
+
+    @Column(name = "data")
+    @Lob
+    private String data;
+
+    @Column(name = "task_key")
+    private String taskKey;
+
+    @Column(name = "lane", length = 16, nullable = false)
+    @Enumerated(EnumType.STRING)
+    private TaskLane lane;
+
+    @Column(name = "priority")
+    private int priority;
+
+    @Column(name = "status", length = 16, nullable = false)
+    @Enumerated(EnumType.STRING)
+    private TaskStatus status;
+
+    @Column(name = "attempts")
+    private int attempts;
+
+    @Column(name = "available_at", nullable = false)
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date availableAt;
+
+    @Column(name = "lease_owner")
+    private String leaseOwner;
+
+    @Column(name = "lease_expires")
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date leaseExpires;
+
+    @Column(name = "checkpoint")
+    private String checkpoint;
+
+    @Column(name = "last_error", length = 1024)
+    private String lastError;
+
+    @Column(name = "creation_time")
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date creationTime;
+
+    @Column(name = "modification_time")
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date modificationTime;
+
+    @Override
+    public long getId() {
+        return id;
+    }
+
+    public TaskType getType() {
+        return type;
+    }
+
+    public void setType(TaskType type) {
+        this.type = type;
+    }
+
+    public String getData() {
+        return data;
+    }
+
+    public void setData(String data) {
+        this.data = data;
+    }
+
+    public String getTaskKey() {
+        return taskKey;
+    }
+
+    public void setTaskKey(String taskKey) {
+        this.taskKey = taskKey;
+    }
+
+    public TaskLane getLane() {
+        return lane;
+    }
+
+    public void setLane(TaskLane lane) {
+        this.lane = lane;
+    }
+
+    public int getPriority() {
+        return priority;
+    }
+
+    public void setPriority(int priority) {
+        this.priority = priority;
+    }
+
+    public TaskStatus getStatus() {
+        return status;
+    }
+
+    public void setStatus(TaskStatus status) {
+        this.status = status;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    public Date getAvailableAt() {
+        return availableAt;
+    }
+
+    public void setAvailableAt(Date availableAt) {
+        this.availableAt = availableAt;
+    }
+
+    public String getLeaseOwner() {
+        return leaseOwner;
+    }
+
+    public void setLeaseOwner(String leaseOwner) {
+        this.leaseOwner = leaseOwner;
+    }
+
+    public Date getLeaseExpires() {
+        return leaseExpires;
+    }
+
+    public void setLeaseExpires(Date leaseExpires) {
+        this.leaseExpires = leaseExpires;
+    }
+
+    public String getCheckpoint() {
+        return checkpoint;
+    }
+
+    public void setCheckpoint(String checkpoint) {
+        this.checkpoint = checkpoint;
+    }
+
+    public String getLastError() {
+        return lastError;
+    }
+
+    public void setLastError(String lastError) {
+        this.lastError = lastError;
+    }
+
+    public Date getCreationTime() {
+        return creationTime;
+    }
+
+    public void setCreationTime(Date creationTime) {
+        this.creationTime = creationTime;
+    }
+
+    public Date getModificationTime() {
+        return modificationTime;
+    }
+
+    public void setModificationTime(Date modificationTime) {
+        this.modificationTime = modificationTime;
+    }
+
+    @Override
+    public TaskInfo toDataTransferObject() {
+        TaskInfo info = new TaskInfo();
+        info.setId(this.id);
+        info.setName(this.type.name());
+        info.setLane(this.lane);
+        info.setPriority(this.priority);
+        info.setStatus(this.status);
+        info.setCheckpoint(this.checkpoint);
+        if (this.creationTime != null)
+            info.setSubmitTime(this.creationTime.getTime());
+        return info;
+    }
+}
@@ -21,7 +21,10 @@ import static javax.persistence.FetchType.LAZY;
  * Stores the unique sequence for an {@link Entry} object.
  * <p>
  * <ul>
- * <li><b>sequence: </b>Normalized (lower cased, trimmed) sequence for {@link Entry}.</li>
+ * <li><b>sequence: </b>Normalized (lower cased, trimmed) sequence for {@link Entry}. Stored in a
+ * {@link PackedSequence}, shared by all sequences with the same residues, when the sequence is created or
+ * updated. Sequences created before packed storage keep their residues in the sequence row until migrated
+ * (see <code>SequenceStorageMigrationTask</code>)</li>
  * <li><b>sequenceUser: </b>Original sequence uploaded by the user. For example, the unparsed
  * genbank file, if that was the original upload. If the original upload does not exist, then this
  * field is the same as sequence.</li>
@@ -43,7 +46,14 @@ public class Sequence implements DataModel {
     @Column(name = "sequence")
     @Lob
     @Type(type = "org.hibernate.type.TextType")
-    private String sequence;
+    private String sequence;        // residues that have not been packed
+
+    @ManyToOne(fetch = LAZY)        // fetched with the sequence by the queries that need the residues
+    @JoinColumn(name = "packed_sequence_id")
+    private PackedSequence packedSequence;
+
+    @Transient
+    private String residues;        // unpacked residues of the packed sequence
 
     @Column(name = "identifier")
     private String identifier;
@@ -106,11 +116,17 @@ public class Sequence implements DataModel {
     }
 
     public String getSequence() {
-        return sequence;
+        if (sequence != null)
+            return sequence;
+
+        if (residues == null && packedSequence != null)
+            residues = packedSequence.getResidues();
+        return residues;
     }
 
     public void setSequence(String sequence) {
         this.sequence = sequence;
+        this.residues = null;
         setFwdHash(SequenceUtils.calculateSequenceHash(sequence));
         try {
             setRevHash(SequenceUtils.calculateReverseComplementSequenceHash(sequence));
@@ -119,6 +135,33 @@ public class Sequence implements DataModel {
         }
     }
 
+    /**
+     * @return residues stored in the sequence row, which are yet to be moved to a {@link PackedSequence}. Null
+     * for packed sequences
+     */
+    @XmlTransient
+    public String getInlineSequence() {
+        return sequence;
+    }
+
+    @XmlTransient
+    public PackedSequence getPackedSequence() {
+        return packedSequence;
+    }
+
+    /**
+     * Stores the residues of this sequence in the referenced packed sequence, which is expected to have the
+     * same residues, instead of in the sequence row
+     *
+     * @param packedSequence packed residues of this sequence
+     */
+    public void setPackedSequence(PackedSequence packedSequence) {
+        if (this.sequence != null)
+            this.residues = this.sequence;
+        this.packedSequence = packedSequence;
+        this.sequence = null;
+    }
+
     @XmlTransient
     public String getSequenceUser() {
         return sequenceUser;
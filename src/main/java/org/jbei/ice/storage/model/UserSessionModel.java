@@ -0,0 +1,73 @@
+package org.jbei.ice.storage.model;
+
+import org.jbei.ice.storage.DataModel;
+import org.jbei.ice.storage.IDataTransferModel;
+
+import javax.persistence.*;
+import java.util.Date;
+
+/**
+ * Session of an authenticated user, for sessions stored in the database (see
+ * {@link org.jbei.ice.lib.account.DatabaseSessionStore})
+ *
+ * @author Hector Plahar
+ */
+@Entity
+@Table(name = "user_session", indexes = {@Index(name = "user_session_user_idx", columnList = "user_id")})
+@SequenceGenerator(name = "user_session_id", sequenceName = "user_session_id_seq", allocationSize = 1)
+public class UserSessionModel implements DataModel {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.AUTO, generator = "user_session_id")
+    private long id;
+
+    @Column(name = "session_id", nullable = false, unique = true)
+    private String sessionId;
+
+    @Column(name = "user_id", nullable = false)
+    private String userId;
+
+    @Column(name = "creation_time", nullable = false)
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date creationTime;
+
+    @Column(name = "last_access_time", nullable = false)
+    @Temporal(TemporalType.TIMESTAMP)
+    private Date lastAccessTime;
+
+    public UserSessionModel() {
+    }
+
+    public UserSessionModel(String sessionId, String userId, Date creationTime, Date lastAccessTime) {
+        this.sessionId = sessionId;
+        this.userId = userId;
+        this.creationTime = creationTime;
+        this.lastAccessTime = lastAccessTime;
+    }
+
+    @Override
+    public long getId() {
+        return id;
+    }
+
+    public String getSessionId() {
+        return sessionId;
+    }
+
+    public String getUserId() {
+        return userId;
+    }
+
+    public Date getCreationTime() {
+        return creationTime;
+    }
+
+    public Date getLastAccessTime() {
+        return lastAccessTime;
+    }
+
+    @Override
+    public IDataTransferModel toDataTransferObject() {
+        return null;
+    }
+}
@@ -32,7 +32,7 @@ angular.module('ice.admin.controller', [])
             Util.get("rest/search/indexes/BLAST/status", function (result) {
                 if (!result.total)
                     $interval.cancel(blastPromise);
-                $scope.blastRebuild = {done: result.done, total: result.total};
+                $scope.blastRebuild = {done: result.done, total: result.total, rate: result.rate};
             }, {}, function (error) {
                 $interval.cancel(blastPromise);
                 $scope.blastRebuild = undefined;
@@ -14,7 +14,9 @@ adminService.factory('AdminSettings', function () {
         'PASSWORD_CHANGE_ALLOWED',
         'PART_NUMBER_PREFIX',
         'URI_PREFIX',
-        'BLAST_INSTALL_DIR'
+        'BLAST_INSTALL_DIR',
+        'BLAST_DELTA_COMPACT_THRESHOLD',
+        'SEQUENCE_SEARCH_ENGINE'
         //'ADD_TO_CART_DEFAULT_SET_TO_LOCAL'
     ];
 
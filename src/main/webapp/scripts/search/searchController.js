@@ -23,6 +23,9 @@ angular.module('ice.search.controller', [])
                 filters.parameters.retrieveCount = $scope.params.limit;
             }
 
+            // counting stops for very large result sets (reported count is then a lower bound)
+            filters.parameters.approximateCount = true;
+
             //console.log(filters);
             Util.post("rest/search", filters, function (result) {
                 console.log(result);
@@ -0,0 +1,73 @@
+package org.jbei.ice.lib.access;
+
+import org.jbei.ice.lib.AccountCreator;
+import org.jbei.ice.lib.dto.group.GroupType;
+import org.jbei.ice.lib.dto.group.UserGroup;
+import org.jbei.ice.lib.group.GroupController;
+import org.jbei.ice.storage.DAOFactory;
+import org.jbei.ice.storage.hibernate.HibernateUtil;
+import org.jbei.ice.storage.model.Account;
+import org.junit.*;
+
+/**
+ * @author Hector Plahar
+ */
+public class AccountPrincipalsCacheTest {
+
+    @BeforeClass
+    public static void setUpBeforeClass() throws Exception {
+        HibernateUtil.initializeMock();
+    }
+
+    @Before
+    public void setUp() throws Exception {
+        HibernateUtil.beginTransaction();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+        HibernateUtil.commitTransaction();
+    }
+
+    @Test
+    public void testGet() throws Exception {
+        AccountPrincipalsCache cache = AccountPrincipalsCache.getInstance();
+
+        // anonymous
+        AccountPrincipals principals = cache.get(null);
+        Assert.assertNull(principals.getEmail());
+        Assert.assertFalse(principals.isAdministrator());
+        Assert.assertTrue(principals.getGroupUUIDs().contains(GroupController.PUBLIC_GROUP_UUID));
+
+        Account admin = AccountCreator.createTestAccount("AccountPrincipalsCacheTest.testGetAdmin", true);
+        Assert.assertTrue(cache.get(admin.getEmail()).isAdministrator());
+
+        Account account = AccountCreator.createTestAccount("AccountPrincipalsCacheTest.testGet", false);
+        principals = cache.get(account.getEmail().toUpperCase());
+        Assert.assertFalse(principals.isAdministrator());
+        Assert.assertEquals(account.getEmail(), principals.getEmail());
+        Assert.assertEquals(1, principals.getGroupUUIDs().size());
+        Assert.assertSame(principals, cache.get(account.getEmail()));
+    }
+
+    @Test
+    public void testInvalidateOnGroupChange() throws Exception {
+        AccountPrincipalsCache cache = AccountPrincipalsCache.getInstance();
+        Account owner = AccountCreator.createTestAccount("AccountPrincipalsCacheTest.testInvalidateOwner", false);
+        Account member = AccountCreator.createTestAccount("AccountPrincipalsCacheTest.testInvalidate", false);
+        AccountPrincipals principals = cache.get(member.getEmail());
+        Assert.assertEquals(1, principals.getGroupUUIDs().size());
+
+        UserGroup userGroup = new UserGroup();
+        userGroup.setLabel("principals");
+        userGroup.setDescription("principals cache test");
+        userGroup.setType(GroupType.PRIVATE);
+        userGroup.getMembers().add(member.toDataTransferObject());
+        userGroup = new GroupController().createGroup(owner.getEmail(), userGroup);
+
+        String uuid = DAOFactory.getGroupDAO().get(userGroup.getId()).getUuid();
+        principals = cache.get(member.getEmail());
+        Assert.assertEquals(2, principals.getGroupUUIDs().size());
+        Assert.assertTrue(principals.getGroupUUIDs().contains(uuid));
+    }
+}
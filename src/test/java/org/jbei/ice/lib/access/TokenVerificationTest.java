@@ -5,8 +5,10 @@ import org.jbei.ice.lib.account.TokenHash;
 import org.jbei.ice.lib.account.UserApiKeys;
 import org.jbei.ice.lib.dto.access.AccessKey;
 import org.jbei.ice.lib.dto.web.RemotePartnerStatus;
+import org.jbei.ice.lib.net.WoRController;
 import org.jbei.ice.storage.DAOFactory;
 import org.jbei.ice.storage.hibernate.HibernateRepositoryTest;
+import org.jbei.ice.storage.hibernate.HibernateUtil;
 import org.jbei.ice.storage.model.Account;
 import org.jbei.ice.storage.model.RemotePartner;
 import org.junit.Assert;
@@ -54,6 +56,59 @@ public class TokenVerificationTest extends HibernateRepositoryTest {
         Assert.assertEquals(userId1, verification.verifyAPIKey(key.getToken(), key.getClientId(), userId1));
     }
 
+    @Test
+    public void testVerifyDeletedAPIKey() throws Exception {
+        Account account = AccountCreator.createTestAccount("testVerifyDeletedAPIKey", false);
+        UserApiKeys keys = new UserApiKeys(account.getEmail());
+        AccessKey key = keys.requestKey("deleted.jbei.org");
+
+        // second verification uses the cached verification
+        Assert.assertEquals(account.getEmail(), verification.verifyAPIKey(key.getToken(), key.getClientId(), null));
+        Assert.assertEquals(account.getEmail(), verification.verifyAPIKey(key.getToken(), key.getClientId(), null));
+
+        // wrong token is not accepted
+        boolean caught = false;
+        try {
+            verification.verifyAPIKey(key.getToken() + "x", key.getClientId(), null);
+        } catch (PermissionException e) {
+            caught = true;
+        }
+        Assert.assertTrue(caught);
+
+        // deleted key is not accepted
+        Assert.assertTrue(keys.deleteKey(key.getId(), key.getSecret()));
+        caught = false;
+        try {
+            verification.verifyAPIKey(key.getToken(), key.getClientId(), null);
+        } catch (PermissionException e) {
+            caught = true;
+        }
+        Assert.assertTrue(caught);
+    }
+
+    @Test
+    public void testVerifyDuringUncommittedDelete() throws Exception {
+        Account account = AccountCreator.createTestAccount("testVerifyDuringUncommittedDelete", false);
+        UserApiKeys keys = new UserApiKeys(account.getEmail());
+        AccessKey key = keys.requestKey("uncommitted.jbei.org");
+        HibernateUtil.commitTransaction();
+
+        HibernateUtil.beginTransaction();
+        Assert.assertTrue(keys.deleteKey(key.getId(), key.getSecret()));
+
+        // another request verifies against the key that is still committed, after the delete invalidated it
+        VerifiedCredentialCache cache = VerifiedCredentialCache.getInstance();
+        long start = cache.startVerification();
+        cache.putApiKey(key.getClientId(), key.getToken(),
+                new VerifiedCredentialCache.ApiKeyCredential(account.getEmail(), false), start);
+        Assert.assertNotNull(cache.getApiKey(key.getClientId(), key.getToken()));
+
+        // evicted when the delete is committed
+        HibernateUtil.commitTransaction();
+        Assert.assertNull(cache.getApiKey(key.getClientId(), key.getToken()));
+        HibernateUtil.beginTransaction();
+    }
+
     @Test
     public void testVerifyPartnerToken() throws Exception {
         RemotePartner remotePartner = new RemotePartner();
@@ -69,5 +124,12 @@ public class TokenVerificationTest extends HibernateRepositoryTest {
         remotePartner.setAdded(new Date());
         Assert.assertNotNull(DAOFactory.getRemotePartnerDAO().create(remotePartner));
         Assert.assertNotNull(verification.verifyPartnerToken(remotePartner.getUrl(), token));
+        Assert.assertNotNull(verification.verifyPartnerToken(remotePartner.getUrl(), token));
+        Assert.assertNull(verification.verifyPartnerToken(remotePartner.getUrl(), token + "x"));
+
+        // removed partner is not accepted
+        Account admin = AccountCreator.createTestAccount("testVerifyPartnerToken", true);
+        Assert.assertTrue(new WoRController().removeWebPartner(admin.getEmail(), remotePartner.getUrl()));
+        Assert.assertNull(verification.verifyPartnerToken(remotePartner.getUrl(), token));
     }
 }
\ No newline at end of file
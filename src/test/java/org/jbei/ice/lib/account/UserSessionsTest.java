@@ -0,0 +1,81 @@
+package org.jbei.ice.lib.account;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * @author Hector Plahar
+ */
+public class UserSessionsTest {
+
+    @Test
+    public void testCreateSessionForUser() {
+        String userId = "UserSessionsTest.testCreateSessionForUser";
+        String sessionId = UserSessions.createNewSessionForUser(userId);
+        Assert.assertNotNull(sessionId);
+        Assert.assertEquals(userId, UserSessions.getUserIdBySession(sessionId));
+
+        // session id that is too short is replaced
+        String newSessionId = UserSessions.createSessionForUser(userId, "abc");
+        Assert.assertNotEquals("abc", newSessionId);
+        Assert.assertEquals(userId, UserSessions.getUserIdBySession(newSessionId));
+
+        Assert.assertEquals("abcdef", UserSessions.createSessionForUser(userId, "abcdef"));
+        Assert.assertEquals(userId, UserSessions.getUserIdBySession("abcdef"));
+        Assert.assertNull(UserSessions.getUserIdBySession("unknown"));
+        Assert.assertNull(UserSessions.getUserIdBySession(null));
+    }
+
+    @Test
+    public void testRemoveSession() {
+        String userId = "UserSessionsTest.testRemoveSession";
+        String sessionId = UserSessions.createNewSessionForUser(userId);
+        String sessionId2 = UserSessions.createNewSessionForUser(userId);
+
+        // only the session that is removed is logged out
+        UserSessions.removeSession(sessionId);
+        Assert.assertNull(UserSessions.getUserIdBySession(sessionId));
+        Assert.assertEquals(userId, UserSessions.getUserIdBySession(sessionId2));
+    }
+
+    @Test
+    public void testInvalidateSession() {
+        String userId = "UserSessionsTest.testInvalidateSession";
+        String sessionId = UserSessions.createNewSessionForUser(userId);
+        String sessionId2 = UserSessions.createNewSessionForUser(userId);
+        String other = UserSessions.createNewSessionForUser("UserSessionsTest.testInvalidateSession2");
+
+        UserSessions.invalidateSession(userId);
+        Assert.assertNull(UserSessions.getUserIdBySession(sessionId));
+        Assert.assertNull(UserSessions.getUserIdBySession(sessionId2));
+        Assert.assertNotNull(UserSessions.getUserIdBySession(other));
+    }
+
+    @Test
+    public void testRemoveExpired() {
+        MemorySessionStore store = new MemorySessionStore();
+        long now = System.currentTimeMillis();
+        long hour = TimeUnit.HOURS.toMillis(1);
+
+        store.put(new UserSession("idle", "user", now - 10 * hour, now - 2 * hour));
+        store.put(new UserSession("old", "user", now - 10 * hour, now));
+        store.put(new UserSession("active", "user", now - hour, now));
+
+        // idle for more than an hour or created more than five hours ago
+        Assert.assertEquals(2, store.removeExpired(now - hour, now - 5 * hour));
+        Assert.assertNull(store.get("idle"));
+        Assert.assertNull(store.get("old"));
+        Assert.assertNotNull(store.get("active"));
+
+        // touched session is no longer idle
+        store.put(new UserSession("touched", "user", now - hour, now - 2 * hour));
+        store.touch("touched", now);
+        Assert.assertEquals(0, store.removeExpired(now - hour, now - 5 * hour));
+
+        store.removeUser("user");
+        Assert.assertNull(store.get("active"));
+        Assert.assertNull(store.get("touched"));
+    }
+}
@@ -0,0 +1,80 @@
+package org.jbei.ice.lib.bulkupload;
+
+import org.jbei.ice.lib.AccountCreator;
+import org.jbei.ice.lib.dto.entry.EntryType;
+import org.jbei.ice.storage.DAOFactory;
+import org.jbei.ice.storage.hibernate.HibernateRepositoryTest;
+import org.jbei.ice.storage.model.Account;
+import org.jbei.ice.storage.model.BulkUpload;
+import org.jbei.ice.storage.model.Entry;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+/**
+ * @author Hector Plahar
+ */
+public class BulkSequenceFileUploadTest extends HibernateRepositoryTest {
+
+    private static final String FASTA = ">seq1 first sequence\n"
+            + "ATGC\n"
+            + "ATGC\n"
+            + ">seq2\n"
+            + "GGGG\n"
+            + ">\n"
+            + "cc\n";
+
+    @Test
+    public void testProcessUpload() throws Exception {
+        Account account = AccountCreator.createTestAccount("BulkSequenceFileUploadTest.testProcessUpload", false);
+        ProcessedBulkUpload processed = process(account.getEmail(), FASTA);
+        Assert.assertTrue(processed.getRecordErrors().isEmpty());
+
+        BulkUpload upload = DAOFactory.getBulkUploadDAO().get(processed.getUploadInfo().getId());
+        Assert.assertNotNull(upload);
+        Assert.assertEquals(EntryType.PART.getName(), upload.getImportType());
+
+        List<Long> entryIds = DAOFactory.getBulkUploadDAO().getEntryIds(upload);
+        Assert.assertEquals(3, entryIds.size());
+        for (long entryId : entryIds) {
+            Entry entry = DAOFactory.getEntryDAO().get(entryId);
+            Assert.assertNotNull(entry);
+            Assert.assertTrue(DAOFactory.getSequenceDAO().hasSequence(entryId));
+            if ("seq1".equals(entry.getName())) {
+                Assert.assertEquals("first sequence", entry.getShortDescription());
+                Assert.assertEquals("atgcatgc", DAOFactory.getSequenceDAO().getByEntry(entry).getSequence());
+            }
+        }
+    }
+
+    @Test
+    public void testProcessUploadInBatches() throws Exception {
+        Account account = AccountCreator.createTestAccount("BulkSequenceFileUploadTest.testProcessUploadInBatches",
+                false);
+
+        // more than one batch of records
+        StringBuilder builder = new StringBuilder();
+        for (int i = 1; i <= 120; i += 1) {
+            builder.append(">record").append(i).append('\n').append("ATGCATGC").append('\n');
+        }
+
+        ProcessedBulkUpload processed = process(account.getEmail(), builder.toString());
+        Assert.assertTrue(processed.getRecordErrors().isEmpty());
+
+        BulkUpload upload = DAOFactory.getBulkUploadDAO().get(processed.getUploadInfo().getId());
+        Assert.assertNotNull(upload);
+        List<Long> entryIds = DAOFactory.getBulkUploadDAO().getEntryIds(upload);
+        Assert.assertEquals(120, entryIds.size());
+        for (long entryId : entryIds)
+            Assert.assertTrue(DAOFactory.getSequenceDAO().hasSequence(entryId));
+    }
+
+    private ProcessedBulkUpload process(String userId, String records) throws Exception {
+        ByteArrayInputStream inputStream = new ByteArrayInputStream(records.getBytes(StandardCharsets.UTF_8));
+        BulkSequenceFileUpload upload = new BulkSequenceFileUpload(userId, inputStream, 0, EntryType.PART);
+        return upload.processUpload();
+    }
+}
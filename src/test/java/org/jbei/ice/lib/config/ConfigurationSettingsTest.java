@@ -0,0 +1,78 @@
+package org.jbei.ice.lib.config;
+
+import org.jbei.ice.lib.AccountCreator;
+import org.jbei.ice.lib.access.PermissionException;
+import org.jbei.ice.lib.dto.CacheStatistics;
+import org.jbei.ice.lib.dto.ConfigurationKey;
+import org.jbei.ice.lib.utils.Utils;
+import org.jbei.ice.storage.hibernate.HibernateRepositoryTest;
+import org.jbei.ice.storage.hibernate.HibernateUtil;
+import org.jbei.ice.storage.model.Account;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author Hector Plahar
+ */
+public class ConfigurationSettingsTest extends HibernateRepositoryTest {
+
+    @Test
+    public void testGetCacheStatistics() throws Exception {
+        ConfigurationSettings settings = new ConfigurationSettings();
+        Account admin = AccountCreator.createTestAccount("ConfigurationSettingsTest.testGetCacheStatistics", true);
+
+        // test database does not enable the cache
+        CacheStatistics statistics = settings.getCacheStatistics(admin.getEmail());
+        Assert.assertNotNull(statistics);
+        Assert.assertFalse(statistics.isEnabled());
+        settings.clearCache(admin.getEmail());
+
+        Account account = AccountCreator.createTestAccount("ConfigurationSettingsTest.testGetCacheStatistics2", false);
+        boolean caught = false;
+        try {
+            settings.getCacheStatistics(account.getEmail());
+        } catch (PermissionException e) {
+            caught = true;
+        }
+        Assert.assertTrue(caught);
+    }
+
+    @Test
+    public void testSetPropertyValue() throws Exception {
+        ConfigurationSettings settings = new ConfigurationSettings();
+        ConfigurationCache cache = ConfigurationCache.getInstance();
+        cache.reload();
+        String previous = Utils.getConfigValue(ConfigurationKey.WEB_SEARCH_TIMEOUT);
+
+        // change is not visible until the transaction commits
+        settings.setPropertyValue(ConfigurationKey.WEB_SEARCH_TIMEOUT, "20");
+        Assert.assertEquals(previous, Utils.getConfigValue(ConfigurationKey.WEB_SEARCH_TIMEOUT));
+        HibernateUtil.commitTransaction();
+        Assert.assertEquals("20", Utils.getConfigValue(ConfigurationKey.WEB_SEARCH_TIMEOUT));
+        Assert.assertEquals("20", settings.getPropertyValue(ConfigurationKey.WEB_SEARCH_TIMEOUT));
+        Assert.assertEquals(20, cache.getInt(ConfigurationKey.WEB_SEARCH_TIMEOUT));
+
+        // invalid values fall back to the default
+        HibernateUtil.beginTransaction();
+        settings.setPropertyValue(ConfigurationKey.WEB_SEARCH_TIMEOUT, "twenty");
+        HibernateUtil.commitTransaction();
+        Assert.assertEquals("twenty", Utils.getConfigValue(ConfigurationKey.WEB_SEARCH_TIMEOUT));
+        Assert.assertEquals(10, cache.getInt(ConfigurationKey.WEB_SEARCH_TIMEOUT));
+
+        // rolled back change is discarded
+        HibernateUtil.beginTransaction();
+        settings.setPropertyValue(ConfigurationKey.WEB_SEARCH_TIMEOUT, "30");
+        HibernateUtil.rollbackTransaction();
+        HibernateUtil.beginTransaction();
+        Assert.assertEquals("twenty", Utils.getConfigValue(ConfigurationKey.WEB_SEARCH_TIMEOUT));
+
+        // snapshot is loaded from the database
+        cache.invalidate();
+        Assert.assertEquals("twenty", Utils.getConfigValue(ConfigurationKey.WEB_SEARCH_TIMEOUT));
+
+        // restore the previous value for the other tests
+        settings.setPropertyValue(ConfigurationKey.WEB_SEARCH_TIMEOUT, previous);
+        HibernateUtil.commitTransaction();
+        HibernateUtil.beginTransaction();
+    }
+}
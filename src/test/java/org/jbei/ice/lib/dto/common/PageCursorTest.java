@@ -0,0 +1,42 @@
+package org.jbei.ice.lib.dto.common;
+
+import org.jbei.ice.lib.shared.ColumnField;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * @author Hector Plahar
+ */
+public class PageCursorTest {
+
+    @Test
+    public void testEncode() {
+        PageCursor cursor = PageCursor.first(ColumnField.NAME, true).next(42, "pTest|1 \u00e4", 1000);
+        String token = cursor.encode();
+        Assert.assertTrue(token.matches("[A-Za-z0-9_-]+"));
+
+        PageCursor decoded = PageCursor.decode(token);
+        Assert.assertEquals(ColumnField.NAME, decoded.getSortField());
+        Assert.assertTrue(decoded.isAscending());
+        Assert.assertFalse(decoded.isFirst());
+        Assert.assertEquals(42, decoded.getLastId());
+        Assert.assertEquals("pTest|1 \u00e4", decoded.getLastValue());
+        Assert.assertTrue(decoded.hasCount());
+        Assert.assertEquals(1000, decoded.getCount());
+
+        // no value for the sort field is distinct from an empty value
+        Assert.assertNull(PageCursor.decode(cursor.next(43, null, 1000).encode()).getLastValue());
+        Assert.assertEquals("", PageCursor.decode(cursor.next(43, "", 1000).encode()).getLastValue());
+
+        PageCursor first = PageCursor.decode(PageCursor.first(ColumnField.CREATED, false).encode());
+        Assert.assertTrue(first.isFirst());
+        Assert.assertFalse(first.isAscending());
+        Assert.assertFalse(first.hasCount());
+        Assert.assertTrue(PageCursor.decode("").isFirst());
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDecodeInvalid() {
+        PageCursor.decode("not a cursor");
+    }
+}
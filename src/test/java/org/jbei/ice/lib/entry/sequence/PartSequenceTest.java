@@ -7,15 +7,19 @@ import org.jbei.ice.lib.dto.DNAFeatureLocation;
 import org.jbei.ice.lib.dto.FeaturedDNASequence;
 import org.jbei.ice.lib.dto.entry.EntryType;
 import org.jbei.ice.lib.dto.entry.SequenceInfo;
+import org.jbei.ice.lib.entry.HasEntry;
 import org.jbei.ice.lib.parsers.GeneralParser;
+import org.jbei.ice.storage.DAOFactory;
 import org.jbei.ice.storage.hibernate.HibernateRepositoryTest;
-import org.jbei.ice.storage.model.Account;
-import org.jbei.ice.storage.model.Strain;
+import org.jbei.ice.storage.model.*;
 import org.junit.Assert;
 import org.junit.Test;
 
 import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 
 /**
  * @author Hector Plahar
@@ -98,6 +102,40 @@ public class PartSequenceTest extends HibernateRepositoryTest {
         Assert.assertTrue(caught);
     }
 
+    @Test
+    public void testSaveSharedFeatures() throws Exception {
+        Account account = AccountCreator.createTestAccount("PartSequenceTest.testSaveSharedFeatures", false);
+
+        // two features with the same sequence
+        FeaturedDNASequence sequence = GeneralParser.parse(genbank);
+        Assert.assertNotNull(sequence);
+        DNAFeature feature = new DNAFeature();
+        feature.setName("copy");
+        feature.setType("misc_feature");
+        feature.getLocations().add(new DNAFeatureLocation(1, 234));
+        sequence.getFeatures().add(feature);
+
+        PartSequence partSequence = new PartSequence(account.getEmail(), EntryType.PLASMID);
+        partSequence.save(sequence);
+        Entry entry = new HasEntry().getEntry(partSequence.get().getIdentifier());
+        List<SequenceFeature> features = DAOFactory.getSequenceFeatureDAO().getEntrySequenceFeatures(entry);
+        Assert.assertEquals(2, features.size());
+        Assert.assertEquals(features.get(0).getFeature().getId(), features.get(1).getFeature().getId());
+
+        // saved for another entry, the existing feature is used
+        PartSequence other = new PartSequence(account.getEmail(), EntryType.PLASMID);
+        other.save(GeneralParser.parse(genbank));
+        Entry otherEntry = new HasEntry().getEntry(other.get().getIdentifier());
+        List<SequenceFeature> otherFeatures = DAOFactory.getSequenceFeatureDAO().getEntrySequenceFeatures(otherEntry);
+        Assert.assertEquals(1, otherFeatures.size());
+        Assert.assertEquals(features.get(0).getFeature().getId(), otherFeatures.get(0).getFeature().getId());
+
+        String hash = features.get(0).getFeature().getHash();
+        Map<String, Feature> existing = DAOFactory.getFeatureDAO().getByHashes(Arrays.asList(hash, "unknown"));
+        Assert.assertEquals(1, existing.size());
+        Assert.assertEquals(features.get(0).getFeature().getId(), existing.get(hash).getId());
+    }
+
     private void compareFeatures(DNAFeature feature, DNAFeature compare) {
         Assert.assertEquals(feature.getName(), compare.getName());
         Assert.assertEquals(feature.getType(), compare.getType());
@@ -182,4 +220,33 @@ public class PartSequenceTest extends HibernateRepositoryTest {
         partSequence.delete();
         Assert.assertNull(partSequence.get());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testToStream() throws Exception {
+        Account account = AccountCreator.createTestAccount("PartSequenceTest.testToStream", false);
+        PartSequence partSequence = new PartSequence(account.getEmail(), EntryType.PLASMID);
+        FeaturedDNASequence sequence = GeneralParser.parse(genbank);
+        Assert.assertNotNull(sequence);
+        partSequence.save(sequence);
+
+        // genbank
+        FormattedSequence formattedSequence = partSequence.toStream(SequenceFormat.GENBANK);
+        Assert.assertNotNull(formattedSequence);
+        ByteArrayOutputStream outputStream = new ByteArrayOutputStream();
+        formattedSequence.write(outputStream);
+        FeaturedDNASequence written = GeneralParser.parse(outputStream.toString());
+        Assert.assertNotNull(written);
+        Assert.assertEquals(sequence.getSequence(), written.getSequence());
+        Assert.assertEquals(1, written.getFeatures().size());
+        Assert.assertEquals("pTrc promoter", written.getFeatures().get(0).getName());
+
+        // fasta
+        formattedSequence = partSequence.toStream(SequenceFormat.FASTA);
+        Assert.assertNotNull(formattedSequence);
+        outputStream = new ByteArrayOutputStream();
+        formattedSequence.write(outputStream);
+        String[] lines = outputStream.toString().split(System.lineSeparator());
+        Assert.assertEquals(4, lines.length);
+        Assert.assertEquals(sequence.getSequence(), lines[1] + lines[2] + lines[3]);
+    }
+}
@@ -0,0 +1,73 @@
+package org.jbei.ice.lib.entry.sequence.annotation;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @author Hector Plahar
+ */
+public class FeatureAutomatonTest {
+
+    @Test
+    public void testScan() {
+        FeatureAutomaton.Builder builder = FeatureAutomaton.builder();
+        Assert.assertTrue(builder.add("gattaca", 1));
+        Assert.assertTrue(builder.add("att", 2));
+        Assert.assertTrue(builder.add("ACA", 3));
+        Assert.assertFalse(builder.add("gatnaca", 4));
+        Assert.assertFalse(builder.add("", 5));
+        FeatureAutomaton automaton = builder.build();
+        Assert.assertEquals(3, automaton.getPatternCount());
+
+        // overlapping occurrences are all reported
+        List<String> matches = scan(automaton, "ccgattacaggattaca", false);
+        Assert.assertEquals(6, matches.size());
+        Assert.assertTrue(matches.contains("1:2"));
+        Assert.assertTrue(matches.contains("2:3"));
+        Assert.assertTrue(matches.contains("3:6"));
+        Assert.assertTrue(matches.contains("1:10"));
+        Assert.assertTrue(matches.contains("2:11"));
+        Assert.assertTrue(matches.contains("3:14"));
+
+        // unknown residues do not match
+        matches = scan(automaton, "gatnacagat", false);
+        Assert.assertEquals(1, matches.size());
+        Assert.assertEquals("3:4", matches.get(0));
+    }
+
+    @Test
+    public void testCircularScan() {
+        FeatureAutomaton.Builder builder = FeatureAutomaton.builder();
+        builder.add("gattaca", 1);
+        builder.add("cc", 2);
+        builder.add("ccccccccccccc", 3);
+        FeatureAutomaton automaton = builder.build();
+
+        // occurrence across the origin is only found for circular sequences
+        Assert.assertTrue(scan(automaton, "tacaggggat", false).isEmpty());
+        List<String> matches = scan(automaton, "tacaggggat", true);
+        Assert.assertEquals(1, matches.size());
+        Assert.assertEquals("1:7", matches.get(0));
+
+        // each occurrence is reported once and patterns longer than the sequence are not matched
+        matches = scan(automaton, "cccc", true);
+        Assert.assertEquals(4, matches.size());
+        for (int i = 0; i < 4; i += 1)
+            Assert.assertTrue(matches.contains("2:" + i));
+    }
+
+    @Test
+    public void testReverseComplement() {
+        Assert.assertEquals("tgtaatc", FeatureMatcher.reverseComplement("GATTACA"));
+        Assert.assertEquals("ncg", FeatureMatcher.reverseComplement("cgx"));
+    }
+
+    private List<String> scan(FeatureAutomaton automaton, String sequence, boolean circular) {
+        List<String> matches = new ArrayList<>();
+        automaton.scan(sequence, circular, (value, start) -> matches.add(value + ":" + start));
+        return matches;
+    }
+}
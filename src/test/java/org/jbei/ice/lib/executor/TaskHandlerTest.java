@@ -0,0 +1,54 @@
+package org.jbei.ice.lib.executor;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.PriorityQueue;
+
+/**
+ * @author Hector Plahar
+ */
+public class TaskHandlerTest {
+
+    private static final TaskHandler.TaskListener LISTENER = new TaskHandler.TaskListener() {
+        @Override
+        public void started(Task task) {
+        }
+
+        @Override
+        public void finished(Task task) {
+        }
+    };
+
+    @Test
+    public void testCompareTo() throws Exception {
+        PriorityQueue<TaskHandler> queue = new PriorityQueue<>();
+        queue.add(createHandler(1, Task.LOW_PRIORITY));
+        queue.add(createHandler(2, Task.NORMAL_PRIORITY));
+        queue.add(createHandler(3, Task.HIGH_PRIORITY));
+        queue.add(createHandler(4, Task.NORMAL_PRIORITY));
+        queue.add(createHandler(5, Task.HIGH_PRIORITY));
+
+        // highest priority first, then order of submission
+        long[] expected = {3, 5, 2, 4, 1};
+        for (long id : expected) {
+            Assert.assertEquals(id, queue.poll().getTask().getId());
+        }
+        Assert.assertTrue(queue.isEmpty());
+    }
+
+    private TaskHandler createHandler(long id, int priority) {
+        Task task = new Task() {
+            @Override
+            public void execute() {
+            }
+
+            @Override
+            public int getPriority() {
+                return priority;
+            }
+        };
+        task.setId(id);
+        return new TaskHandler(task, LISTENER);
+    }
+}
@@ -0,0 +1,101 @@
+package org.jbei.ice.lib.parsers;
+
+import org.jbei.ice.lib.dto.FeaturedDNASequence;
+import org.jbei.ice.lib.entry.sequence.SequenceFormat;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * @author Hector Plahar
+ */
+public class SequenceRecordReaderTest {
+
+    private static final String FASTA = ";comment\n"
+            + ">seq1 first sequence\n"
+            + "ATGC\n"
+            + "ATGC\n"
+            + "\n"
+            + ">seq2\n"
+            + "GGGG\n"
+            + ">\n"
+            + "cc\n";
+
+    private static final String GENBANK = "LOCUS       pTest1                    8 bp    DNA     linear       01-JAN-2020\n"
+            + "DEFINITION  first test\n"
+            + "            plasmid.\n"
+            + "FEATURES             Location/Qualifiers\n"
+            + "ORIGIN\n"
+            + "        1 atgcatgc\n"
+            + "//\n"
+            + "\n"
+            + "LOCUS       pTest2                    4 bp    DNA     linear       01-JAN-2020\n"
+            + "ORIGIN\n"
+            + "        1 gggg\n"
+            + "//\n";
+
+    @Test
+    public void testReadFasta() throws Exception {
+        List<SequenceRecord> records = read(FASTA);
+        Assert.assertEquals(3, records.size());
+
+        SequenceRecord record = records.get(0);
+        Assert.assertEquals(SequenceFormat.FASTA, record.getFormat());
+        Assert.assertEquals(1, record.getIndex());
+        Assert.assertEquals("seq1", record.getName());
+        Assert.assertEquals("first sequence", record.getDescription());
+        FeaturedDNASequence sequence = record.parse();
+        Assert.assertEquals("atgcatgc", sequence.getSequence());
+
+        record = records.get(1);
+        Assert.assertEquals("seq2", record.getName());
+        Assert.assertNull(record.getDescription());
+        Assert.assertEquals("gggg", record.parse().getSequence());
+
+        // no name
+        record = records.get(2);
+        Assert.assertEquals(3, record.getIndex());
+        Assert.assertNull(record.getName());
+        Assert.assertEquals("cc", record.parse().getSequence());
+    }
+
+    @Test
+    public void testReadGenBank() throws Exception {
+        List<SequenceRecord> records = read(GENBANK);
+        Assert.assertEquals(2, records.size());
+
+        SequenceRecord record = records.get(0);
+        Assert.assertEquals(SequenceFormat.GENBANK, record.getFormat());
+        Assert.assertEquals("pTest1", record.getName());
+        Assert.assertEquals("first test plasmid.", record.getDescription());
+        Assert.assertEquals("//", record.getLines().get(record.getLines().size() - 1));
+        Assert.assertEquals("atgcatgc", record.parse().getSequence());
+
+        record = records.get(1);
+        Assert.assertEquals(2, record.getIndex());
+        Assert.assertEquals("pTest2", record.getName());
+        Assert.assertNull(record.getDescription());
+        Assert.assertEquals("gggg", record.parse().getSequence());
+    }
+
+    @Test(expected = IOException.class)
+    public void testReadUnsupported() throws Exception {
+        read("ATGCATGC\n");
+    }
+
+    private List<SequenceRecord> read(String content) throws IOException {
+        InputStream stream = new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+        List<SequenceRecord> records = new ArrayList<>();
+        try (SequenceRecordReader reader = new SequenceRecordReader(stream)) {
+            while (reader.hasNext())
+                records.add(reader.next());
+        }
+        return records;
+    }
+}
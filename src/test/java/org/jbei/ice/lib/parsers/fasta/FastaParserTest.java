@@ -0,0 +1,40 @@
+package org.jbei.ice.lib.parsers.fasta;
+
+import org.jbei.ice.lib.dto.FeaturedDNASequence;
+import org.jbei.ice.lib.parsers.InvalidFormatParserException;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+
+/**
+ * @author Hector Plahar
+ */
+public class FastaParserTest {
+
+    private static final String fasta =
+            ">org.jbei|test.1| \n" +
+                    "; comment\n" +
+                    "CCGGCTTATCGGTCAGTTTCACTTCTTCATAAAACCCGCTTCGGCGGGTTTTTGCTTTTACAGGGCGGCAGGATGAATGA\n" +
+                    "ctgtccacga cgctataccc aaaagaaa\n" +
+                    ">second\n" +
+                    "aaaa\n";
+
+    @Test
+    public void testParse() throws Exception {
+        FastaParser parser = new FastaParser();
+        FeaturedDNASequence sequence = parser.parse(Arrays.asList(fasta.split("\n")).iterator());
+        Assert.assertNotNull(sequence);
+        Assert.assertEquals(108, sequence.getSequence().length());
+        Assert.assertTrue(sequence.getSequence().startsWith("ccggcttatc"));
+        Assert.assertTrue(sequence.getSequence().endsWith("aaaagaaa"));
+
+        sequence = parser.parse(Arrays.asList(">protein", "mkvl*").iterator(), "protein");
+        Assert.assertEquals("MKVL*", sequence.getSequence());
+    }
+
+    @Test(expected = InvalidFormatParserException.class)
+    public void testParseInvalid() throws Exception {
+        new FastaParser().parse(Arrays.asList(">test", "acgt!acgt").iterator());
+    }
+}
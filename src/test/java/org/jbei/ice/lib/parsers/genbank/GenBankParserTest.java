@@ -115,4 +115,21 @@ public class GenBankParserTest {
         Assert.assertNotNull(sequence2);
         Assert.assertEquals(3, sequence2.getFeatures().size());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testParseUnNumberedOrigin() throws Exception {
+        String unNumbered = "LOCUS       test                      24 bp    DNA     linear\n" +
+                "FEATURES             Location/Qualifiers\n" +
+                "     misc_feature    1..12\n" +
+                "                     /label=\"test \"\"feature\"\"\"\n" +
+                "ORIGIN\n" +
+                "ACGTACGTAC GTAC\n" +
+                "        15 gtacgtacgt\n";   // no terminator
+        GenBankParser parser = new GenBankParser();
+        FeaturedDNASequence sequence = parser.parse(IOUtils.lineIterator(new ByteArrayInputStream(unNumbered.getBytes()), Charset.defaultCharset()));
+        Assert.assertNotNull(sequence);
+        Assert.assertEquals("acgtacgtacgtacgtacgtacgt", sequence.getSequence());
+        Assert.assertEquals(1, sequence.getFeatures().size());
+        Assert.assertEquals("test \"feature\"", sequence.getFeatures().get(0).getName());
+    }
+}
@@ -0,0 +1,162 @@
+package org.jbei.ice.lib.search.kmer;
+
+import org.junit.Assert;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Random;
+
+/**
+ * @author Hector Plahar
+ */
+public class KmerSearchEngineTest {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private final Random random = new Random(42);
+    private List<String> sequences;
+    private KmerSearchEngine engine;
+
+    @Before
+    public void setUp() throws Exception {
+        sequences = new ArrayList<>();
+        List<KmerSubject> subjects = new ArrayList<>();
+        for (int i = 1; i <= 20; i += 1) {
+            String sequence = randomSequence(2000);
+            sequences.add(sequence);
+            subjects.add(new KmerSubject(i + ",PLASMID,plasmid" + i + ",TEST_" + i, sequence));
+        }
+
+        engine = new KmerSearchEngine(folder.getRoot().toPath());
+        engine.rebuild(subjects.iterator());
+        Assert.assertTrue(engine.exists());
+    }
+
+    @Test
+    public void testSearch() {
+        String query = sequences.get(4).substring(500, 800);
+        List<KmerHit> hits = engine.search(query, 70);
+        Assert.assertFalse(hits.isEmpty());
+
+        KmerHit hit = hits.get(0);
+        Assert.assertEquals("5,PLASMID,plasmid5,TEST_5", hit.getTitle());
+        Assert.assertTrue(hit.isPlus());
+        Assert.assertEquals(1, hit.getQueryStart());
+        Assert.assertEquals(300, hit.getQueryEnd());
+        Assert.assertEquals(501, hit.getSubjectStart());
+        Assert.assertEquals(800, hit.getSubjectEnd());
+        Assert.assertEquals(300, hit.getIdentities());
+
+        String[] row = hit.toBlastRow();
+        Assert.assertEquals(14, row.length);
+        Assert.assertEquals("5", row[0]);
+        Assert.assertEquals("TEST_5", row[3]);
+        Assert.assertEquals("plus", row[8]);
+    }
+
+    @Test
+    public void testBlastRowIgnoresDefaultLocale() {
+        KmerHit hit = new KmerHit("1,PLASMID,plasmid1,TEST_1", 1, 300, 1, 300, true, 300, 300, 300);
+        hit.setStatistics(554.5, 1.5e-20);
+
+        Locale locale = Locale.getDefault();
+        Locale.setDefault(Locale.GERMANY);
+        try {
+            String[] row = hit.toBlastRow();
+            Assert.assertEquals("1.50e-20", row[9]);
+            Assert.assertEquals("554.5", row[10]);
+        } finally {
+            Locale.setDefault(locale);
+        }
+    }
+
+    @Test
+    public void testSearchWithMismatches() {
+        char[] query = sequences.get(9).substring(100, 400).toCharArray();
+        for (int i = 20; i < query.length; i += 40)
+            query[i] = query[i] == 'a' ? 'c' : 'a';
+
+        List<KmerHit> hits = engine.search(new String(query), 70);
+        Assert.assertFalse(hits.isEmpty());
+        Assert.assertEquals("10,PLASMID,plasmid10,TEST_10", hits.get(0).getTitle());
+        Assert.assertTrue(hits.get(0).getPercentIdentity() < 100);
+    }
+
+    @Test
+    public void testReverseComplementSearch() {
+        String query = reverseComplement(sequences.get(2).substring(1000, 1200));
+        List<KmerHit> hits = engine.search(query, 70);
+        Assert.assertFalse(hits.isEmpty());
+
+        KmerHit hit = hits.get(0);
+        Assert.assertEquals("3,PLASMID,plasmid3,TEST_3", hit.getTitle());
+        Assert.assertFalse(hit.isPlus());
+        Assert.assertEquals(1, hit.getQueryStart());
+        Assert.assertEquals(200, hit.getQueryEnd());
+        Assert.assertEquals(1200, hit.getSubjectStart());
+        Assert.assertEquals(1001, hit.getSubjectEnd());
+    }
+
+    @Test
+    public void testSearchAcrossOrigin() {
+        String sequence = sequences.get(6);
+        String query = sequence.substring(1900) + sequence.substring(0, 100);
+        List<KmerHit> hits = engine.search(query, 70);
+        Assert.assertFalse(hits.isEmpty());
+        Assert.assertEquals("7,PLASMID,plasmid7,TEST_7", hits.get(0).getTitle());
+        Assert.assertEquals(200, hits.get(0).getLength());
+        Assert.assertEquals(1901, hits.get(0).getSubjectStart());
+        Assert.assertEquals(2100, hits.get(0).getSubjectEnd());
+    }
+
+    @Test
+    public void testIncrementalChanges() throws Exception {
+        String replacement = randomSequence(1500);
+        engine.put("TEST_1", new KmerSubject("1,PLASMID,plasmid1,TEST_1", replacement));
+        engine.remove("TEST_2");
+
+        // old version of updated sequence and removed sequence should not be found
+        Assert.assertFalse(contains(engine.search(sequences.get(0).substring(0, 200), 70), "TEST_1"));
+        Assert.assertFalse(contains(engine.search(sequences.get(1).substring(0, 200), 70), "TEST_2"));
+
+        List<KmerHit> hits = engine.search(replacement.substring(300, 600), 70);
+        Assert.assertEquals("1,PLASMID,plasmid1,TEST_1", hits.get(0).getTitle());
+
+        // changes persist across restarts
+        KmerSearchEngine reloaded = new KmerSearchEngine(folder.getRoot().toPath());
+        Assert.assertEquals(2, reloaded.getPendingChangeCount());
+        Assert.assertFalse(contains(reloaded.search(sequences.get(1).substring(0, 200), 70), "TEST_2"));
+
+        engine.compact();
+        Assert.assertEquals(0, engine.getPendingChangeCount());
+        Assert.assertFalse(contains(engine.search(sequences.get(1).substring(0, 200), 70), "TEST_2"));
+        hits = engine.search(replacement.substring(300, 600), 70);
+        Assert.assertEquals("1,PLASMID,plasmid1,TEST_1", hits.get(0).getTitle());
+        hits = engine.search(sequences.get(19).substring(300, 600), 70);
+        Assert.assertEquals("20,PLASMID,plasmid20,TEST_20", hits.get(0).getTitle());
+    }
+
+    private boolean contains(List<KmerHit> hits, String partNumber) {
+        return hits.stream().anyMatch(hit -> hit.getTitle().endsWith("," + partNumber));
+    }
+
+    private String randomSequence(int length) {
+        char[] bases = {'a', 'c', 'g', 't'};
+        StringBuilder builder = new StringBuilder(length);
+        for (int i = 0; i < length; i += 1)
+            builder.append(bases[random.nextInt(4)]);
+        return builder.toString();
+    }
+
+    private String reverseComplement(String sequence) {
+        byte[] bytes = KmerSearchEngine.reverseComplement(sequence.getBytes(StandardCharsets.US_ASCII));
+        return new String(bytes, StandardCharsets.US_ASCII);
+    }
+}
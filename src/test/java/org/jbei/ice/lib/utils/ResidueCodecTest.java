@@ -0,0 +1,64 @@
+package org.jbei.ice.lib.utils;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.io.Reader;
+
+/**
+ * @author Hector Plahar
+ */
+public class ResidueCodecTest {
+
+    @Test
+    public void testGetEncoding() {
+        Assert.assertEquals(ResidueCodec.Encoding.TWO_BIT, ResidueCodec.getEncoding("acgtacgt"));
+        Assert.assertEquals(ResidueCodec.Encoding.TWO_BIT, ResidueCodec.getEncoding(""));
+        Assert.assertEquals(ResidueCodec.Encoding.DEFLATE, ResidueCodec.getEncoding("acgn"));
+        Assert.assertEquals(ResidueCodec.Encoding.DEFLATE, ResidueCodec.getEncoding("ACGT"));
+        Assert.assertEquals(ResidueCodec.Encoding.DEFLATE, ResidueCodec.getEncoding("MKVLAAGIV"));
+    }
+
+    @Test
+    public void testTwoBit() {
+        for (String residues : new String[]{"", "a", "ct", "gta", "tgca", "acgtacgtt"}) {
+            byte[] data = ResidueCodec.encode(residues, ResidueCodec.Encoding.TWO_BIT);
+            Assert.assertEquals((residues.length() + 3) / 4, data.length);
+            Assert.assertEquals(residues, ResidueCodec.decode(data, ResidueCodec.Encoding.TWO_BIT, residues.length()));
+        }
+
+        boolean caught = false;
+        try {
+            ResidueCodec.encode("acgn", ResidueCodec.Encoding.TWO_BIT);
+        } catch (IllegalArgumentException e) {
+            caught = true;
+        }
+        Assert.assertTrue(caught);
+    }
+
+    @Test
+    public void testDeflate() {
+        String residues = "ACGTNNNNrykmswbdhv";
+        byte[] data = ResidueCodec.encode(residues, ResidueCodec.Encoding.DEFLATE);
+        Assert.assertEquals(residues, ResidueCodec.decode(data, ResidueCodec.Encoding.DEFLATE, residues.length()));
+    }
+
+    @Test
+    public void testGetReader() throws Exception {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < 10001; i += 1)
+            builder.append("acgt".charAt((i * 7) % 4));
+        String residues = builder.toString();
+        byte[] data = ResidueCodec.encode(residues, ResidueCodec.Encoding.TWO_BIT);
+
+        // read in small chunks
+        StringBuilder read = new StringBuilder();
+        char[] buffer = new char[7];
+        try (Reader reader = ResidueCodec.getReader(data, ResidueCodec.Encoding.TWO_BIT, residues.length())) {
+            int count;
+            while ((count = reader.read(buffer)) != -1)
+                read.append(buffer, 0, count);
+        }
+        Assert.assertEquals(residues, read.toString());
+    }
+}
@@ -0,0 +1,153 @@
+package org.jbei.ice.storage.hibernate.dao;
+
+import org.jbei.ice.lib.AccountCreator;
+import org.jbei.ice.lib.TestEntryCreator;
+import org.jbei.ice.lib.dto.folder.FolderType;
+import org.jbei.ice.lib.group.GroupController;
+import org.jbei.ice.storage.DAOFactory;
+import org.jbei.ice.storage.hibernate.HibernateRepositoryTest;
+import org.jbei.ice.storage.model.*;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * @author Hector Plahar
+ */
+public class EntryAccessDAOTest extends HibernateRepositoryTest {
+
+    private EntryAccessDAO dao = new EntryAccessDAO();
+
+    @Test
+    public void testEntryPermission() throws Exception {
+        Account owner = AccountCreator.createTestAccount("EntryAccessDAOTest.testEntryPermission", false);
+        Account account = AccountCreator.createTestAccount("EntryAccessDAOTest.testEntryPermission2", false);
+        Strain strain = TestEntryCreator.createTestStrain(owner);
+        List<Long> groups = Collections.emptyList();
+        Assert.assertFalse(dao.hasAccess(strain.getId(), account.getId(), groups, false));
+
+        // read
+        PermissionDAO permissionDAO = DAOFactory.getPermissionDAO();
+        permissionDAO.create(createPermission(strain, null, account, null, false));
+        Assert.assertTrue(dao.hasAccess(strain.getId(), account.getId(), groups, false));
+        Assert.assertFalse(dao.hasAccess(strain.getId(), account.getId(), groups, true));
+
+        // write
+        Permission write = permissionDAO.create(createPermission(strain, null, account, null, true));
+        Assert.assertTrue(dao.hasAccess(strain.getId(), account.getId(), groups, true));
+
+        permissionDAO.delete(write);
+        Assert.assertFalse(dao.hasAccess(strain.getId(), account.getId(), groups, true));
+        Assert.assertTrue(dao.hasAccess(strain.getId(), account.getId(), groups, false));
+
+        permissionDAO.removePermission(strain, null, null, account, null, true, false);
+        Assert.assertFalse(dao.hasAccess(strain.getId(), account.getId(), groups, false));
+    }
+
+    @Test
+    public void testFolderPermission() throws Exception {
+        Account owner = AccountCreator.createTestAccount("EntryAccessDAOTest.testFolderPermission", false);
+        Account account = AccountCreator.createTestAccount("EntryAccessDAOTest.testFolderPermission2", false);
+        Strain strain = TestEntryCreator.createTestStrain(owner);
+        Plasmid plasmid = TestEntryCreator.createTestPlasmid(owner);
+        List<Long> groups = Collections.emptyList();
+
+        FolderDAO folderDAO = DAOFactory.getFolderDAO();
+        Folder folder = new Folder();
+        folder.setName("test");
+        folder.setType(FolderType.PRIVATE);
+        folder.setOwnerEmail(owner.getEmail());
+        folder = folderDAO.create(folder);
+        folder = folderDAO.addFolderContents(folder, Collections.singletonList(strain));
+
+        // entries in folder at the time of the permission
+        DAOFactory.getPermissionDAO().create(createPermission(null, folder, account, null, true));
+        Assert.assertTrue(dao.hasAccess(strain.getId(), account.getId(), groups, true));
+        Assert.assertFalse(dao.hasAccess(plasmid.getId(), account.getId(), groups, false));
+
+        // entries added to folder
+        folder = folderDAO.addFolderContents(folder, Collections.singletonList(plasmid));
+        Assert.assertTrue(dao.hasAccess(plasmid.getId(), account.getId(), groups, true));
+        List<Long> entries = Arrays.asList(strain.getId(), plasmid.getId());
+        Assert.assertEquals(2, dao.getCanReadEntries(account, groups, entries).size());
+
+        // entries removed from folder
+        folderDAO.removeFolderEntries(folder, Collections.singletonList(strain.getId()));
+        Assert.assertFalse(dao.hasAccess(strain.getId(), account.getId(), groups, false));
+        Assert.assertTrue(dao.hasAccess(plasmid.getId(), account.getId(), groups, false));
+
+        DAOFactory.getPermissionDAO().clearPermissions(folder);
+        Assert.assertFalse(dao.hasAccess(plasmid.getId(), account.getId(), groups, false));
+
+        // owner can read regardless
+        Assert.assertEquals(2, dao.getCanReadEntries(owner, groups, entries).size());
+    }
+
+    @Test
+    public void testPublicFolder() throws Exception {
+        Account owner = AccountCreator.createTestAccount("EntryAccessDAOTest.testPublicFolder", false);
+        Account account = AccountCreator.createTestAccount("EntryAccessDAOTest.testPublicFolder2", false);
+        Strain strain = TestEntryCreator.createTestStrain(owner);
+        Group publicGroup = new GroupController().createOrRetrievePublicGroup();
+        List<Long> groups = Collections.singletonList(publicGroup.getId());
+
+        FolderDAO folderDAO = DAOFactory.getFolderDAO();
+        Folder folder = new Folder();
+        folder.setName("test");
+        folder.setType(FolderType.PRIVATE);
+        folder.setOwnerEmail(owner.getEmail());
+        folder = folderDAO.create(folder);
+        folder = folderDAO.addFolderContents(folder, Collections.singletonList(strain));
+        Assert.assertFalse(dao.hasAccess(strain.getId(), account.getId(), groups, false));
+
+        folder.setType(FolderType.PUBLIC);
+        folder = folderDAO.update(folder);
+        Assert.assertTrue(dao.hasAccess(strain.getId(), account.getId(), groups, false));
+        Assert.assertFalse(dao.hasAccess(strain.getId(), account.getId(), groups, true));
+
+        folder.setType(FolderType.PRIVATE);
+        folder = folderDAO.update(folder);
+        Assert.assertFalse(dao.hasAccess(strain.getId(), account.getId(), groups, false));
+
+        // derived from existing permissions
+        DAOFactory.getPermissionDAO().create(createPermission(strain, null, null, publicGroup, false));
+        dao.rebuild();
+        Assert.assertTrue(dao.hasAccess(strain.getId(), account.getId(), groups, false));
+    }
+
+    @Test
+    public void testGetCanWriteEntries() throws Exception {
+        Account owner = AccountCreator.createTestAccount("EntryAccessDAOTest.testGetCanWriteEntries", false);
+        Account account = AccountCreator.createTestAccount("EntryAccessDAOTest.testGetCanWriteEntries2", false);
+        Strain strain = TestEntryCreator.createTestStrain(owner);
+        Plasmid plasmid = TestEntryCreator.createTestPlasmid(owner);
+        List<Long> groups = Collections.emptyList();
+        List<Long> entries = Arrays.asList(strain.getId(), plasmid.getId(), 0L);
+
+        Assert.assertEquals(2, dao.getCanWriteEntries(owner, groups, entries).size());
+        Assert.assertTrue(dao.getCanWriteEntries(account, groups, entries).isEmpty());
+
+        // read access only
+        PermissionDAO permissionDAO = DAOFactory.getPermissionDAO();
+        permissionDAO.create(createPermission(strain, null, account, null, false));
+        Assert.assertTrue(dao.getCanWriteEntries(account, groups, entries).isEmpty());
+
+        permissionDAO.create(createPermission(plasmid, null, account, null, true));
+        Assert.assertEquals(Collections.singletonList(plasmid.getId()),
+                dao.getCanWriteEntries(account, groups, entries));
+    }
+
+    private Permission createPermission(Entry entry, Folder folder, Account account, Group group, boolean write) {
+        Permission permission = new Permission();
+        permission.setEntry(entry);
+        permission.setFolder(folder);
+        permission.setAccount(account);
+        permission.setGroup(group);
+        permission.setCanRead(!write);
+        permission.setCanWrite(write);
+        return permission;
+    }
+}
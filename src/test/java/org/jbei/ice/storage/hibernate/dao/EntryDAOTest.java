@@ -2,9 +2,12 @@ package org.jbei.ice.storage.hibernate.dao;
 
 import org.jbei.ice.lib.AccountCreator;
 import org.jbei.ice.lib.TestEntryCreator;
+import org.jbei.ice.lib.dto.common.CursorPage;
+import org.jbei.ice.lib.dto.common.PageCursor;
 import org.jbei.ice.lib.dto.entry.EntryType;
 import org.jbei.ice.lib.dto.entry.PartData;
 import org.jbei.ice.lib.entry.Entries;
+import org.jbei.ice.lib.shared.ColumnField;
 import org.jbei.ice.storage.hibernate.HibernateRepositoryTest;
 import org.jbei.ice.storage.model.Account;
 import org.jbei.ice.storage.model.Entry;
@@ -12,6 +15,7 @@ import org.junit.Assert;
 import org.junit.Test;
 
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.List;
 import java.util.Random;
 
@@ -105,4 +109,91 @@ public class EntryDAOTest extends HibernateRepositoryTest {
         Assert.assertTrue(ids.removeAll(created));
         Assert.assertTrue(ids.isEmpty());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testRetrieveOwnerEntriesWithCursor() throws Exception {
+        Account account = AccountCreator.createTestAccount("EntryDAOTest.testRetrieveOwnerEntriesWithCursor", false);
+        List<Long> created = new ArrayList<>();
+        for (int i = 0; i < 7; i += 1)
+            created.add(TestEntryCreator.createTestPart(account.getEmail()));
+
+        // page through in pages of 3
+        List<Long> retrieved = new ArrayList<>();
+        PageCursor cursor = PageCursor.first(ColumnField.CREATED, true);
+        int pages = 0;
+        while (cursor != null) {
+            CursorPage page = entryDAO.retrieveOwnerEntries(account.getEmail(), cursor, 3, null);
+            retrieved.addAll(page.getIds());
+            cursor = page.next(created.size());
+            pages += 1;
+            Assert.assertTrue(pages <= 3);
+        }
+        Assert.assertEquals(created, retrieved);
+
+        // descending by name (all test parts have the same name so the id breaks the ties)
+        retrieved.clear();
+        cursor = PageCursor.first(ColumnField.NAME, false);
+        while (cursor != null) {
+            CursorPage page = entryDAO.retrieveOwnerEntries(account.getEmail(), cursor, 3, null);
+            retrieved.addAll(page.getIds());
+            cursor = page.next(created.size());
+        }
+        Collections.reverse(created);
+        Assert.assertEquals(created, retrieved);
+    }
+
+    @Test
+    public void testRetrieveOwnerEntriesWithCursorAndNullValues() throws Exception {
+        Account account = AccountCreator.createTestAccount("EntryDAOTest.testRetrieveOwnerEntriesWithCursorAndNull",
+                false);
+        String[] aliases = {"b", null, "a", null, "b"};
+        List<Long> created = new ArrayList<>();
+        for (String alias : aliases) {
+            long id = TestEntryCreator.createTestPart(account.getEmail());
+            Entry entry = entryDAO.get(id);
+            entry.setAlias(alias);
+            entryDAO.update(entry);
+            created.add(id);
+        }
+
+        // entries with an alias in alias then id order, followed by those without one in id order
+        List<Long> expected = new ArrayList<>();
+        expected.add(created.get(2));
+        expected.add(created.get(0));
+        expected.add(created.get(4));
+        expected.add(created.get(1));
+        expected.add(created.get(3));
+
+        for (int limit = 1; limit <= 5; limit += 1) {
+            List<Long> retrieved = new ArrayList<>();
+            PageCursor cursor = PageCursor.first(ColumnField.ALIAS, true);
+            while (cursor != null) {
+                CursorPage page = entryDAO.retrieveOwnerEntries(account.getEmail(), cursor, limit, null);
+                retrieved.addAll(page.getIds());
+                cursor = page.next(created.size());
+                if (cursor != null)
+                    cursor = PageCursor.decode(cursor.encode());
+            }
+            Assert.assertEquals(expected, retrieved);
+        }
+    }
+
+    @Test
+    public void testFilter() throws Exception {
+        Account account = AccountCreator.createTestAccount("EntryDAOTest.testFilter", false);
+        long id = TestEntryCreator.createTestPart(account.getEmail());
+        Entry entry = entryDAO.get(id);
+        String email = account.getEmail();
+
+        // matches substring of name (case insensitive) or part number
+        String filter = "PTEST " + email.substring(0, 5);
+        Assert.assertEquals(1, entryDAO.retrieveOwnerEntries(email, null, true, 0, 10, filter).size());
+        Assert.assertEquals(1, entryDAO.retrieveOwnerEntries(email, null, true, 0, 10, entry.getPartNumber()).size());
+        Assert.assertTrue(entryDAO.retrieveOwnerEntries(email, null, true, 0, 10, "pTest x").isEmpty());
+
+        // wildcards are matched literally
+        Assert.assertTrue(entryDAO.retrieveOwnerEntries(email, null, true, 0, 10, "%").isEmpty());
+        Assert.assertTrue(entryDAO.retrieveOwnerEntries(email, null, true, 0, 10, "pTest_").isEmpty());
+        Assert.assertEquals("%a\\\\b\\%\\_%", SubstringFilter.pattern(" A\\B%_ "));
+    }
+}
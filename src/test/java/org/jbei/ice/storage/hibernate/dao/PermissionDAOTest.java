@@ -1,13 +1,18 @@
 package org.jbei.ice.storage.hibernate.dao;
 
+import org.hibernate.Session;
 import org.jbei.ice.lib.AccountCreator;
+import org.jbei.ice.lib.TestEntryCreator;
 import org.jbei.ice.lib.dto.folder.FolderType;
 import org.jbei.ice.storage.DAOFactory;
 import org.jbei.ice.storage.hibernate.HibernateRepositoryTest;
+import org.jbei.ice.storage.hibernate.HibernateUtil;
 import org.jbei.ice.storage.model.*;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.util.Arrays;
+import java.util.Collections;
 import java.util.List;
 
 public class PermissionDAOTest extends HibernateRepositoryTest {
@@ -59,4 +64,39 @@ public class PermissionDAOTest extends HibernateRepositoryTest {
         List<Permission> results = dao.getFolderPermissions(folder);
         Assert.assertNotNull(results);
     }
+
+    @Test
+    public void testCreateAndRemoveEntryPermissions() throws Exception {
+        Account owner = AccountCreator.createTestAccount("PermissionDAOTest.testCreateAndRemoveEntryPermissions", false);
+        Account account = AccountCreator.createTestAccount("PermissionDAOTest.testCreateAndRemoveEntryPermissions2",
+                false);
+        Strain strain = TestEntryCreator.createTestStrain(owner);
+        Plasmid plasmid = TestEntryCreator.createTestPlasmid(owner);
+        Session session = HibernateUtil.getSessionFactory().getCurrentSession();
+
+        // existing permission is not duplicated
+        Permission permission = new Permission();
+        permission.setEntry(strain);
+        permission.setAccount(account);
+        permission.setCanRead(true);
+        dao.create(permission);
+
+        List<Long> entries = Arrays.asList(strain.getId(), plasmid.getId(), 0L);
+        List<Long> created = dao.createEntryPermissions(session, entries, account, null, true, false);
+        Assert.assertEquals(Collections.singletonList(plasmid.getId()), created);
+        Assert.assertTrue(dao.hasPermission(plasmid, null, null, account, null, true, false));
+        Assert.assertTrue(DAOFactory.getEntryAccessDAO().hasAccess(plasmid.getId(), account.getId(),
+                Collections.emptyList(), false));
+        Assert.assertTrue(dao.createEntryPermissions(session, entries, account, null, true, false).isEmpty());
+
+        // write permission is a separate permission
+        Assert.assertEquals(2, dao.createEntryPermissions(session, entries, account, null, false, true).size());
+
+        List<Long> removed = dao.removeEntryPermissions(session, entries, account, null, true, false);
+        Assert.assertEquals(2, removed.size());
+        Assert.assertFalse(dao.hasPermission(strain, null, null, account, null, true, false));
+        Assert.assertFalse(dao.hasPermission(plasmid, null, null, account, null, true, false));
+        Assert.assertTrue(dao.hasPermission(plasmid, null, null, account, null, false, true));
+        Assert.assertTrue(dao.removeEntryPermissions(session, entries, account, null, true, false).isEmpty());
+    }
 }
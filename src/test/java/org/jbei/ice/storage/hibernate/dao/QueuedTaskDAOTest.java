@@ -0,0 +1,99 @@
+package org.jbei.ice.storage.hibernate.dao;
+
+import org.jbei.ice.lib.executor.TaskLane;
+import org.jbei.ice.lib.executor.TaskStatus;
+import org.jbei.ice.lib.executor.TaskType;
+import org.jbei.ice.storage.hibernate.HibernateRepositoryTest;
+import org.jbei.ice.storage.hibernate.HibernateUtil;
+import org.jbei.ice.storage.model.QueuedTaskModel;
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.Collections;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * @author Hector Plahar
+ */
+public class QueuedTaskDAOTest extends HibernateRepositoryTest {
+
+    private QueuedTaskDAO dao = new QueuedTaskDAO();
+
+    @Test
+    public void testGetAvailable() {
+        Date now = new Date();
+        QueuedTaskModel low = createTask("low", 0, now);
+        QueuedTaskModel high = createTask("high", 10, now);
+        createTask("later", 10, new Date(now.getTime() + 60000));
+
+        List<QueuedTaskModel> available = dao.getAvailable(now, 10);
+        Assert.assertTrue(available.indexOf(high) < available.indexOf(low));
+        Assert.assertTrue(available.stream().noneMatch(task -> "later".equals(task.getTaskKey())));
+        Assert.assertEquals(1, dao.getAvailable(now, 1).size());
+    }
+
+    @Test
+    public void testLease() {
+        Date now = new Date();
+        QueuedTaskModel task = createTask("lease", 5, now);
+        Date expires = new Date(now.getTime() + 60000);
+
+        // only one node can lease the task
+        Assert.assertTrue(dao.lease(task.getId(), "node1", now, expires));
+        Assert.assertFalse(dao.lease(task.getId(), "node2", now, expires));
+        Assert.assertFalse(dao.getAvailable(now, 100).stream().anyMatch(t -> t.getId() == task.getId()));
+
+        // lease can be acquired by another node after it expires
+        Date later = new Date(expires.getTime() + 1);
+        Assert.assertTrue(dao.lease(task.getId(), "node2", later, new Date(later.getTime() + 60000)));
+
+        // only the owner can release
+        Assert.assertEquals(0, dao.release("node1", Collections.singletonList(task.getId())));
+        Assert.assertEquals(1, dao.release("node2", Collections.singletonList(task.getId())));
+        Assert.assertTrue(dao.lease(task.getId(), "node1", later, expires));
+    }
+
+    @Test
+    public void testFinish() {
+        Date now = new Date();
+        QueuedTaskModel task = createTask("finish", 5, now);
+        Date expires = new Date(now.getTime() + 60000);
+
+        // only a leased task can be finished, and only by the lease owner
+        Assert.assertFalse(dao.finish(task.getId(), "node1", TaskStatus.COMPLETED, null, now));
+        Assert.assertTrue(dao.lease(task.getId(), "node1", now, expires));
+        Assert.assertFalse(dao.finish(task.getId(), "node2", TaskStatus.COMPLETED, null, now));
+        Assert.assertTrue(dao.finish(task.getId(), "node1", TaskStatus.EXCEPTION, "error", now));
+        Assert.assertFalse(dao.finish(task.getId(), "node1", TaskStatus.COMPLETED, null, now));
+
+        HibernateUtil.getSessionFactory().getCurrentSession().refresh(task);
+        Assert.assertEquals(TaskStatus.EXCEPTION, task.getStatus());
+        Assert.assertEquals("error", task.getLastError());
+        Assert.assertNull(task.getLeaseOwner());
+    }
+
+    @Test
+    public void testHasPending() {
+        Date now = new Date();
+        QueuedTaskModel task = createTask("QueuedTaskDAOTest.testHasPending", 5, now);
+        Assert.assertTrue(dao.hasPending("QueuedTaskDAOTest.testHasPending"));
+        Assert.assertFalse(dao.hasPending("QueuedTaskDAOTest.unknown"));
+
+        Assert.assertTrue(dao.lease(task.getId(), "node1", now, new Date(now.getTime() + 60000)));
+        Assert.assertFalse(dao.hasPending("QueuedTaskDAOTest.testHasPending"));
+    }
+
+    private QueuedTaskModel createTask(String key, int priority, Date availableAt) {
+        QueuedTaskModel model = new QueuedTaskModel();
+        model.setType(TaskType.LUCENE_INDEX);
+        model.setTaskKey(key);
+        model.setLane(TaskLane.INDEXING);
+        model.setPriority(priority);
+        model.setStatus(TaskStatus.PENDING);
+        model.setAvailableAt(availableAt);
+        model.setCreationTime(new Date());
+        model.setModificationTime(new Date());
+        return dao.create(model);
+    }
+}
@@ -6,6 +6,7 @@ import org.jbei.ice.lib.dto.FeaturedDNASequence;
 import org.jbei.ice.lib.entry.sequence.SequenceUtil;
 import org.jbei.ice.lib.parsers.GeneralParser;
 import org.jbei.ice.storage.hibernate.HibernateRepositoryTest;
+import org.jbei.ice.storage.hibernate.HibernateUtil;
 import org.jbei.ice.storage.model.Account;
 import org.jbei.ice.storage.model.Plasmid;
 import org.jbei.ice.storage.model.Sequence;
@@ -13,7 +14,10 @@ import org.jbei.ice.storage.model.Strain;
 import org.junit.Assert;
 import org.junit.Test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Optional;
+import java.util.Set;
 
 /**
  * @author Hector Plahar
@@ -196,6 +200,23 @@ public class SequenceDAOTest extends HibernateRepositoryTest {
         Assert.assertTrue(sequenceDAO.hasSequence(plasmid3.getId()));
     }
 
+    @Test
+    public void testGetEntryIdsWithSequence() throws Exception {
+        Account account = AccountCreator.createTestAccount("SequenceDAOTest.testGetEntryIdsWithSequence", false);
+        Plasmid plasmid1 = TestEntryCreator.createTestPlasmid(account);
+        Plasmid plasmid2 = TestEntryCreator.createTestPlasmid(account);
+
+        FeaturedDNASequence dnaSequence = GeneralParser.parse(sequenceString);
+        Sequence sequence = SequenceUtil.dnaSequenceToSequence(dnaSequence);
+        sequence.setEntry(plasmid1);
+        sequenceDAO.create(sequence);
+
+        Set<Long> ids = sequenceDAO.getEntryIdsWithSequence(Arrays.asList(plasmid1.getId(), plasmid2.getId()));
+        Assert.assertEquals(1, ids.size());
+        Assert.assertTrue(ids.contains(plasmid1.getId()));
+        Assert.assertTrue(sequenceDAO.getEntryIdsWithSequence(new ArrayList<>()).isEmpty());
+    }
+
     @Test
     public void testGetSequenceFilename() throws Exception {
         Account account = AccountCreator.createTestAccount("SequenceDAOTest.testGetSequenceFilename", false);
@@ -265,6 +286,33 @@ public class SequenceDAOTest extends HibernateRepositoryTest {
         Assert.assertNotNull(sequenceDAO.getSequence(0));
     }
 
+    @Test
+    public void testSharePackedSequence() throws Exception {
+        Account account = AccountCreator.createTestAccount("SequenceDAOTest.testSharePackedSequence", false);
+        Plasmid plasmid = TestEntryCreator.createTestPlasmid(account);
+        Plasmid plasmid2 = TestEntryCreator.createTestPlasmid(account);
+
+        Sequence sequence = SequenceUtil.dnaSequenceToSequence(GeneralParser.parse(sequenceString));
+        sequence.setEntry(plasmid);
+        sequence = sequenceDAO.create(sequence);
+        Assert.assertNotNull(sequence.getPackedSequence());
+
+        // same residues share the packed sequence
+        Sequence sequence2 = SequenceUtil.dnaSequenceToSequence(GeneralParser.parse(sequenceString));
+        sequence2.setEntry(plasmid2);
+        sequence2 = sequenceDAO.create(sequence2);
+        Assert.assertEquals(sequence.getPackedSequence().getId(), sequence2.getPackedSequence().getId());
+        String residues = sequence.getSequence();
+        Assert.assertNotNull(residues);
+
+        // residues are available once the sequence is detached
+        HibernateUtil.getSessionFactory().getCurrentSession().flush();
+        HibernateUtil.getSessionFactory().getCurrentSession().clear();
+        Sequence result = sequenceDAO.get(sequence.getId());
+        HibernateUtil.getSessionFactory().getCurrentSession().evict(result);
+        Assert.assertEquals(residues, result.getSequence());
+    }
+
     @Test
     public void testGetSequenceCount() throws Exception {
         Account account = AccountCreator.createTestAccount("SequenceDAOTest.testGetSequenceCount", false);